@@ -0,0 +1,164 @@
+package com.wynntils.antiope.benchmark;
+
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
+import com.wynntils.antiope.manager.activity.type.ActivityPool;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import com.wynntils.antiope.manager.activity.type.ActivityType;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Cost of building an activity in each of its representations and of sending it to the SDK.</p>
+ * <p>The {@code build} benchmarks reuse their objects, like a game updating its presence, so with the GC profiler
+ * they show what the setters themselves allocate. The {@code update} benchmarks include completing the callback.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityBenchmark {
+    @State(Scope.Thread)
+    public static class Activities {
+        // a few distinct values, so that nothing can be skipped because it did not change
+        private static final String[] STATES = {"In the lobby", "Level 1", "Level 2", "Boss fight"};
+        private static final String[] DETAILS = {"Solo", "Party of 2", "Party of 3", "Party of 4"};
+        private static final Instant START = Instant.ofEpochSecond(1_700_000_000L);
+
+        Activity activity;
+        ActivityBuffer buffer;
+        ActivitySpec spec;
+        ActivityPool pool;
+        int index;
+
+        // CoreState loads the library that Activity allocates its native memory with
+        @Setup(Level.Trial)
+        public void setUp(CoreState core) {
+            activity = new Activity();
+            buffer = new ActivityBuffer();
+            fillActivity(this);
+            fillBuffer(this);
+            spec = activity.snapshot();
+            pool = new ActivityPool(1);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            activity.close();
+            pool.close();
+        }
+
+        String state() {
+            return STATES[index++ & (STATES.length - 1)];
+        }
+
+        String details() {
+            return DETAILS[index & (DETAILS.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public Activity setState(Activities activities) {
+        activities.activity.setState(activities.state());
+        return activities.activity;
+    }
+
+    @Benchmark
+    public Activity buildActivity(Activities activities) {
+        return fillActivity(activities);
+    }
+
+    @Benchmark
+    public void buildNewActivity(Activities activities) {
+        try (Activity activity = new Activity()) {
+            fillActivity(activity, activities);
+        }
+    }
+
+    @Benchmark
+    public void buildPooledActivity(Activities activities) {
+        try (Activity activity = activities.pool.acquire()) {
+            fillActivity(activity, activities);
+        }
+    }
+
+    @Benchmark
+    public ActivitySpec buildSpec(Activities activities) {
+        return ActivitySpec.builder()
+                .setState(activities.state())
+                .setDetails(activities.details())
+                .setType(ActivityType.PLAYING)
+                .setStart(Activities.START)
+                .setLargeImage("map")
+                .setLargeText("Somewhere")
+                .setPartyId("party")
+                .setPartySize(1 + (activities.index & 3), 4)
+                .build();
+    }
+
+    @Benchmark
+    public ActivityBuffer buildBuffer(Activities activities) {
+        return fillBuffer(activities);
+    }
+
+    @Benchmark
+    public void updateActivity(CoreState state, Activities activities) {
+        state.core.activityManager().updateActivity(activities.activity, CoreState.IGNORE);
+        state.core.runCallbacks();
+    }
+
+    @Benchmark
+    public void updateActivitySpec(CoreState state, Activities activities) {
+        state.core.activityManager().updateActivity(activities.spec, CoreState.IGNORE);
+        state.core.runCallbacks();
+    }
+
+    @Benchmark
+    public void updateActivityBuffer(CoreState state, Activities activities) {
+        state.core.activityManager().updateActivity(activities.buffer, CoreState.IGNORE);
+        state.core.runCallbacks();
+    }
+
+    private static Activity fillActivity(Activities activities) {
+        return fillActivity(activities.activity, activities);
+    }
+
+    private static Activity fillActivity(Activity activity, Activities activities) {
+        activity.setState(activities.state());
+        activity.setDetails(activities.details());
+        activity.setType(ActivityType.PLAYING);
+        activity.timestamps().setStart(Activities.START);
+        activity.assets().setLargeImage("map");
+        activity.assets().setLargeText("Somewhere");
+        activity.party().setID("party");
+        activity.party().size().setCurrentSize(1 + (activities.index & 3));
+        activity.party().size().setMaxSize(4);
+        return activity;
+    }
+
+    private static ActivityBuffer fillBuffer(Activities activities) {
+        ActivityBuffer buffer = activities.buffer;
+        buffer.setState(activities.state());
+        buffer.setDetails(activities.details());
+        buffer.setType(ActivityType.PLAYING);
+        buffer.setStart(Activities.START);
+        buffer.setLargeImage("map");
+        buffer.setLargeText("Somewhere");
+        buffer.setPartyId("party");
+        buffer.setPartySize(1 + (activities.index & 3), 4);
+        return buffer;
+    }
+}
@@ -0,0 +1,23 @@
+package com.wynntils.antiope.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the benchmarks with the GC profiler, so that every result comes with its allocation rate.</p>
+ * <p>Takes the usual JMH command line options, e.g. {@code java -jar benchmarks.jar Execute -t 4}.</p>
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                        .parent(commandLine)
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+}
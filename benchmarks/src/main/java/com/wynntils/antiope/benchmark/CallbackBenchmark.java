@@ -0,0 +1,49 @@
+package com.wynntils.antiope.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Throughput of requests that complete through a callback, from sending them until the callback ran.</p>
+ * <p>Without a configured latency, the stub completes every request during the next {@code runCallbacks()}, so a batch measures the
+ * bindings' cost per callback: the pooled callback record, the upcall and the result lookup.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallbackBenchmark {
+    private static final int BATCH = 64;
+
+    @Benchmark
+    public void single(CoreState state) {
+        state.core.activityManager().clearActivity(CoreState.IGNORE);
+        state.core.runCallbacks();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batch(CoreState state) {
+        for (int i = 0; i < BATCH; i++) {
+            state.core.activityManager().clearActivity(CoreState.IGNORE);
+        }
+        state.core.runCallbacks();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batchAsync(CoreState state) {
+        for (int i = 0; i < BATCH; i++) {
+            state.core.activityManager().clearActivityAsync(Runnable::run);
+        }
+        state.core.runCallbacks();
+    }
+}
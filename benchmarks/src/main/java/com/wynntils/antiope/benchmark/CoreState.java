@@ -0,0 +1,41 @@
+package com.wynntils.antiope.benchmark;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A core running against the stub library, shared by all threads of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class CoreState {
+    /**
+     * Callback that ignores the result, so that only the bindings are measured.
+     */
+    public static final Consumer<Result> IGNORE = result -> {};
+
+    public DiscordGameSDKCore core;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DiscordGameSDKCore.loadLibrary();
+
+        CreateParams params = new CreateParams();
+        params.setClientID(1L);
+        params.setFlags(CreateParams.getNoRequireDiscordFlags());
+        core = new DiscordGameSDKCore(params);
+        core.setLogHook(LogLevel.ERROR, (level, message) -> {});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        core.close();
+    }
+}
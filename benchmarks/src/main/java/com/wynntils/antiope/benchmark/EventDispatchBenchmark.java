@@ -0,0 +1,79 @@
+package com.wynntils.antiope.benchmark;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.event.DiscordEventHandler;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.user.DiscordUser;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>Fan-out of events from a {@link DiscordEventHandler} to its listeners.</p>
+ * <p>The handler is called directly, the way the native event hooks call it.
+ * Every listener consumes the event, so the cost is dispatch plus one call per listener.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventDispatchBenchmark {
+    private static final String SECRET = "join-secret";
+    private static final DiscordUser USER = new DiscordUser(42L, "someone", "0001", "avatar", false);
+
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    private DiscordEventHandler lambdas;
+    private DiscordEventHandler adapters;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        lambdas = new DiscordEventHandler();
+        adapters = new DiscordEventHandler();
+        for (int i = 0; i < listeners; i++) {
+            lambdas.addListener(DiscordEventType.ACTIVITY_JOIN, blackhole::consume);
+            lambdas.addListener(DiscordEventType.ACTIVITY_JOIN_REQUEST, blackhole::consume);
+            adapters.addListener(new DiscordEventAdapter() {
+                @Override
+                public void onActivityJoin(String secret) {
+                    blackhole.consume(secret);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public void activityJoin() {
+        lambdas.onActivityJoin(SECRET);
+    }
+
+    @Benchmark
+    public void activityJoinRequest() {
+        lambdas.onActivityJoinRequest(USER);
+    }
+
+    @Benchmark
+    public void activityJoinAdapters() {
+        adapters.onActivityJoin(SECRET);
+    }
+
+    @Benchmark
+    public void withoutListeners() {
+        // an event type nobody registered for, natively it would not even be called
+        lambdas.onOverlayToggle(true);
+    }
+}
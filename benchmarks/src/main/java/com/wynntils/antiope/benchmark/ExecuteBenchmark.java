@@ -0,0 +1,52 @@
+package com.wynntils.antiope.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Throughput of synchronous operations on the core.</p>
+ * <p>{@code isLocked()} is a cheap native call, so these benchmarks mostly measure acquiring the core
+ * through {@code execute()}, alone and with other threads competing for it.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteBenchmark {
+    @Benchmark
+    @Threads(1)
+    public boolean uncontended(CoreState state) {
+        return state.core.overlayManager().isLocked();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contended(CoreState state) {
+        return state.core.overlayManager().isLocked();
+    }
+
+    // three callers competing with a thread that keeps running the callbacks, like a game with a callback pump
+    @Benchmark
+    @Group("withRunCallbacks")
+    @GroupThreads(3)
+    public boolean caller(CoreState state) {
+        return state.core.overlayManager().isLocked();
+    }
+
+    @Benchmark
+    @Group("withRunCallbacks")
+    @GroupThreads(1)
+    public void runCallbacks(CoreState state) {
+        state.core.runCallbacks();
+    }
+}
@@ -0,0 +1,74 @@
+#include <string.h>
+
+#include "ActivitySpec.h"
+
+static char* string_field(struct DiscordActivity *activity, int index)
+{
+	switch(index)
+	{
+		case 0: return activity->name;
+		case 1: return activity->state;
+		case 2: return activity->details;
+		case 3: return activity->assets.large_image;
+		case 4: return activity->assets.large_text;
+		case 5: return activity->assets.small_image;
+		case 6: return activity->assets.small_text;
+		case 7: return activity->party.id;
+		case 8: return activity->secrets.match;
+		case 9: return activity->secrets.join;
+		case 10: return activity->secrets.spectate;
+	}
+	return NULL;
+}
+
+void activity_from_spec(JNIEnv *env, struct DiscordActivity *activity, jbyteArray strings, jlongArray numbers)
+{
+	char buffer[ACTIVITY_SPEC_STRING_COUNT * ACTIVITY_SPEC_STRING_SIZE];
+	jlong values[ACTIVITY_SPEC_NUMBER_COUNT];
+	
+	(*env)->GetByteArrayRegion(env, strings, 0, sizeof(buffer), (jbyte*) buffer);
+	(*env)->GetLongArrayRegion(env, numbers, 0, ACTIVITY_SPEC_NUMBER_COUNT, values);
+	if((*env)->ExceptionCheck(env))
+		return;
+	
+	for(int i = 0; i < ACTIVITY_SPEC_STRING_COUNT; i++)
+	{
+		char* field = string_field(activity, i);
+		memcpy(field, buffer + i * ACTIVITY_SPEC_STRING_SIZE, ACTIVITY_SPEC_STRING_SIZE);
+		field[ACTIVITY_SPEC_STRING_SIZE - 1] = '\0';
+	}
+	
+	activity->type = values[0];
+	activity->application_id = values[1];
+	activity->timestamps.start = values[2];
+	activity->timestamps.end = values[3];
+	activity->party.size.current_size = values[4];
+	activity->party.size.max_size = values[5];
+	activity->instance = values[6] != 0;
+}
+
+void activity_to_spec(JNIEnv *env, const struct DiscordActivity *activity, jbyteArray strings, jlongArray numbers)
+{
+	char buffer[ACTIVITY_SPEC_STRING_COUNT * ACTIVITY_SPEC_STRING_SIZE];
+	memset(buffer, 0, sizeof(buffer));
+	
+	for(int i = 0; i < ACTIVITY_SPEC_STRING_COUNT; i++)
+	{
+		// only copy up to the terminator, so equal activities give equal arrays
+		const char* field = string_field((struct DiscordActivity*) activity, i);
+		memcpy(buffer + i * ACTIVITY_SPEC_STRING_SIZE, field, strnlen(field, ACTIVITY_SPEC_STRING_SIZE - 1));
+	}
+	
+	jlong values[ACTIVITY_SPEC_NUMBER_COUNT] = {
+		activity->type,
+		activity->application_id,
+		activity->timestamps.start,
+		activity->timestamps.end,
+		activity->party.size.current_size,
+		activity->party.size.max_size,
+		activity->instance
+	};
+	
+	(*env)->SetByteArrayRegion(env, strings, 0, sizeof(buffer), (jbyte*) buffer);
+	(*env)->SetLongArrayRegion(env, numbers, 0, ACTIVITY_SPEC_NUMBER_COUNT, values);
+}
@@ -0,0 +1,19 @@
+#ifndef ACTIVITY_SPEC_H
+#define ACTIVITY_SPEC_H
+
+#include <jni.h>
+#include <discord_game_sdk.h>
+
+/*
+ * An ActivitySpec crosses JNI as two arrays:
+ * all strings UTF-8 encoded in fixed slots of ACTIVITY_SPEC_STRING_SIZE bytes and all numbers in a long array.
+ * The order must match ActivitySpec.java.
+ */
+#define ACTIVITY_SPEC_STRING_SIZE 128
+#define ACTIVITY_SPEC_STRING_COUNT 11
+#define ACTIVITY_SPEC_NUMBER_COUNT 7
+
+void activity_from_spec(JNIEnv *env, struct DiscordActivity *activity, jbyteArray strings, jlongArray numbers);
+void activity_to_spec(JNIEnv *env, const struct DiscordActivity *activity, jbyteArray strings, jlongArray numbers);
+
+#endif
@@ -1,38 +1,39 @@
 #include <stdlib.h>
 
 #include "Callback.h"
+#include "JniCache.h"
+#include "ThreadAttachment.h"
 
 void simple_callback(void* data, enum EDiscordResult result)
 {
 	struct CallbackData* cbd = (struct CallbackData*)data;
+	metrics_record_callback(callback_pool_metrics(cbd->pool), cbd->operation, cbd->start, result);
 	
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(cbd->jvm))->AttachCurrentThread(cbd->jvm, (void**)&env, &args);
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return; // the record stays in use, so closing the pool can still delete the global reference
+	JNIEnv* env = upcall.env;
 	
-	jclass result_clazz = (*env)->FindClass(env, "com/wynntils/antiope/core/type/Result");
-	jmethodID values_method = (*env)->GetStaticMethodID(env, result_clazz, "values", "()[Lcom/wynntils/antiope/core/type/Result;");
-	jobjectArray values = (jobjectArray) (*env)->CallStaticObjectMethod(env, result_clazz, values_method);
-	jobject result_object = (*env)->GetObjectArrayElement(env, values, result);
+	(*env)->CallVoidMethod(env, cbd->callback, jni_cache.consumer_accept, jni_result(result));
 	
-	jclass clazz = (*env)->GetObjectClass(env, cbd->callback);
-	
-	jmethodID method = (*env)->GetMethodID(env, clazz, "accept", "(Ljava/lang/Object;)V");
-	(*env)->CallVoidMethod(env, cbd->callback, method, result_object);
+	end_upcall(&upcall);
 	
 	(*env)->DeleteGlobalRef(env, cbd->callback);
-	
-	(*(cbd->jvm))->DetachCurrentThread(cbd->jvm);
+	callback_pool_release(cbd);
 }
 
-void prepare_callback_data(JNIEnv *env, jobject callback, struct CallbackData* cbd)
+struct CallbackData* prepare_callback_data(JNIEnv *env, jlong pool, jobject callback, enum MetricsOperation operation)
 {
-	JavaVM* jvm = malloc(sizeof(jvm));
-	(*env)->GetJavaVM(env, &jvm);
+	struct CallbackData* cbd = callback_pool_acquire((struct CallbackPool*) pool);
+	if(!cbd)
+	{
+		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/OutOfMemoryError"), "Cannot allocate callback record");
+		return NULL;
+	}
 	
-	cbd->jvm = jvm;
 	cbd->callback = (*env)->NewGlobalRef(env, callback);
+	cbd->operation = operation;
+	cbd->start = metrics_now();
+	metrics_record_start(callback_pool_metrics(cbd->pool), operation);
+	return cbd;
 }
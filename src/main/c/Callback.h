@@ -4,12 +4,10 @@
 #include <jni.h>
 #include <discord_game_sdk.h>
 
-struct CallbackData {
-	JavaVM* jvm;
-	jobject callback;
-};
+#include "CallbackPool.h"
+#include "Metrics.h"
 
 void simple_callback(void* data, enum EDiscordResult result);
-void prepare_callback_data(JNIEnv *env, jobject callback, struct CallbackData* cbd);
+struct CallbackData* prepare_callback_data(JNIEnv *env, jlong pool, jobject callback, enum MetricsOperation operation);
 
 #endif
\ No newline at end of file
@@ -0,0 +1,173 @@
+#include <stdlib.h>
+#include <string.h>
+
+#ifdef _WIN32
+#include <windows.h>
+#else
+#include <pthread.h>
+#endif
+
+#include "CallbackPool.h"
+
+// number of records allocated at once when the free list runs dry
+#define CALLBACK_SLAB_SIZE 32
+
+struct CallbackSlab {
+	struct CallbackSlab* next;
+	struct CallbackData records[CALLBACK_SLAB_SIZE];
+};
+
+struct CallbackPool {
+#ifdef _WIN32
+	CRITICAL_SECTION mutex;
+#else
+	pthread_mutex_t mutex;
+#endif
+	struct CallbackSlab* slabs;
+	struct CallbackData* free_list;
+	char* metrics;
+	jlong live;
+	jlong peak;
+	jlong capacity;
+};
+
+static void pool_lock(struct CallbackPool* pool)
+{
+#ifdef _WIN32
+	EnterCriticalSection(&pool->mutex);
+#else
+	pthread_mutex_lock(&pool->mutex);
+#endif
+}
+
+static void pool_unlock(struct CallbackPool* pool)
+{
+#ifdef _WIN32
+	LeaveCriticalSection(&pool->mutex);
+#else
+	pthread_mutex_unlock(&pool->mutex);
+#endif
+}
+
+static bool pool_grow(struct CallbackPool* pool)
+{
+	struct CallbackSlab* slab = malloc(sizeof(struct CallbackSlab));
+	if(!slab)
+		return false;
+	memset(slab, 0, sizeof(struct CallbackSlab));
+
+	for(int i = 0; i < CALLBACK_SLAB_SIZE; i++)
+	{
+		struct CallbackData* cbd = &slab->records[i];
+		cbd->pool = pool;
+		cbd->next = pool->free_list;
+		pool->free_list = cbd;
+	}
+
+	slab->next = pool->slabs;
+	pool->slabs = slab;
+	pool->capacity += CALLBACK_SLAB_SIZE;
+	return true;
+}
+
+struct CallbackPool* callback_pool_create(char* metrics)
+{
+	struct CallbackPool* pool = malloc(sizeof(struct CallbackPool));
+	if(!pool)
+		return NULL;
+	memset(pool, 0, sizeof(struct CallbackPool));
+	pool->metrics = metrics;
+
+#ifdef _WIN32
+	InitializeCriticalSection(&pool->mutex);
+#else
+	pthread_mutex_init(&pool->mutex, NULL);
+#endif
+
+	if(!pool_grow(pool))
+	{
+		callback_pool_destroy(NULL, pool);
+		return NULL;
+	}
+	return pool;
+}
+
+void callback_pool_destroy(JNIEnv *env, struct CallbackPool* pool)
+{
+	struct CallbackSlab* slab = pool->slabs;
+	while(slab)
+	{
+		// callbacks that never completed still hold a global reference
+		if(env)
+		{
+			for(int i = 0; i < CALLBACK_SLAB_SIZE; i++)
+			{
+				struct CallbackData* cbd = &slab->records[i];
+				if(cbd->in_use && cbd->callback)
+					(*env)->DeleteGlobalRef(env, cbd->callback);
+			}
+		}
+
+		struct CallbackSlab* next = slab->next;
+		free(slab);
+		slab = next;
+	}
+
+#ifdef _WIN32
+	DeleteCriticalSection(&pool->mutex);
+#else
+	pthread_mutex_destroy(&pool->mutex);
+#endif
+	free(pool);
+}
+
+struct CallbackData* callback_pool_acquire(struct CallbackPool* pool)
+{
+	pool_lock(pool);
+
+	if(!pool->free_list && !pool_grow(pool))
+	{
+		pool_unlock(pool);
+		return NULL;
+	}
+
+	struct CallbackData* cbd = pool->free_list;
+	pool->free_list = cbd->next;
+	cbd->next = NULL;
+	cbd->in_use = true;
+
+	pool->live++;
+	if(pool->live > pool->peak)
+		pool->peak = pool->live;
+
+	pool_unlock(pool);
+	return cbd;
+}
+
+void callback_pool_release(struct CallbackData* cbd)
+{
+	struct CallbackPool* pool = cbd->pool;
+	pool_lock(pool);
+
+	cbd->callback = NULL;
+	cbd->in_use = false;
+	cbd->next = pool->free_list;
+	pool->free_list = cbd;
+	pool->live--;
+
+	pool_unlock(pool);
+}
+
+char* callback_pool_metrics(struct CallbackPool* pool)
+{
+	return pool->metrics;
+}
+
+void callback_pool_stats(struct CallbackPool* pool, struct CallbackPoolStats* stats)
+{
+	pool_lock(pool);
+	stats->live = pool->live;
+	stats->peak = pool->peak;
+	stats->capacity = pool->capacity;
+	pool_unlock(pool);
+}
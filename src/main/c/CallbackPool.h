@@ -0,0 +1,39 @@
+#ifndef CALLBACK_POOL_H
+#define CALLBACK_POOL_H
+
+#include <stdbool.h>
+#include <stdint.h>
+#include <jni.h>
+
+struct CallbackPool;
+
+/*
+ * A record for a pending callback.
+ * Records are handed out by a CallbackPool and go back to it once the callback completed.
+ */
+struct CallbackData {
+	jobject callback;
+	struct CallbackPool* pool;
+	int operation; // enum MetricsOperation
+	int64_t start; // metrics_now() when the request was handed to the SDK
+	struct CallbackData* next;
+	bool in_use;
+};
+
+struct CallbackPoolStats {
+	jlong live;
+	jlong peak;
+	jlong capacity;
+};
+
+// metrics is the buffer of SdkMetrics.java, it has to outlive the pool
+struct CallbackPool* callback_pool_create(char* metrics);
+void callback_pool_destroy(JNIEnv *env, struct CallbackPool* pool);
+
+struct CallbackData* callback_pool_acquire(struct CallbackPool* pool);
+void callback_pool_release(struct CallbackData* cbd);
+
+char* callback_pool_metrics(struct CallbackPool* pool);
+void callback_pool_stats(struct CallbackPool* pool, struct CallbackPoolStats* stats);
+
+#endif
@@ -2,74 +2,82 @@
 #include <jni.h>
 
 #include "EventHandler.h"
+#include "JniCache.h"
+#include "ThreadAttachment.h"
 
 // activity_events
 void on_activity_join(void* event_data, const char* secret)
 {
 	struct EventData* event_struct = (struct EventData*)event_data;
 	
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(event_struct->jvm))->AttachCurrentThread(event_struct->jvm, (void**)&env, &args);
+	// nobody listens, skip attaching and creating Java objects
+	if(!(*event_struct->mask & EVENT_ACTIVITY_JOIN))
+		return;
+	
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return;
+	JNIEnv* env = upcall.env;
 	
 	jstring secret_string = (*env)->NewStringUTF(env, secret);
 	
-	jclass clazz = (*env)->GetObjectClass(env, event_struct->handler);
-	jmethodID method = (*env)->GetMethodID(env, clazz, "onActivityJoin", "(Ljava/lang/String;)V");
-	(*env)->CallVoidMethod(env, event_struct->handler, method, secret_string);
+	(*env)->CallVoidMethod(env, event_struct->handler, jni_cache.on_activity_join, secret_string);
 	
-	(*(event_struct->jvm))->DetachCurrentThread(event_struct->jvm);
+	end_upcall(&upcall);
+	(*env)->DeleteLocalRef(env, secret_string);
 }
 
 void on_activity_spectate(void* event_data, const char* secret)
 {
 	struct EventData* event_struct = (struct EventData*)event_data;
 	
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(event_struct->jvm))->AttachCurrentThread(event_struct->jvm, (void**)&env, &args);
+	// nobody listens, skip attaching and creating Java objects
+	if(!(*event_struct->mask & EVENT_ACTIVITY_SPECTATE))
+		return;
+	
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return;
+	JNIEnv* env = upcall.env;
 	
 	jstring secret_string = (*env)->NewStringUTF(env, secret);
 	
-	jclass clazz = (*env)->GetObjectClass(env, event_struct->handler);
-	jmethodID method = (*env)->GetMethodID(env, clazz, "onActivitySpectate", "(Ljava/lang/String;)V");
-	(*env)->CallVoidMethod(env, event_struct->handler, method, secret_string);
+	(*env)->CallVoidMethod(env, event_struct->handler, jni_cache.on_activity_spectate, secret_string);
 	
-	(*(event_struct->jvm))->DetachCurrentThread(event_struct->jvm);
+	end_upcall(&upcall);
+	(*env)->DeleteLocalRef(env, secret_string);
 }
 
 void on_activity_join_request(void* event_data, struct DiscordUser* user)
 {
 	struct EventData* event_struct = (struct EventData*)event_data;
 	
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(event_struct->jvm))->AttachCurrentThread(event_struct->jvm, (void**)&env, &args);
+	// nobody listens, skip attaching and creating Java objects
+	if(!(*event_struct->mask & EVENT_ACTIVITY_JOIN_REQUEST))
+		return;
 	
-	jclass user_class = (*env)->FindClass(env, "com/wynntils/antiope/user/DiscordUser");
-	jmethodID user_constructor = (*env)->GetMethodID(env, user_class, "<init>", 
-		"(JLjava/lang/String;Ljava/lang/String;Ljava/lang/String;Z)V");
-	jobject user_object = (*env)->NewObject(env, user_class, user_constructor,
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return;
+	JNIEnv* env = upcall.env;
+	
+	jstring username = (*env)->NewStringUTF(env, user->username);
+	jstring discriminator = (*env)->NewStringUTF(env, user->discriminator);
+	jstring avatar = (*env)->NewStringUTF(env, user->avatar);
+	jobject user_object = (*env)->NewObject(env, jni_cache.user_class, jni_cache.user_constructor,
 		user->id,
-		(*env)->NewStringUTF(env, user->username),
-		(*env)->NewStringUTF(env, user->discriminator),
-		(*env)->NewStringUTF(env, user->avatar),
+		username,
+		discriminator,
+		avatar,
 		user->bot);
 	
-	jclass clazz = (*env)->GetObjectClass(env, event_struct->handler);
-	jmethodID method = (*env)->GetMethodID(env, clazz, "onActivityJoinRequest", "(Lcom/wynntils/antiope/user/DiscordUser;)V");
-	(*env)->CallVoidMethod(env, event_struct->handler, method, user_object);
+	(*env)->CallVoidMethod(env, event_struct->handler, jni_cache.on_activity_join_request, user_object);
 	
-	(*(event_struct->jvm))->DetachCurrentThread(event_struct->jvm);
+	end_upcall(&upcall);
+	(*env)->DeleteLocalRef(env, user_object);
+	(*env)->DeleteLocalRef(env, avatar);
+	(*env)->DeleteLocalRef(env, discriminator);
+	(*env)->DeleteLocalRef(env, username);
 }
 
 // overlay_events
@@ -77,16 +85,16 @@ void on_overlay_toggle(void* event_data, bool locked)
 {
 	struct EventData* event_struct = (struct EventData*)event_data;
 
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(event_struct->jvm))->AttachCurrentThread(event_struct->jvm, (void**)&env, &args);
+	// nobody listens, skip attaching and creating Java objects
+	if(!(*event_struct->mask & EVENT_OVERLAY_TOGGLE))
+		return;
+
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return;
+	JNIEnv* env = upcall.env;
 
-	jclass clazz = (*env)->GetObjectClass(env, event_struct->handler);
-	jmethodID method = (*env)->GetMethodID(env, clazz, "onOverlayToggle", "(Z)V");
-	(*env)->CallVoidMethod(env, event_struct->handler, method, locked);
+	(*env)->CallVoidMethod(env, event_struct->handler, jni_cache.on_overlay_toggle, locked);
 
-	(*(event_struct->jvm))->DetachCurrentThread(event_struct->jvm);
+	end_upcall(&upcall);
 }
\ No newline at end of file
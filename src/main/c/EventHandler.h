@@ -1,9 +1,29 @@
 #ifndef EVENT_HANDLER_H
 #define EVENT_HANDLER_H
 
+#include <stdint.h>
+
+// DiscordEventType.index() and the bits of DiscordEventAdapter.getEventMask()
+#define EVENT_INDEX_ACTIVITY_JOIN 0
+#define EVENT_INDEX_ACTIVITY_SPECTATE 1
+#define EVENT_INDEX_ACTIVITY_JOIN_REQUEST 2
+#define EVENT_INDEX_CURRENT_USER_UPDATE 3
+#define EVENT_INDEX_OVERLAY_TOGGLE 4
+#define EVENT_INDEX_RELATIONSHIP_REFRESH 5
+#define EVENT_INDEX_RELATIONSHIP_UPDATE 6
+
+#define EVENT_ACTIVITY_JOIN (1 << EVENT_INDEX_ACTIVITY_JOIN)
+#define EVENT_ACTIVITY_SPECTATE (1 << EVENT_INDEX_ACTIVITY_SPECTATE)
+#define EVENT_ACTIVITY_JOIN_REQUEST (1 << EVENT_INDEX_ACTIVITY_JOIN_REQUEST)
+#define EVENT_CURRENT_USER_UPDATE (1 << EVENT_INDEX_CURRENT_USER_UPDATE)
+#define EVENT_OVERLAY_TOGGLE (1 << EVENT_INDEX_OVERLAY_TOGGLE)
+#define EVENT_RELATIONSHIP_REFRESH (1 << EVENT_INDEX_RELATIONSHIP_REFRESH)
+#define EVENT_RELATIONSHIP_UPDATE (1 << EVENT_INDEX_RELATIONSHIP_UPDATE)
+
 struct EventData {
-	JavaVM* jvm;
 	jobject handler;
+	// direct buffer owned by the handler, written by Java whenever its listeners change
+	volatile int32_t* mask;
 };
 
 // activity_events
@@ -0,0 +1,106 @@
+#include <stdlib.h>
+#include <string.h>
+#include <discord_game_sdk.h>
+#include <jni.h>
+
+#include "EventHandler.h"
+#include "EventRing.h"
+
+struct EventRing* event_ring_create(JNIEnv* env, jobject ring, jobject buffer, jint capacity, jint policy, jobject event_mask)
+{
+	struct EventRing* event_ring = malloc(sizeof(struct EventRing));
+	if(!event_ring)
+		return NULL;
+	
+	event_ring->ring = (*env)->NewGlobalRef(env, ring);
+	event_ring->mask = (volatile int32_t*) (*env)->GetDirectBufferAddress(env, event_mask);
+	ring_init(&event_ring->slots, (*env)->GetDirectBufferAddress(env, buffer), capacity, EVENT_RING_SLOT_SIZE, policy == EVENT_RING_POLICY_BLOCK);
+	
+	return event_ring;
+}
+
+void event_ring_free(JNIEnv* env, struct EventRing* event_ring)
+{
+	(*env)->DeleteGlobalRef(env, event_ring->ring);
+	free(event_ring);
+}
+
+// returns the slot for the next event, or NULL if the event has to be dropped
+static char* claim_slot(struct EventRing* ring, int type)
+{
+	if(!(*ring->mask & (1 << type)))
+		return NULL;
+	
+	char* slot = ring_claim(&ring->slots);
+	if(!slot)
+		return NULL;
+	
+	*(int32_t*) (slot + EVENT_SLOT_TYPE) = type;
+	*(int32_t*) (slot + EVENT_SLOT_FLAGS) = 0;
+	*(int64_t*) (slot + EVENT_SLOT_USER_ID) = 0;
+	*(int32_t*) (slot + EVENT_SLOT_TEXT_LENGTH) = 0;
+	*(int32_t*) (slot + EVENT_SLOT_DISCRIMINATOR_LENGTH) = 0;
+	*(int32_t*) (slot + EVENT_SLOT_AVATAR_LENGTH) = 0;
+	return slot;
+}
+
+static void put_string(char* slot, int length_offset, int offset, const char* string, size_t size)
+{
+	size_t length = strnlen(string, size - 1);
+	memcpy(slot + offset, string, length);
+	*(int32_t*) (slot + length_offset) = (int32_t) length;
+}
+
+// activity_events
+void on_activity_join_ring(void* event_data, const char* secret)
+{
+	struct EventRing* ring = (struct EventRing*)event_data;
+	
+	char* slot = claim_slot(ring, EVENT_INDEX_ACTIVITY_JOIN);
+	if(!slot)
+		return;
+	
+	put_string(slot, EVENT_SLOT_TEXT_LENGTH, EVENT_SLOT_TEXT, secret, 128);
+	ring_publish(&ring->slots);
+}
+
+void on_activity_spectate_ring(void* event_data, const char* secret)
+{
+	struct EventRing* ring = (struct EventRing*)event_data;
+	
+	char* slot = claim_slot(ring, EVENT_INDEX_ACTIVITY_SPECTATE);
+	if(!slot)
+		return;
+	
+	put_string(slot, EVENT_SLOT_TEXT_LENGTH, EVENT_SLOT_TEXT, secret, 128);
+	ring_publish(&ring->slots);
+}
+
+void on_activity_join_request_ring(void* event_data, struct DiscordUser* user)
+{
+	struct EventRing* ring = (struct EventRing*)event_data;
+	
+	char* slot = claim_slot(ring, EVENT_INDEX_ACTIVITY_JOIN_REQUEST);
+	if(!slot)
+		return;
+	
+	*(int32_t*) (slot + EVENT_SLOT_FLAGS) = user->bot;
+	*(int64_t*) (slot + EVENT_SLOT_USER_ID) = user->id;
+	put_string(slot, EVENT_SLOT_TEXT_LENGTH, EVENT_SLOT_TEXT, user->username, sizeof(user->username));
+	put_string(slot, EVENT_SLOT_DISCRIMINATOR_LENGTH, EVENT_SLOT_DISCRIMINATOR, user->discriminator, sizeof(user->discriminator));
+	put_string(slot, EVENT_SLOT_AVATAR_LENGTH, EVENT_SLOT_AVATAR, user->avatar, sizeof(user->avatar));
+	ring_publish(&ring->slots);
+}
+
+// overlay_events
+void on_overlay_toggle_ring(void* event_data, bool locked)
+{
+	struct EventRing* ring = (struct EventRing*)event_data;
+
+	char* slot = claim_slot(ring, EVENT_INDEX_OVERLAY_TOGGLE);
+	if(!slot)
+		return;
+
+	*(int32_t*) (slot + EVENT_SLOT_FLAGS) = locked;
+	ring_publish(&ring->slots);
+}
@@ -0,0 +1,48 @@
+#ifndef EVENT_RING_H
+#define EVENT_RING_H
+
+#include <stdbool.h>
+#include <stdint.h>
+#include <jni.h>
+#include <discord_game_sdk.h>
+
+#include "Ring.h"
+
+/*
+ * Ring buffer the event hooks publish into instead of calling into Java, see DiscordEventRing.java.
+ * The layout of the slots has to match the constants there.
+ */
+#define EVENT_RING_SLOT_SIZE 512
+#define EVENT_SLOT_TYPE 0 // int32, DiscordEventType.index()
+#define EVENT_SLOT_FLAGS 4 // int32, overlay locked or user is a bot
+#define EVENT_SLOT_USER_ID 8 // int64
+#define EVENT_SLOT_TEXT_LENGTH 16 // int32
+#define EVENT_SLOT_DISCRIMINATOR_LENGTH 20 // int32
+#define EVENT_SLOT_AVATAR_LENGTH 24 // int32
+#define EVENT_SLOT_TEXT 32 // secret or username, up to 255 bytes
+#define EVENT_SLOT_DISCRIMINATOR 288 // up to 7 bytes
+#define EVENT_SLOT_AVATAR 296 // up to 127 bytes
+
+#define EVENT_RING_POLICY_DROP 0
+#define EVENT_RING_POLICY_BLOCK 1
+
+struct EventRing {
+	// keeps the Java ring and with it the buffer alive
+	jobject ring;
+	volatile int32_t* mask;
+	// the producer is always the thread running the callbacks
+	struct Ring slots;
+};
+
+struct EventRing* event_ring_create(JNIEnv* env, jobject ring, jobject buffer, jint capacity, jint policy, jobject event_mask);
+void event_ring_free(JNIEnv* env, struct EventRing* event_ring);
+
+// activity_events
+void on_activity_join_ring(void* event_data, const char* secret);
+void on_activity_spectate_ring(void* event_data, const char* secret);
+void on_activity_join_request_ring(void* event_data, struct DiscordUser* user);
+
+// overlay_events
+void on_overlay_toggle_ring(void* event_data, bool locked);
+
+#endif
@@ -0,0 +1,161 @@
+#include <stdlib.h>
+#include <string.h>
+
+#include "JniCache.h"
+#include "ThreadAttachment.h"
+
+struct JniCache jni_cache;
+
+static jobject* cache_enum_values(JNIEnv *env, const char* class_name, const char* values_signature, jsize* count)
+{
+	jclass clazz = (*env)->FindClass(env, class_name);
+	if(!clazz)
+		return NULL;
+
+	jmethodID values_method = (*env)->GetStaticMethodID(env, clazz, "values", values_signature);
+	if(!values_method)
+		return NULL;
+
+	jobjectArray values = (jobjectArray) (*env)->CallStaticObjectMethod(env, clazz, values_method);
+	if((*env)->ExceptionCheck(env))
+		return NULL;
+
+	jsize length = (*env)->GetArrayLength(env, values);
+	jobject* refs = malloc(sizeof(jobject) * length);
+	for(jsize i = 0; i < length; i++)
+	{
+		jobject value = (*env)->GetObjectArrayElement(env, values, i);
+		refs[i] = (*env)->NewGlobalRef(env, value);
+		(*env)->DeleteLocalRef(env, value);
+	}
+
+	(*env)->DeleteLocalRef(env, values);
+	(*env)->DeleteLocalRef(env, clazz);
+
+	*count = length;
+	return refs;
+}
+
+static void free_enum_values(JNIEnv *env, jobject* refs, jsize count)
+{
+	if(!refs)
+		return;
+
+	for(jsize i = 0; i < count; i++)
+		(*env)->DeleteGlobalRef(env, refs[i]);
+	free(refs);
+}
+
+static jclass cache_class(JNIEnv *env, const char* class_name)
+{
+	jclass clazz = (*env)->FindClass(env, class_name);
+	if(!clazz)
+		return NULL;
+
+	jclass global = (jclass) (*env)->NewGlobalRef(env, clazz);
+	(*env)->DeleteLocalRef(env, clazz);
+	return global;
+}
+
+static jmethodID cache_method(JNIEnv *env, const char* class_name, const char* name, const char* signature)
+{
+	jclass clazz = (*env)->FindClass(env, class_name);
+	if(!clazz)
+		return NULL;
+
+	jmethodID method = (*env)->GetMethodID(env, clazz, name, signature);
+	(*env)->DeleteLocalRef(env, clazz);
+	return method;
+}
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *jvm, void *reserved)
+{
+	JNIEnv* env;
+	if((*jvm)->GetEnv(jvm, (void**)&env, JNI_VERSION_1_6) != JNI_OK)
+		return JNI_ERR;
+
+	jni_cache.jvm = jvm;
+	if(!thread_attachment_init(jvm))
+		return JNI_ERR;
+
+	/*
+	 * FindClass uses the class loader of the class that called System.load here,
+	 * so classes are resolved correctly even if we are loaded by a custom class loader
+	 * (which would not be the case when calling FindClass later on an SDK thread).
+	 */
+	jni_cache.results = cache_enum_values(env, "com/wynntils/antiope/core/type/Result",
+		"()[Lcom/wynntils/antiope/core/type/Result;", &jni_cache.result_count);
+	jni_cache.log_levels = cache_enum_values(env, "com/wynntils/antiope/core/type/LogLevel",
+		"()[Lcom/wynntils/antiope/core/type/LogLevel;", &jni_cache.log_level_count);
+	if(!jni_cache.results || !jni_cache.log_levels)
+		return JNI_ERR;
+
+	jni_cache.consumer_accept = cache_method(env, "java/util/function/Consumer", "accept", "(Ljava/lang/Object;)V");
+	jni_cache.bi_consumer_accept = cache_method(env, "java/util/function/BiConsumer", "accept", "(Ljava/lang/Object;Ljava/lang/Object;)V");
+
+	jni_cache.long_class = cache_class(env, "java/lang/Long");
+	if(!jni_cache.long_class)
+		return JNI_ERR;
+	jni_cache.long_value_of = (*env)->GetStaticMethodID(env, jni_cache.long_class, "valueOf", "(J)Ljava/lang/Long;");
+
+	jni_cache.user_class = cache_class(env, "com/wynntils/antiope/user/DiscordUser");
+	if(!jni_cache.user_class)
+		return JNI_ERR;
+	jni_cache.user_constructor = (*env)->GetMethodID(env, jni_cache.user_class, "<init>",
+		"(JLjava/lang/String;Ljava/lang/String;Ljava/lang/String;Z)V");
+
+	const char* adapter = "com/wynntils/antiope/event/DiscordEventAdapter";
+	jni_cache.on_activity_join = cache_method(env, adapter, "onActivityJoin", "(Ljava/lang/String;)V");
+	jni_cache.on_activity_spectate = cache_method(env, adapter, "onActivitySpectate", "(Ljava/lang/String;)V");
+	jni_cache.on_activity_join_request = cache_method(env, adapter, "onActivityJoinRequest", "(Lcom/wynntils/antiope/user/DiscordUser;)V");
+	jni_cache.on_current_user_update = cache_method(env, adapter, "onCurrentUserUpdate", "()V");
+	jni_cache.on_overlay_toggle = cache_method(env, adapter, "onOverlayToggle", "(Z)V");
+	jni_cache.on_relationship_refresh = cache_method(env, adapter, "onRelationshipRefresh", "()V");
+	jni_cache.on_relationship_update = cache_method(env, adapter, "onRelationshipUpdate", "(Lcom/wynntils/antiope/user/Relationship;)V");
+
+	if(!jni_cache.consumer_accept || !jni_cache.bi_consumer_accept || !jni_cache.long_value_of
+		|| !jni_cache.user_constructor || !jni_cache.on_activity_join || !jni_cache.on_activity_spectate
+		|| !jni_cache.on_activity_join_request || !jni_cache.on_current_user_update || !jni_cache.on_overlay_toggle
+		|| !jni_cache.on_relationship_refresh || !jni_cache.on_relationship_update)
+		return JNI_ERR;
+
+	return JNI_VERSION_1_6;
+}
+
+JNIEXPORT void JNICALL JNI_OnUnload(JavaVM *jvm, void *reserved)
+{
+	thread_attachment_shutdown();
+
+	JNIEnv* env;
+	if((*jvm)->GetEnv(jvm, (void**)&env, JNI_VERSION_1_6) != JNI_OK)
+		return;
+
+	free_enum_values(env, jni_cache.results, jni_cache.result_count);
+	free_enum_values(env, jni_cache.log_levels, jni_cache.log_level_count);
+	if(jni_cache.long_class)
+		(*env)->DeleteGlobalRef(env, jni_cache.long_class);
+	if(jni_cache.user_class)
+		(*env)->DeleteGlobalRef(env, jni_cache.user_class);
+
+	memset(&jni_cache, 0, sizeof(struct JniCache));
+}
+
+jobject jni_result(enum EDiscordResult result)
+{
+	// results that are newer than our Result enum are reported as an internal error
+	jint index = (jint) result;
+	if(index < 0 || index >= jni_cache.result_count)
+		return jni_cache.results[DiscordResult_InternalError];
+	return jni_cache.results[index];
+}
+
+jobject jni_log_level(enum EDiscordLogLevel level)
+{
+	// enum DiscordLogLevel starts with index 1, so subtract 1 to translate to "normal" enum
+	jint index = level - 1;
+	if(index < 0)
+		index = 0;
+	if(index >= jni_cache.log_level_count)
+		index = jni_cache.log_level_count - 1;
+	return jni_cache.log_levels[index];
+}
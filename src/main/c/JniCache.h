@@ -0,0 +1,44 @@
+#ifndef JNI_CACHE_H
+#define JNI_CACHE_H
+
+#include <jni.h>
+#include <discord_game_sdk.h>
+
+/*
+ * Classes, method IDs and enum constants that are resolved once in JNI_OnLoad.
+ * Upcalls use these instead of looking everything up again for every callback or event.
+ */
+struct JniCache {
+	JavaVM* jvm;
+
+	// global references to Result.values() and LogLevel.values()
+	jobject* results;
+	jsize result_count;
+	jobject* log_levels;
+	jsize log_level_count;
+
+	jmethodID consumer_accept;
+	jmethodID bi_consumer_accept;
+
+	jclass long_class;
+	jmethodID long_value_of;
+
+	jclass user_class;
+	jmethodID user_constructor;
+
+	// DiscordEventAdapter
+	jmethodID on_activity_join;
+	jmethodID on_activity_spectate;
+	jmethodID on_activity_join_request;
+	jmethodID on_current_user_update;
+	jmethodID on_overlay_toggle;
+	jmethodID on_relationship_refresh;
+	jmethodID on_relationship_update;
+};
+
+extern struct JniCache jni_cache;
+
+jobject jni_result(enum EDiscordResult result);
+jobject jni_log_level(enum EDiscordLogLevel level);
+
+#endif
@@ -0,0 +1,122 @@
+#include <stdbool.h>
+
+#ifdef _WIN32
+#include <windows.h>
+#include <intrin.h>
+#else
+#include <time.h>
+#endif
+
+#include "Metrics.h"
+
+/*
+ * Java records into the same buffer from any thread through a VarHandle, so every update is atomic.
+ * Counters do not order other memory accesses, relaxed atomics are enough.
+ */
+#ifdef _MSC_VER
+static void add(char* address, int64_t value)
+{
+	InterlockedExchangeAdd64((volatile LONG64*) address, value);
+}
+
+static void update_max(char* address, int64_t value)
+{
+	LONG64 current = *(volatile LONG64*) address;
+	while(value > current)
+	{
+		LONG64 witness = InterlockedCompareExchange64((volatile LONG64*) address, value, current);
+		if(witness == current)
+			break;
+		current = witness;
+	}
+}
+
+static int highest_bit(uint64_t value)
+{
+	unsigned long index;
+	_BitScanReverse64(&index, value);
+	return (int) index;
+}
+#else
+static void add(char* address, int64_t value)
+{
+	__atomic_fetch_add((int64_t*) address, value, __ATOMIC_RELAXED);
+}
+
+static void update_max(char* address, int64_t value)
+{
+	int64_t current = __atomic_load_n((int64_t*) address, __ATOMIC_RELAXED);
+	while(value > current)
+	{
+		// on failure, current is updated to the value that is in memory now
+		if(__atomic_compare_exchange_n((int64_t*) address, &current, value, false, __ATOMIC_RELAXED, __ATOMIC_RELAXED))
+			break;
+	}
+}
+
+static int highest_bit(uint64_t value)
+{
+	return 63 - __builtin_clzll(value);
+}
+#endif
+
+int64_t metrics_now(void)
+{
+#ifdef _WIN32
+	static LARGE_INTEGER frequency; // never changes while the system is running
+	if(!frequency.QuadPart)
+		QueryPerformanceFrequency(&frequency);
+	
+	LARGE_INTEGER counter;
+	QueryPerformanceCounter(&counter);
+	int64_t seconds = counter.QuadPart / frequency.QuadPart;
+	int64_t rest = counter.QuadPart % frequency.QuadPart;
+	return seconds * 1000000000 + rest * 1000000000 / frequency.QuadPart;
+#else
+	struct timespec now;
+	clock_gettime(CLOCK_MONOTONIC, &now);
+	return (int64_t) now.tv_sec * 1000000000 + now.tv_nsec;
+#endif
+}
+
+/*
+ * Log-linear buckets: values below 4 get a bucket each, every higher power of two is split into 4 buckets.
+ * This keeps the relative error below 25% for all positive int64_t values, which need 248 buckets.
+ */
+static int bucket_index(int64_t nanos)
+{
+	if(nanos < 4)
+		return (int) nanos;
+	
+	int msb = highest_bit((uint64_t) nanos);
+	return 4 * (msb - 1) + (int) ((nanos >> (msb - 2)) & 3);
+}
+
+static void record_histogram(char* histogram, int64_t nanos)
+{
+	if(nanos < 0)
+		nanos = 0; // the clock is monotonic, but better safe than out of bounds
+	
+	add(histogram + HISTOGRAM_COUNT, 1);
+	add(histogram + HISTOGRAM_SUM, nanos);
+	update_max(histogram + HISTOGRAM_MAX, nanos);
+	add(histogram + HISTOGRAM_BUCKETS + bucket_index(nanos) * 8, 1);
+}
+
+void metrics_record_start(char* metrics, int operation)
+{
+	if(!metrics)
+		return;
+	
+	add(metrics + METRICS_STARTED + operation * 8, 1);
+}
+
+void metrics_record_callback(char* metrics, int operation, int64_t start, enum EDiscordResult result)
+{
+	if(!metrics)
+		return;
+	
+	if((int) result >= 0 && (int) result < METRICS_RESULT_COUNT)
+		add(metrics + METRICS_RESULTS + (int) result * 8, 1);
+	record_histogram(metrics + METRICS_HISTOGRAMS + operation * HISTOGRAM_SIZE, metrics_now() - start);
+}
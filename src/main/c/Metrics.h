@@ -0,0 +1,43 @@
+#ifndef METRICS_H
+#define METRICS_H
+
+#include <stdint.h>
+#include <discord_game_sdk.h>
+
+/*
+ * Counters and latency histograms in a direct buffer shared with Java, see SdkMetrics.java.
+ * The layout has to match the constants there.
+ */
+#define METRICS_RESULTS 0 // one counter per EDiscordResult
+#define METRICS_RESULT_COUNT 64
+#define METRICS_STARTED 512 // one counter per operation, requests handed to the SDK
+#define METRICS_OPERATION_COUNT 16
+#define METRICS_HISTOGRAMS 640 // one histogram per operation, followed by the ones only Java records
+
+#define HISTOGRAM_COUNT 0
+#define HISTOGRAM_SUM 8
+#define HISTOGRAM_MAX 16
+#define HISTOGRAM_BUCKETS 64
+#define HISTOGRAM_BUCKET_COUNT 248
+#define HISTOGRAM_SIZE 2048
+
+// has to match the order of SdkOperation.java
+enum MetricsOperation {
+	OPERATION_UPDATE_ACTIVITY,
+	OPERATION_CLEAR_ACTIVITY,
+	OPERATION_SEND_REQUEST_REPLY,
+	OPERATION_SEND_INVITE,
+	OPERATION_ACCEPT_REQUEST,
+	OPERATION_SET_OVERLAY_LOCKED,
+	OPERATION_OPEN_ACTIVITY_INVITE,
+	OPERATION_OPEN_GUILD_INVITE,
+	OPERATION_OPEN_VOICE_SETTINGS
+};
+
+// monotonic time in nanoseconds, only differences are meaningful
+int64_t metrics_now(void);
+
+void metrics_record_start(char* metrics, int operation);
+void metrics_record_callback(char* metrics, int operation, int64_t start, enum EDiscordResult result);
+
+#endif
@@ -0,0 +1,37 @@
+#include <string.h>
+
+#include "NativeString.h"
+
+static size_t usable_length(JNIEnv *env, jobject buffer, size_t size)
+{
+	jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+	if(capacity <= 0)
+		return 0;
+	
+	return (size_t) capacity < size - 1 ? (size_t) capacity : size - 1;
+}
+
+void write_native_string(JNIEnv *env, char *field, size_t size, jobject buffer, jint length)
+{
+	const char *source = (*env)->GetDirectBufferAddress(env, buffer);
+	size_t max = usable_length(env, buffer, size);
+	
+	size_t copied = length < 0 ? 0 : (size_t) length;
+	if(copied > max)
+		copied = max;
+	
+	if(source)
+		memcpy(field, source, copied);
+	field[copied] = '\0';
+}
+
+jint read_native_string(JNIEnv *env, const char *field, size_t size, jobject buffer)
+{
+	char *destination = (*env)->GetDirectBufferAddress(env, buffer);
+	if(!destination)
+		return 0;
+	
+	size_t length = strnlen(field, usable_length(env, buffer, size));
+	memcpy(destination, field, length);
+	return (jint) length;
+}
@@ -0,0 +1,13 @@
+#ifndef NATIVE_STRING_H
+#define NATIVE_STRING_H
+
+#include <jni.h>
+
+/*
+ * String fields are passed through a direct buffer holding UTF-8 bytes, see NativeStrings.java.
+ * Both functions never touch more than size - 1 bytes of the field or the buffer.
+ */
+void write_native_string(JNIEnv *env, char *field, size_t size, jobject buffer, jint length);
+jint read_native_string(JNIEnv *env, const char *field, size_t size, jobject buffer);
+
+#endif
@@ -0,0 +1,105 @@
+#ifdef _WIN32
+#include <windows.h>
+#else
+#include <sched.h>
+#endif
+
+#include "Ring.h"
+
+/*
+ * The counters are shared with Java, which accesses them through a VarHandle with acquire/release semantics.
+ * There is only a single producer, so plain stores are enough for counters only it writes, as long as they are
+ * released.
+ */
+#ifdef _MSC_VER
+// volatile accesses have acquire/release semantics on x86 and x64, the barriers keep the compiler from reordering
+int64_t ring_load_acquire(char* address)
+{
+	int64_t value = *(volatile int64_t*) address;
+	_ReadWriteBarrier();
+	return value;
+}
+
+void ring_store_release(char* address, int64_t value)
+{
+	_ReadWriteBarrier();
+	*(volatile int64_t*) address = value;
+}
+#else
+int64_t ring_load_acquire(char* address)
+{
+	return __atomic_load_n((int64_t*) address, __ATOMIC_ACQUIRE);
+}
+
+void ring_store_release(char* address, int64_t value)
+{
+	__atomic_store_n((int64_t*) address, value, __ATOMIC_RELEASE);
+}
+#endif
+
+static void yield_thread(void)
+{
+#ifdef _WIN32
+	SwitchToThread();
+#else
+	sched_yield();
+#endif
+}
+
+static void count(struct Ring* ring, int offset)
+{
+	// only the producer writes these counters
+	ring_store_release(ring->base + offset, ring_load_acquire(ring->base + offset) + 1);
+}
+
+void ring_init(struct Ring* ring, char* base, int64_t capacity, int64_t slot_size, bool block)
+{
+	ring->base = base;
+	ring->capacity = capacity;
+	ring->slot_size = slot_size;
+	ring->block = block;
+	ring->next = ring_load_acquire(base + RING_CURSOR);
+	ring->cached_gating = ring_load_acquire(base + RING_GATING);
+}
+
+char* ring_claim(struct Ring* ring)
+{
+	if(ring_load_acquire(ring->base + RING_CLOSED))
+	{
+		count(ring, RING_DROPPED);
+		return NULL;
+	}
+	
+	int64_t wrap = ring->next - ring->capacity;
+	if(wrap >= ring->cached_gating)
+	{
+		ring->cached_gating = ring_load_acquire(ring->base + RING_GATING);
+		if(wrap >= ring->cached_gating)
+		{
+			if(!ring->block)
+			{
+				count(ring, RING_DROPPED);
+				return NULL;
+			}
+			
+			count(ring, RING_BLOCKED);
+			while(wrap >= (ring->cached_gating = ring_load_acquire(ring->base + RING_GATING)))
+			{
+				if(ring_load_acquire(ring->base + RING_CLOSED))
+				{
+					count(ring, RING_DROPPED);
+					return NULL;
+				}
+				yield_thread();
+			}
+		}
+	}
+	
+	return ring->base + RING_HEADER_SIZE + (ring->next & (ring->capacity - 1)) * ring->slot_size;
+}
+
+void ring_publish(struct Ring* ring)
+{
+	ring->next++;
+	ring_store_release(ring->base + RING_CURSOR, ring->next);
+}
@@ -0,0 +1,42 @@
+#ifndef RING_H
+#define RING_H
+
+#include <stdbool.h>
+#include <stdint.h>
+
+/*
+ * Single-producer ring buffer in a direct buffer shared with Java, see DiscordEventRing.java and DiscordLogSink.java.
+ * The layout of the header has to match the constants there.
+ *
+ * The header holds one counter per cache line. Counters count entries, not slots:
+ * the entry with sequence s is stored in slot s & (capacity - 1).
+ */
+#define RING_CURSOR 0 // entries published, written by the producer
+#define RING_GATING 64 // entries consumed, written by the consumers
+#define RING_DROPPED 128 // entries dropped because the ring was full or closed
+#define RING_BLOCKED 192 // times the producer had to wait for a free slot
+#define RING_CLOSED 256 // non-zero once the consumers stopped
+#define RING_CONFIG 320 // owned by the user of the ring
+#define RING_HEADER_SIZE 384
+
+struct Ring {
+	char* base;
+	int64_t capacity;
+	int64_t slot_size;
+	bool block;
+	
+	// only used by the producer
+	int64_t next;
+	int64_t cached_gating;
+};
+
+void ring_init(struct Ring* ring, char* base, int64_t capacity, int64_t slot_size, bool block);
+
+// returns the slot for the next entry, or NULL if the entry has to be dropped
+char* ring_claim(struct Ring* ring);
+void ring_publish(struct Ring* ring);
+
+int64_t ring_load_acquire(char* address);
+void ring_store_release(char* address, int64_t value);
+
+#endif
@@ -0,0 +1,160 @@
+#include <stdlib.h>
+
+#ifdef _WIN32
+#include <windows.h>
+#else
+#include <pthread.h>
+#endif
+
+#include "ThreadAttachment.h"
+
+static JavaVM* attachment_jvm = NULL;
+
+/*
+ * The thread-local value is only set for threads we attached ourselves.
+ * Its destructor runs when such a thread exits and detaches it again,
+ * so we never detach a thread that was attached by someone else.
+ */
+#ifdef _WIN32
+static DWORD attachment_key = FLS_OUT_OF_INDEXES;
+#else
+static pthread_key_t attachment_key;
+static bool attachment_key_created = false;
+#endif
+
+#ifdef _WIN32
+static void WINAPI detach_on_thread_exit(void* value)
+#else
+static void detach_on_thread_exit(void* value)
+#endif
+{
+	JavaVM* jvm = (JavaVM*) value;
+	if(!jvm)
+		return;
+
+	JNIEnv* env;
+	if((*jvm)->GetEnv(jvm, (void**)&env, JNI_VERSION_1_6) == JNI_OK)
+		(*jvm)->DetachCurrentThread(jvm);
+}
+
+static bool is_foreign_thread(void)
+{
+#ifdef _WIN32
+	return attachment_key != FLS_OUT_OF_INDEXES && FlsGetValue(attachment_key) != NULL;
+#else
+	return attachment_key_created && pthread_getspecific(attachment_key) != NULL;
+#endif
+}
+
+static void mark_foreign_thread(void)
+{
+#ifdef _WIN32
+	FlsSetValue(attachment_key, attachment_jvm);
+#else
+	pthread_setspecific(attachment_key, attachment_jvm);
+#endif
+}
+
+bool thread_attachment_init(JavaVM* jvm)
+{
+	attachment_jvm = jvm;
+#ifdef _WIN32
+	attachment_key = FlsAlloc(detach_on_thread_exit);
+	return attachment_key != FLS_OUT_OF_INDEXES;
+#else
+	attachment_key_created = pthread_key_create(&attachment_key, detach_on_thread_exit) == 0;
+	return attachment_key_created;
+#endif
+}
+
+void thread_attachment_shutdown(void)
+{
+#ifdef _WIN32
+	if(attachment_key != FLS_OUT_OF_INDEXES)
+	{
+		FlsFree(attachment_key);
+		attachment_key = FLS_OUT_OF_INDEXES;
+	}
+#else
+	if(attachment_key_created)
+	{
+		pthread_key_delete(attachment_key);
+		attachment_key_created = false;
+	}
+#endif
+	attachment_jvm = NULL;
+}
+
+JNIEnv* attach_current_thread(void)
+{
+	JavaVM* jvm = attachment_jvm;
+	if(!jvm)
+		return NULL;
+
+	JNIEnv* env;
+	jint status = (*jvm)->GetEnv(jvm, (void**)&env, JNI_VERSION_1_6);
+	if(status == JNI_OK)
+		return env;
+	if(status != JNI_EDETACHED)
+		return NULL;
+
+	JavaVMAttachArgs args;
+	args.version = JNI_VERSION_1_6;
+	args.name = "Discord GameSDK";
+	args.group = NULL;
+	if((*jvm)->AttachCurrentThreadAsDaemon(jvm, (void**)&env, &args) != JNI_OK)
+		return NULL;
+
+	mark_foreign_thread();
+	return env;
+}
+
+bool begin_upcall(struct Upcall* upcall)
+{
+	upcall->env = attach_current_thread();
+	upcall->pending = NULL;
+	upcall->foreign = false;
+	if(!upcall->env)
+		return false;
+
+	upcall->foreign = is_foreign_thread();
+
+	/*
+	 * An earlier upcall during the same runCallbacks() might have thrown.
+	 * Calling into Java with a pending exception is not allowed, so we put it aside
+	 * and throw it again once this upcall is done.
+	 */
+	JNIEnv* env = upcall->env;
+	if((*env)->ExceptionCheck(env))
+	{
+		upcall->pending = (*env)->ExceptionOccurred(env);
+		(*env)->ExceptionClear(env);
+	}
+	return true;
+}
+
+void end_upcall(struct Upcall* upcall)
+{
+	JNIEnv* env = upcall->env;
+
+	if(upcall->foreign)
+	{
+		// there is no Java caller on this thread that could handle the exception
+		if((*env)->ExceptionCheck(env))
+		{
+			(*env)->ExceptionDescribe(env);
+			(*env)->ExceptionClear(env);
+		}
+		return;
+	}
+
+	if(upcall->pending)
+	{
+		// the first exception wins, it will be thrown from runCallbacks()
+		if((*env)->ExceptionCheck(env))
+			(*env)->ExceptionClear(env);
+		(*env)->Throw(env, upcall->pending);
+		(*env)->DeleteLocalRef(env, upcall->pending);
+		upcall->pending = NULL;
+	}
+}
@@ -0,0 +1,28 @@
+#ifndef THREAD_ATTACHMENT_H
+#define THREAD_ATTACHMENT_H
+
+#include <stdbool.h>
+#include <jni.h>
+
+/*
+ * State of a single upcall into the JVM.
+ *
+ * Threads that are already known to the JVM (e.g. the thread calling DiscordGameSDKCore.runCallbacks())
+ * are used as they are. Foreign threads (e.g. threads owned by the SDK) are attached once as daemon threads
+ * and stay attached until they exit, at which point they are detached automatically.
+ */
+struct Upcall {
+	JNIEnv* env;
+	jthrowable pending;
+	bool foreign;
+};
+
+bool thread_attachment_init(JavaVM* jvm);
+void thread_attachment_shutdown(void);
+
+JNIEnv* attach_current_thread(void);
+
+bool begin_upcall(struct Upcall* upcall);
+void end_upcall(struct Upcall* upcall);
+
+#endif
@@ -0,0 +1,109 @@
+/*
+ * Microbenchmark for the cost of a single upcall from a thread the JVM does not know about.
+ *
+ * "attach/detach" is what every callback and event used to do: attach the thread,
+ * call into Java and detach it again.
+ * "attach once" uses begin_upcall/end_upcall from ThreadAttachment.c, which attaches
+ * the thread on its first upcall and only detaches it when the thread exits.
+ *
+ * Build with -DANTIOPE_BUILD_BENCHMARKS=ON and run ./upcall_bench [iterations].
+ */
+#include <stdio.h>
+#include <stdlib.h>
+#include <time.h>
+#include <pthread.h>
+#include <jni.h>
+
+#include "../ThreadAttachment.h"
+
+static JavaVM* jvm;
+static jclass thread_class;
+static jmethodID on_spin_wait;
+static long iterations = 100000;
+
+static double now_nanos(void)
+{
+	struct timespec ts;
+	clock_gettime(CLOCK_MONOTONIC, &ts);
+	return ts.tv_sec * 1e9 + ts.tv_nsec;
+}
+
+static void* attach_detach(void* arg)
+{
+	double* result = (double*) arg;
+	double start = now_nanos();
+	for(long i = 0; i < iterations; i++)
+	{
+		JNIEnv* env;
+		JavaVMAttachArgs args;
+		args.version = JNI_VERSION_1_6;
+		args.name = NULL;
+		args.group = NULL;
+		(*jvm)->AttachCurrentThread(jvm, (void**)&env, &args);
+		(*env)->CallStaticVoidMethod(env, thread_class, on_spin_wait);
+		(*jvm)->DetachCurrentThread(jvm);
+	}
+	*result = (now_nanos() - start) / iterations;
+	return NULL;
+}
+
+static void* attach_once(void* arg)
+{
+	double* result = (double*) arg;
+	double start = now_nanos();
+	for(long i = 0; i < iterations; i++)
+	{
+		struct Upcall upcall;
+		if(!begin_upcall(&upcall))
+			return NULL;
+		JNIEnv* env = upcall.env;
+		(*env)->CallStaticVoidMethod(env, thread_class, on_spin_wait);
+		end_upcall(&upcall);
+	}
+	*result = (now_nanos() - start) / iterations;
+	return NULL;
+}
+
+static double run(void* (*benchmark)(void*))
+{
+	double result = 0;
+	pthread_t thread;
+	pthread_create(&thread, NULL, benchmark, &result);
+	pthread_join(thread, NULL);
+	return result;
+}
+
+int main(int argc, char** argv)
+{
+	if(argc > 1)
+		iterations = atol(argv[1]);
+
+	JavaVMInitArgs vm_args;
+	vm_args.version = JNI_VERSION_1_6;
+	vm_args.nOptions = 0;
+	vm_args.options = NULL;
+	vm_args.ignoreUnrecognized = JNI_TRUE;
+
+	JNIEnv* env;
+	if(JNI_CreateJavaVM(&jvm, (void**)&env, &vm_args) != JNI_OK)
+	{
+		fprintf(stderr, "could not create JVM\n");
+		return 1;
+	}
+	thread_attachment_init(jvm);
+
+	jclass clazz = (*env)->FindClass(env, "java/lang/Thread");
+	thread_class = (*env)->NewGlobalRef(env, clazz);
+	on_spin_wait = (*env)->GetStaticMethodID(env, thread_class, "onSpinWait", "()V");
+
+	// warm up both paths before measuring
+	run(attach_detach);
+	run(attach_once);
+
+	printf("iterations:    %ld\n", iterations);
+	printf("attach/detach: %10.1f ns/upcall\n", run(attach_detach));
+	printf("attach once:   %10.1f ns/upcall\n", run(attach_once));
+
+	thread_attachment_shutdown();
+	return 0;
+}
@@ -1,4 +1,5 @@
 #include <stdlib.h>
+#include <string.h>
 
 #if defined(linux) || defined(__APPLE__)
 #include <dlfcn.h>
@@ -7,37 +8,45 @@
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_core_DiscordGameSDKCore.h"
+#include "CallbackPool.h"
+#include "JniCache.h"
+#include "Ring.h"
+#include "ThreadAttachment.h"
 
-void* handle = NULL;
-
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_initDiscordNative(JNIEnv *env, jclass clazz, jstring path)
+/*
+ * Handles of Discord's library are owned by Java, which counts the cores created from each of them.
+ * Loading the library again opens a new handle, the old one is closed once its last core has been destroyed.
+ */
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_initDiscordNative(JNIEnv *env, jclass clazz, jstring path)
 {
 #if defined(linux) || defined(__APPLE__)
-	if(handle)
-	{
-		if(dlclose(handle) != 0) // close the handle if it already exists
-		{
-			(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/InternalError"), dlerror());
-			return;
-		}
-		handle = NULL;
-	}
-	
 	const char *nativeString = (*env)->GetStringUTFChars(env, path, 0);
 
-    handle = dlopen(nativeString, RTLD_LAZY);
+	void* handle = dlopen(nativeString, RTLD_LAZY);
 	
 	(*env)->ReleaseStringUTFChars(env, path, nativeString);
 	
 	if(!handle)
 	{
 		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/UnsatisfiedLinkError"), dlerror());
-		return;
+		return 0;
 	}
+	return (jlong) (uintptr_t) handle;
+#else
+	// the library is linked on Windows
+	return 0;
 #endif
 }
 
-JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_create(JNIEnv *env, jobject object, jlong param_pointer)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_closeDiscordNative(JNIEnv *env, jclass clazz, jlong library)
+{
+#if defined(linux) || defined(__APPLE__)
+	if(dlclose((void*) (uintptr_t) library) != 0)
+		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/InternalError"), dlerror());
+#endif
+}
+
+JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_create(JNIEnv *env, jclass clazz, jlong library, jlong param_pointer)
 {
 	struct DiscordCreateParams *params = (struct DiscordCreateParams*) param_pointer;
 	
@@ -45,7 +54,7 @@ JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_crea
 	enum EDiscordResult result;
 #if defined(linux) || defined(__APPLE__)
 	dlerror(); // clear old error
-	enum EDiscordResult (*create)(int, struct DiscordCreateParams*, struct IDiscordCore**) = dlsym(handle, "DiscordCreate");
+	enum EDiscordResult (*create)(int, struct DiscordCreateParams*, struct IDiscordCore**) = dlsym((void*) (uintptr_t) library, "DiscordCreate");
 	char* error = dlerror(); // get new error
 	if(error) // check for error
 	{
@@ -65,89 +74,183 @@ JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_crea
 
 	if(result == DiscordResult_Ok) // if everything went well, return the pointer
 	{
-		jclass Long_class = (*env)->FindClass(env, "java/lang/Long");
-		jmethodID valueOf_method = (*env)->GetStaticMethodID(env, Long_class, "valueOf", "(J)Ljava/lang/Long;");
-		jobject return_object = (*env)->CallStaticObjectMethod(env, Long_class, valueOf_method, (uint64_t)core);
-
-		return return_object;
+		return (*env)->CallStaticObjectMethod(env, jni_cache.long_class, jni_cache.long_value_of, (uint64_t)core);
 	}
 	else // otherwise return the result
 	{
-		jclass result_clazz = (*env)->FindClass(env, "com/wynntils/antiope/core/type/Result");
-		jmethodID values_method = (*env)->GetStaticMethodID(env, result_clazz, "values", "()[Lcom/wynntils/antiope/core/type/Result;");
-		jobjectArray values = (jobjectArray) (*env)->CallStaticObjectMethod(env, result_clazz, values_method);
-		jobject result_object = (*env)->GetObjectArrayElement(env, values, result);
-
-		return result_object;
+		return (*env)->NewLocalRef(env, jni_result(result));
 	}
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroy(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroy(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
 	core->destroy(core);
 }
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getActivityManager(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getActivityManager(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
 	return (uint64_t) core->get_activity_manager(core);
 }
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getOverlayManager(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getOverlayManager(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
 	return (uint64_t) core->get_overlay_manager(core);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_runCallbacks(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_runCallbacks(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
 	core->run_callbacks(core);
 }
 
+/*
+ * Slots of the ring a DiscordLogSink consumes, see DiscordLogSink.java.
+ * RING_CONFIG holds the most verbose level to publish, as the ordinal of the Java enum.
+ */
+#define LOG_SLOT_SIZE 1024
+#define LOG_SLOT_LEVEL 0 // int32, ordinal of the Java enum
+#define LOG_SLOT_LENGTH 4 // int32
+#define LOG_SLOT_TRUNCATED 8 // int32
+#define LOG_SLOT_MESSAGE 16
+#define LOG_MESSAGE_SIZE (LOG_SLOT_SIZE - LOG_SLOT_MESSAGE)
+
 struct HookData {
-	JavaVM* jvm;
+	// the BiConsumer or, for a log sink, its buffer
 	jobject hook;
+	struct Ring ring;
 };
 
 void log_hook(void* data, enum EDiscordLogLevel level, const char* message)
 {
 	struct HookData* hook_data = (struct HookData*)data;
 	
-	JNIEnv* env;
-	JavaVMAttachArgs args;
-	args.version = JNI_VERSION_1_6;
-	args.name = NULL;
-	args.group = NULL;
-	(*(hook_data->jvm))->AttachCurrentThread(hook_data->jvm, (void**)&env, &args);
-	
-	jclass level_clazz = (*env)->FindClass(env, "com/wynntils/antiope/core/type/LogLevel");
-	jmethodID values_method = (*env)->GetStaticMethodID(env, level_clazz, "values", "()[Lcom/wynntils/antiope/core/type/LogLevel;");
-	jobjectArray levels = (jobjectArray) (*env)->CallStaticObjectMethod(env, level_clazz, values_method);
-	// enum DiscordLogLevel starts with index 1, so subtract 1 to translate to "normal" enum
-	jobject level_object = (*env)->GetObjectArrayElement(env, levels, level-1);
+	struct Upcall upcall;
+	if(!begin_upcall(&upcall))
+		return;
+	JNIEnv* env = upcall.env;
 	
 	jstring message_string = (*env)->NewStringUTF(env, message);
 	
-	jclass clazz = (*env)->GetObjectClass(env, hook_data->hook);
-	jmethodID method = (*env)->GetMethodID(env, clazz, "accept", "(Ljava/lang/Object;Ljava/lang/Object;)V");
-	(*env)->CallVoidMethod(env, hook_data->hook, method, level_object, message_string);
+	(*env)->CallVoidMethod(env, hook_data->hook, jni_cache.bi_consumer_accept, jni_log_level(level), message_string);
 	
-	(*(hook_data->jvm))->DetachCurrentThread(hook_data->jvm);
+	end_upcall(&upcall);
+	(*env)->DeleteLocalRef(env, message_string);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogHook(JNIEnv *env, jobject object, jlong pointer, jint min_level, jobject hook)
-{	
-	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
+// copies the message into the ring instead of calling into Java
+void log_hook_sink(void* data, enum EDiscordLogLevel level, const char* message)
+{
+	struct HookData* hook_data = (struct HookData*)data;
+	struct Ring* ring = &hook_data->ring;
+	
+	// enum DiscordLogLevel starts with index 1
+	int32_t ordinal = level - 1;
+	if(ordinal > ring_load_acquire(ring->base + RING_CONFIG))
+		return;
+	
+	char* slot = ring_claim(ring);
+	if(!slot)
+		return;
 	
-	JavaVM* jvm = malloc(sizeof(jvm));
-	(*env)->GetJavaVM(env, &jvm);
+	size_t length = strlen(message);
+	bool truncated = length > LOG_MESSAGE_SIZE;
+	if(truncated)
+	{
+		// do not cut a UTF-8 sequence in half
+		length = LOG_MESSAGE_SIZE;
+		while(length > 0 && (message[length] & 0xC0) == 0x80)
+			length--;
+	}
+	memcpy(slot + LOG_SLOT_MESSAGE, message, length);
+	*(int32_t*) (slot + LOG_SLOT_LEVEL) = ordinal;
+	*(int32_t*) (slot + LOG_SLOT_LENGTH) = (int32_t) length;
+	*(int32_t*) (slot + LOG_SLOT_TRUNCATED) = truncated;
+	ring_publish(ring);
+}
+
+static void free_hook_data(JNIEnv *env, struct HookData* hook_data)
+{
+	if(!hook_data)
+		return;
+	
+	(*env)->DeleteGlobalRef(env, hook_data->hook);
+	free(hook_data);
+}
+
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogHook(JNIEnv *env, jclass clazz, jlong pointer, jint min_level, jobject hook, jlong previous)
+{
+	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
 	
 	struct HookData* hook_data = malloc(sizeof(struct HookData));
-	hook_data->jvm = jvm;
+	if(!hook_data)
+	{
+		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/OutOfMemoryError"), "Cannot allocate log hook");
+		return previous;
+	}
 	hook_data->hook = (*env)->NewGlobalRef(env, hook);
 	
 	// enum DiscordLogLevel starts with index 1, so add 1 to translate from "normal" enum
 	core->set_log_hook(core, min_level+1, hook_data, log_hook);
+	
+	// the SDK does not use the replaced hook anymore
+	free_hook_data(env, (struct HookData*) previous);
+	return (jlong) hook_data;
+}
+
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogSink(JNIEnv *env, jclass clazz, jlong pointer, jobject buffer, jint capacity, jlong previous)
+{
+	struct IDiscordCore* core = (struct IDiscordCore*) pointer;
+	
+	struct HookData* hook_data = malloc(sizeof(struct HookData));
+	if(!hook_data)
+	{
+		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/OutOfMemoryError"), "Cannot allocate log hook");
+		return previous;
+	}
+	hook_data->hook = (*env)->NewGlobalRef(env, buffer);
+	ring_init(&hook_data->ring, (*env)->GetDirectBufferAddress(env, buffer), capacity, LOG_SLOT_SIZE, false);
+	
+	// the SDK passes everything, the level of the sink can be changed without calling into the SDK again
+	core->set_log_hook(core, DiscordLogLevel_Debug, hook_data, log_hook_sink);
+	
+	free_hook_data(env, (struct HookData*) previous);
+	return (jlong) hook_data;
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_freeLogHook(JNIEnv *env, jclass clazz, jlong hook_data)
+{
+	free_hook_data(env, (struct HookData*) hook_data);
+}
+
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_createCallbackPool(JNIEnv *env, jclass clazz, jobject metrics)
+{
+	struct CallbackPool* pool = callback_pool_create((*env)->GetDirectBufferAddress(env, metrics));
+	if(!pool)
+		(*env)->ThrowNew(env, (*env)->FindClass(env, "java/lang/OutOfMemoryError"), "Cannot allocate callback pool");
+	return (jlong) pool;
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroyCallbackPool(JNIEnv *env, jclass clazz, jlong callback_pool)
+{
+	callback_pool_destroy(env, (struct CallbackPool*) callback_pool);
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getCallbackPoolStats(JNIEnv *env, jclass clazz, jlong callback_pool, jlongArray stats)
+{
+	struct CallbackPoolStats pool_stats;
+	callback_pool_stats((struct CallbackPool*) callback_pool, &pool_stats);
+	
+	jlong values[3] = { pool_stats.live, pool_stats.peak, pool_stats.capacity };
+	(*env)->SetLongArrayRegion(env, stats, 0, 3, values);
+}
+
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_hasPendingCallbacks(JNIEnv *env, jclass clazz, jlong callback_pool)
+{
+	struct CallbackPoolStats pool_stats;
+	callback_pool_stats((struct CallbackPool*) callback_pool, &pool_stats);
+	
+	return pool_stats.live > 0;
 }
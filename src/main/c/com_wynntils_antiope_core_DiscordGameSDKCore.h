@@ -10,18 +10,26 @@ extern "C" {
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
  * Method:    initDiscordNative
- * Signature: (Ljava/lang/String;)V
+ * Signature: (Ljava/lang/String;)J
  */
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_initDiscordNative
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_initDiscordNative
   (JNIEnv *, jclass, jstring);
 
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    closeDiscordNative
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_closeDiscordNative
+  (JNIEnv *, jclass, jlong);
+
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
  * Method:    create
- * Signature: (J)Ljava/lang/Object;
+ * Signature: (JJ)Ljava/lang/Object;
  */
 JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_create
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
@@ -29,7 +37,7 @@ JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_crea
  * Signature: (J)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroy
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
@@ -37,7 +45,7 @@ JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroy
  * Signature: (J)J
  */
 JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getActivityManager
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
@@ -45,7 +53,7 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getAct
  * Signature: (J)J
  */
 JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getOverlayManager
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
@@ -53,15 +61,63 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getOve
  * Signature: (J)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_runCallbacks
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
  * Method:    setLogHook
- * Signature: (JILjava/util/function/BiConsumer;)V
+ * Signature: (JILjava/util/function/BiConsumer;J)J
+ */
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogHook
+  (JNIEnv *, jclass, jlong, jint, jobject, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    setLogSink
+ * Signature: (JLjava/nio/ByteBuffer;IJ)J
+ */
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogSink
+  (JNIEnv *, jclass, jlong, jobject, jint, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    freeLogHook
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_freeLogHook
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    createCallbackPool
+ * Signature: (Ljava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_createCallbackPool
+  (JNIEnv *, jclass, jobject);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    destroyCallbackPool
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_destroyCallbackPool
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    getCallbackPoolStats
+ * Signature: (J[J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_getCallbackPoolStats
+  (JNIEnv *, jclass, jlong, jlongArray);
+
+/*
+ * Class:     com_wynntils_antiope_core_DiscordGameSDKCore
+ * Method:    hasPendingCallbacks
+ * Signature: (J)Z
  */
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_setLogHook
-  (JNIEnv *, jobject, jlong, jint, jobject);
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_core_DiscordGameSDKCore_hasPendingCallbacks
+  (JNIEnv *, jclass, jlong);
 
 #ifdef __cplusplus
 }
@@ -1,20 +1,55 @@
 #include <stdlib.h>
+#include <string.h>
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_core_type_CreateParams.h"
 #include "EventHandler.h"
+#include "EventRing.h"
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_allocate(JNIEnv *env, jobject object)
+// releases what the last registerEventHandler or registerEventRing stored in event_data
+static void free_event_data(JNIEnv *env, struct DiscordCreateParams *params)
+{
+	if(!params->event_data)
+		return;
+	
+	// both register the activity events, the hooks tell which struct event_data is
+	if(params->activity_events->on_activity_join == on_activity_join_ring)
+	{
+		event_ring_free(env, (struct EventRing*) params->event_data);
+	}
+	else
+	{
+		struct EventData* event_data = (struct EventData*) params->event_data;
+		(*env)->DeleteGlobalRef(env, event_data->handler);
+		free(event_data);
+	}
+	params->event_data = NULL;
+}
+
+// the event structs are reused when registering again, the hooks are set by the caller
+static void allocate_events(struct DiscordCreateParams *params)
+{
+	if(!params->activity_events)
+		params->activity_events = malloc(sizeof(struct IDiscordActivityEvents));
+	memset(params->activity_events, 0, sizeof(struct IDiscordActivityEvents));
+	
+	if(!params->overlay_events)
+		params->overlay_events = malloc(sizeof(struct IDiscordOverlayEvents));
+	memset(params->overlay_events, 0, sizeof(struct IDiscordOverlayEvents));
+}
+
+JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_allocate(JNIEnv *env, jclass clazz)
 {
 	struct DiscordCreateParams *params = malloc(sizeof(struct DiscordCreateParams));
 	DiscordCreateParamsSetDefault(params);
 	return (uint64_t) params;
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_free(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_free(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
 	
+	free_event_data(env, params);
 	if(params->activity_events)
 		free(params->activity_events);
 	if(params->user_events)
@@ -26,68 +61,59 @@ JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_free(JNI
 	free(params);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setClientID(JNIEnv *env, jobject object, jlong pointer, jlong client_id)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setClientID(JNIEnv *env, jclass clazz, jlong pointer, jlong client_id)
 {
 	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
 	params->client_id = client_id;
 }
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getClientID(JNIEnv *env, jobject object, jlong pointer)
-{
-	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
-	return params->client_id;
-}
-
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setFlags(JNIEnv *env, jobject object, jlong pointer, jlong flags)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setFlags(JNIEnv *env, jclass clazz, jlong pointer, jlong flags)
 {
 	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
 	params->flags = flags;
 }
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getFlags(JNIEnv *env, jobject object, jlong pointer)
-{
-	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
-	return params->flags;
-}
-
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_registerEventHandler(JNIEnv *env, jobject object, jlong pointer, jobject handler)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_registerEventHandler(JNIEnv *env, jclass clazz, jlong pointer, jobject handler, jobject event_mask)
 {
 	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
 	
-	// event_data
-	JavaVM* jvm = malloc(sizeof(jvm));
-	(*env)->GetJavaVM(env, &jvm);
+	free_event_data(env, params);
+	allocate_events(params);
 	
+	// event_data
 	struct EventData* event_data = malloc(sizeof(struct EventData));
-	event_data->jvm = jvm;
 	event_data->handler = (*env)->NewGlobalRef(env, handler);
+	// the buffer stays reachable through the handler
+	event_data->mask = (volatile int32_t*) (*env)->GetDirectBufferAddress(env, event_mask);
 	
 	params->event_data = event_data;
 	
 	// activities events
-	struct IDiscordActivityEvents *activity_events = malloc(sizeof(struct IDiscordActivityEvents));
-	memset(activity_events, 0, sizeof(struct IDiscordActivityEvents));
-	
-	activity_events->on_activity_join = on_activity_join;
-	activity_events->on_activity_spectate = on_activity_spectate;
-	activity_events->on_activity_join_request = on_activity_join_request;
-	
-	params->activity_events = activity_events;
+	params->activity_events->on_activity_join = on_activity_join;
+	params->activity_events->on_activity_spectate = on_activity_spectate;
+	params->activity_events->on_activity_join_request = on_activity_join_request;
 
 	// overlay_events
-	struct IDiscordOverlayEvents *overlay_events = malloc(sizeof(struct IDiscordOverlayEvents));
-	memset(overlay_events, 0, sizeof(struct IDiscordOverlayEvents));
-
-	overlay_events->on_toggle = on_overlay_toggle;
-
-	params->overlay_events = overlay_events;
+	params->overlay_events->on_toggle = on_overlay_toggle;
 }
 
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getDefaultFlags(JNIEnv *env, jclass clazz)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_registerEventRing(JNIEnv *env, jclass clazz, jlong pointer, jobject ring, jobject buffer, jint capacity, jint policy, jobject event_mask)
 {
-	return DiscordCreateFlags_Default;
-}
-
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getNoRequireDiscordFlags(JNIEnv *env, jclass clazz) {
-    return DiscordCreateFlags_NoRequireDiscord;
+	struct DiscordCreateParams *params = (struct DiscordCreateParams*) pointer;
+	
+	free_event_data(env, params);
+	allocate_events(params);
+	
+	// event_data
+	struct EventRing* event_ring = event_ring_create(env, ring, buffer, capacity, policy, event_mask);
+	
+	params->event_data = event_ring;
+	
+	// activities events
+	params->activity_events->on_activity_join = on_activity_join_ring;
+	params->activity_events->on_activity_spectate = on_activity_spectate_ring;
+	params->activity_events->on_activity_join_request = on_activity_join_request_ring;
+	
+	// overlay_events
+	params->overlay_events->on_toggle = on_overlay_toggle_ring;
 }
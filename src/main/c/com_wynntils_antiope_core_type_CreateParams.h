@@ -13,7 +13,7 @@ extern "C" {
  * Signature: ()J
  */
 JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_allocate
-  (JNIEnv *, jobject);
+  (JNIEnv *, jclass);
 
 /*
  * Class:     com_wynntils_antiope_core_type_CreateParams
@@ -21,7 +21,7 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_allocat
  * Signature: (J)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_free
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_type_CreateParams
@@ -29,15 +29,7 @@ JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_free
  * Signature: (JJ)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setClientID
-  (JNIEnv *, jobject, jlong, jlong);
-
-/*
- * Class:     com_wynntils_antiope_core_type_CreateParams
- * Method:    getClientID
- * Signature: (J)J
- */
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getClientID
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_type_CreateParams
@@ -45,39 +37,23 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getClie
  * Signature: (JJ)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_setFlags
-  (JNIEnv *, jobject, jlong, jlong);
-
-/*
- * Class:     com_wynntils_antiope_core_type_CreateParams
- * Method:    getFlags
- * Signature: (J)J
- */
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getFlags
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong, jlong);
 
 /*
  * Class:     com_wynntils_antiope_core_type_CreateParams
  * Method:    registerEventHandler
- * Signature: (JLcom/wynntils/antiope/event/DiscordEventAdapter;)V
+ * Signature: (JLcom/wynntils/antiope/event/DiscordEventAdapter;Ljava/nio/ByteBuffer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_registerEventHandler
-  (JNIEnv *, jobject, jlong, jobject);
+  (JNIEnv *, jclass, jlong, jobject, jobject);
 
 /*
  * Class:     com_wynntils_antiope_core_type_CreateParams
- * Method:    getDefaultFlags
- * Signature: ()J
- */
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getDefaultFlags
-  (JNIEnv *, jclass);
-
-/*
- * Class:     com_wynntils_antiope_core_type_CreateParams
- * Method:    getDefaultFlags
- * Signature: ()J
+ * Method:    registerEventRing
+ * Signature: (JLcom/wynntils/antiope/event/DiscordEventRing;Ljava/nio/ByteBuffer;IILjava/nio/ByteBuffer;)V
  */
-JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_core_type_CreateParams_getNoRequireDiscordFlags
-  (JNIEnv *, jclass);
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_core_type_CreateParams_registerEventRing
+  (JNIEnv *, jclass, jlong, jobject, jobject, jint, jint, jobject);
 
 #ifdef __cplusplus
 }
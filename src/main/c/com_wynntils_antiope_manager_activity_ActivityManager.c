@@ -1,10 +1,13 @@
 #include <stdlib.h>
+#include <string.h>
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_manager_activity_ActivityManager.h"
+#include "ActivitySpec.h"
 #include "Callback.h"
+#include "JniCache.h"
 
-JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerCommand(JNIEnv *env, jobject object, jlong pointer, jstring command)
+JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerCommand(JNIEnv *env, jclass clazz, jlong pointer, jstring command)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
@@ -12,77 +15,102 @@ JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityMan
 	enum EDiscordResult result = activity_manager->register_command(activity_manager, nativeString);
 	(*env)->ReleaseStringUTFChars(env, command, nativeString);
 	
-	jclass result_clazz = (*env)->FindClass(env, "com/wynntils/antiope/core/type/Result");
-	jmethodID values_method = (*env)->GetStaticMethodID(env, result_clazz, "values", "()[Lcom/wynntils/antiope/core/type/Result;");
-	jobjectArray values = (jobjectArray) (*env)->CallStaticObjectMethod(env, result_clazz, values_method);
-	jobject result_object = (*env)->GetObjectArrayElement(env, values, result);
-
-	return result_object;
+	return (*env)->NewLocalRef(env, jni_result(result));
 }
 
-JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerSteam(JNIEnv *env, jobject object, jlong pointer, jint steamId)
+JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerSteam(JNIEnv *env, jclass clazz, jlong pointer, jint steamId)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
 	enum EDiscordResult result = activity_manager->register_steam(activity_manager, steamId);
 	
-	jclass result_clazz = (*env)->FindClass(env, "com/wynntils/antiope/core/type/Result");
-	jmethodID values_method = (*env)->GetStaticMethodID(env, result_clazz, "values", "()[Lcom/wynntils/antiope/core/type/Result;");
-	jobjectArray values = (jobjectArray) (*env)->CallStaticObjectMethod(env, result_clazz, values_method);
-	jobject result_object = (*env)->GetObjectArrayElement(env, values, result);
-
-	return result_object;
+	return (*env)->NewLocalRef(env, jni_result(result));
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivity(JNIEnv *env, jobject object, jlong pointer, jlong activity_pointer, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivity(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jlong activity_pointer, jobject callback)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) activity_pointer;
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_UPDATE_ACTIVITY);
+	if(!cbd)
+		return;
+	
+	activity_manager->update_activity(activity_manager, activity, cbd, simple_callback);
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivitySpec(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jbyteArray strings, jlongArray numbers, jobject callback)
+{
+	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
+	
+	// the SDK copies the activity before update_activity returns
+	struct DiscordActivity activity;
+	memset(&activity, 0, sizeof(activity));
+	activity_from_spec(env, &activity, strings, numbers);
+	if((*env)->ExceptionCheck(env))
+		return;
+	
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_UPDATE_ACTIVITY);
+	if(!cbd)
+		return;
+	
+	activity_manager->update_activity(activity_manager, &activity, cbd, simple_callback);
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivityBuffer(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jobject buffer, jobject callback)
+{
+	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
+	struct DiscordActivity *activity = (*env)->GetDirectBufferAddress(env, buffer);
+	
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_UPDATE_ACTIVITY);
+	if(!cbd)
+		return;
 	
 	activity_manager->update_activity(activity_manager, activity, cbd, simple_callback);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_clearActivity(JNIEnv *env, jobject object, jlong pointer, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_clearActivity(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jobject callback)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_CLEAR_ACTIVITY);
+	if(!cbd)
+		return;
 	
 	activity_manager->clear_activity(activity_manager, cbd, simple_callback);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendRequestReply(JNIEnv *env, jobject object, jlong pointer, jlong userId, jint reply, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendRequestReply(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jlong userId, jint reply, jobject callback)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_SEND_REQUEST_REPLY);
+	if(!cbd)
+		return;
 	
 	activity_manager->send_request_reply(activity_manager, userId, reply, cbd, simple_callback);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendInvite(JNIEnv *env, jobject object, jlong pointer, jlong userId, jint type, jstring content, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendInvite(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jlong userId, jint type, jstring content, jobject callback)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_SEND_INVITE);
+	if(!cbd)
+		return;
 	
 	const char *native_content = (*env)->GetStringUTFChars(env, content, 0);
 	activity_manager->send_invite(activity_manager, userId, type, native_content, cbd, simple_callback);
 	(*env)->ReleaseStringUTFChars(env, content, native_content);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_acceptRequest(JNIEnv *env, jobject object, jlong pointer, jlong userId, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_acceptRequest(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jlong userId, jobject callback)
 {
 	struct IDiscordActivityManager *activity_manager = (struct IDiscordActivityManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_ACCEPT_REQUEST);
+	if(!cbd)
+		return;
 	
 	activity_manager->accept_invite(activity_manager, userId, cbd, simple_callback);
 }
@@ -13,7 +13,7 @@ extern "C" {
  * Signature: (JLjava/lang/String;)Lcom/wynntils/antiope/core/type/Result;
  */
 JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerCommand
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jclass, jlong, jstring);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
@@ -21,47 +21,63 @@ JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityMan
  * Signature: (JI)Lcom/wynntils/antiope/core/type/Result;
  */
 JNIEXPORT jobject JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_registerSteam
-  (JNIEnv *, jobject, jlong, jint);
+  (JNIEnv *, jclass, jlong, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
  * Method:    updateActivity
- * Signature: (JJLjava/util/function/Consumer;)V
+ * Signature: (JJJLjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivity
-  (JNIEnv *, jobject, jlong, jlong, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jlong, jobject);
+
+/*
+ * Class:     com_wynntils_antiope_manager_activity_ActivityManager
+ * Method:    updateActivitySpec
+ * Signature: (JJ[B[JLjava/util/function/Consumer;)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivitySpec
+  (JNIEnv *, jclass, jlong, jlong, jbyteArray, jlongArray, jobject);
+
+/*
+ * Class:     com_wynntils_antiope_manager_activity_ActivityManager
+ * Method:    updateActivityBuffer
+ * Signature: (JJLjava/nio/ByteBuffer;Ljava/util/function/Consumer;)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_updateActivityBuffer
+  (JNIEnv *, jclass, jlong, jlong, jobject, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
  * Method:    clearActivity
- * Signature: (JLjava/util/function/Consumer;)V
+ * Signature: (JJLjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_clearActivity
-  (JNIEnv *, jobject, jlong, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
  * Method:    sendRequestReply
- * Signature: (JJILjava/util/function/Consumer;)V
+ * Signature: (JJJILjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendRequestReply
-  (JNIEnv *, jobject, jlong, jlong, jint, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
  * Method:    sendInvite
- * Signature: (JJILjava/lang/String;Ljava/util/function/Consumer;)V
+ * Signature: (JJJILjava/lang/String;Ljava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_sendInvite
-  (JNIEnv *, jobject, jlong, jlong, jint, jstring, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jstring, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_ActivityManager
  * Method:    acceptRequest
- * Signature: (JJLjava/util/function/Consumer;)V
+ * Signature: (JJJLjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_ActivityManager_acceptRequest
-  (JNIEnv *, jobject, jlong, jlong, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jlong, jobject);
 
 #ifdef __cplusplus
 }
@@ -1,7 +1,10 @@
 #include <stdlib.h>
+#include <string.h>
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_manager_activity_type_Activity.h"
+#include "NativeString.h"
+#include "ActivitySpec.h"
 
 JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_allocate(JNIEnv *env, jobject object)
 {
@@ -17,43 +20,39 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity
 	return activity->application_id;
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getName(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getName(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) pointer;
 	
-	return (*env)->NewStringUTF(env, activity->name);
+	return read_native_string(env, activity->name, sizeof(activity->name), buffer);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setState(JNIEnv *env, jobject object, jlong pointer, jstring state)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setState(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, state, 0);
-	strcpy(activity->state, nativeString);
-	(*env)->ReleaseStringUTFChars(env, state, nativeString);
+	write_native_string(env, activity->state, sizeof(activity->state), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getState(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getState(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) pointer;
 	
-	return (*env)->NewStringUTF(env, activity->state);
+	return read_native_string(env, activity->state, sizeof(activity->state), buffer);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setDetails(JNIEnv *env, jobject object, jlong pointer, jstring details)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setDetails(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, details, 0);
-	strcpy(activity->details, nativeString);
-	(*env)->ReleaseStringUTFChars(env, details, nativeString);
+	write_native_string(env, activity->details, sizeof(activity->details), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getDetails(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getDetails(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivity *activity = (struct DiscordActivity*) pointer;
 	
-	return (*env)->NewStringUTF(env, activity->details);
+	return read_native_string(env, activity->details, sizeof(activity->details), buffer);
 }
 
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setType(JNIEnv *env, jobject object, jlong pointer, jint type)
@@ -112,3 +111,41 @@ JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_
 {
 	free((void*)pointer);
 }
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_clear(JNIEnv *env, jclass clazz, jlong pointer)
+{
+	memset((void*)pointer, 0, sizeof(struct DiscordActivity));
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_copy(JNIEnv *env, jclass clazz, jlong destination, jlong source)
+{
+	memcpy((void*) destination, (void*) source, sizeof(struct DiscordActivity));
+}
+
+// strings are compared up to their terminator, a shorter string might have left old characters behind it
+#define FIELD_EQUALS(field) (a->field == b->field)
+#define STRING_EQUALS(field) (strncmp(a->field, b->field, sizeof(a->field)) == 0)
+
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_contentEquals(JNIEnv *env, jclass clazz, jlong pointer, jlong other_pointer)
+{
+	struct DiscordActivity *a = (struct DiscordActivity*) pointer;
+	struct DiscordActivity *b = (struct DiscordActivity*) other_pointer;
+	
+	return FIELD_EQUALS(type) && FIELD_EQUALS(application_id) && FIELD_EQUALS(instance)
+		&& STRING_EQUALS(name) && STRING_EQUALS(state) && STRING_EQUALS(details)
+		&& FIELD_EQUALS(timestamps.start) && FIELD_EQUALS(timestamps.end)
+		&& STRING_EQUALS(assets.large_image) && STRING_EQUALS(assets.large_text)
+		&& STRING_EQUALS(assets.small_image) && STRING_EQUALS(assets.small_text)
+		&& STRING_EQUALS(party.id) && FIELD_EQUALS(party.size.current_size) && FIELD_EQUALS(party.size.max_size)
+		&& STRING_EQUALS(secrets.match) && STRING_EQUALS(secrets.join) && STRING_EQUALS(secrets.spectate);
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_writeSpec(JNIEnv *env, jclass clazz, jlong pointer, jbyteArray strings, jlongArray numbers)
+{
+	activity_from_spec(env, (struct DiscordActivity*) pointer, strings, numbers);
+}
+
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_readSpec(JNIEnv *env, jclass clazz, jlong pointer, jbyteArray strings, jlongArray numbers)
+{
+	activity_to_spec(env, (struct DiscordActivity*) pointer, strings, numbers);
+}
@@ -23,6 +23,14 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_free
   (JNIEnv *, jclass, jlong);
 
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_Activity
+ * Method:    clear
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_clear
+  (JNIEnv *, jclass, jlong);
+
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    getApplicationId
@@ -34,42 +42,42 @@ JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    getName
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getName
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getName
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    setState
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setState
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    getState
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getState
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getState
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    setDetails
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_setDetails
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
  * Method:    getDetails
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getDetails
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getDetails
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_Activity
@@ -135,6 +143,38 @@ JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_
 JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_getInstance
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_Activity
+ * Method:    copy
+ * Signature: (JJ)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_copy
+  (JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_Activity
+ * Method:    contentEquals
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_contentEquals
+  (JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_Activity
+ * Method:    writeSpec
+ * Signature: (J[B[J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_writeSpec
+  (JNIEnv *, jclass, jlong, jbyteArray, jlongArray);
+
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_Activity
+ * Method:    readSpec
+ * Signature: (J[B[J)V
+ */
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_Activity_readSpec
+  (JNIEnv *, jclass, jlong, jbyteArray, jlongArray);
+
 #ifdef __cplusplus
 }
 #endif
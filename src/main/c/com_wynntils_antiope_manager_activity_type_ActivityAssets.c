@@ -1,68 +1,61 @@
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_manager_activity_type_ActivityAssets.h"
+#include "NativeString.h"
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeImage(JNIEnv *env, jobject object, jlong pointer, jstring asset_key)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeImage(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, asset_key, 0);
-	strcpy(assets->large_image, nativeString);
-	(*env)->ReleaseStringUTFChars(env, asset_key, nativeString);
+	write_native_string(env, assets->large_image, sizeof(assets->large_image), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeImage(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeImage(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	return (*env)->NewStringUTF(env, assets->large_image);
+	return read_native_string(env, assets->large_image, sizeof(assets->large_image), buffer);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeText(JNIEnv *env, jobject object, jlong pointer, jstring text)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeText(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, text, 0);
-	strcpy(assets->large_text, nativeString);
-	(*env)->ReleaseStringUTFChars(env, text, nativeString);
+	write_native_string(env, assets->large_text, sizeof(assets->large_text), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeText(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeText(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	return (*env)->NewStringUTF(env, assets->large_text);
+	return read_native_string(env, assets->large_text, sizeof(assets->large_text), buffer);
 }
 
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallImage(JNIEnv *env, jobject object, jlong pointer, jstring asset_key)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallImage(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, asset_key, 0);
-	strcpy(assets->small_image, nativeString);
-	(*env)->ReleaseStringUTFChars(env, asset_key, nativeString);
+	write_native_string(env, assets->small_image, sizeof(assets->small_image), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallImage(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallImage(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	return (*env)->NewStringUTF(env, assets->small_image);
+	return read_native_string(env, assets->small_image, sizeof(assets->small_image), buffer);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallText(JNIEnv *env, jobject object, jlong pointer, jstring text)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallText(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, text, 0);
-	strcpy(assets->small_text, nativeString);
-	(*env)->ReleaseStringUTFChars(env, text, nativeString);
+	write_native_string(env, assets->small_text, sizeof(assets->small_text), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallText(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallText(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivityAssets *assets = (struct DiscordActivityAssets*) pointer;
 	
-	return (*env)->NewStringUTF(env, assets->small_text);
+	return read_native_string(env, assets->small_text, sizeof(assets->small_text), buffer);
 }
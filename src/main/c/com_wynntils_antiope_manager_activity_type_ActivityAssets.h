@@ -10,66 +10,66 @@ extern "C" {
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    setLargeImage
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeImage
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    getLargeImage
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeImage
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeImage
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    setLargeText
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setLargeText
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    getLargeText
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeText
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getLargeText
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    setSmallImage
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallImage
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    getSmallImage
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallImage
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallImage
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    setSmallText
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_setSmallText
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityAssets
  * Method:    getSmallText
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallText
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityAssets_getSmallText
+  (JNIEnv *, jobject, jlong, jobject);
 
 #ifdef __cplusplus
 }
@@ -0,0 +1,32 @@
+#include <stddef.h>
+#include <discord_game_sdk.h>
+
+#include "com_wynntils_antiope_manager_activity_type_ActivityBuffer.h"
+
+// the order must match the static initializer of ActivityBuffer.java
+static const jint layout[] = {
+	offsetof(struct DiscordActivity, type),
+	offsetof(struct DiscordActivity, application_id),
+	offsetof(struct DiscordActivity, name),
+	offsetof(struct DiscordActivity, state),
+	offsetof(struct DiscordActivity, details),
+	offsetof(struct DiscordActivity, timestamps.start),
+	offsetof(struct DiscordActivity, timestamps.end),
+	offsetof(struct DiscordActivity, assets.large_image),
+	offsetof(struct DiscordActivity, assets.large_text),
+	offsetof(struct DiscordActivity, assets.small_image),
+	offsetof(struct DiscordActivity, assets.small_text),
+	offsetof(struct DiscordActivity, party.id),
+	offsetof(struct DiscordActivity, party.size.current_size),
+	offsetof(struct DiscordActivity, party.size.max_size),
+	offsetof(struct DiscordActivity, secrets.match),
+	offsetof(struct DiscordActivity, secrets.join),
+	offsetof(struct DiscordActivity, secrets.spectate),
+	offsetof(struct DiscordActivity, instance)
+};
+
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityBuffer_getLayout(JNIEnv *env, jclass clazz, jintArray offsets)
+{
+	(*env)->SetIntArrayRegion(env, offsets, 0, sizeof(layout) / sizeof(layout[0]), layout);
+	return sizeof(struct DiscordActivity);
+}
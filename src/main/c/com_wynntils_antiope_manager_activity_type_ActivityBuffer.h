@@ -0,0 +1,23 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class com_wynntils_antiope_manager_activity_type_ActivityBuffer */
+
+#ifndef _Included_com_wynntils_antiope_manager_activity_type_ActivityBuffer
+#define _Included_com_wynntils_antiope_manager_activity_type_ActivityBuffer
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef com_wynntils_antiope_manager_activity_type_ActivityBuffer_MAX_LENGTH
+#define com_wynntils_antiope_manager_activity_type_ActivityBuffer_MAX_LENGTH 127L
+/*
+ * Class:     com_wynntils_antiope_manager_activity_type_ActivityBuffer
+ * Method:    getLayout
+ * Signature: ([I)I
+ */
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityBuffer_getLayout
+  (JNIEnv *, jclass, jintArray);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
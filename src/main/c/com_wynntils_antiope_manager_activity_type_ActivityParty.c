@@ -1,21 +1,20 @@
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_manager_activity_type_ActivityParty.h"
+#include "NativeString.h"
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_setID(JNIEnv *env, jobject object, jlong pointer, jstring id)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_setID(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivityParty *party = (struct DiscordActivityParty*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, id, 0);
-	strcpy(party->id, nativeString);
-	(*env)->ReleaseStringUTFChars(env, id, nativeString);
+	write_native_string(env, party->id, sizeof(party->id), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_getID(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_getID(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivityParty *party = (struct DiscordActivityParty*) pointer;
 	
-	return (*env)->NewStringUTF(env, party->id);
+	return read_native_string(env, party->id, sizeof(party->id), buffer);
 }
 
 JNIEXPORT jlong JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_getSize(JNIEnv *env, jobject object, jlong pointer)
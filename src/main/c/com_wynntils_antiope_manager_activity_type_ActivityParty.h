@@ -10,18 +10,18 @@ extern "C" {
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityParty
  * Method:    setID
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_setID
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityParty
  * Method:    getID
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_getID
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivityParty_getID
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivityParty
@@ -1,52 +1,47 @@
 #include <discord_game_sdk.h>
 
 #include "com_wynntils_antiope_manager_activity_type_ActivitySecrets.h"
+#include "NativeString.h"
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setMatchSecret(JNIEnv *env, jobject object, jlong pointer, jstring secret)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setMatchSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, secret, 0);
-	strcpy(secrets->match, nativeString);
-	(*env)->ReleaseStringUTFChars(env, secret, nativeString);
+	write_native_string(env, secrets->match, sizeof(secrets->match), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getMatchSecret(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getMatchSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	return (*env)->NewStringUTF(env, secrets->match);
+	return read_native_string(env, secrets->match, sizeof(secrets->match), buffer);
 }
 
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setJoinSecret(JNIEnv *env, jobject object, jlong pointer, jstring secret)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setJoinSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, secret, 0);
-	strcpy(secrets->join, nativeString);
-	(*env)->ReleaseStringUTFChars(env, secret, nativeString);
+	write_native_string(env, secrets->join, sizeof(secrets->join), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getJoinSecret(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getJoinSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	return (*env)->NewStringUTF(env, secrets->join);
+	return read_native_string(env, secrets->join, sizeof(secrets->join), buffer);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setSpectateSecret(JNIEnv *env, jobject object, jlong pointer, jstring secret)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setSpectateSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer, jint length)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	const char *nativeString = (*env)->GetStringUTFChars(env, secret, 0);
-	strcpy(secrets->spectate, nativeString);
-	(*env)->ReleaseStringUTFChars(env, secret, nativeString);
+	write_native_string(env, secrets->spectate, sizeof(secrets->spectate), buffer, length);
 }
 
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getSpectateSecret(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getSpectateSecret(JNIEnv *env, jobject object, jlong pointer, jobject buffer)
 {
 	struct DiscordActivitySecrets *secrets = (struct DiscordActivitySecrets*) pointer;
 	
-	return (*env)->NewStringUTF(env, secrets->spectate);
+	return read_native_string(env, secrets->spectate, sizeof(secrets->spectate), buffer);
 }
\ No newline at end of file
@@ -10,50 +10,50 @@ extern "C" {
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    setMatchSecret
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setMatchSecret
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    getMatchSecret
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getMatchSecret
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getMatchSecret
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    setJoinSecret
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setJoinSecret
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    getJoinSecret
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getJoinSecret
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getJoinSecret
+  (JNIEnv *, jobject, jlong, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    setSpectateSecret
- * Signature: (JLjava/lang/String;)V
+ * Signature: (JLjava/nio/ByteBuffer;I)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_setSpectateSecret
-  (JNIEnv *, jobject, jlong, jstring);
+  (JNIEnv *, jobject, jlong, jobject, jint);
 
 /*
  * Class:     com_wynntils_antiope_manager_activity_type_ActivitySecrets
  * Method:    getSpectateSecret
- * Signature: (J)Ljava/lang/String;
+ * Signature: (JLjava/nio/ByteBuffer;)I
  */
-JNIEXPORT jstring JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getSpectateSecret
-  (JNIEnv *, jobject, jlong);
+JNIEXPORT jint JNICALL Java_com_wynntils_antiope_manager_activity_type_ActivitySecrets_getSpectateSecret
+  (JNIEnv *, jobject, jlong, jobject);
 
 #ifdef __cplusplus
 }
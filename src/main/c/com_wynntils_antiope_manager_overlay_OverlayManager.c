@@ -4,7 +4,7 @@
 #include "com_wynntils_antiope_manager_overlay_OverlayManager.h"
 #include "Callback.h"
 
-JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isEnabled(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isEnabled(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
@@ -14,7 +14,7 @@ JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayMana
 	return enabled;
 }
 
-JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isLocked(JNIEnv *env, jobject object, jlong pointer)
+JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isLocked(JNIEnv *env, jclass clazz, jlong pointer)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
@@ -24,45 +24,49 @@ JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayMana
 	return locked;
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_setLocked(JNIEnv *env, jobject object, jlong pointer, jboolean locked, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_setLocked(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jboolean locked, jobject callback)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_SET_OVERLAY_LOCKED);
+	if(!cbd)
+		return;
 	
 	overlay_manager->set_locked(overlay_manager, locked, cbd, simple_callback);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openActivityInvite(JNIEnv *env, jobject object, jlong pointer, jint type, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openActivityInvite(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jint type, jobject callback)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_OPEN_ACTIVITY_INVITE);
+	if(!cbd)
+		return;
 	
 	// enum DiscordActivityActionType starts with index 1, so add 1 to translate from "normal" enum
 	overlay_manager->open_activity_invite(overlay_manager, type+1, cbd, simple_callback);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openGuildInvite(JNIEnv *env, jobject object, jlong pointer, jstring code, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openGuildInvite(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jstring code, jobject callback)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_OPEN_GUILD_INVITE);
+	if(!cbd)
+		return;
 	
 	const char *nativeString = (*env)->GetStringUTFChars(env, code, 0);
 	overlay_manager->open_guild_invite(overlay_manager, nativeString, cbd, simple_callback);
 	(*env)->ReleaseStringUTFChars(env, code, nativeString);
 }
 
-JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openVoiceSettings(JNIEnv *env, jobject object, jlong pointer, jobject callback)
+JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openVoiceSettings(JNIEnv *env, jclass clazz, jlong pointer, jlong callback_pool, jobject callback)
 {
 	struct IDiscordOverlayManager *overlay_manager = (struct IDiscordOverlayManager*) pointer;
 	
-	struct CallbackData* cbd = malloc(sizeof(struct CallbackData));
-	prepare_callback_data(env, callback, cbd);
+	struct CallbackData* cbd = prepare_callback_data(env, callback_pool, callback, OPERATION_OPEN_VOICE_SETTINGS);
+	if(!cbd)
+		return;
 	
 	overlay_manager->open_voice_settings(overlay_manager, cbd, simple_callback);
 }
@@ -13,7 +13,7 @@ extern "C" {
  * Signature: (J)Z
  */
 JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isEnabled
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_manager_overlay_OverlayManager
@@ -21,39 +21,39 @@ JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayMana
  * Signature: (J)Z
  */
 JNIEXPORT jboolean JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_isLocked
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     com_wynntils_antiope_manager_overlay_OverlayManager
  * Method:    setLocked
- * Signature: (JZLjava/util/function/Consumer;)V
+ * Signature: (JJZLjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_setLocked
-  (JNIEnv *, jobject, jlong, jboolean, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jboolean, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_overlay_OverlayManager
  * Method:    openActivityInvite
- * Signature: (JILjava/util/function/Consumer;)V
+ * Signature: (JJILjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openActivityInvite
-  (JNIEnv *, jobject, jlong, jint, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jint, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_overlay_OverlayManager
  * Method:    openGuildInvite
- * Signature: (JLjava/lang/String;Ljava/util/function/Consumer;)V
+ * Signature: (JJLjava/lang/String;Ljava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openGuildInvite
-  (JNIEnv *, jobject, jlong, jstring, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jstring, jobject);
 
 /*
  * Class:     com_wynntils_antiope_manager_overlay_OverlayManager
  * Method:    openVoiceSettings
- * Signature: (JLjava/util/function/Consumer;)V
+ * Signature: (JJLjava/util/function/Consumer;)V
  */
 JNIEXPORT void JNICALL Java_com_wynntils_antiope_manager_overlay_OverlayManager_openVoiceSettings
-  (JNIEnv *, jobject, jlong, jobject);
+  (JNIEnv *, jclass, jlong, jlong, jobject);
 
 #ifdef __cplusplus
 }
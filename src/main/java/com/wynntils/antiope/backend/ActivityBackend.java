@@ -0,0 +1,83 @@
+package com.wynntils.antiope.backend;
+
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.manager.activity.ActivityManager;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.util.function.Consumer;
+
+/**
+ * <p>Activity manager of a {@link CoreBackend}.</p>
+ * <p>The arguments have been checked by the {@link ActivityManager}. Callbacks must only be called during
+ * {@link CoreBackend#runCallbacks()}, exactly once for every request.</p>
+ * @see ActivityManager
+ */
+public interface ActivityBackend {
+    /**
+     * @param command Custom protocol URL or path to an executable
+     * @return The result of the operation
+     * @see ActivityManager#registerCommand(String)
+     */
+    Result registerCommand(String command);
+
+    /**
+     * @param steamId Steam App ID of the game
+     * @return The result of the operation
+     * @see ActivityManager#registerSteam(int)
+     */
+    Result registerSteam(int steamId);
+
+    /**
+     * @param activity New activity, only read during this call
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#updateActivity(Activity, Consumer)
+     */
+    void updateActivity(Activity activity, Consumer<Result> callback);
+
+    /**
+     * @param activity New activity
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#updateActivity(ActivitySpec, Consumer)
+     */
+    void updateActivity(ActivitySpec activity, Consumer<Result> callback);
+
+    /**
+     * @param activity New activity, only read during this call
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#updateActivity(ActivityBuffer, Consumer)
+     */
+    void updateActivity(ActivityBuffer activity, Consumer<Result> callback);
+
+    /**
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#clearActivity(Consumer)
+     */
+    void clearActivity(Consumer<Result> callback);
+
+    /**
+     * @param userId ID of the user who asked to join
+     * @param reply Reply to send
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#sendRequestReply(long, ActivityJoinRequestReply, Consumer)
+     */
+    void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback);
+
+    /**
+     * @param userId ID of the user to invite
+     * @param type Type of the invite
+     * @param content Message to send along
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#sendInvite(long, ActivityActionType, String, Consumer)
+     */
+    void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback);
+
+    /**
+     * @param userId ID of the user who sent the invite
+     * @param callback Callback to pass the result to
+     * @see ActivityManager#acceptRequest(long, Consumer)
+     */
+    void acceptRequest(long userId, Consumer<Result> callback);
+}
@@ -0,0 +1,67 @@
+package com.wynntils.antiope.backend;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.DiscordLogSink;
+import com.wynntils.antiope.core.type.CallbackPoolStats;
+import com.wynntils.antiope.core.type.LogLevel;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>SDK instance backing a {@link DiscordGameSDKCore}.</p>
+ * <p>Like Discord's SDK, a backend is not thread-safe. The core only calls it from the thread currently using the
+ * core, one call at a time. Callbacks and events must only run during {@link #runCallbacks()}.</p>
+ * @see DiscordBackend#create
+ */
+public interface CoreBackend {
+    /**
+     * Gets the activity manager of this instance.
+     * @return The activity manager
+     */
+    ActivityBackend activityManager();
+
+    /**
+     * Gets the overlay manager of this instance.
+     * @return The overlay manager
+     */
+    OverlayBackend overlayManager();
+
+    /**
+     * Runs the callbacks of completed requests and fires pending events.
+     * @see DiscordGameSDKCore#runCallbacks()
+     */
+    void runCallbacks();
+
+    /**
+     * Replaces the log hook.
+     * @param minLevel Minimal level of messages to pass
+     * @param logHook Hook to call while the callbacks run
+     * @see DiscordGameSDKCore#setLogHook(LogLevel, BiConsumer)
+     */
+    void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook);
+
+    /**
+     * Replaces the log hook with a sink.
+     * @param logSink An open log sink
+     * @see DiscordGameSDKCore#setLogHook(DiscordLogSink)
+     */
+    void setLogSink(DiscordLogSink logSink);
+
+    /**
+     * Gets how many callbacks are pending and have been pending at most.
+     * @return A snapshot of the callback counters
+     * @see DiscordGameSDKCore#getCallbackPoolStats()
+     */
+    CallbackPoolStats getCallbackPoolStats();
+
+    /**
+     * Returns true if a request has been sent whose callback has not run yet.
+     * @return True if callbacks are pending, false otherwise
+     */
+    boolean hasPendingCallbacks();
+
+    /**
+     * <p>Destroys the instance and frees everything it allocated.</p>
+     * <p>Callbacks that are still pending are never called. No other method is called afterwards.</p>
+     */
+    void destroy();
+}
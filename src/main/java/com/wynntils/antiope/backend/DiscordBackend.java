@@ -0,0 +1,31 @@
+package com.wynntils.antiope.backend;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CreateParams;
+
+/**
+ * <p>Implementation of the SDK a {@link DiscordGameSDKCore} runs on.</p>
+ * <p>{@link DiscordGameSDKCore#NATIVE_BACKEND} calls Discord's native library through JNI and is used by default.
+ * Other backends, like the {@link com.wynntils.antiope.backend.simulator.DiscordSimulator} or the
+ * {@link com.wynntils.antiope.backend.ipc.DiscordIpcBackend}, run without it.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  DiscordSimulator simulator = DiscordSimulator.builder().setLatency(Duration.ofMillis(30)).build();
+ *  DiscordGameSDKCore core = new DiscordGameSDKCore(params, simulator);}</pre>
+ *
+ * @see DiscordGameSDKCore#DiscordGameSDKCore(CreateParams, DiscordBackend)
+ */
+@FunctionalInterface
+public interface DiscordBackend {
+    /**
+     * <p>Creates the SDK instance of a new core.</p>
+     * <p>The backend owns everything it allocates until {@link CoreBackend#destroy()} is called.</p>
+     * @param params Parameters the core is created from
+     * @param metrics Metrics of the core, callbacks have to be recorded there
+     * @return The SDK instance
+     * @throws com.wynntils.antiope.core.type.GameSDKException if the SDK instance can not be created
+     */
+    CoreBackend create(CreateParams params, SdkMetrics metrics);
+}
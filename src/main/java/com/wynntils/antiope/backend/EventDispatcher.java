@@ -0,0 +1,55 @@
+package com.wynntils.antiope.backend;
+
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.event.DiscordEventRing;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.user.DiscordUser;
+
+/**
+ * <p>Passes the events of a backend without native event hooks to the handler or ring registered on the
+ * {@link CreateParams}, like the native hooks do.</p>
+ * <p>This is <b>not</b> an API class. Do <b>not</b> use it.</p>
+ */
+public final class EventDispatcher {
+    private final DiscordEventAdapter eventHandler;
+    private final DiscordEventRing eventRing;
+
+    /**
+     * @param params Parameters the core is created from
+     */
+    public EventDispatcher(CreateParams params) {
+        this.eventHandler = params.getEventHandler();
+        this.eventRing = params.getEventRing();
+    }
+
+    /**
+     * Fires an event, if it is in the event mask. This must only be called while the callbacks run.
+     * @param type Type of the event
+     * @param secret Secret of join and spectate events, {@code null} otherwise
+     * @param user User of join request events, {@code null} otherwise
+     * @param locked Locked state of overlay toggle events
+     */
+    public void fire(DiscordEventType<?> type, String secret, DiscordUser user, boolean locked) {
+        if (eventRing != null) {
+            if (user != null) {
+                eventRing.publish(type, user.isBot(), user.getUserId(), user.getUsername(), user.getDiscriminator(),
+                        user.getAvatar());
+            } else {
+                eventRing.publish(type, locked, 0, secret, null, null);
+            }
+            return;
+        }
+        if (eventHandler == null || (eventHandler.getEventMask() & type.mask()) == 0) return;
+
+        if (type == DiscordEventType.ACTIVITY_JOIN) {
+            eventHandler.onActivityJoin(secret);
+        } else if (type == DiscordEventType.ACTIVITY_SPECTATE) {
+            eventHandler.onActivitySpectate(secret);
+        } else if (type == DiscordEventType.ACTIVITY_JOIN_REQUEST) {
+            eventHandler.onActivityJoinRequest(user);
+        } else if (type == DiscordEventType.OVERLAY_TOGGLE) {
+            eventHandler.onOverlayToggle(locked);
+        }
+    }
+}
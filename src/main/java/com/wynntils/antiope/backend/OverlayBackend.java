@@ -0,0 +1,53 @@
+package com.wynntils.antiope.backend;
+
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.overlay.OverlayManager;
+import java.util.function.Consumer;
+
+/**
+ * <p>Overlay manager of a {@link CoreBackend}.</p>
+ * <p>The arguments have been checked by the {@link OverlayManager}. Callbacks must only be called during
+ * {@link CoreBackend#runCallbacks()}, exactly once for every request.</p>
+ * @see OverlayManager
+ */
+public interface OverlayBackend {
+    /**
+     * @return True if the overlay is enabled
+     * @see OverlayManager#isEnabled()
+     */
+    boolean isEnabled();
+
+    /**
+     * @return True if the overlay is locked
+     * @see OverlayManager#isLocked()
+     */
+    boolean isLocked();
+
+    /**
+     * @param locked Whether to lock or unlock the overlay
+     * @param callback Callback to pass the result to
+     * @see OverlayManager#setLocked(boolean, Consumer)
+     */
+    void setLocked(boolean locked, Consumer<Result> callback);
+
+    /**
+     * @param type Type of the invite
+     * @param callback Callback to pass the result to
+     * @see OverlayManager#openActivityInvite(ActivityActionType, Consumer)
+     */
+    void openActivityInvite(ActivityActionType type, Consumer<Result> callback);
+
+    /**
+     * @param code Invite code of the guild
+     * @param callback Callback to pass the result to
+     * @see OverlayManager#openGuildInvite(String, Consumer)
+     */
+    void openGuildInvite(String code, Consumer<Result> callback);
+
+    /**
+     * @param callback Callback to pass the result to
+     * @see OverlayManager#openVoiceSettings(Consumer)
+     */
+    void openVoiceSettings(Consumer<Result> callback);
+}
@@ -0,0 +1,130 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+final class HostActivityManager implements ActivityBackend {
+    private final HostCore core;
+    private final ByteBuffer buffer;
+    // for the bulk copy of the strings, only used by the thread owning the core
+    private final ByteBuffer view;
+
+    // restored on a new helper
+    private String command;
+    private int steamId = -1;
+    private ActivitySpec activity;
+
+    HostActivityManager(HostCore core) {
+        this.core = core;
+        this.buffer = core.memory().buffer;
+        this.view = buffer.duplicate();
+    }
+
+    // the helper registers without answering, failures are logged
+    @Override
+    public Result registerCommand(String command) {
+        this.command = command;
+        postCommand(command);
+        return Result.OK;
+    }
+
+    @Override
+    public Result registerSteam(int steamId) {
+        this.steamId = steamId;
+        postSteam(steamId);
+        return Result.OK;
+    }
+
+    private void postCommand(String command) {
+        int slot = core.begin(HostProtocol.REGISTER_COMMAND);
+        if (slot >= 0) core.putString(slot, command);
+        core.post(slot);
+    }
+
+    private void postSteam(int steamId) {
+        int slot = core.begin(HostProtocol.REGISTER_STEAM);
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_VALUE, steamId);
+        core.post(slot);
+    }
+
+    @Override
+    public void updateActivity(Activity activity, Consumer<Result> callback) {
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    @Override
+    public void updateActivity(ActivitySpec activity, Consumer<Result> callback) {
+        this.activity = activity;
+        core.send(beginUpdate(activity), SdkOperation.UPDATE_ACTIVITY, callback);
+    }
+
+    @Override
+    public void updateActivity(ActivityBuffer activity, Consumer<Result> callback) {
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    // an ActivitySpec already has the native layout, it is copied as is
+    private int beginUpdate(ActivitySpec activity) {
+        int slot = core.begin(HostProtocol.UPDATE_ACTIVITY);
+        if (slot < 0) return slot;
+
+        view.position(slot + HostProtocol.COMMAND_ACTIVITY_STRINGS);
+        view.put(activity.getStringData());
+        long[] numbers = activity.getNumberData();
+        for (int i = 0; i < numbers.length; i++) {
+            buffer.putLong(slot + HostProtocol.COMMAND_ACTIVITY_NUMBERS + i * Long.BYTES, numbers[i]);
+        }
+        return slot;
+    }
+
+    @Override
+    public void clearActivity(Consumer<Result> callback) {
+        this.activity = null;
+        core.send(core.begin(HostProtocol.CLEAR_ACTIVITY), SdkOperation.CLEAR_ACTIVITY, callback);
+    }
+
+    @Override
+    public void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.SEND_REQUEST_REPLY);
+        if (slot >= 0) {
+            buffer.putLong(slot + HostProtocol.COMMAND_USER_ID, userId);
+            buffer.putInt(slot + HostProtocol.COMMAND_VALUE, reply.ordinal());
+        }
+        core.send(slot, SdkOperation.SEND_REQUEST_REPLY, callback);
+    }
+
+    @Override
+    public void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.SEND_INVITE);
+        if (slot >= 0) {
+            buffer.putLong(slot + HostProtocol.COMMAND_USER_ID, userId);
+            buffer.putInt(slot + HostProtocol.COMMAND_VALUE, type.ordinal());
+            core.putString(slot, content);
+        }
+        core.send(slot, SdkOperation.SEND_INVITE, callback);
+    }
+
+    @Override
+    public void acceptRequest(long userId, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.ACCEPT_REQUEST);
+        if (slot >= 0) buffer.putLong(slot + HostProtocol.COMMAND_USER_ID, userId);
+        core.send(slot, SdkOperation.ACCEPT_REQUEST, callback);
+    }
+
+    /**
+     * Sends the registration and the last activity to a new helper, without callbacks.
+     */
+    void restore() {
+        if (command != null) postCommand(command);
+        if (steamId >= 0) postSteam(steamId);
+        if (activity != null) core.post(beginUpdate(activity));
+    }
+}
@@ -0,0 +1,471 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.EventDispatcher;
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.DiscordLogSink;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CallbackPoolStats;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.user.DiscordUser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// connection to the helper process, only used by the thread owning the core
+final class HostCore implements CoreBackend {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+    private static final Result[] RESULTS = Result.values();
+
+    private final HostProcessBackend backend;
+    private final SdkMetrics metrics;
+    private final EventDispatcher events;
+    private final long clientId;
+    private final long flags;
+    private final Path file;
+    private final HostMemory memory;
+    private final ByteBuffer buffer;
+    private final HostActivityManager activityManager;
+    private final HostOverlayManager overlayManager;
+    // starts helpers, so the game thread never waits for one
+    private final ExecutorService starter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Discord SDK Host Starter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // requests by nonce
+    private final Map<Long, PendingRequest> pending = new HashMap<>();
+    // requests completed without a record, e.g. after the helper died
+    private final Queue<PendingRequest> completed = new ArrayDeque<>();
+    private long nonce = 0;
+    private int pendingCallbacks = 0;
+    private int peakCallbacks = 0;
+    private Throwable thrown;
+
+    // only replaced while a start is running
+    private volatile Process process;
+    // the start of a new helper, null while the helper is ready. The game thread does not touch the memory meanwhile
+    private Future<Result> restart;
+    private long restartDelayNanos = 0;
+    private long readyAt;
+    private boolean closed = false;
+
+    private LogLevel logLevel = LogLevel.ERROR;
+    private BiConsumer<LogLevel, String> logHook;
+
+    HostCore(HostProcessBackend backend, CreateParams params, SdkMetrics metrics) {
+        this.backend = backend;
+        this.metrics = metrics;
+        this.events = new EventDispatcher(params);
+        this.clientId = params.getClientID();
+        this.flags = params.getFlags();
+        try {
+            this.file = Files.createTempFile("antiope-host", ".bin");
+            file.toFile().deleteOnExit();
+            this.memory = HostMemory.map(file);
+        } catch (IOException e) {
+            starter.shutdown();
+            throw new GameSDKException(Result.INTERNAL_ERROR);
+        }
+        this.buffer = memory.buffer;
+        this.activityManager = new HostActivityManager(this);
+        this.overlayManager = new HostOverlayManager(this);
+    }
+
+    /**
+     * Starts the first helper and waits until it is ready.
+     * @throws GameSDKException with the result the helper failed with
+     */
+    void start() {
+        Result result;
+        try {
+            result = launch();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = Result.NOT_RUNNING;
+        }
+        if (result != Result.OK) {
+            closed = true;
+            starter.shutdown();
+            deleteFile();
+            throw new GameSDKException(result);
+        }
+        readyAt = System.nanoTime();
+    }
+
+    // starts a helper on an empty memory and waits until it has created its core
+    private Result launch() throws InterruptedException {
+        memory.reset();
+        List<String> command = new ArrayList<>(backend.getJavaCommand());
+        command.add(SdkHost.class.getName());
+        command.add(file.toString());
+        command.add(Long.toString(ProcessHandle.current().pid()));
+        command.add(Long.toUnsignedString(clientId));
+        command.add(Long.toString(flags));
+
+        Process started;
+        try {
+            started = new ProcessBuilder(command).inheritIO().start();
+        } catch (IOException e) {
+            return Result.INTERNAL_ERROR;
+        }
+        process = started;
+
+        long deadline = System.nanoTime() + backend.getStartTimeoutNanos();
+        try {
+            while (true) {
+                int state = memory.getState();
+                if (state == HostMemory.STATE_READY) return Result.OK;
+                if (state == HostMemory.STATE_FAILED) {
+                    kill(started);
+                    return result(memory.getFailure());
+                }
+                if (!started.isAlive()) return Result.INTERNAL_ERROR;
+                if (System.nanoTime() - deadline >= 0) {
+                    kill(started);
+                    return Result.NOT_RUNNING;
+                }
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            kill(started);
+            throw e;
+        }
+    }
+
+    // the next start resets the memory, so the helper must be gone
+    private static void kill(Process process) {
+        process.destroyForcibly();
+        try {
+            process.waitFor(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public ActivityBackend activityManager() {
+        return activityManager;
+    }
+
+    @Override
+    public OverlayBackend overlayManager() {
+        return overlayManager;
+    }
+
+    HostMemory memory() {
+        return memory;
+    }
+
+    /**
+     * <p>Claims the slot of the next command and writes its operation.</p>
+     * <p>The arguments are written into the slot, which is passed to {@link #send(int, SdkOperation, Consumer)}
+     * or {@link #post(int)} afterwards.</p>
+     * @param op Command from {@link HostProtocol}
+     * @return Offset of the slot, -1 if no helper is ready or the ring is full
+     */
+    int begin(int op) {
+        if (closed || restart != null) return -1;
+
+        int slot = memory.commands.claim();
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_OP, op);
+        return slot;
+    }
+
+    /**
+     * Writes the string argument of a command.
+     * @param slot Slot returned by {@link #begin(int)}
+     * @param value The string, truncated to {@link HostProtocol#MAX_COMMAND_STRING} bytes
+     */
+    void putString(int slot, String value) {
+        memory.putString(slot + HostProtocol.COMMAND_STRING, value, HostProtocol.MAX_COMMAND_STRING);
+    }
+
+    /**
+     * Sends the command written into a slot, its callback is run when the helper completes it.
+     * @param slot Slot returned by {@link #begin(int)}, the request fails with
+     *             {@link Result#SERVICE_UNAVAILABLE} if it is -1
+     * @param operation Operation of the request
+     * @param callback Callback to pass the result to
+     */
+    void send(int slot, SdkOperation operation, Consumer<Result> callback) {
+        metrics.recordRequest(operation);
+        pendingCallbacks++;
+        peakCallbacks = Math.max(peakCallbacks, pendingCallbacks);
+
+        PendingRequest request = new PendingRequest(operation, callback, System.nanoTime());
+        if (slot < 0) {
+            request.result = Result.SERVICE_UNAVAILABLE;
+            completed.add(request);
+            return;
+        }
+
+        long id = ++nonce;
+        buffer.putLong(slot + HostProtocol.COMMAND_NONCE, id);
+        pending.put(id, request);
+        memory.commands.publish();
+    }
+
+    /**
+     * Sends the command written into a slot without waiting for its completion.
+     * @param slot Slot returned by {@link #begin(int)}, nothing is sent if it is -1
+     */
+    void post(int slot) {
+        if (slot < 0) return;
+
+        buffer.putLong(slot + HostProtocol.COMMAND_NONCE, HostProtocol.NO_CALLBACK);
+        memory.commands.publish();
+    }
+
+    @Override
+    public void runCallbacks() {
+        thrown = null;
+        if (closed) return;
+
+        if (restart == null) {
+            readRecords();
+            if (!closed && !process.isAlive()) {
+                // records written right before the helper died are still valid
+                readRecords();
+                lost("The SDK host exited with code " + process.exitValue());
+            }
+        } else if (restart.isDone()) {
+            restarted();
+        }
+
+        for (PendingRequest request; (request = completed.poll()) != null; ) {
+            run(request, request.result);
+        }
+
+        Throwable first = thrown;
+        thrown = null;
+        if (first instanceof RuntimeException) throw (RuntimeException) first;
+        if (first instanceof Error) throw (Error) first;
+    }
+
+    private void readRecords() {
+        // a callback may close the core
+        for (int slot; !closed && (slot = memory.records.peek()) >= 0; ) {
+            int kind = buffer.getInt(slot + HostProtocol.RECORD_KIND);
+            int value = buffer.getInt(slot + HostProtocol.RECORD_VALUE);
+            long id = buffer.getLong(slot + HostProtocol.RECORD_ID);
+            switch (kind) {
+                case HostProtocol.COMPLETION:
+                    memory.records.release();
+                    PendingRequest request = pending.remove(id);
+                    if (request != null) run(request, result(value));
+                    break;
+                case HostProtocol.EVENT:
+                    boolean flag = buffer.getInt(slot + HostProtocol.RECORD_FLAG) != 0;
+                    String text = memory.getString(slot + HostProtocol.RECORD_TEXT);
+                    DiscordEventType<?> type = HostProtocol.EVENTS[value];
+                    DiscordUser user = null;
+                    if (type == DiscordEventType.ACTIVITY_JOIN_REQUEST) {
+                        user = new DiscordUser(
+                                id,
+                                text,
+                                memory.getString(slot + HostProtocol.RECORD_DISCRIMINATOR),
+                                memory.getString(slot + HostProtocol.RECORD_AVATAR),
+                                flag);
+                    }
+                    memory.records.release();
+                    try {
+                        events.fire(type, user == null ? text : null, user, flag);
+                    } catch (RuntimeException | Error e) {
+                        if (thrown == null) thrown = e;
+                    }
+                    break;
+                case HostProtocol.LOG:
+                    String message = memory.getString(slot + HostProtocol.RECORD_TEXT);
+                    memory.records.release();
+                    log(LogLevel.values()[value], message);
+                    break;
+                default:
+                    memory.records.release();
+                    break;
+            }
+        }
+    }
+
+    private void run(PendingRequest request, Result result) {
+        pendingCallbacks--;
+        metrics.recordCallback(request.operation, result, System.nanoTime() - request.sent);
+        try {
+            request.callback.accept(result);
+        } catch (RuntimeException | Error e) {
+            // the first exception wins, like with the native upcalls
+            if (thrown == null) thrown = e;
+        }
+    }
+
+    // the helper died, it is restarted in the background
+    private void lost(String reason) {
+        log(LogLevel.ERROR, reason);
+        for (PendingRequest request : pending.values()) {
+            request.result = Result.SERVICE_UNAVAILABLE;
+            completed.add(request);
+        }
+        pending.clear();
+
+        // a helper that ran for a while is restarted quickly, one that keeps dying less and less often
+        if (System.nanoTime() - readyAt > backend.getMaxRestartDelayNanos()) {
+            restartDelayNanos = backend.getMinRestartDelayNanos();
+        } else {
+            backOff();
+        }
+        scheduleRestart();
+    }
+
+    private void backOff() {
+        restartDelayNanos = Math.min(
+                Math.max(restartDelayNanos * 2, backend.getMinRestartDelayNanos()), backend.getMaxRestartDelayNanos());
+    }
+
+    private void scheduleRestart() {
+        long delay = restartDelayNanos;
+        restart = starter.submit(() -> {
+            TimeUnit.NANOSECONDS.sleep(delay);
+            return launch();
+        });
+    }
+
+    private void restarted() {
+        Result result;
+        try {
+            result = restart.get();
+        } catch (ExecutionException | CancellationException e) {
+            result = Result.INTERNAL_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (result != Result.OK) {
+            log(LogLevel.ERROR, "Could not restart the SDK host: " + result);
+            backOff();
+            scheduleRestart();
+            return;
+        }
+
+        restart = null;
+        readyAt = System.nanoTime();
+        log(LogLevel.INFO, "Restarted the SDK host");
+        // the new helper starts without the state of the old one
+        int slot = begin(HostProtocol.SET_LOG_LEVEL);
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_VALUE, logLevel.ordinal());
+        post(slot);
+        activityManager.restore();
+    }
+
+    private static Result result(int ordinal) {
+        return ordinal >= 0 && ordinal < RESULTS.length ? RESULTS[ordinal] : Result.INTERNAL_ERROR;
+    }
+
+    void log(LogLevel level, String message) {
+        if (logHook != null && level.compareTo(logLevel) <= 0) logHook.accept(level, message);
+    }
+
+    @Override
+    public void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook) {
+        this.logLevel = minLevel;
+        this.logHook = logHook;
+        int slot = begin(HostProtocol.SET_LOG_LEVEL);
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_VALUE, minLevel.ordinal());
+        post(slot);
+    }
+
+    @Override
+    public void setLogSink(DiscordLogSink logSink) {
+        this.logHook = null;
+    }
+
+    @Override
+    public CallbackPoolStats getCallbackPoolStats() {
+        return new CallbackPoolStats(pendingCallbacks, peakCallbacks, peakCallbacks);
+    }
+
+    @Override
+    public boolean hasPendingCallbacks() {
+        return pendingCallbacks > 0;
+    }
+
+    @Override
+    public void destroy() {
+        if (closed) return;
+
+        boolean shutdown = false;
+        if (restart == null) {
+            int slot = memory.commands.claim();
+            if (slot >= 0) {
+                buffer.putInt(slot + HostProtocol.COMMAND_OP, HostProtocol.SHUTDOWN);
+                post(slot);
+                shutdown = true;
+            }
+        } else {
+            restart.cancel(true);
+        }
+        closed = true;
+        pending.clear();
+        completed.clear();
+        pendingCallbacks = 0;
+
+        // the helper gets some time to close its core, without blocking the game
+        boolean stopping = shutdown;
+        starter.execute(() -> stop(stopping));
+        starter.shutdown();
+    }
+
+    private void stop(boolean shutdown) {
+        Process helper = process;
+        if (!shutdown) helper.destroy();
+        try {
+            if (!helper.waitFor(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) kill(helper);
+        } catch (InterruptedException e) {
+            kill(helper);
+        }
+        deleteFile();
+    }
+
+    private void deleteFile() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // deleted on exit
+        }
+    }
+
+    private static final class PendingRequest {
+        private final SdkOperation operation;
+        private final Consumer<Result> callback;
+        private final long sent;
+        private Result result;
+
+        private PendingRequest(SdkOperation operation, Consumer<Result> callback, long sent) {
+            this.operation = operation;
+            this.callback = callback;
+            this.sent = sent;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.util.Utf8;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>The file mapped by the game and the host process.</p>
+ * <p>It starts with a header describing the host, followed by two single-producer single-consumer rings of
+ * fixed-size slots: commands from the game to the host and records (completions, events and log messages)
+ * from the host to the game. Cursors are published with release stores and read with acquire loads, so a slot is
+ * only read after it has been written completely.</p>
+ */
+final class HostMemory {
+    static final int MAGIC = 0x414E5448;
+    static final int VERSION = 1;
+
+    // header
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int STATE = 8;
+    private static final int FAILURE = 16;
+    private static final int OVERLAY_ENABLED = 20;
+    private static final int OVERLAY_LOCKED = 24;
+    // cursors, each on its own cache line
+    private static final int COMMAND_HEAD = 64;
+    private static final int COMMAND_TAIL = 128;
+    private static final int RECORD_HEAD = 192;
+    private static final int RECORD_TAIL = 256;
+    private static final int HEADER_SIZE = 512;
+
+    static final int STATE_STARTING = 0;
+    static final int STATE_READY = 1;
+    static final int STATE_FAILED = 2;
+
+    static final int COMMAND_SLOTS = 1024;
+    static final int COMMAND_SLOT_SIZE = 2048;
+    static final int RECORD_SLOTS = 1024;
+    static final int RECORD_SLOT_SIZE = 1024;
+    private static final int COMMANDS = HEADER_SIZE;
+    private static final int RECORDS = COMMANDS + COMMAND_SLOTS * COMMAND_SLOT_SIZE;
+    static final int SIZE = RECORDS + RECORD_SLOTS * RECORD_SLOT_SIZE;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    final ByteBuffer buffer;
+    final SlotRing commands;
+    final SlotRing records;
+
+    private HostMemory(MappedByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.nativeOrder());
+        this.commands = new SlotRing(COMMAND_HEAD, COMMAND_TAIL, COMMANDS, COMMAND_SLOTS, COMMAND_SLOT_SIZE);
+        this.records = new SlotRing(RECORD_HEAD, RECORD_TAIL, RECORDS, RECORD_SLOTS, RECORD_SLOT_SIZE);
+    }
+
+    /**
+     * Maps the file, creating or growing it if needed.
+     * @param file The shared file
+     * @return The mapped memory
+     * @throws IOException if the file can not be mapped
+     */
+    static HostMemory map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel has been closed
+            return new HostMemory(channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE));
+        }
+    }
+
+    /**
+     * Resets the header and empties both rings. Only called while no host process is running.
+     */
+    void reset() {
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(FAILURE, 0);
+        buffer.putInt(OVERLAY_ENABLED, 0);
+        buffer.putInt(OVERLAY_LOCKED, 1);
+        LONGS.setRelease(buffer, COMMAND_HEAD, 0L);
+        LONGS.setRelease(buffer, COMMAND_TAIL, 0L);
+        LONGS.setRelease(buffer, RECORD_HEAD, 0L);
+        LONGS.setRelease(buffer, RECORD_TAIL, 0L);
+        LONGS.setRelease(buffer, STATE, (long) STATE_STARTING);
+    }
+
+    boolean isValid() {
+        return buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(VERSION_OFFSET) == VERSION;
+    }
+
+    int getState() {
+        return (int) (long) LONGS.getAcquire(buffer, STATE);
+    }
+
+    /**
+     * Publishes the host's state, the failure is visible before the state.
+     * @param state New state
+     * @param failure Ordinal of the result creating the core failed with
+     */
+    void setState(int state, int failure) {
+        buffer.putInt(FAILURE, failure);
+        LONGS.setRelease(buffer, STATE, (long) state);
+    }
+
+    int getFailure() {
+        return buffer.getInt(FAILURE);
+    }
+
+    void setOverlay(boolean enabled, boolean locked) {
+        INTS.setOpaque(buffer, OVERLAY_ENABLED, enabled ? 1 : 0);
+        INTS.setOpaque(buffer, OVERLAY_LOCKED, locked ? 1 : 0);
+    }
+
+    boolean isOverlayEnabled() {
+        return (int) INTS.getOpaque(buffer, OVERLAY_ENABLED) != 0;
+    }
+
+    boolean isOverlayLocked() {
+        return (int) INTS.getOpaque(buffer, OVERLAY_LOCKED) != 0;
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes, truncated if it is too long.
+     * @param offset Offset to write to, with room for {@code maxLength + 3} bytes
+     * @param value The string
+     * @param maxLength Maximal length in bytes
+     */
+    void putString(int offset, String value, int maxLength) {
+        int length = Utf8.encode(value, buffer, offset + 2, maxLength, true);
+        buffer.putShort(offset, (short) length);
+    }
+
+    String getString(int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset + 2).limit(offset + 2 + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    /**
+     * A ring of fixed-size slots with a single producer and a single consumer.
+     */
+    final class SlotRing {
+        private final int head;
+        private final int tail;
+        private final int slots;
+        private final int slotCount;
+        private final int slotSize;
+
+        private SlotRing(int head, int tail, int slots, int slotCount, int slotSize) {
+            this.head = head;
+            this.tail = tail;
+            this.slots = slots;
+            this.slotCount = slotCount;
+            this.slotSize = slotSize;
+        }
+
+        /**
+         * Gets the next slot to write, the producer has to {@link #publish()} it afterwards.
+         * @return Offset of the slot in the buffer, -1 if the ring is full
+         */
+        int claim() {
+            long next = (long) LONGS.getOpaque(buffer, head);
+            if (next - (long) LONGS.getAcquire(buffer, tail) >= slotCount) return -1;
+
+            return slots + (int) (next % slotCount) * slotSize;
+        }
+
+        void publish() {
+            LONGS.setRelease(buffer, head, (long) LONGS.getOpaque(buffer, head) + 1);
+        }
+
+        /**
+         * Gets the next slot to read, the consumer has to {@link #release()} it afterwards.
+         * @return Offset of the slot in the buffer, -1 if the ring is empty
+         */
+        int peek() {
+            long next = (long) LONGS.getOpaque(buffer, tail);
+            if (next == (long) LONGS.getAcquire(buffer, head)) return -1;
+
+            return slots + (int) (next % slotCount) * slotSize;
+        }
+
+        void release() {
+            LONGS.setRelease(buffer, tail, (long) LONGS.getOpaque(buffer, tail) + 1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+// the helper publishes the state of its overlay in the header of the shared file
+final class HostOverlayManager implements OverlayBackend {
+    private final HostCore core;
+    private final ByteBuffer buffer;
+
+    HostOverlayManager(HostCore core) {
+        this.core = core;
+        this.buffer = core.memory().buffer;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return core.memory().isOverlayEnabled();
+    }
+
+    @Override
+    public boolean isLocked() {
+        return core.memory().isOverlayLocked();
+    }
+
+    @Override
+    public void setLocked(boolean locked, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.SET_OVERLAY_LOCKED);
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_VALUE, locked ? 1 : 0);
+        core.send(slot, SdkOperation.SET_OVERLAY_LOCKED, callback);
+    }
+
+    @Override
+    public void openActivityInvite(ActivityActionType type, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.OPEN_ACTIVITY_INVITE);
+        if (slot >= 0) buffer.putInt(slot + HostProtocol.COMMAND_VALUE, type.ordinal());
+        core.send(slot, SdkOperation.OPEN_ACTIVITY_INVITE, callback);
+    }
+
+    @Override
+    public void openGuildInvite(String code, Consumer<Result> callback) {
+        int slot = core.begin(HostProtocol.OPEN_GUILD_INVITE);
+        if (slot >= 0) core.putString(slot, code);
+        core.send(slot, SdkOperation.OPEN_GUILD_INVITE, callback);
+    }
+
+    @Override
+    public void openVoiceSettings(Consumer<Result> callback) {
+        core.send(core.begin(HostProtocol.OPEN_VOICE_SETTINGS), SdkOperation.OPEN_VOICE_SETTINGS, callback);
+    }
+}
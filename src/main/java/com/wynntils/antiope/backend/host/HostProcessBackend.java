@@ -0,0 +1,176 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.DiscordBackend;
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.Result;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Backend that runs Discord's native library in a helper process instead of the game's process.</p>
+ * <p>A crash or a hang of the SDK can then no longer take the game down. The helper is a second JVM started with
+ * the game's classpath, it runs {@link SdkHost}. Both processes map the same file: requests are written into a ring
+ * of fixed-size slots without a system call and the helper writes completions, events and log messages into a
+ * second ring, which is read during {@link DiscordGameSDKCore#runCallbacks()}.</p>
+ * <p>If the helper dies, the requests in flight fail with {@link Result#SERVICE_UNAVAILABLE} and a new helper is
+ * started in the background, waiting longer after every failed start. Requests made until it is ready fail the same
+ * way. The log level, the launch registration and the last activity are restored on the new helper. The game
+ * thread never waits for the helper, except when the core is created.</p>
+ * <p>Launch registration is passed on without waiting for the helper, so {@code registerCommand} and
+ * {@code registerSteam} return {@link Result#OK} and failures are reported to the log hook. Since
+ * {@link com.wynntils.antiope.manager.activity.type.Activity} and
+ * {@link com.wynntils.antiope.manager.activity.type.ActivityBuffer} are native structures, only
+ * {@link com.wynntils.antiope.manager.activity.type.ActivitySpec} can be used without loading the library in the
+ * game.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  try(DiscordGameSDKCore core = new DiscordGameSDKCore(params, HostProcessBackend.builder().build()))
+ *  {
+ *      core.activityManager().updateActivity(ActivitySpec.builder().setState("In game").build());
+ *      // ...
+ *  }}</pre>
+ */
+public final class HostProcessBackend implements DiscordBackend {
+    private final List<String> javaCommand;
+    private final long startTimeoutNanos;
+    private final long minRestartDelayNanos;
+    private final long maxRestartDelayNanos;
+
+    private HostProcessBackend(Builder builder) {
+        this.javaCommand = builder.javaCommand;
+        this.startTimeoutNanos = builder.startTimeout.toNanos();
+        this.minRestartDelayNanos = builder.minRestartDelay.toNanos();
+        this.maxRestartDelayNanos = builder.maxRestartDelay.toNanos();
+    }
+
+    /**
+     * Creates a builder for a backend starting the helper with the running Java installation and classpath.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the command starting the helper's JVM by default.
+     * @return The Java executable of the running JVM, the classpath and the Discord library property if it is set
+     */
+    public static List<String> getDefaultJavaCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        String library = System.getProperty(DiscordGameSDKCore.DISCORD_LIBRARY_PROPERTY);
+        if (library != null) command.add("-D" + DiscordGameSDKCore.DISCORD_LIBRARY_PROPERTY + "=" + library);
+        return Collections.unmodifiableList(command);
+    }
+
+    /**
+     * <p>Starts the helper and waits until it has created its core.</p>
+     * @param params Parameters the core is created from
+     * @param metrics Metrics of the core
+     * @return The connection to the helper
+     * @throws GameSDKException with the result the helper failed with, or {@link Result#NOT_RUNNING} if it did not
+     *                          start in time
+     */
+    @Override
+    public CoreBackend create(CreateParams params, SdkMetrics metrics) {
+        HostCore core = new HostCore(this, params, metrics);
+        core.start();
+        return core;
+    }
+
+    List<String> getJavaCommand() {
+        return javaCommand;
+    }
+
+    long getStartTimeoutNanos() {
+        return startTimeoutNanos;
+    }
+
+    long getMinRestartDelayNanos() {
+        return minRestartDelayNanos;
+    }
+
+    long getMaxRestartDelayNanos() {
+        return maxRestartDelayNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "HostProcessBackend{" + "javaCommand=" + javaCommand + ", startTimeout="
+                + Duration.ofNanos(startTimeoutNanos) + ", restartDelay=" + Duration.ofNanos(minRestartDelayNanos)
+                + ".." + Duration.ofNanos(maxRestartDelayNanos) + '}';
+    }
+
+    /**
+     * Builder for {@link HostProcessBackend}s.
+     */
+    public static final class Builder {
+        private List<String> javaCommand = getDefaultJavaCommand();
+        private Duration startTimeout = Duration.ofSeconds(10);
+        private Duration minRestartDelay = Duration.ofMillis(100);
+        private Duration maxRestartDelay = Duration.ofSeconds(10);
+
+        private Builder() {}
+
+        /**
+         * Sets the command starting the helper's JVM, e.g. to add JVM options. The main class and its arguments
+         * are appended to it.
+         * @param javaCommand The Java executable followed by its options, including the classpath
+         * @return This builder
+         * @see #getDefaultJavaCommand()
+         */
+        public Builder setJavaCommand(List<String> javaCommand) {
+            if (javaCommand.isEmpty()) throw new IllegalArgumentException("Empty command");
+
+            this.javaCommand = Collections.unmodifiableList(new ArrayList<>(javaCommand));
+            return this;
+        }
+
+        /**
+         * Sets how long a start waits for the helper to create its core.
+         * @param startTimeout Maximal wait, 10 seconds by default
+         * @return This builder
+         */
+        public Builder setStartTimeout(Duration startTimeout) {
+            if (startTimeout.isNegative()) throw new IllegalArgumentException("Negative timeout");
+
+            this.startTimeout = startTimeout;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait before restarting a helper that died. The delay doubles after every failed start,
+         * up to the maximum.
+         * @param minRestartDelay Delay of the first restart, 100 milliseconds by default
+         * @param maxRestartDelay Maximal delay, 10 seconds by default
+         * @return This builder
+         */
+        public Builder setRestartDelay(Duration minRestartDelay, Duration maxRestartDelay) {
+            if (minRestartDelay.isNegative() || minRestartDelay.compareTo(maxRestartDelay) > 0) {
+                throw new IllegalArgumentException("Invalid restart delays");
+            }
+
+            this.minRestartDelay = minRestartDelay;
+            this.maxRestartDelay = maxRestartDelay;
+            return this;
+        }
+
+        /**
+         * Creates the backend.
+         * @return A new HostProcessBackend
+         */
+        public HostProcessBackend build() {
+            return new HostProcessBackend(this);
+        }
+    }
+}
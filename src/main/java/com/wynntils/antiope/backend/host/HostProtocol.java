@@ -0,0 +1,65 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.event.DiscordEventType;
+
+// layout of the slots exchanged through the HostMemory rings
+final class HostProtocol {
+    private HostProtocol() {
+        throw new RuntimeException("HostProtocol is a static class and no instance of it can be obtained.");
+    }
+
+    // commands, sent by the game
+    static final int REGISTER_COMMAND = 1;
+    static final int REGISTER_STEAM = 2;
+    static final int UPDATE_ACTIVITY = 3;
+    static final int CLEAR_ACTIVITY = 4;
+    static final int SEND_REQUEST_REPLY = 5;
+    static final int SEND_INVITE = 6;
+    static final int ACCEPT_REQUEST = 7;
+    static final int SET_OVERLAY_LOCKED = 8;
+    static final int OPEN_ACTIVITY_INVITE = 9;
+    static final int OPEN_GUILD_INVITE = 10;
+    static final int OPEN_VOICE_SETTINGS = 11;
+    static final int SET_LOG_LEVEL = 12;
+    static final int SHUTDOWN = 13;
+
+    // command slots
+    static final int COMMAND_OP = 0;
+    static final int COMMAND_NONCE = 8;
+    static final int COMMAND_USER_ID = 16;
+    static final int COMMAND_VALUE = 24;
+    static final int COMMAND_STRING = 32;
+    static final int COMMAND_ACTIVITY_STRINGS = 16;
+    static final int COMMAND_ACTIVITY_NUMBERS = 1424;
+    static final int MAX_COMMAND_STRING = 1024;
+
+    // records, sent by the host
+    static final int COMPLETION = 1;
+    static final int EVENT = 2;
+    static final int LOG = 3;
+
+    // record slots
+    static final int RECORD_KIND = 0;
+    // result, event type or log level
+    static final int RECORD_VALUE = 4;
+    // nonce or user ID
+    static final int RECORD_ID = 8;
+    static final int RECORD_FLAG = 16;
+    static final int RECORD_TEXT = 24;
+    static final int RECORD_DISCRIMINATOR = 728;
+    static final int RECORD_AVATAR = 748;
+    static final int MAX_RECORD_TEXT = 700;
+    static final int MAX_RECORD_DISCRIMINATOR = 15;
+    static final int MAX_RECORD_AVATAR = 255;
+
+    // events passed on by the host, the value of an event record is the index in this array
+    static final DiscordEventType<?>[] EVENTS = {
+        DiscordEventType.ACTIVITY_JOIN,
+        DiscordEventType.ACTIVITY_SPECTATE,
+        DiscordEventType.ACTIVITY_JOIN_REQUEST,
+        DiscordEventType.OVERLAY_TOGGLE
+    };
+
+    // nonce of commands the game sends without a callback, like replayed state after a restart
+    static final long NO_CALLBACK = 0;
+}
@@ -0,0 +1,282 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.DiscordBackend;
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import com.wynntils.antiope.user.DiscordUser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>Main class of the helper process started by the {@link HostProcessBackend}.</p>
+ * <p>The host loads Discord's native library, creates the only native core and runs the commands the game writes
+ * into the shared file. Completions, events and log messages are written back. The host exits when it is told to,
+ * when the game process is gone or when the SDK fails.</p>
+ * <p>This is <b>not</b> an API class. Do <b>not</b> use it.</p>
+ */
+public final class SdkHost {
+    private static final long GAME_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long IDLE_PARK = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Consumer<Result> IGNORE_RESULT = result -> {};
+
+    private final HostMemory memory;
+    private final ByteBuffer buffer;
+    private final Optional<ProcessHandle> game;
+    private static final int STRING_DATA_SIZE = ActivitySpec.empty().getStringData().length;
+    private static final int NUMBER_DATA_SIZE = ActivitySpec.empty().getNumberData().length;
+    private final CreateParams params = new CreateParams();
+    private DiscordGameSDKCore core;
+    private boolean running = true;
+
+    private SdkHost(HostMemory memory, long gamePid) {
+        this.memory = memory;
+        this.buffer = memory.buffer;
+        this.game = ProcessHandle.of(gamePid);
+    }
+
+    /**
+     * Runs the host.
+     * @param args Path of the shared file, process ID of the game, client ID and flags
+     */
+    public static void main(String[] args) {
+        host(args, DiscordGameSDKCore.NATIVE_BACKEND);
+    }
+
+    // the tests run the host on a simulator
+    static void host(String[] args, DiscordBackend backend) {
+        if (args.length != 4) {
+            System.err.println("Usage: SdkHost <file> <game pid> <client id> <flags>");
+            System.exit(2);
+        }
+
+        HostMemory memory;
+        try {
+            memory = HostMemory.map(Paths.get(args[0]));
+        } catch (IOException e) {
+            System.err.println("Could not map " + args[0] + ": " + e);
+            System.exit(2);
+            return;
+        }
+        if (!memory.isValid()) {
+            System.err.println(args[0] + " is not a host file");
+            System.exit(2);
+        }
+
+        SdkHost host = new SdkHost(memory, Long.parseLong(args[1]));
+        try {
+            host.start(Long.parseUnsignedLong(args[2]), Long.parseLong(args[3]), backend);
+        } catch (GameSDKException e) {
+            memory.setState(HostMemory.STATE_FAILED, e.getResult().ordinal());
+            System.exit(1);
+        } catch (RuntimeException | LinkageError e) {
+            e.printStackTrace();
+            memory.setState(HostMemory.STATE_FAILED, Result.INTERNAL_ERROR.ordinal());
+            System.exit(1);
+        }
+
+        memory.setState(HostMemory.STATE_READY, 0);
+        System.exit(host.run());
+    }
+
+    private void start(long clientId, long flags, DiscordBackend backend) {
+        if (backend == DiscordGameSDKCore.NATIVE_BACKEND) DiscordGameSDKCore.loadLibrary();
+        params.setClientID(clientId);
+        params.setFlags(flags);
+        // every event is forwarded, the game drops those its listeners do not want when it fires them
+        params.registerEventHandler(new EventForwarder());
+        core = new DiscordGameSDKCore(params, backend);
+        core.setLogHook(LogLevel.ERROR, this::log);
+        memory.setOverlay(core.overlayManager().isEnabled(), core.overlayManager().isLocked());
+    }
+
+    // returns the exit code
+    private int run() {
+        long nextGameCheck = System.nanoTime() + GAME_CHECK_INTERVAL;
+        try {
+            while (running) {
+                boolean idle = !executeCommands();
+                if (!running) break;
+
+                core.runCallbacks();
+                memory.setOverlay(core.overlayManager().isEnabled(), core.overlayManager().isLocked());
+
+                long now = System.nanoTime();
+                if (now - nextGameCheck >= 0) {
+                    if (!game.map(ProcessHandle::isAlive).orElse(false)) break;
+                    nextGameCheck = now + GAME_CHECK_INTERVAL;
+                }
+                if (idle) LockSupport.parkNanos(IDLE_PARK);
+            }
+        } catch (GameSDKException e) {
+            // the game starts a new host, which waits for Discord again
+            log(LogLevel.ERROR, "SDK host failed: " + e.getMessage());
+            return 1;
+        } finally {
+            core.close();
+            params.close();
+        }
+        return 0;
+    }
+
+    // returns true if a command has been executed
+    private boolean executeCommands() {
+        boolean executed = false;
+        for (int slot; running && (slot = memory.commands.peek()) >= 0; ) {
+            execute(slot);
+            memory.commands.release();
+            executed = true;
+        }
+        return executed;
+    }
+
+    private void execute(int slot) {
+        long nonce = buffer.getLong(slot + HostProtocol.COMMAND_NONCE);
+        Consumer<Result> callback =
+                nonce == HostProtocol.NO_CALLBACK ? IGNORE_RESULT : result -> complete(nonce, result);
+        long userId = buffer.getLong(slot + HostProtocol.COMMAND_USER_ID);
+        int value = buffer.getInt(slot + HostProtocol.COMMAND_VALUE);
+
+        switch (buffer.getInt(slot + HostProtocol.COMMAND_OP)) {
+            case HostProtocol.REGISTER_COMMAND:
+                String command = memory.getString(slot + HostProtocol.COMMAND_STRING);
+                Result registered = core.activityManager().registerCommand(command);
+                if (registered != Result.OK) log(LogLevel.WARN, "Could not register " + command + ": " + registered);
+                break;
+            case HostProtocol.REGISTER_STEAM:
+                Result steam = core.activityManager().registerSteam(value);
+                if (steam != Result.OK) log(LogLevel.WARN, "Could not register Steam game " + value + ": " + steam);
+                break;
+            case HostProtocol.UPDATE_ACTIVITY:
+                // the spec keeps the arrays, so they are not reused
+                byte[] stringData = new byte[STRING_DATA_SIZE];
+                long[] numberData = new long[NUMBER_DATA_SIZE];
+                ByteBuffer data = buffer.duplicate().order(buffer.order());
+                data.position(slot + HostProtocol.COMMAND_ACTIVITY_STRINGS);
+                data.get(stringData);
+                data.position(slot + HostProtocol.COMMAND_ACTIVITY_NUMBERS);
+                data.asLongBuffer().get(numberData);
+                ActivitySpec activity = ActivitySpec.fromData(stringData, numberData);
+                core.activityManager().updateActivity(activity, callback);
+                break;
+            case HostProtocol.CLEAR_ACTIVITY:
+                core.activityManager().clearActivity(callback);
+                break;
+            case HostProtocol.SEND_REQUEST_REPLY:
+                core.activityManager().sendRequestReply(userId, ActivityJoinRequestReply.values()[value], callback);
+                break;
+            case HostProtocol.SEND_INVITE:
+                core.activityManager().sendInvite(
+                        userId,
+                        ActivityActionType.values()[value],
+                        memory.getString(slot + HostProtocol.COMMAND_STRING),
+                        callback);
+                break;
+            case HostProtocol.ACCEPT_REQUEST:
+                core.activityManager().acceptRequest(userId, callback);
+                break;
+            case HostProtocol.SET_OVERLAY_LOCKED:
+                core.overlayManager().setLocked(value != 0, callback);
+                break;
+            case HostProtocol.OPEN_ACTIVITY_INVITE:
+                core.overlayManager().openActivityInvite(ActivityActionType.values()[value], callback);
+                break;
+            case HostProtocol.OPEN_GUILD_INVITE:
+                core.overlayManager().openGuildInvite(memory.getString(slot + HostProtocol.COMMAND_STRING), callback);
+                break;
+            case HostProtocol.OPEN_VOICE_SETTINGS:
+                core.overlayManager().openVoiceSettings(callback);
+                break;
+            case HostProtocol.SET_LOG_LEVEL:
+                core.setLogHook(LogLevel.values()[value], this::log);
+                break;
+            case HostProtocol.SHUTDOWN:
+                running = false;
+                break;
+            default:
+                log(LogLevel.ERROR, "Unknown command " + buffer.getInt(slot + HostProtocol.COMMAND_OP));
+                break;
+        }
+    }
+
+    private void complete(long nonce, Result result) {
+        int slot = claimRecord();
+        buffer.putInt(slot + HostProtocol.RECORD_KIND, HostProtocol.COMPLETION);
+        buffer.putInt(slot + HostProtocol.RECORD_VALUE, result.ordinal());
+        buffer.putLong(slot + HostProtocol.RECORD_ID, nonce);
+        memory.records.publish();
+    }
+
+    private void log(LogLevel level, String message) {
+        int slot = claimRecord();
+        buffer.putInt(slot + HostProtocol.RECORD_KIND, HostProtocol.LOG);
+        buffer.putInt(slot + HostProtocol.RECORD_VALUE, level.ordinal());
+        memory.putString(slot + HostProtocol.RECORD_TEXT, message, HostProtocol.MAX_RECORD_TEXT);
+        memory.records.publish();
+    }
+
+    private void event(DiscordEventType<?> type, String text, DiscordUser user, boolean flag) {
+        int index = 0;
+        while (HostProtocol.EVENTS[index] != type) index++;
+
+        int slot = claimRecord();
+        buffer.putInt(slot + HostProtocol.RECORD_KIND, HostProtocol.EVENT);
+        buffer.putInt(slot + HostProtocol.RECORD_VALUE, index);
+        buffer.putLong(slot + HostProtocol.RECORD_ID, user != null ? user.getUserId() : 0);
+        buffer.putInt(slot + HostProtocol.RECORD_FLAG, flag ? 1 : 0);
+        memory.putString(slot + HostProtocol.RECORD_TEXT, text, HostProtocol.MAX_RECORD_TEXT);
+        if (user != null) {
+            memory.putString(
+                    slot + HostProtocol.RECORD_DISCRIMINATOR,
+                    user.getDiscriminator(),
+                    HostProtocol.MAX_RECORD_DISCRIMINATOR);
+            memory.putString(slot + HostProtocol.RECORD_AVATAR, user.getAvatar(), HostProtocol.MAX_RECORD_AVATAR);
+        }
+        memory.records.publish();
+    }
+
+    // waits until the game has read a record, it reads them every frame
+    private int claimRecord() {
+        int slot;
+        while ((slot = memory.records.claim()) < 0) {
+            if (!game.map(ProcessHandle::isAlive).orElse(false)) System.exit(0);
+            LockSupport.parkNanos(IDLE_PARK);
+        }
+        return slot;
+    }
+
+    private final class EventForwarder extends DiscordEventAdapter {
+        @Override
+        public void onActivityJoin(String secret) {
+            event(DiscordEventType.ACTIVITY_JOIN, secret, null, false);
+        }
+
+        @Override
+        public void onActivitySpectate(String secret) {
+            event(DiscordEventType.ACTIVITY_SPECTATE, secret, null, false);
+        }
+
+        @Override
+        public void onActivityJoinRequest(DiscordUser user) {
+            event(DiscordEventType.ACTIVITY_JOIN_REQUEST, user.getUsername(), user, user.isBot());
+        }
+
+        @Override
+        public void onOverlayToggle(boolean locked) {
+            memory.setOverlay(core.overlayManager().isEnabled(), locked);
+            event(DiscordEventType.OVERLAY_TOGGLE, "", null, locked);
+        }
+    }
+}
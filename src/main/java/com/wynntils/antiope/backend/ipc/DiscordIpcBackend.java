@@ -0,0 +1,179 @@
+package com.wynntils.antiope.backend.ipc;
+
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.DiscordBackend;
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.Result;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <p>Backend that talks to the Discord client over its local IPC protocol, without Discord's native library
+ * and without JNI.</p>
+ * <p>The client listens on a unix domain socket on Linux and macOS and on a named pipe on Windows. Requests are
+ * framed into a reusable direct buffer and written without blocking, so many of them can be in flight at once.
+ * Responses and events are read without blocking during {@link DiscordGameSDKCore#runCallbacks()}. Creating a core
+ * connects and waits for the client's handshake, it fails with {@link Result#NOT_RUNNING} if no client answers.</p>
+ * <p>Only what the IPC protocol offers is supported. Overlay toggle events are not sent, the overlay is never
+ * enabled and {@code registerCommand} and {@code registerSteam} return {@link Result#INVALID_COMMAND}.
+ * Since {@link com.wynntils.antiope.manager.activity.type.Activity} and
+ * {@link com.wynntils.antiope.manager.activity.type.ActivityBuffer} are native structures, only
+ * {@link com.wynntils.antiope.manager.activity.type.ActivitySpec} can be used without loading the library.</p>
+ * <p>Unix domain sockets require Java 16 or newer, see {@link #isSupported()}.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  try(DiscordGameSDKCore core = new DiscordGameSDKCore(params, DiscordIpcBackend.builder().build()))
+ *  {
+ *      core.activityManager().updateActivity(ActivitySpec.builder().setState("In game").build());
+ *      // ...
+ *  }}</pre>
+ */
+public final class DiscordIpcBackend implements DiscordBackend {
+    /**
+     * Number of IPC endpoints the Discord client might listen on, one per running client.
+     */
+    public static final int MAX_ENDPOINTS = 10;
+
+    private static final boolean WINDOWS =
+            System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+
+    private final Path path;
+    private final long handshakeTimeoutNanos;
+
+    private DiscordIpcBackend(Builder builder) {
+        this.path = builder.path;
+        this.handshakeTimeoutNanos = builder.handshakeTimeout.toNanos();
+    }
+
+    /**
+     * Creates a builder for a backend connecting to the first Discord client it finds.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns true if this platform and Java version can connect to the Discord client.
+     * @return True on Windows and on Java 16 or newer, false otherwise
+     */
+    public static boolean isSupported() {
+        return WINDOWS || UnixSocketTransport.isSupported();
+    }
+
+    /**
+     * Gets the endpoints the Discord client listens on, in the order they are tried.
+     * @return Paths of the sockets, or of the named pipes on Windows
+     */
+    public static List<Path> getDefaultPaths() {
+        List<Path> paths = new ArrayList<>();
+        if (WINDOWS) {
+            for (int i = 0; i < MAX_ENDPOINTS; i++) {
+                paths.add(Paths.get("\\\\.\\pipe\\discord-ipc-" + i));
+            }
+            return Collections.unmodifiableList(paths);
+        }
+
+        String directory = null;
+        for (String variable : new String[] {"XDG_RUNTIME_DIR", "TMPDIR", "TMP", "TEMP"}) {
+            directory = System.getenv(variable);
+            if (directory != null && !directory.isEmpty()) break;
+        }
+        if (directory == null || directory.isEmpty()) directory = "/tmp";
+
+        // the Flatpak and Snap packages of the client use their own directories
+        Path base = Paths.get(directory);
+        Path[] parents = {base, base.resolve("app/com.discordapp.Discord"), base.resolve("snap.discord")};
+        for (Path parent : parents) {
+            for (int i = 0; i < MAX_ENDPOINTS; i++) {
+                paths.add(parent.resolve("discord-ipc-" + i));
+            }
+        }
+        return Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * <p>Connects to the Discord client and waits for its handshake.</p>
+     * @param params Parameters the core is created from
+     * @param metrics Metrics of the core
+     * @return The connection to the client
+     * @throws GameSDKException with {@link Result#NOT_RUNNING} if no client answers in time
+     * @throws UnsupportedOperationException if this Java version does not support unix domain sockets
+     */
+    @Override
+    public CoreBackend create(CreateParams params, SdkMetrics metrics) {
+        if (!isSupported()) throw new UnsupportedOperationException("Unix domain sockets require Java 16 or newer");
+
+        IpcCore core = new IpcCore(connect(), params, metrics, ProcessHandle.current().pid());
+        core.handshake(params.getClientID(), handshakeTimeoutNanos);
+        return core;
+    }
+
+    private IpcTransport connect() {
+        for (Path candidate : path != null ? Collections.singletonList(path) : getDefaultPaths()) {
+            try {
+                return IpcTransport.connect(candidate);
+            } catch (IOException e) {
+                // nothing listens there, try the next one
+            }
+        }
+        throw new GameSDKException(Result.NOT_RUNNING);
+    }
+
+    @Override
+    public String toString() {
+        return "DiscordIpcBackend{" + "path=" + (path != null ? path : "default") + ", handshakeTimeout="
+                + Duration.ofNanos(handshakeTimeoutNanos) + '}';
+    }
+
+    /**
+     * Builder for {@link DiscordIpcBackend}s.
+     */
+    public static final class Builder {
+        private Path path;
+        private Duration handshakeTimeout = Duration.ofSeconds(5);
+
+        private Builder() {}
+
+        /**
+         * Connects to a single endpoint instead of searching the {@linkplain #getDefaultPaths() default paths}.
+         * @param path Path of the socket, or of the named pipe on Windows
+         * @return This builder
+         */
+        public Builder setPath(Path path) {
+            this.path = Objects.requireNonNull(path);
+            return this;
+        }
+
+        /**
+         * Sets how long creating a core waits for the client's handshake.
+         * @param handshakeTimeout Maximal wait, 5 seconds by default
+         * @return This builder
+         */
+        public Builder setHandshakeTimeout(Duration handshakeTimeout) {
+            if (handshakeTimeout.isNegative()) throw new IllegalArgumentException("Negative timeout");
+
+            this.handshakeTimeout = handshakeTimeout;
+            return this;
+        }
+
+        /**
+         * Creates the backend.
+         * @return A new DiscordIpcBackend
+         */
+        public DiscordIpcBackend build() {
+            return new DiscordIpcBackend(this);
+        }
+    }
+}
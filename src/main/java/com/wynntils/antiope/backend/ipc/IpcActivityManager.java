@@ -0,0 +1,138 @@
+package com.wynntils.antiope.backend.ipc;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.util.function.Consumer;
+
+final class IpcActivityManager implements ActivityBackend {
+    private final IpcCore core;
+
+    IpcActivityManager(IpcCore core) {
+        this.core = core;
+    }
+
+    // launch registration writes to the system, it is not part of the IPC protocol
+    @Override
+    public Result registerCommand(String command) {
+        return Result.INVALID_COMMAND;
+    }
+
+    @Override
+    public Result registerSteam(int steamId) {
+        return Result.INVALID_COMMAND;
+    }
+
+    @Override
+    public void updateActivity(Activity activity, Consumer<Result> callback) {
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    @Override
+    public void updateActivity(ActivitySpec activity, Consumer<Result> callback) {
+        StringBuilder args = core.begin("SET_ACTIVITY");
+        args.append(",\"activity\":{");
+        field(args, "state", activity.getState());
+        field(args, "details", activity.getDetails());
+        // like the SDK, timestamps are sent in seconds
+        long start = activity.getStart().getEpochSecond();
+        long end = activity.getEnd().getEpochSecond();
+        if (start != 0 || end != 0) {
+            open(args, "timestamps");
+            if (start != 0) field(args, "start", start);
+            if (end != 0) field(args, "end", end);
+            args.append('}');
+        }
+        if (!activity.getLargeImage().isEmpty() || !activity.getLargeText().isEmpty()
+                || !activity.getSmallImage().isEmpty() || !activity.getSmallText().isEmpty()) {
+            open(args, "assets");
+            field(args, "large_image", activity.getLargeImage());
+            field(args, "large_text", activity.getLargeText());
+            field(args, "small_image", activity.getSmallImage());
+            field(args, "small_text", activity.getSmallText());
+            args.append('}');
+        }
+        if (!activity.getPartyId().isEmpty() || activity.getPartyMaxSize() != 0) {
+            open(args, "party");
+            field(args, "id", activity.getPartyId());
+            if (activity.getPartyMaxSize() != 0) {
+                separate(args).append("\"size\":[").append(activity.getPartyCurrentSize()).append(',');
+                args.append(activity.getPartyMaxSize()).append(']');
+            }
+            args.append('}');
+        }
+        if (!activity.getMatchSecret().isEmpty() || !activity.getJoinSecret().isEmpty()
+                || !activity.getSpectateSecret().isEmpty()) {
+            open(args, "secrets");
+            field(args, "match", activity.getMatchSecret());
+            field(args, "join", activity.getJoinSecret());
+            field(args, "spectate", activity.getSpectateSecret());
+            args.append('}');
+        }
+        separate(args).append("\"instance\":").append(activity.isInstance()).append('}');
+        core.send(SdkOperation.UPDATE_ACTIVITY, callback);
+    }
+
+    @Override
+    public void updateActivity(ActivityBuffer activity, Consumer<Result> callback) {
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    @Override
+    public void clearActivity(Consumer<Result> callback) {
+        // an update without an activity clears it
+        core.begin("SET_ACTIVITY");
+        core.send(SdkOperation.CLEAR_ACTIVITY, callback);
+    }
+
+    @Override
+    public void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback) {
+        StringBuilder args = core.begin(
+                reply == ActivityJoinRequestReply.YES ? "SEND_ACTIVITY_JOIN_INVITE" : "CLOSE_ACTIVITY_JOIN_REQUEST");
+        field(args, "user_id", Long.toUnsignedString(userId));
+        core.send(SdkOperation.SEND_REQUEST_REPLY, callback);
+    }
+
+    @Override
+    public void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback) {
+        StringBuilder args = core.begin("ACTIVITY_INVITE_USER");
+        field(args, "user_id", Long.toUnsignedString(userId));
+        field(args, "type", type.nativeValue());
+        separate(args).append("\"content\":");
+        Json.quote(args, content);
+        core.send(SdkOperation.SEND_INVITE, callback);
+    }
+
+    @Override
+    public void acceptRequest(long userId, Consumer<Result> callback) {
+        StringBuilder args = core.begin("ACCEPT_ACTIVITY_INVITE");
+        field(args, "user_id", Long.toUnsignedString(userId));
+        core.send(SdkOperation.ACCEPT_REQUEST, callback);
+    }
+
+    private static StringBuilder separate(StringBuilder builder) {
+        if (builder.charAt(builder.length() - 1) != '{') builder.append(',');
+        return builder;
+    }
+
+    private static void open(StringBuilder builder, String name) {
+        separate(builder).append('"').append(name).append("\":{");
+    }
+
+    // empty strings are left out, like unset fields of the SDK
+    static void field(StringBuilder builder, String name, String value) {
+        if (value.isEmpty()) return;
+
+        separate(builder).append('"').append(name).append("\":");
+        Json.quote(builder, value);
+    }
+
+    static void field(StringBuilder builder, String name, long value) {
+        separate(builder).append('"').append(name).append("\":").append(value);
+    }
+}
@@ -0,0 +1,195 @@
+package com.wynntils.antiope.backend.ipc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Frames of Discord's IPC protocol over a transport.</p>
+ * <p>Every frame is a little-endian opcode and payload length followed by the JSON payload. Outgoing frames are
+ * encoded into a direct buffer and written as far as the transport takes them, so any number of requests can be
+ * in flight. Incoming frames are decoded from a second direct buffer. Both buffers only grow for larger frames.</p>
+ */
+final class IpcChannel implements Closeable {
+    static final int OP_HANDSHAKE = 0;
+    static final int OP_FRAME = 1;
+    static final int OP_CLOSE = 2;
+    static final int OP_PING = 3;
+    static final int OP_PONG = 4;
+
+    static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    // Discord drops the connection long before this
+    private static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Receives the frames read by {@link #receive(FrameHandler)}.
+     */
+    @FunctionalInterface
+    interface FrameHandler {
+        /**
+         * @param opcode Opcode of the frame
+         * @param payload Payload of the frame, only valid during this call
+         */
+        void onFrame(int opcode, CharSequence payload);
+    }
+
+    private final IpcTransport transport;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // both buffers are kept ready for filling
+    private ByteBuffer readBuffer = allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer writeBuffer = allocate(INITIAL_BUFFER_SIZE);
+    private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    IpcChannel(IpcTransport transport) {
+        this.transport = transport;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Queues a frame and writes as much as possible.
+     * @param opcode Opcode of the frame
+     * @param payload JSON payload
+     * @return True if everything queued has been written
+     * @throws IOException if writing fails
+     */
+    boolean send(int opcode, CharSequence payload) throws IOException {
+        int start = writeBuffer.position();
+        // UTF-8 takes at most three bytes per char
+        ensureWritable(HEADER_SIZE + payload.length() * 3);
+
+        writeBuffer.position(start + HEADER_SIZE);
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(payload), writeBuffer, true);
+        if (result.isError()) throw new IOException("Could not encode payload: " + result);
+        encoder.flush(writeBuffer);
+
+        writeBuffer.putInt(start, opcode);
+        writeBuffer.putInt(start + 4, writeBuffer.position() - start - HEADER_SIZE);
+        return flush();
+    }
+
+    /**
+     * Writes queued frames as far as the transport takes them.
+     * @return True if nothing is left to write
+     * @throws IOException if writing fails
+     */
+    boolean flush() throws IOException {
+        if (writeBuffer.position() == 0) return true;
+
+        writeBuffer.flip();
+        try {
+            transport.write(writeBuffer);
+        } finally {
+            writeBuffer.compact();
+        }
+        return writeBuffer.position() == 0;
+    }
+
+    /**
+     * Returns true if frames are queued that have not been written completely.
+     * @return True if a flush is needed
+     */
+    boolean hasPendingWrites() {
+        return writeBuffer.position() > 0;
+    }
+
+    /**
+     * Reads what is available and passes every complete frame to the handler.
+     * @param handler Handler of the frames
+     * @return Number of frames passed to the handler, -1 if the connection has been closed
+     * @throws IOException if reading fails or a frame is malformed
+     */
+    int receive(FrameHandler handler) throws IOException {
+        int frames = 0;
+        while (true) {
+            int space = readBuffer.remaining();
+            int read = transport.read(readBuffer);
+            frames += dispatch(handler);
+            if (read < 0) return -1;
+            // a partial read means there is nothing more to read right now
+            if (read < space) return frames;
+        }
+    }
+
+    private int dispatch(FrameHandler handler) throws IOException {
+        int frames = 0;
+        readBuffer.flip();
+        try {
+            while (readBuffer.remaining() >= HEADER_SIZE) {
+                int position = readBuffer.position();
+                int opcode = readBuffer.getInt(position);
+                int length = readBuffer.getInt(position + 4);
+                if (length < 0 || length > MAX_FRAME_SIZE) throw new IOException("Invalid frame length " + length);
+                if (readBuffer.remaining() < HEADER_SIZE + length) break;
+
+                ByteBuffer payload = readBuffer.duplicate();
+                payload.position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length);
+                readBuffer.position(position + HEADER_SIZE + length);
+                handler.onFrame(opcode, decode(payload));
+                frames++;
+            }
+        } finally {
+            readBuffer.compact();
+        }
+
+        // make room for the next frame if it does not fit
+        if (readBuffer.position() >= HEADER_SIZE) {
+            int length = readBuffer.getInt(4);
+            if (length >= 0 && length <= MAX_FRAME_SIZE && HEADER_SIZE + length > readBuffer.capacity()) {
+                readBuffer = grow(readBuffer, HEADER_SIZE + length);
+            }
+        }
+        return frames;
+    }
+
+    private CharSequence decode(ByteBuffer payload) {
+        // UTF-8 never decodes to more chars than bytes
+        if (chars.capacity() < payload.remaining()) chars = CharBuffer.allocate(capacity(payload.remaining()));
+
+        chars.clear();
+        decoder.reset();
+        decoder.decode(payload, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
+    }
+
+    private void ensureWritable(int bytes) {
+        if (writeBuffer.remaining() < bytes) writeBuffer = grow(writeBuffer, writeBuffer.position() + bytes);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+        ByteBuffer grown = allocate(capacity(minCapacity));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static int capacity(int minCapacity) {
+        return Math.max(INITIAL_BUFFER_SIZE, Integer.highestOneBit(minCapacity - 1) << 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+}
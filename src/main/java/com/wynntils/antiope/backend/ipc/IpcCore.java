@@ -0,0 +1,383 @@
+package com.wynntils.antiope.backend.ipc;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.EventDispatcher;
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.DiscordLogSink;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CallbackPoolStats;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.user.DiscordUser;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// connection to the Discord client, only used by the thread owning the core
+final class IpcCore implements CoreBackend {
+    private static final int RPC_VERSION = 1;
+    // events the SDK subscribes to, overlay toggles are not sent over IPC
+    private static final DiscordEventType<?>[] EVENTS = {
+        DiscordEventType.ACTIVITY_JOIN, DiscordEventType.ACTIVITY_SPECTATE, DiscordEventType.ACTIVITY_JOIN_REQUEST
+    };
+    // names of the events in the RPC protocol
+    private static final String[] EVENT_NAMES = {"ACTIVITY_JOIN", "ACTIVITY_SPECTATE", "ACTIVITY_JOIN_REQUEST"};
+
+    private final IpcChannel channel;
+    private final SdkMetrics metrics;
+    private final EventDispatcher events;
+    private final long processId;
+    private final IpcActivityManager activityManager;
+    private final IpcOverlayManager overlayManager;
+    private final IpcChannel.FrameHandler frameHandler = this::onFrame;
+
+    // requests by nonce
+    private final Map<Long, PendingRequest> pending = new HashMap<>();
+    // requests completed without a response, e.g. after the connection has been lost
+    private final Queue<PendingRequest> completed = new ArrayDeque<>();
+    // payload of the request being built, reused for every request
+    private final StringBuilder payload = new StringBuilder(512);
+    private long nonce = 0;
+    private int pendingCallbacks = 0;
+    private int peakCallbacks = 0;
+    private boolean connected = true;
+    private boolean ready = false;
+    private Throwable thrown;
+
+    private LogLevel logLevel = LogLevel.ERROR;
+    private BiConsumer<LogLevel, String> logHook;
+
+    IpcCore(IpcTransport transport, CreateParams params, SdkMetrics metrics, long processId) {
+        this.channel = new IpcChannel(transport);
+        this.metrics = metrics;
+        this.events = new EventDispatcher(params);
+        this.processId = processId;
+        this.activityManager = new IpcActivityManager(this);
+        this.overlayManager = new IpcOverlayManager(this);
+    }
+
+    /**
+     * Sends the handshake and waits until Discord is ready.
+     * @param clientId Client ID of the application
+     * @param timeoutNanos Time to wait for Discord
+     * @throws GameSDKException if Discord rejected the handshake or did not answer in time
+     */
+    void handshake(long clientId, long timeoutNanos) {
+        payload.setLength(0);
+        payload.append("{\"v\":").append(RPC_VERSION).append(",\"client_id\":\"");
+        payload.append(Long.toUnsignedString(clientId)).append("\"}");
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            channel.send(IpcChannel.OP_HANDSHAKE, payload);
+            while (connected && System.nanoTime() - deadline < 0) {
+                if (channel.hasPendingWrites()) channel.flush();
+                if (channel.receive(frameHandler) < 0) connected = false;
+                if (ready || !connected) break;
+
+                Thread.sleep(1);
+            }
+        } catch (IOException e) {
+            connected = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            connected = false;
+        }
+        if (!ready) {
+            close();
+            throw new GameSDKException(Result.NOT_RUNNING);
+        }
+
+        // listeners may be added once the core exists, the events are filtered by the live mask when fired
+        for (String event : EVENT_NAMES) {
+            payload.setLength(0);
+            payload.append("{\"cmd\":\"SUBSCRIBE\",\"evt\":\"").append(event).append("\",\"args\":{");
+            send(null, null);
+        }
+    }
+
+    @Override
+    public ActivityBackend activityManager() {
+        return activityManager;
+    }
+
+    @Override
+    public OverlayBackend overlayManager() {
+        return overlayManager;
+    }
+
+    /**
+     * <p>Starts a request, its arguments are appended to the returned builder.</p>
+     * <p>The request is sent by {@link #send(SdkOperation, Consumer)}.</p>
+     * @param command RPC command
+     * @return The payload, ready for the fields of the arguments
+     */
+    StringBuilder begin(String command) {
+        payload.setLength(0);
+        payload.append("{\"cmd\":\"").append(command).append("\",\"args\":{\"pid\":").append(processId);
+        return payload;
+    }
+
+    /**
+     * Sends the request started by {@link #begin(String)}.
+     * @param operation Operation of the request
+     * @param callback Callback to pass the result to
+     */
+    void send(SdkOperation operation, Consumer<Result> callback) {
+        if (operation != null) {
+            metrics.recordRequest(operation);
+            pendingCallbacks++;
+            peakCallbacks = Math.max(peakCallbacks, pendingCallbacks);
+        }
+
+        PendingRequest request = new PendingRequest(operation, callback, System.nanoTime());
+        if (!connected) {
+            request.result = Result.NOT_RUNNING;
+            completed.add(request);
+            return;
+        }
+
+        long id = ++nonce;
+        payload.append("},\"nonce\":\"").append(id).append("\"}");
+        pending.put(id, request);
+        try {
+            channel.send(IpcChannel.OP_FRAME, payload);
+        } catch (IOException e) {
+            disconnect("Could not send " + operation + ": " + e);
+        }
+    }
+
+    /**
+     * Completes a request without sending it.
+     * @param operation Operation of the request
+     * @param callback Callback to pass the result to
+     * @param result Result to pass
+     */
+    void complete(SdkOperation operation, Consumer<Result> callback, Result result) {
+        metrics.recordRequest(operation);
+        pendingCallbacks++;
+        peakCallbacks = Math.max(peakCallbacks, pendingCallbacks);
+
+        PendingRequest request = new PendingRequest(operation, callback, System.nanoTime());
+        request.result = result;
+        completed.add(request);
+    }
+
+    @Override
+    public void runCallbacks() {
+        thrown = null;
+        if (connected) {
+            try {
+                if (channel.hasPendingWrites()) channel.flush();
+                if (channel.receive(frameHandler) < 0) disconnect("Discord closed the connection");
+            } catch (IOException e) {
+                disconnect("Connection to Discord failed: " + e);
+            }
+        }
+
+        for (PendingRequest request; (request = completed.poll()) != null; ) {
+            run(request, request.result);
+        }
+
+        Throwable first = thrown;
+        thrown = null;
+        if (first instanceof RuntimeException) throw (RuntimeException) first;
+        if (first instanceof Error) throw (Error) first;
+    }
+
+    private void onFrame(int opcode, CharSequence frame) {
+        try {
+            switch (opcode) {
+                case IpcChannel.OP_FRAME:
+                    onMessage(Json.object(Json.parse(frame)));
+                    break;
+                case IpcChannel.OP_PING:
+                    channel.send(IpcChannel.OP_PONG, frame);
+                    break;
+                case IpcChannel.OP_CLOSE:
+                    Map<String, Object> close = Json.object(Json.parse(frame));
+                    disconnect("Discord closed the connection: " + Json.string(close, "message"));
+                    break;
+                default:
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            log(LogLevel.WARN, "Invalid frame from Discord: " + e.getMessage());
+        } catch (IOException e) {
+            disconnect("Could not answer ping: " + e);
+        }
+    }
+
+    private void onMessage(Map<String, Object> message) {
+        if (message == null) return;
+
+        String command = Json.string(message, "cmd");
+        String event = Json.string(message, "evt");
+        Map<String, Object> data = Json.object(message.get("data"));
+        if ("DISPATCH".equals(command)) {
+            if ("READY".equals(event)) {
+                ready = true;
+            } else {
+                dispatch(event, data);
+            }
+            return;
+        }
+
+        PendingRequest request = pending.remove(Json.number(message, "nonce"));
+        if (request == null) return;
+
+        if ("ERROR".equals(event)) {
+            log(LogLevel.WARN, command + " failed: " + Json.string(data, "message"));
+            run(request, result(Json.number(data, "code")));
+        } else {
+            run(request, Result.OK);
+        }
+    }
+
+    private void run(PendingRequest request, Result result) {
+        if (request.operation == null) return;
+
+        pendingCallbacks--;
+        metrics.recordCallback(request.operation, result, System.nanoTime() - request.sent);
+        try {
+            request.callback.accept(result);
+        } catch (RuntimeException | Error e) {
+            // the first exception wins, like with the native upcalls
+            if (thrown == null) thrown = e;
+        }
+    }
+
+    private void dispatch(String event, Map<String, Object> data) {
+        DiscordEventType<?> type = null;
+        for (int i = 0; i < EVENTS.length; i++) {
+            if (EVENT_NAMES[i].equals(event)) type = EVENTS[i];
+        }
+        if (type == null) return;
+
+        String secret = Json.string(data, "secret");
+        DiscordUser user = null;
+        if (type == DiscordEventType.ACTIVITY_JOIN_REQUEST) {
+            Map<String, Object> userData = Json.object(data == null ? null : data.get("user"));
+            user = new DiscordUser(
+                    Json.number(userData, "id"),
+                    orEmpty(Json.string(userData, "username")),
+                    orEmpty(Json.string(userData, "discriminator")),
+                    orEmpty(Json.string(userData, "avatar")),
+                    userData != null && Boolean.TRUE.equals(userData.get("bot")));
+        }
+
+        try {
+            events.fire(type, orEmpty(secret), user, false);
+        } catch (RuntimeException | Error e) {
+            if (thrown == null) thrown = e;
+        }
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // maps RPC error codes to the SDK's results
+    private static Result result(long code) {
+        switch ((int) code) {
+            case 4000:
+                return Result.INVALID_PAYLOAD;
+            case 4002:
+                return Result.INVALID_COMMAND;
+            case 4003:
+                return Result.INVALID_GUILD;
+            case 4004:
+                return Result.INVALID_EVENT;
+            case 4005:
+                return Result.INVALID_CHANNEL;
+            case 4006:
+                return Result.INVALID_PERMISSIONS;
+            case 4008:
+                return Result.INVALID_ORIGIN;
+            case 4009:
+                return Result.INVALID_ACCESS_TOKEN;
+            case 5000:
+                return Result.OAUTH2_ERROR;
+            default:
+                return Result.INTERNAL_ERROR;
+        }
+    }
+
+    private void disconnect(String reason) {
+        if (!connected) return;
+
+        connected = false;
+        log(LogLevel.ERROR, reason);
+        close();
+        // requests in flight never get a response
+        for (PendingRequest request : pending.values()) {
+            request.result = Result.NOT_RUNNING;
+            completed.add(request);
+        }
+        pending.clear();
+    }
+
+    private void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log(LogLevel.WARN, "Could not close the connection: " + e);
+        }
+    }
+
+    void log(LogLevel level, String message) {
+        if (logHook != null && level.compareTo(logLevel) <= 0) logHook.accept(level, message);
+    }
+
+    @Override
+    public void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook) {
+        this.logLevel = minLevel;
+        this.logHook = logHook;
+    }
+
+    @Override
+    public void setLogSink(DiscordLogSink logSink) {
+        this.logHook = null;
+    }
+
+    @Override
+    public CallbackPoolStats getCallbackPoolStats() {
+        return new CallbackPoolStats(pendingCallbacks, peakCallbacks, peakCallbacks);
+    }
+
+    @Override
+    public boolean hasPendingCallbacks() {
+        return pendingCallbacks > 0;
+    }
+
+    @Override
+    public void destroy() {
+        connected = false;
+        close();
+        pending.clear();
+        completed.clear();
+        pendingCallbacks = 0;
+    }
+
+    private static final class PendingRequest {
+        private final SdkOperation operation;
+        private final Consumer<Result> callback;
+        private final long sent;
+        private Result result;
+
+        private PendingRequest(SdkOperation operation, Consumer<Result> callback, long sent) {
+            this.operation = operation;
+            this.callback = callback;
+            this.sent = sent;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.wynntils.antiope.backend.ipc;
+
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import java.util.function.Consumer;
+
+// the overlay is injected by the SDK, over IPC it can only be asked to open
+final class IpcOverlayManager implements OverlayBackend {
+    private final IpcCore core;
+    private boolean locked = true;
+
+    IpcOverlayManager(IpcCore core) {
+        this.core = core;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isLocked() {
+        return locked;
+    }
+
+    @Override
+    public void setLocked(boolean locked, Consumer<Result> callback) {
+        StringBuilder args = core.begin("SET_OVERLAY_LOCKED");
+        args.append(",\"locked\":").append(locked);
+        core.send(SdkOperation.SET_OVERLAY_LOCKED, result -> {
+            if (result == Result.OK) this.locked = locked;
+            callback.accept(result);
+        });
+    }
+
+    @Override
+    public void openActivityInvite(ActivityActionType type, Consumer<Result> callback) {
+        IpcActivityManager.field(core.begin("OPEN_OVERLAY_ACTIVITY_INVITE"), "type", type.nativeValue());
+        core.send(SdkOperation.OPEN_ACTIVITY_INVITE, callback);
+    }
+
+    @Override
+    public void openGuildInvite(String code, Consumer<Result> callback) {
+        IpcActivityManager.field(core.begin("OPEN_OVERLAY_GUILD_INVITE"), "code", code);
+        core.send(SdkOperation.OPEN_GUILD_INVITE, callback);
+    }
+
+    @Override
+    public void openVoiceSettings(Consumer<Result> callback) {
+        core.begin("OPEN_OVERLAY_VOICE_SETTINGS");
+        core.send(SdkOperation.OPEN_VOICE_SETTINGS, callback);
+    }
+}
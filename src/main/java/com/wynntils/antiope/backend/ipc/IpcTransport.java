@@ -0,0 +1,37 @@
+package com.wynntils.antiope.backend.ipc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+// byte stream to the Discord client, a unix domain socket or a named pipe on Windows
+interface IpcTransport extends Closeable {
+    /**
+     * Reads what is available without waiting for more.
+     * @param dst Buffer to read into
+     * @return Number of bytes read, -1 once the client closed the connection
+     * @throws IOException if reading fails
+     */
+    int read(ByteBuffer dst) throws IOException;
+
+    /**
+     * Writes what can be written without waiting.
+     * @param src Buffer to write from
+     * @return Number of bytes written
+     * @throws IOException if writing fails
+     */
+    int write(ByteBuffer src) throws IOException;
+
+    /**
+     * Connects to the IPC endpoint at the path.
+     * @param path Path of the socket, or of the pipe on Windows
+     * @return A connected transport
+     * @throws IOException if nothing listens at the path
+     */
+    static IpcTransport connect(Path path) throws IOException {
+        if (NamedPipeTransport.isPipe(path)) return NamedPipeTransport.connect(path);
+
+        return UnixSocketTransport.connect(path);
+    }
+}
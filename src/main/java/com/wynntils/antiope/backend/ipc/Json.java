@@ -0,0 +1,257 @@
+package com.wynntils.antiope.backend.ipc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// the small subset of JSON the IPC protocol needs, objects are parsed into maps and lists
+final class Json {
+    private final CharSequence text;
+    private int position = 0;
+
+    private Json(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document.
+     * @param text The document
+     * @return A Map, List, String, Long, Double, Boolean or null
+     * @throws IllegalArgumentException if the document is not valid JSON
+     */
+    static Object parse(CharSequence text) {
+        Json json = new Json(text);
+        Object value = json.value();
+        json.whitespace();
+        if (json.position != text.length()) throw json.error("Trailing characters");
+        return value;
+    }
+
+    /**
+     * Appends a string as a quoted JSON string.
+     * @param builder Builder to append to
+     * @param value String to quote
+     * @return The builder
+     */
+    static StringBuilder quote(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"');
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> object(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    static String string(Map<String, Object> object, String key) {
+        Object value = object == null ? null : object.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    static long number(Map<String, Object> object, String key) {
+        Object value = object == null ? null : object.get(key);
+        if (value instanceof Number) return ((Number) value).longValue();
+        // snowflakes are sent as strings
+        if (value instanceof String) {
+            try {
+                return Long.parseUnsignedLong((String) value);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private Object value() {
+        whitespace();
+        if (position >= text.length()) throw error("Unexpected end");
+
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return parseObject();
+            case '[':
+                return parseArray();
+            case '"':
+                return parseString();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return parseNumber();
+        }
+    }
+
+    private Map<String, Object> parseObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        whitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            whitespace();
+            if (peek() != '"') throw error("Expected a key");
+            String key = parseString();
+            whitespace();
+            expect(':');
+            object.put(key, value());
+            whitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> parseArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        whitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(value());
+            whitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String parseString() {
+        position++;
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            if (position >= text.length()) throw error("Unterminated string");
+
+            char c = text.charAt(position++);
+            if (c == '"') return builder.toString();
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            if (position >= text.length()) throw error("Unterminated escape");
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) throw error("Invalid unicode escape");
+                    String hex = text.subSequence(position, position + 4).toString();
+                    try {
+                        builder.append((char) Integer.parseInt(hex, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    builder.append(escaped);
+            }
+        }
+    }
+
+    private Object parseNumber() {
+        int start = position;
+        boolean integral = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            position++;
+        }
+        if (start == position) throw error("Unexpected character");
+
+        String number = text.subSequence(start, position).toString();
+        try {
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + number);
+        }
+    }
+
+    private Object literal(String literal, Object value) {
+        if (position + literal.length() > text.length()
+                || !literal.contentEquals(text.subSequence(position, position + literal.length()))) {
+            throw error("Unexpected character");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void whitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) throw error("Unexpected end");
+        return text.charAt(position);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("Expected '" + c + "'");
+        position++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + position);
+    }
+}
@@ -0,0 +1,92 @@
+package com.wynntils.antiope.backend.ipc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// Windows named pipe, opened for overlapped I/O so that reads can be polled
+final class NamedPipeTransport implements IpcTransport {
+    private static final String PIPE_PREFIX = "\\\\.\\pipe\\";
+
+    private final AsynchronousFileChannel channel;
+    // a read is always in flight into this buffer, its data is handed out once it completed
+    private final ByteBuffer inbound = ByteBuffer.allocateDirect(IpcChannel.INITIAL_BUFFER_SIZE);
+    private Future<Integer> reading;
+    private boolean closed = false;
+
+    private NamedPipeTransport(AsynchronousFileChannel channel) {
+        this.channel = channel;
+        startRead();
+    }
+
+    static boolean isPipe(Path path) {
+        return path.toString().startsWith(PIPE_PREFIX);
+    }
+
+    static NamedPipeTransport connect(Path path) throws IOException {
+        return new NamedPipeTransport(
+                AsynchronousFileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    private void startRead() {
+        inbound.clear();
+        // pipes ignore the position
+        reading = channel.read(inbound, 0);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (closed) return -1;
+        if (reading != null) {
+            if (!reading.isDone()) return 0;
+
+            int read = await(reading);
+            reading = null;
+            if (read < 0) {
+                closed = true;
+                return -1;
+            }
+            inbound.flip();
+        }
+
+        int length = Math.min(dst.remaining(), inbound.remaining());
+        ByteBuffer slice = inbound.duplicate();
+        slice.limit(slice.position() + length);
+        dst.put(slice);
+        inbound.position(inbound.position() + length);
+        if (!inbound.hasRemaining()) startRead();
+        return length;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        // writes to a pipe complete as soon as the client's buffer took them
+        int written = 0;
+        while (src.hasRemaining()) {
+            written += await(channel.write(src, 0));
+        }
+        return written;
+    }
+
+    private static int await(Future<Integer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
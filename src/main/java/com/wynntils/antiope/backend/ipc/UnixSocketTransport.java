@@ -0,0 +1,127 @@
+package com.wynntils.antiope.backend.ipc;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+// unix domain sockets are only available through NIO since Java 16, so they are looked up at runtime
+final class UnixSocketTransport implements IpcTransport {
+    private static final ProtocolFamily UNIX;
+    private static final MethodHandle OPEN;
+    private static final MethodHandle OPEN_SERVER;
+    private static final MethodHandle ADDRESS;
+
+    static {
+        ProtocolFamily unix = null;
+        MethodHandle open = null;
+        MethodHandle openServer = null;
+        MethodHandle address = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            open = lookup.findStatic(
+                    SocketChannel.class, "open", MethodType.methodType(SocketChannel.class, ProtocolFamily.class));
+            openServer = lookup.findStatic(
+                    ServerSocketChannel.class,
+                    "open",
+                    MethodType.methodType(ServerSocketChannel.class, ProtocolFamily.class));
+            address = lookup.findStatic(addressClass, "of", MethodType.methodType(addressClass, Path.class));
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            // older Java, the transport is unsupported
+        }
+        UNIX = unix;
+        OPEN = open;
+        OPEN_SERVER = openServer;
+        ADDRESS = address;
+    }
+
+    private final SocketChannel channel;
+
+    UnixSocketTransport(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns true if this Java version supports unix domain sockets.
+     * @return True if sockets can be opened
+     */
+    static boolean isSupported() {
+        return ADDRESS != null;
+    }
+
+    static UnixSocketTransport connect(Path path) throws IOException {
+        SocketChannel channel = open(OPEN);
+        try {
+            channel.connect(address(path));
+            channel.configureBlocking(false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new UnixSocketTransport(channel);
+    }
+
+    /**
+     * Binds a server socket, the socket file must not exist.
+     * @param path Path of the socket
+     * @return A blocking server socket
+     * @throws IOException if the socket can not be bound
+     */
+    static ServerSocketChannel bind(Path path) throws IOException {
+        ServerSocketChannel channel = open(OPEN_SERVER);
+        try {
+            channel.bind(address(path));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C> C open(MethodHandle open) throws IOException {
+        if (!isSupported()) throw new UnsupportedOperationException("Unix domain sockets require Java 16 or newer");
+
+        try {
+            return (C) open.invoke(UNIX);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static SocketAddress address(Path path) {
+        try {
+            return (SocketAddress) ADDRESS.invoke(path);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return channel.read(dst);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return channel.write(src);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,393 @@
+package com.wynntils.antiope.backend.simulator;
+
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.DiscordBackend;
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import com.wynntils.antiope.user.DiscordUser;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Backend that simulates Discord's SDK in Java, without Discord's native library or a Discord client.</p>
+ * <p>Requests complete after a configurable latency, optionally with random failures. Presence updates are
+ * subject to a rate limit like the real client's. Events are injected through the {@code fire} methods and fired
+ * during {@link DiscordGameSDKCore#runCallbacks()}, just like the SDK's. Callbacks are recorded in the core's
+ * {@link SdkMetrics}, so load tests can look at the same numbers as with the native backend.</p>
+ * <p>All randomness comes from a seeded generator. With a {@link SimulatedClock}, a simulation is fully
+ * deterministic, which makes it suitable for CI baselines and for replaying recorded traces.</p>
+ * <p>A simulator models a single Discord client and backs one core at a time.
+ * Since {@link com.wynntils.antiope.manager.activity.type.Activity} and
+ * {@link com.wynntils.antiope.manager.activity.type.ActivityBuffer} are native structures, only
+ * {@link ActivitySpec} can be used without loading the library. Log hooks are accepted, but the simulator
+ * only logs through a {@link java.util.function.BiConsumer} hook.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  DiscordSimulator simulator = DiscordSimulator.builder()
+ *          .setLatency(Duration.ofMillis(40))
+ *          .setJitter(Duration.ofMillis(20))
+ *          .setFailureRate(0.01)
+ *          .build();
+ *  try(DiscordGameSDKCore core = new DiscordGameSDKCore(params, simulator))
+ *  {
+ *      simulator.fireActivityJoin("secret");
+ *      // ...
+ *  }}</pre>
+ */
+public final class DiscordSimulator implements DiscordBackend {
+    /**
+     * What happens to presence updates beyond the rate limit.
+     */
+    public enum RateLimitPolicy {
+        /**
+         * The update is sent once the rate limit allows it, like the Discord client does.
+         */
+        DELAY,
+        /**
+         * The update fails with {@link Result#RATE_LIMITED}.
+         */
+        REJECT
+    }
+
+    /**
+     * Number of presence updates Discord allows per {@link #DISCORD_RATE_LIMIT_WINDOW}.
+     */
+    public static final int DISCORD_RATE_LIMIT = 5;
+
+    /**
+     * Window of Discord's rate limit for presence updates.
+     */
+    public static final Duration DISCORD_RATE_LIMIT_WINDOW = Duration.ofSeconds(20);
+
+    final LongSupplier clock;
+    final long latencyNanos;
+    final long jitterNanos;
+    final double failureRate;
+    final Result failureResult;
+    final long seed;
+    final int rateLimit;
+    final long rateLimitWindowNanos;
+    final RateLimitPolicy rateLimitPolicy;
+    final boolean overlayEnabled;
+
+    private final Queue<SimulatedEvent> injected = new ConcurrentLinkedQueue<>();
+    private SimulatedCore core;
+
+    // state of the simulated client, written by the thread using the core
+    volatile ActivitySpec activity;
+    volatile boolean overlayLocked = false;
+    volatile String registeredCommand;
+    volatile int registeredSteamId;
+
+    private DiscordSimulator(Builder builder) {
+        this.clock = builder.clock;
+        this.latencyNanos = builder.latency.toNanos();
+        this.jitterNanos = builder.jitter.toNanos();
+        this.failureRate = builder.failureRate;
+        this.failureResult = builder.failureResult;
+        this.seed = builder.seed;
+        this.rateLimit = builder.rateLimit;
+        this.rateLimitWindowNanos = builder.rateLimitWindow.toNanos();
+        this.rateLimitPolicy = builder.rateLimitPolicy;
+        this.overlayEnabled = builder.overlayEnabled;
+    }
+
+    /**
+     * Creates a builder for a simulator without latency, failures or rate limit.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * <p>Creates the simulated SDK instance of a core.</p>
+     * <p>The random generator starts from the seed again for every core.</p>
+     * @param params Parameters the core is created from
+     * @param metrics Metrics of the core
+     * @return The simulated SDK instance
+     * @throws IllegalStateException if the simulator already backs a core that has not been closed
+     */
+    @Override
+    public synchronized CoreBackend create(CreateParams params, SdkMetrics metrics) {
+        if (core != null) throw new IllegalStateException("Simulator already backs an open core");
+
+        core = new SimulatedCore(this, params, metrics);
+        return core;
+    }
+
+    synchronized void destroyed(SimulatedCore destroyed) {
+        if (core == destroyed) core = null;
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_JOIN} event during the next {@code runCallbacks()}.
+     * @param secret Join secret of the activity
+     */
+    public void fireActivityJoin(String secret) {
+        fireActivityJoin(secret, Duration.ZERO);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_JOIN} event once the delay has passed.
+     * @param secret Join secret of the activity
+     * @param delay Time from now until the event is due
+     */
+    public void fireActivityJoin(String secret, Duration delay) {
+        inject(DiscordEventType.ACTIVITY_JOIN, delay, Objects.requireNonNull(secret), null, false);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_SPECTATE} event during the next {@code runCallbacks()}.
+     * @param secret Spectate secret of the activity
+     */
+    public void fireActivitySpectate(String secret) {
+        fireActivitySpectate(secret, Duration.ZERO);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_SPECTATE} event once the delay has passed.
+     * @param secret Spectate secret of the activity
+     * @param delay Time from now until the event is due
+     */
+    public void fireActivitySpectate(String secret, Duration delay) {
+        inject(DiscordEventType.ACTIVITY_SPECTATE, delay, Objects.requireNonNull(secret), null, false);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_JOIN_REQUEST} event during the next {@code runCallbacks()}.
+     * @param user User asking to join
+     */
+    public void fireActivityJoinRequest(DiscordUser user) {
+        fireActivityJoinRequest(user, Duration.ZERO);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#ACTIVITY_JOIN_REQUEST} event once the delay has passed.
+     * @param user User asking to join
+     * @param delay Time from now until the event is due
+     */
+    public void fireActivityJoinRequest(DiscordUser user, Duration delay) {
+        inject(DiscordEventType.ACTIVITY_JOIN_REQUEST, delay, null, Objects.requireNonNull(user), false);
+    }
+
+    /**
+     * <p>Fires an {@link DiscordEventType#OVERLAY_TOGGLE} event during the next {@code runCallbacks()}.</p>
+     * <p>The overlay is locked or unlocked when the event fires.</p>
+     * @param locked Whether the overlay is locked
+     */
+    public void fireOverlayToggle(boolean locked) {
+        fireOverlayToggle(locked, Duration.ZERO);
+    }
+
+    /**
+     * Fires an {@link DiscordEventType#OVERLAY_TOGGLE} event once the delay has passed.
+     * @param locked Whether the overlay is locked
+     * @param delay Time from now until the event is due
+     */
+    public void fireOverlayToggle(boolean locked, Duration delay) {
+        inject(DiscordEventType.OVERLAY_TOGGLE, delay, null, null, locked);
+    }
+
+    private void inject(DiscordEventType<?> type, Duration delay, String secret, DiscordUser user, boolean locked) {
+        long nanos = delay.toNanos();
+        if (nanos < 0) throw new IllegalArgumentException("Delay must not be negative: " + delay);
+
+        injected.offer(new SimulatedEvent(type, clock.getAsLong() + nanos, secret, user, locked));
+    }
+
+    SimulatedEvent pollInjected() {
+        return injected.poll();
+    }
+
+    /**
+     * Gets the activity the last successful update set.
+     * @return The current activity, {@code null} if none has been set or it has been cleared
+     */
+    public ActivitySpec getActivity() {
+        return activity;
+    }
+
+    /**
+     * Returns true if the overlay is locked.
+     * @return True if the overlay is locked, false otherwise
+     */
+    public boolean isOverlayLocked() {
+        return overlayLocked;
+    }
+
+    /**
+     * Gets the command registered with {@code registerCommand}.
+     * @return The command, {@code null} if none has been registered
+     */
+    public String getRegisteredCommand() {
+        return registeredCommand;
+    }
+
+    /**
+     * Gets the Steam ID registered with {@code registerSteam}.
+     * @return The Steam ID, 0 if none has been registered
+     */
+    public int getRegisteredSteamId() {
+        return registeredSteamId;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscordSimulator{" + "latency=" + Duration.ofNanos(latencyNanos) + ", jitter="
+                + Duration.ofNanos(jitterNanos) + ", failureRate=" + failureRate + ", failureResult=" + failureResult
+                + ", seed=" + seed + ", rateLimit=" + rateLimit + "/" + Duration.ofNanos(rateLimitWindowNanos)
+                + ", rateLimitPolicy=" + rateLimitPolicy + '}';
+    }
+
+    /**
+     * Builder for {@link DiscordSimulator}s.
+     */
+    public static final class Builder {
+        private LongSupplier clock = System::nanoTime;
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double failureRate = 0;
+        private Result failureResult = Result.INTERNAL_ERROR;
+        private long seed = 1;
+        private int rateLimit = 0;
+        private Duration rateLimitWindow = DISCORD_RATE_LIMIT_WINDOW;
+        private RateLimitPolicy rateLimitPolicy = RateLimitPolicy.DELAY;
+        private boolean overlayEnabled = true;
+
+        private Builder() {}
+
+        /**
+         * <p>Sets the clock latencies and event delays are measured with.</p>
+         * <p>Defaults to {@link System#nanoTime()}.</p>
+         * @param clock Source of the current time in nanoseconds, e.g. a {@link SimulatedClock}
+         * @return This builder
+         */
+        public Builder setClock(LongSupplier clock) {
+            this.clock = Objects.requireNonNull(clock);
+            return this;
+        }
+
+        /**
+         * Sets the minimal time from sending a request until its callback can run.
+         * @param latency A non-negative duration
+         * @return This builder
+         */
+        public Builder setLatency(Duration latency) {
+            this.latency = requireNotNegative(latency);
+            return this;
+        }
+
+        /**
+         * Sets the maximal random latency added to every request.
+         * @param jitter A non-negative duration
+         * @return This builder
+         */
+        public Builder setJitter(Duration jitter) {
+            this.jitter = requireNotNegative(jitter);
+            return this;
+        }
+
+        /**
+         * Sets the fraction of requests that fail.
+         * @param failureRate A fraction between 0 and 1
+         * @return This builder
+         * @see #setFailureResult(Result)
+         */
+        public Builder setFailureRate(double failureRate) {
+            if (!(failureRate >= 0 && failureRate <= 1)) {
+                throw new IllegalArgumentException("Failure rate must be between 0 and 1: " + failureRate);
+            }
+
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        /**
+         * <p>Sets the result passed to failed requests.</p>
+         * <p>Defaults to {@link Result#INTERNAL_ERROR}.</p>
+         * @param failureResult Any result except {@link Result#OK}
+         * @return This builder
+         */
+        public Builder setFailureResult(Result failureResult) {
+            if (failureResult == Result.OK) throw new IllegalArgumentException("Failures must not be OK");
+
+            this.failureResult = Objects.requireNonNull(failureResult);
+            return this;
+        }
+
+        /**
+         * Sets the seed of the generator for jitter and failures.
+         * @param seed Any value
+         * @return This builder
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * <p>Limits presence updates like Discord does.</p>
+         * <p>At most {@code updates} calls of {@code updateActivity} and {@code clearActivity} are sent per window.
+         * Use {@link #DISCORD_RATE_LIMIT} and {@link #DISCORD_RATE_LIMIT_WINDOW} for Discord's limit.
+         * By default, there is no limit.</p>
+         * @param updates Updates per window, 0 for no limit
+         * @param window A positive duration
+         * @return This builder
+         */
+        public Builder setRateLimit(int updates, Duration window) {
+            if (updates < 0) throw new IllegalArgumentException("Updates must not be negative: " + updates);
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("Window must be positive: " + window);
+            }
+
+            this.rateLimit = updates;
+            this.rateLimitWindow = window;
+            return this;
+        }
+
+        /**
+         * <p>Sets what happens to presence updates beyond the rate limit.</p>
+         * <p>Defaults to {@link RateLimitPolicy#DELAY}.</p>
+         * @param rateLimitPolicy The policy
+         * @return This builder
+         */
+        public Builder setRateLimitPolicy(RateLimitPolicy rateLimitPolicy) {
+            this.rateLimitPolicy = Objects.requireNonNull(rateLimitPolicy);
+            return this;
+        }
+
+        /**
+         * <p>Sets whether the overlay is enabled.</p>
+         * <p>Defaults to true.</p>
+         * @param overlayEnabled Whether the overlay is enabled
+         * @return This builder
+         */
+        public Builder setOverlayEnabled(boolean overlayEnabled) {
+            this.overlayEnabled = overlayEnabled;
+            return this;
+        }
+
+        /**
+         * Builds the simulator.
+         * @return A new simulator
+         */
+        public DiscordSimulator build() {
+            return new DiscordSimulator(this);
+        }
+
+        private static Duration requireNotNegative(Duration duration) {
+            if (duration.isNegative()) throw new IllegalArgumentException("Duration must not be negative: " + duration);
+
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.wynntils.antiope.backend.simulator;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.util.function.Consumer;
+
+final class SimulatedActivityManager implements ActivityBackend {
+    private final DiscordSimulator simulator;
+    private final SimulatedCore core;
+
+    SimulatedActivityManager(DiscordSimulator simulator, SimulatedCore core) {
+        this.simulator = simulator;
+        this.core = core;
+    }
+
+    @Override
+    public Result registerCommand(String command) {
+        simulator.registeredCommand = command;
+        return Result.OK;
+    }
+
+    @Override
+    public Result registerSteam(int steamId) {
+        simulator.registeredSteamId = steamId;
+        return Result.OK;
+    }
+
+    @Override
+    public void updateActivity(Activity activity, Consumer<Result> callback) {
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    @Override
+    public void updateActivity(ActivitySpec activity, Consumer<Result> callback) {
+        core.requestUpdate(SdkOperation.UPDATE_ACTIVITY, callback, () -> simulator.activity = activity);
+    }
+
+    @Override
+    public void updateActivity(ActivityBuffer activity, Consumer<Result> callback) {
+        // the buffer may be reused as soon as this returns
+        updateActivity(activity.snapshot(), callback);
+    }
+
+    @Override
+    public void clearActivity(Consumer<Result> callback) {
+        core.requestUpdate(SdkOperation.CLEAR_ACTIVITY, callback, () -> simulator.activity = null);
+    }
+
+    @Override
+    public void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback) {
+        core.request(SdkOperation.SEND_REQUEST_REPLY, callback, null);
+    }
+
+    @Override
+    public void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback) {
+        core.request(SdkOperation.SEND_INVITE, callback, null);
+    }
+
+    @Override
+    public void acceptRequest(long userId, Consumer<Result> callback) {
+        core.request(SdkOperation.ACCEPT_REQUEST, callback, null);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wynntils.antiope.backend.simulator;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Clock of a {@link DiscordSimulator} that only moves when it is advanced.</p>
+ * <p>Together with a fixed seed, it makes a simulation deterministic: the same calls in the same order
+ * complete with the same results after the same simulated latency, no matter how fast the machine is.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  SimulatedClock clock = new SimulatedClock();
+ *  DiscordSimulator simulator = DiscordSimulator.builder()
+ *          .setClock(clock)
+ *          .setLatency(Duration.ofMillis(50))
+ *          .build();
+ *  // ...
+ *  clock.advance(Duration.ofMillis(50));
+ *  core.runCallbacks();}</pre>
+ */
+public final class SimulatedClock implements LongSupplier {
+    private volatile long nanos;
+
+    /**
+     * Creates a clock starting at 0.
+     */
+    public SimulatedClock() {
+        this(0);
+    }
+
+    /**
+     * Creates a clock starting at the given time.
+     * @param nanos Initial time in nanoseconds
+     */
+    public SimulatedClock(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Moves the clock forward.
+     * @param duration A non-negative duration
+     */
+    public synchronized void advance(Duration duration) {
+        long delta = duration.toNanos();
+        if (delta < 0) throw new IllegalArgumentException("Clock can not move backwards: " + duration);
+
+        nanos += delta;
+    }
+
+    /**
+     * Gets the current time.
+     * @return Time in nanoseconds
+     */
+    @Override
+    public long getAsLong() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedClock{" + "nanos=" + nanos + '}';
+    }
+}
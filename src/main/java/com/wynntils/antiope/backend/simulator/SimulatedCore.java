@@ -0,0 +1,264 @@
+package com.wynntils.antiope.backend.simulator;
+
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.EventDispatcher;
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.DiscordLogSink;
+import com.wynntils.antiope.core.SdkMetrics;
+import com.wynntils.antiope.core.type.CallbackPoolStats;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.event.DiscordEventType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// simulated SDK instance, only used by the thread owning the core
+final class SimulatedCore implements CoreBackend {
+    private static final Comparator<Scheduled> ORDER =
+            Comparator.comparingLong((Scheduled scheduled) -> scheduled.due).thenComparingLong(s -> s.sequence);
+
+    private final DiscordSimulator simulator;
+    private final SdkMetrics metrics;
+    private final EventDispatcher events;
+    private final SplittableRandom random;
+    private final SimulatedActivityManager activityManager;
+    private final SimulatedOverlayManager overlayManager;
+
+    private final PriorityQueue<Scheduled> queue = new PriorityQueue<>(ORDER);
+    // entries that are due, reused by every runCallbacks()
+    private final List<Scheduled> due = new ArrayList<>();
+    private long sequence = 0;
+    private int pendingCallbacks = 0;
+    private int peakCallbacks = 0;
+
+    // send times of the last presence updates, as a ring of rateLimit entries
+    private final long[] updateTimes;
+    private int updateIndex = 0;
+    private int updateCount = 0;
+    // the client sends presence updates in order, so the last one sent is the one that sticks
+    private long lastUpdateDue = Long.MIN_VALUE;
+
+    private LogLevel logLevel = LogLevel.ERROR;
+    private BiConsumer<LogLevel, String> logHook;
+
+    SimulatedCore(DiscordSimulator simulator, CreateParams params, SdkMetrics metrics) {
+        this.simulator = simulator;
+        this.metrics = metrics;
+        this.events = new EventDispatcher(params);
+        this.random = new SplittableRandom(simulator.seed);
+        this.updateTimes = new long[simulator.rateLimit];
+        this.activityManager = new SimulatedActivityManager(simulator, this);
+        this.overlayManager = new SimulatedOverlayManager(simulator, this);
+    }
+
+    @Override
+    public ActivityBackend activityManager() {
+        return activityManager;
+    }
+
+    @Override
+    public OverlayBackend overlayManager() {
+        return overlayManager;
+    }
+
+    /**
+     * Sends a request that completes after the configured latency.
+     * @param operation Operation of the request
+     * @param callback Callback to pass the result to
+     * @param onSuccess Applied to the simulated client once the request succeeded, may be null
+     */
+    void request(SdkOperation operation, Consumer<Result> callback, Runnable onSuccess) {
+        long now = simulator.clock.getAsLong();
+        schedule(new PendingCallback(operation, callback, now, now, randomResult(), onSuccess), Long.MIN_VALUE);
+    }
+
+    /**
+     * Sends a presence update, which is subject to the rate limit.
+     * @see #request(SdkOperation, Consumer, Runnable)
+     */
+    void requestUpdate(SdkOperation operation, Consumer<Result> callback, Runnable onSuccess) {
+        long now = simulator.clock.getAsLong();
+        if (updateTimes.length == 0) {
+            PendingCallback pending = new PendingCallback(operation, callback, now, now, randomResult(), onSuccess);
+            lastUpdateDue = schedule(pending, lastUpdateDue);
+            return;
+        }
+
+        long sendAt = now;
+        // the oldest of the last rateLimit updates decides when the next one may be sent
+        if (updateCount == updateTimes.length) {
+            long allowed = updateTimes[updateIndex] + simulator.rateLimitWindowNanos;
+            if (allowed > now) {
+                if (simulator.rateLimitPolicy == DiscordSimulator.RateLimitPolicy.REJECT) {
+                    log(LogLevel.WARN, "Rate limited " + operation);
+                    PendingCallback rejected =
+                            new PendingCallback(operation, callback, now, now, Result.RATE_LIMITED, null);
+                    schedule(rejected, Long.MIN_VALUE);
+                    return;
+                }
+                log(LogLevel.DEBUG, "Rate limited " + operation + ", sending in " + Duration.ofNanos(allowed - now));
+                sendAt = allowed;
+            }
+        } else {
+            updateCount++;
+        }
+        updateTimes[updateIndex] = sendAt;
+        updateIndex = (updateIndex + 1) % updateTimes.length;
+
+        PendingCallback pending = new PendingCallback(operation, callback, now, sendAt, randomResult(), onSuccess);
+        lastUpdateDue = schedule(pending, lastUpdateDue);
+    }
+
+    private Result randomResult() {
+        if (simulator.failureRate > 0 && random.nextDouble() < simulator.failureRate) return simulator.failureResult;
+
+        return Result.OK;
+    }
+
+    // schedules the callback no earlier than notBefore and returns when it is due
+    private long schedule(PendingCallback callback, long notBefore) {
+        metrics.recordRequest(callback.operation);
+        long due = callback.sendAt + simulator.latencyNanos;
+        if (simulator.jitterNanos > 0) due += random.nextLong(simulator.jitterNanos + 1);
+        callback.due = Math.max(due, notBefore);
+        callback.sequence = sequence++;
+        queue.add(callback);
+
+        pendingCallbacks++;
+        peakCallbacks = Math.max(peakCallbacks, pendingCallbacks);
+        return callback.due;
+    }
+
+    @Override
+    public void runCallbacks() {
+        for (SimulatedEvent event; (event = simulator.pollInjected()) != null; ) {
+            PendingEvent pending = new PendingEvent(event);
+            pending.due = event.due;
+            pending.sequence = sequence++;
+            queue.add(pending);
+        }
+
+        // like the SDK, requests sent by callbacks complete during a later call
+        long now = simulator.clock.getAsLong();
+        while (!queue.isEmpty() && queue.peek().due <= now) {
+            due.add(queue.poll());
+        }
+
+        Throwable thrown = null;
+        try {
+            for (Scheduled scheduled : due) {
+                try {
+                    scheduled.run(now);
+                } catch (RuntimeException | Error e) {
+                    // the first exception wins, like with the native upcalls
+                    if (thrown == null) thrown = e;
+                }
+            }
+        } finally {
+            due.clear();
+        }
+
+        if (thrown instanceof RuntimeException) throw (RuntimeException) thrown;
+        if (thrown instanceof Error) throw (Error) thrown;
+    }
+
+    private void fire(SimulatedEvent event) {
+        if (event.type == DiscordEventType.OVERLAY_TOGGLE) simulator.overlayLocked = event.locked;
+
+        events.fire(event.type, event.secret, event.user, event.locked);
+    }
+
+    void log(LogLevel level, String message) {
+        if (logHook != null && level.compareTo(logLevel) <= 0) logHook.accept(level, message);
+    }
+
+    @Override
+    public void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook) {
+        this.logLevel = minLevel;
+        this.logHook = logHook;
+    }
+
+    @Override
+    public void setLogSink(DiscordLogSink logSink) {
+        this.logHook = null;
+    }
+
+    @Override
+    public CallbackPoolStats getCallbackPoolStats() {
+        return new CallbackPoolStats(pendingCallbacks, peakCallbacks, peakCallbacks);
+    }
+
+    @Override
+    public boolean hasPendingCallbacks() {
+        return pendingCallbacks > 0;
+    }
+
+    @Override
+    public void destroy() {
+        // callbacks of a destroyed core are never called
+        queue.clear();
+        pendingCallbacks = 0;
+        simulator.destroyed(this);
+    }
+
+    private abstract static class Scheduled {
+        long due;
+        long sequence;
+
+        abstract void run(long now);
+    }
+
+    private final class PendingCallback extends Scheduled {
+        private final SdkOperation operation;
+        private final Consumer<Result> callback;
+        private final long sent;
+        private final long sendAt;
+        private final Result result;
+        private final Runnable onSuccess;
+
+        private PendingCallback(
+                SdkOperation operation,
+                Consumer<Result> callback,
+                long sent,
+                long sendAt,
+                Result result,
+                Runnable onSuccess) {
+            this.operation = operation;
+            this.callback = callback;
+            this.sent = sent;
+            this.sendAt = sendAt;
+            this.result = result;
+            this.onSuccess = onSuccess;
+        }
+
+        @Override
+        void run(long now) {
+            pendingCallbacks--;
+            metrics.recordCallback(operation, result, now - sent);
+            if (result == Result.OK && onSuccess != null) onSuccess.run();
+            callback.accept(result);
+        }
+    }
+
+    private final class PendingEvent extends Scheduled {
+        private final SimulatedEvent event;
+
+        private PendingEvent(SimulatedEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        void run(long now) {
+            fire(event);
+        }
+    }
+}
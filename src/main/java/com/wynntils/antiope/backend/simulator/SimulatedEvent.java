@@ -0,0 +1,24 @@
+package com.wynntils.antiope.backend.simulator;
+
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.user.DiscordUser;
+
+// an event injected into a DiscordSimulator, fired once it is due
+final class SimulatedEvent {
+    final DiscordEventType<?> type;
+    final long due;
+    // secret of join and spectate events
+    final String secret;
+    // user of join request events
+    final DiscordUser user;
+    // locked state of overlay toggle events
+    final boolean locked;
+
+    SimulatedEvent(DiscordEventType<?> type, long due, String secret, DiscordUser user, boolean locked) {
+        this.type = type;
+        this.due = due;
+        this.secret = secret;
+        this.user = user;
+        this.locked = locked;
+    }
+}
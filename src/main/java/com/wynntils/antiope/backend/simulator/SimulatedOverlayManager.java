@@ -0,0 +1,47 @@
+package com.wynntils.antiope.backend.simulator;
+
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import java.util.function.Consumer;
+
+final class SimulatedOverlayManager implements OverlayBackend {
+    private final DiscordSimulator simulator;
+    private final SimulatedCore core;
+
+    SimulatedOverlayManager(DiscordSimulator simulator, SimulatedCore core) {
+        this.simulator = simulator;
+        this.core = core;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return simulator.overlayEnabled;
+    }
+
+    @Override
+    public boolean isLocked() {
+        return simulator.overlayLocked;
+    }
+
+    @Override
+    public void setLocked(boolean locked, Consumer<Result> callback) {
+        core.request(SdkOperation.SET_OVERLAY_LOCKED, callback, () -> simulator.overlayLocked = locked);
+    }
+
+    @Override
+    public void openActivityInvite(ActivityActionType type, Consumer<Result> callback) {
+        core.request(SdkOperation.OPEN_ACTIVITY_INVITE, callback, null);
+    }
+
+    @Override
+    public void openGuildInvite(String code, Consumer<Result> callback) {
+        core.request(SdkOperation.OPEN_GUILD_INVITE, callback, null);
+    }
+
+    @Override
+    public void openVoiceSettings(Consumer<Result> callback) {
+        core.request(SdkOperation.OPEN_VOICE_SETTINGS, callback, null);
+    }
+}
@@ -0,0 +1,281 @@
+package com.wynntils.antiope.core;
+
+import com.wynntils.antiope.core.type.CoreClosedException;
+import com.wynntils.antiope.core.type.GameSDKException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>Runs {@link DiscordGameSDKCore#runCallbacks()} on a dedicated thread.</p>
+ * <p>The pump polls with {@link #getMinInterval()} right after a request has been sent
+ * and as long as callbacks are pending. While nothing happens the interval doubles after
+ * every poll until it reaches {@link #getMaxInterval()}, so an idle game does not wake
+ * up every frame.</p>
+ * <p>The pump is stopped when its core is closed. Instead of starting the pump, the core can also be added to
+ * a {@link CorePool}, which polls all of its cores on one thread.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  DiscordGameSDKCore core = new DiscordGameSDKCore(params);
+ *  core.callbackPump().start();
+ *  core.activityManager().updateActivity(activity);
+ *  // ...
+ *  core.close();}</pre>
+ *
+ * @see DiscordGameSDKCore#callbackPump()
+ */
+public class CallbackPump {
+    /**
+     * Default interval to poll with while requests are in flight.
+     */
+    public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofMillis(16);
+
+    /**
+     * Default interval to back off to while idle.
+     */
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofSeconds(2);
+
+    /**
+     * <p>Default exception handler. Prints the stack trace to {@link System#err}.</p>
+     */
+    public static final Consumer<RuntimeException> DEFAULT_EXCEPTION_HANDLER = RuntimeException::printStackTrace;
+
+    private static final String THREAD_NAME = "Discord Callback Pump";
+
+    private final DiscordGameSDKCore core;
+    private final Object threadLock = new Object();
+
+    private volatile long minIntervalNanos = DEFAULT_MIN_INTERVAL.toNanos();
+    private volatile long maxIntervalNanos = DEFAULT_MAX_INTERVAL.toNanos();
+    private volatile Consumer<RuntimeException> exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+
+    private volatile boolean requestSent = false;
+    private volatile boolean running = false;
+    private volatile Thread thread;
+    // the pool polling the core instead of the pump's own thread
+    private volatile CorePool pool;
+
+    CallbackPump(DiscordGameSDKCore core) {
+        this.core = core;
+    }
+
+    /**
+     * Sets the interval to poll with right after a request and while callbacks are pending.
+     * @param minInterval A positive duration.
+     */
+    public void setMinInterval(Duration minInterval) {
+        long nanos = minInterval.toNanos();
+        if (nanos <= 0) throw new IllegalArgumentException("Interval must be positive: " + minInterval);
+
+        this.minIntervalNanos = nanos;
+    }
+
+    /**
+     * Gets the interval to poll with right after a request and while callbacks are pending.
+     * @return The minimal interval.
+     */
+    public Duration getMinInterval() {
+        return Duration.ofNanos(minIntervalNanos);
+    }
+
+    /**
+     * Sets the interval the pump backs off to while idle.
+     * It is never shorter than {@link #getMinInterval()}.
+     * @param maxInterval A positive duration.
+     */
+    public void setMaxInterval(Duration maxInterval) {
+        long nanos = maxInterval.toNanos();
+        if (nanos <= 0) throw new IllegalArgumentException("Interval must be positive: " + maxInterval);
+
+        this.maxIntervalNanos = nanos;
+    }
+
+    /**
+     * Gets the interval the pump backs off to while idle.
+     * @return The maximal interval.
+     */
+    public Duration getMaxInterval() {
+        return Duration.ofNanos(maxIntervalNanos);
+    }
+
+    /**
+     * <p>Sets the handler for exceptions thrown by {@link DiscordGameSDKCore#runCallbacks()}.</p>
+     * <p>This includes {@link GameSDKException}s when Discord is not running,
+     * exceptions thrown by callbacks or event handlers and exceptions thrown by operations
+     * that have been handed over to the pump thread. The pump keeps running afterwards.</p>
+     * @param exceptionHandler Handler to pass exceptions to.
+     * @see #DEFAULT_EXCEPTION_HANDLER
+     */
+    public void setExceptionHandler(Consumer<RuntimeException> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+    }
+
+    /**
+     * <p>Starts the pump thread.</p>
+     * <p>From now on, {@link DiscordGameSDKCore#runCallbacks()} should not be called by any other thread.</p>
+     * @throws IllegalStateException if the pump is already running
+     */
+    public void start() {
+        synchronized (threadLock) {
+            if (!core.isOpen()) throw new CoreClosedException();
+            if (running) throw new IllegalStateException("Callback pump is already running");
+
+            running = true;
+            thread = new Thread(this::run, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * <p>Stops the pump thread and waits for it to finish its current poll.
+     * If the core is in a {@link CorePool}, it is removed from the pool instead.</p>
+     * <p>This is called by {@link DiscordGameSDKCore#close()}.</p>
+     */
+    public void stop() {
+        stop(true);
+    }
+
+    /**
+     * Lets a pool poll the core from now on.
+     * @param pool The pool
+     * @throws IllegalStateException if the pump is already running or the core is in another pool
+     */
+    void attach(CorePool pool) {
+        synchronized (threadLock) {
+            if (!core.isOpen()) throw new CoreClosedException();
+            if (running) throw new IllegalStateException("Callback pump is already running");
+
+            running = true;
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * Gets the pool polling the core.
+     * @return The pool or null if the core is not in a pool
+     */
+    public CorePool getPool() {
+        return pool;
+    }
+
+    void stop(boolean wait) {
+        Thread stopped;
+        CorePool detached;
+        synchronized (threadLock) {
+            running = false;
+            stopped = thread;
+            thread = null;
+            detached = pool;
+            pool = null;
+        }
+        if (detached != null) {
+            detached.remove(core, wait);
+            // operations handed over to the pool in the meantime
+            core.drainCommands();
+            return;
+        }
+        if (stopped == null) return;
+
+        LockSupport.unpark(stopped);
+        // a callback closing the core runs on the pump thread itself
+        if (!wait || stopped == Thread.currentThread()) return;
+
+        boolean interrupted = false;
+        while (stopped.isAlive()) {
+            try {
+                stopped.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Returns true if the pump thread has been started or the core has been added to a {@link CorePool}
+     * and it has not been stopped yet.
+     * @return True if the pump is running, false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * <p>Tells the pump that a request has been sent, so it should poll quickly again.</p>
+     * <p>This is called by the managers for every operation that completes through a callback.</p>
+     */
+    public void requestSent() {
+        wakeUp();
+    }
+
+    void wakeUp() {
+        requestSent = true;
+
+        CorePool current = pool;
+        if (current != null) {
+            current.wakeUp();
+            return;
+        }
+        Thread pumpThread = thread;
+        if (pumpThread != null) LockSupport.unpark(pumpThread);
+    }
+
+    boolean isRequestSent() {
+        return requestSent;
+    }
+
+    void handleException(RuntimeException e) {
+        exceptionHandler.accept(e);
+    }
+
+    /**
+     * Runs the callbacks once.
+     * @param interval Interval since the last poll
+     * @return Interval until the next poll, or -1 if the core has been closed
+     */
+    long poll(long interval) {
+        requestSent = false;
+        boolean busy;
+        try {
+            core.runCallbacks();
+            busy = requestSent || core.hasPendingCallbacks();
+        } catch (CoreClosedException e) {
+            return -1;
+        } catch (RuntimeException e) {
+            // the core might have been closed by a callback
+            if (!core.isOpen()) return -1;
+
+            exceptionHandler.accept(e);
+            // do not hammer a Discord client that is not running
+            busy = !(e instanceof GameSDKException);
+        }
+
+        long min = minIntervalNanos;
+        long max = Math.max(min, maxIntervalNanos);
+        return busy ? min : Math.min(Math.max(interval, min) * 2, max);
+    }
+
+    private void run() {
+        long interval = minIntervalNanos;
+        while (running) {
+            interval = poll(interval);
+            if (interval < 0) break;
+
+            long deadline = System.nanoTime() + interval;
+            for (long left = interval; left > 0 && running && !requestSent; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(this, left);
+            }
+        }
+        // operations handed over while the pump was stopping
+        core.drainCommands();
+    }
+
+    @Override
+    public String toString() {
+        return "CallbackPump{" + "running=" + running + ", pooled=" + (pool != null) + ", minInterval="
+                + getMinInterval() + ", maxInterval=" + getMaxInterval() + '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.wynntils.antiope.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * <p>Unbounded multi-producer single-consumer queue of operations on a native core.</p>
+ * <p>Any thread may {@link #offer(Command)} without blocking,
+ * only the thread that currently owns the core may {@link #poll()}.</p>
+ */
+class CommandQueue {
+    private final AtomicReference<Command> tail;
+    // only advanced by the owning thread, read by threads checking for leftovers after releasing the core
+    private volatile Command head;
+
+    CommandQueue() {
+        this.head = new Command(null, null, null);
+        this.tail = new AtomicReference<>(head);
+    }
+
+    void offer(Command command) {
+        Command previous = tail.getAndSet(command);
+        previous.next = command;
+    }
+
+    Command poll() {
+        Command next = head.next;
+        if (next == null) {
+            if (tail.get() == head) return null;
+
+            // a producer swapped the tail but did not link its command yet
+            while ((next = head.next) == null) {
+                Thread.onSpinWait();
+            }
+        }
+        head = next;
+        return next;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * An operation waiting in a {@link CommandQueue}.
+     * Either {@link #runnable} or {@link #supplier} is set.
+     */
+    static class Command {
+        private final Runnable runnable;
+        private final Supplier<?> supplier;
+        // thread waiting for the result, null for fire-and-forget commands
+        private final Thread waiter;
+        // System.nanoTime() when the operation has been requested
+        private final long created = System.nanoTime();
+
+        private volatile Command next;
+        private volatile boolean done = false;
+        private Object result;
+        private Throwable failure;
+
+        Command(Runnable runnable, Supplier<?> supplier, Thread waiter) {
+            this.runnable = runnable;
+            this.supplier = supplier;
+            this.waiter = waiter;
+        }
+
+        long getCreated() {
+            return created;
+        }
+
+        boolean isWaited() {
+            return waiter != null;
+        }
+
+        /**
+         * Runs the operation and wakes up the waiting thread.
+         * @return The exception thrown by a fire-and-forget command, null otherwise
+         */
+        RuntimeException run() {
+            try {
+                if (runnable != null) {
+                    runnable.run();
+                } else {
+                    result = supplier.get();
+                }
+            } catch (RuntimeException e) {
+                if (waiter == null) return e;
+                failure = e;
+            } catch (Error e) {
+                if (waiter == null) throw e;
+                failure = e;
+            } finally {
+                complete();
+            }
+            return null;
+        }
+
+        void reject(RuntimeException e) {
+            failure = e;
+            complete();
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        Object getResult() {
+            if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+            if (failure instanceof Error) throw (Error) failure;
+            return result;
+        }
+
+        private void complete() {
+            done = true;
+            if (waiter != null) LockSupport.unpark(waiter);
+        }
+    }
+}
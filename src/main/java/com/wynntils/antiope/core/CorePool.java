@@ -0,0 +1,211 @@
+package com.wynntils.antiope.core;
+
+import com.wynntils.antiope.core.type.CoreClosedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Runs the callbacks of several {@link DiscordGameSDKCore}s on one shared thread, e.g. of cores with different
+ * client IDs.</p>
+ * <p>Every core is polled like its own {@link CallbackPump} would: quickly while requests are in flight and less
+ * and less often while idle, with the intervals and the exception handler set on its pump. The cores are polled
+ * round-robin and each core at most once per round, so a busy core can not starve the others.</p>
+ * <p>Closing a core removes it from the pool. Closing the pool stops its thread, the cores stay open.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  try(CorePool pool = new CorePool())
+ *  {
+ *      pool.add(new DiscordGameSDKCore(launcherParams));
+ *      pool.add(new DiscordGameSDKCore(gameParams));
+ *      // ...
+ *  }}</pre>
+ */
+public final class CorePool implements AutoCloseable {
+    private static final String THREAD_NAME = "Discord Callback Pool";
+    // how long a removal waits for a poll of the removed core to finish, between checks
+    private static final long REMOVE_PARK = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+    // held while cores are added and while the pool is closed, so that no core is added after closing stopped all
+    private final Object lifecycleLock = new Object();
+    private final Thread thread;
+    private volatile boolean open = true;
+    private volatile boolean woken = false;
+    // the entry being polled right now
+    private volatile Entry polling;
+    // index of the core polled first in the next round
+    private int rotation = 0;
+
+    /**
+     * Creates a pool and starts its thread.
+     */
+    public CorePool() {
+        this.thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * <p>Adds a core, its callbacks run on the pool's thread from now on.</p>
+     * <p>Like after starting its {@link CallbackPump}, {@link DiscordGameSDKCore#runCallbacks()} should not be
+     * called by any other thread anymore.</p>
+     * @param core An open core
+     * @throws IllegalStateException if the pool has been closed, the core's pump is running or the core is in a pool
+     * @throws CoreClosedException if the core has been closed
+     */
+    public void add(DiscordGameSDKCore core) {
+        synchronized (lifecycleLock) {
+            if (!open) throw new IllegalStateException("Core pool has been closed");
+
+            core.callbackPump().attach(this);
+            entries.add(new Entry(core));
+        }
+        wakeUp();
+    }
+
+    /**
+     * Removes a core, its callbacks are no longer run by the pool.
+     * @param core A core
+     * @return True if the core was in this pool
+     */
+    public boolean remove(DiscordGameSDKCore core) {
+        if (core.callbackPump().getPool() != this) return false;
+
+        core.callbackPump().stop();
+        return true;
+    }
+
+    // called by the pump of a removed core, waits until the pool is done with it unless called from a callback
+    void remove(DiscordGameSDKCore core, boolean wait) {
+        Entry removed = null;
+        for (Entry entry : entries) {
+            if (entry.core == core) removed = entry;
+        }
+        if (removed == null) return;
+
+        removed.removed = true;
+        entries.remove(removed);
+        if (!wait || Thread.currentThread() == thread) return;
+
+        while (polling == removed) {
+            LockSupport.parkNanos(this, REMOVE_PARK);
+        }
+    }
+
+    /**
+     * Gets the cores in this pool.
+     * @return A snapshot of the cores
+     */
+    public List<DiscordGameSDKCore> getCores() {
+        List<DiscordGameSDKCore> cores = new ArrayList<>();
+        for (Entry entry : entries) {
+            cores.add(entry.core);
+        }
+        return cores;
+    }
+
+    /**
+     * Returns true until the pool is closed.
+     * @return True if the pool is open
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    void wakeUp() {
+        woken = true;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (open) {
+            woken = false;
+            long now = System.nanoTime();
+            long next = Long.MAX_VALUE;
+
+            Object[] round = entries.toArray();
+            int count = round.length;
+            int first = count == 0 ? 0 : Math.floorMod(rotation++, count);
+            for (int i = 0; i < count && open; i++) {
+                Entry entry = (Entry) round[(first + i) % count];
+                if (entry.removed) continue;
+
+                if (entry.pump.isRequestSent() || now - entry.due >= 0) {
+                    polling = entry;
+                    long interval;
+                    try {
+                        interval = entry.pump.poll(entry.interval);
+                    } finally {
+                        polling = null;
+                    }
+                    if (interval < 0) {
+                        // closed by a callback or by another thread
+                        entry.removed = true;
+                        entries.remove(entry);
+                        continue;
+                    }
+                    entry.interval = interval;
+                    entry.due = System.nanoTime() + interval;
+                }
+                next = Math.min(next, entry.due - now);
+            }
+
+            long deadline = now + next;
+            for (long left = next; left > 0 && open && !woken; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(this, left);
+            }
+        }
+    }
+
+    /**
+     * Stops the pool's thread and removes all cores, without closing them.
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycleLock) {
+            if (!open) return;
+
+            open = false;
+            for (Entry entry : entries) {
+                entry.pump.stop(false);
+            }
+        }
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() == thread) return;
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public String toString() {
+        return "CorePool{" + "open=" + open + ", cores=" + entries.size() + '}';
+    }
+
+    private static final class Entry {
+        private final DiscordGameSDKCore core;
+        private final CallbackPump pump;
+        private volatile boolean removed = false;
+        // only used by the pool's thread
+        private long interval;
+        private long due;
+
+        private Entry(DiscordGameSDKCore core) {
+            this.core = core;
+            this.pump = core.callbackPump();
+            this.interval = pump.getMinInterval().toNanos();
+            this.due = System.nanoTime();
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.wynntils.antiope.core;
 
+import com.wynntils.antiope.backend.ActivityBackend;
+import com.wynntils.antiope.backend.CoreBackend;
+import com.wynntils.antiope.backend.DiscordBackend;
+import com.wynntils.antiope.backend.OverlayBackend;
+import com.wynntils.antiope.core.CommandQueue.Command;
+import com.wynntils.antiope.core.type.CallbackPoolStats;
 import com.wynntils.antiope.core.type.CoreClosedException;
+import com.wynntils.antiope.core.type.LibraryLoadTimings;
 import com.wynntils.antiope.core.type.LogLevel;
 import com.wynntils.antiope.util.FileUtils;
 import com.wynntils.antiope.manager.activity.ActivityManager;
@@ -8,11 +15,21 @@ import com.wynntils.antiope.core.type.CreateParams;
 import com.wynntils.antiope.core.type.GameSDKException;
 import com.wynntils.antiope.manager.overlay.OverlayManager;
 import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.event.DiscordEventRing;
+import com.wynntils.antiope.jfr.ExecuteEvent;
+import com.wynntils.antiope.jfr.LibraryLoadEvent;
+import com.wynntils.antiope.jfr.RunCallbacksEvent;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -24,9 +41,19 @@ import java.util.function.Supplier;
  * @author JCM
  */
 public class DiscordGameSDKCore implements AutoCloseable {
+    /**
+     * <p>System property with the path of a Discord library to load instead of the bundled one.</p>
+     * <p>This is meant for the stub library in {@code src/stub/c}, which lets the bindings run without Discord.</p>
+     */
+    public static final String DISCORD_LIBRARY_PROPERTY = "antiope.discordLibrary";
+
     private static final String JNI_LIBRARY_NAME = "discord_game_sdk_jni";
     private static final String DISCORD_LIBRARY_NAME = "discord_game_sdk";
-    private static boolean firstInitDone = false;
+    private static final Object LIBRARY_LOCK = new Object();
+    // the library new cores are created from, null until it has been loaded
+    private static volatile DiscordLibrary library;
+    private static volatile CompletableFuture<LibraryLoadTimings> libraryLoading;
+    private static volatile LibraryLoadTimings libraryLoadTimings;
 
     /**
      * Extracts and initializes the native library.
@@ -39,11 +66,44 @@ public class DiscordGameSDKCore implements AutoCloseable {
      * the system property {@code os.arch} and {@code object name} is the name of the native object
      * (e.g. "discord_game_sdk_jni.dll" on Windows or "libdiscord_game_sdk_jni.so" on Linux.
      * <p>
-     * You may call this method more than once which unloads the old shared object and loads the new one.
+     * Both libraries are extracted into a per-user cache directory keyed by their content hash,
+     * so later starts only verify the cached files instead of copying them again.
+     * See {@link FileUtils#getCachedFileFromResource(String)}.
+     * <p>
+     * If the system property {@value #DISCORD_LIBRARY_PROPERTY} is set, Discord's library is loaded from that path
+     * instead of being extracted.
+     * <p>
+     * You may call this method more than once which loads the new shared object for cores created afterwards.
+     * The old one is unloaded once all cores created from it have been closed.
      **
      * @throws UnsatisfiedLinkError if Discord's native library can not be loaded
+     * @see #loadLibraryAsync(Executor)
      */
     public static void loadLibrary() {
+        join(loadLibraryAsync(Runnable::run));
+    }
+
+    /**
+     * <p>Extracts and initializes the native library like {@link #loadLibrary()} without blocking the caller.</p>
+     * <p>Discord's library and the JNI library are extracted in parallel on the given executor,
+     * which then loads them. Creating a {@link DiscordGameSDKCore} on the native backend waits for
+     * the returned future if it has not completed yet, so the libraries can be loaded early during startup
+     * and the core be created whenever it is needed.</p>
+     *
+     * Example:
+     * <pre>{@code
+     *  DiscordGameSDKCore.loadLibraryAsync(ForkJoinPool.commonPool())
+     *          .thenAccept(timings -> logger.info("Loaded Discord in {}", timings.getTotal()));
+     *  // ... other startup work
+     *  DiscordGameSDKCore core = new DiscordGameSDKCore(params);}</pre>
+     *
+     * @param executor Executor to extract and load the libraries on, it should be able to run two tasks at once
+     * @return A future completed with the time spent in every phase, or exceptionally with an
+     *         {@link UnsatisfiedLinkError} if Discord's native library can not be loaded
+     */
+    public static CompletableFuture<LibraryLoadTimings> loadLibraryAsync(Executor executor) {
+        long start = System.nanoTime();
+
         String osName = System.getProperty("os.name").toLowerCase(Locale.ROOT);
         String arch = System.getProperty("os.arch").toLowerCase(Locale.ROOT);
 
@@ -78,11 +138,6 @@ public class DiscordGameSDKCore implements AutoCloseable {
         if (arch.equals("amd64")) arch = "x86_64";
 
         String discordSdkPath = "/discord_game_sdk/lib/" + arch + "/" + discordSdkName;
-        File discordSdkFile = FileUtils.createTemporaryFileFromResource(discordSdkPath);
-
-        if (preloadDiscordSdk) {
-            System.load(discordSdkFile.getAbsolutePath());
-        }
 
         /*
         Some systems (e.g. Mac OS X) might report the architecture as "x86_64" instead of "amd64".
@@ -92,11 +147,135 @@ public class DiscordGameSDKCore implements AutoCloseable {
         if (arch.equals("x86_64")) arch = "amd64";
 
         String jniPath = "/native/" + osName + "/" + arch + "/" + jniLibraryName;
-        File jniFile = FileUtils.createTemporaryFileFromResource(jniPath);
 
-        System.load(jniFile.getAbsolutePath());
-        initDiscordNative(discordSdkFile.getAbsolutePath());
-        firstInitDone = true;
+        String discordLibrary = System.getProperty(DISCORD_LIBRARY_PROPERTY);
+        CompletableFuture<ExtractedLibrary> discordSdk = discordLibrary != null
+                ? CompletableFuture.completedFuture(new ExtractedLibrary(new File(discordLibrary)))
+                : CompletableFuture.supplyAsync(() -> new ExtractedLibrary(discordSdkPath), executor);
+        CompletableFuture<ExtractedLibrary> jni =
+                CompletableFuture.supplyAsync(() -> new ExtractedLibrary(jniPath), executor);
+
+        CompletableFuture<LibraryLoadTimings> loading =
+                discordSdk.thenCombine(jni, (sdk, jniLibrary) -> load(sdk, jniLibrary, preloadDiscordSdk, start));
+        libraryLoading = loading;
+        return loading;
+    }
+
+    /**
+     * Gets the time spent in the phases of the last successful {@link #loadLibrary()}
+     * or {@link #loadLibraryAsync(Executor)}.
+     * @return Timings of the last load or null if the library has not been loaded yet
+     */
+    public static LibraryLoadTimings getLibraryLoadTimings() {
+        return libraryLoadTimings;
+    }
+
+    private static LibraryLoadTimings load(
+            ExtractedLibrary discordSdk, ExtractedLibrary jni, boolean preloadDiscordSdk, long start) {
+        synchronized (LIBRARY_LOCK) {
+            LibraryLoadEvent loadEvent = new LibraryLoadEvent(LibraryLoadEvent.LOAD, jni.file.getName());
+            loadEvent.begin();
+            long loadStart = System.nanoTime();
+            if (preloadDiscordSdk) {
+                System.load(discordSdk.file.getAbsolutePath());
+            }
+            System.load(jni.file.getAbsolutePath());
+            loadEvent.commit();
+
+            LibraryLoadEvent initEvent = new LibraryLoadEvent(LibraryLoadEvent.INIT, discordSdk.file.getName());
+            initEvent.begin();
+            long initStart = System.nanoTime();
+            DiscordLibrary loaded = new DiscordLibrary(initDiscordNative(discordSdk.file.getAbsolutePath()));
+            long end = System.nanoTime();
+            initEvent.commit();
+
+            // cores created from the previous library keep it open until they are destroyed
+            DiscordLibrary previous = library;
+            library = loaded;
+            if (previous != null) release(previous);
+            libraryLoadTimings = new LibraryLoadTimings(
+                    Duration.ofNanos(discordSdk.nanos),
+                    Duration.ofNanos(jni.nanos),
+                    Duration.ofNanos(initStart - loadStart),
+                    Duration.ofNanos(end - initStart),
+                    Duration.ofNanos(end - start));
+            return libraryLoadTimings;
+        }
+    }
+
+    /**
+     * <p>Waits for a {@link #loadLibraryAsync(Executor)} that has not completed yet.</p>
+     * <p>This is called when creating a {@link DiscordGameSDKCore} on the {@link #NATIVE_BACKEND}.
+     * It returns immediately if the library has been loaded or no loading has been started.</p>
+     * @throws UnsatisfiedLinkError if Discord's native library can not be loaded
+     */
+    public static void awaitLibrary() {
+        CompletableFuture<LibraryLoadTimings> loading = libraryLoading;
+        if (library == null && loading != null) {
+            join(loading);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    // called by a core created from the library
+    private static DiscordLibrary retainLibrary() {
+        synchronized (LIBRARY_LOCK) {
+            DiscordLibrary current = library;
+            if (current == null) {
+                throw new IllegalStateException("Tried to create Core before calling Core.loadLibrary()");
+            }
+            current.references++;
+            return current;
+        }
+    }
+
+    private static void release(DiscordLibrary discordLibrary) {
+        synchronized (LIBRARY_LOCK) {
+            if (--discordLibrary.references == 0) closeDiscordNative(discordLibrary.handle);
+        }
+    }
+
+    /**
+     * A handle of Discord's library. It is closed once it has been replaced by a new {@link #loadLibrary()}
+     * and all cores created from it have been destroyed.
+     */
+    private static final class DiscordLibrary {
+        private final long handle;
+        // guarded by LIBRARY_LOCK, one for being the loaded library and one for every core created from it
+        private int references = 1;
+
+        private DiscordLibrary(long handle) {
+            this.handle = handle;
+        }
+    }
+
+    private static class ExtractedLibrary {
+        private final File file;
+        private final long nanos;
+
+        private ExtractedLibrary(String resourcePath) {
+            LibraryLoadEvent event = new LibraryLoadEvent(LibraryLoadEvent.EXTRACT, resourcePath);
+            event.begin();
+            long start = System.nanoTime();
+            this.file = FileUtils.getCachedFileFromResource(resourcePath);
+            this.nanos = System.nanoTime() - start;
+            event.commit();
+        }
+
+        private ExtractedLibrary(File file) {
+            this.file = file;
+            this.nanos = 0;
+        }
     }
 
     /**
@@ -109,8 +288,11 @@ public class DiscordGameSDKCore implements AutoCloseable {
      *                    <p>On Windows the filename (last component of the path) must be
      *                    "discord_game_sdk.dll" or an {@link UnsatisfiedLinkError} will occur.</p>
      *                    <p>On Linux the filename does not matter.</p>
+     * @return Handle of the library, 0 on Windows where it is linked
      */
-    private static native void initDiscordNative(String discordPath);
+    private static native long initDiscordNative(String discordPath);
+
+    private static native void closeDiscordNative(long library);
 
     /**
      * <p>Default callback to use for operation returning a {@link Result}.</p>
@@ -129,11 +311,25 @@ public class DiscordGameSDKCore implements AutoCloseable {
         System.out.printf("[%s] %s\n", level, message);
     };
 
-    private final long pointer;
+    /**
+     * <p>Backend calling Discord's native library through JNI, used unless another backend is given.</p>
+     * <p>It requires {@link #loadLibrary()} or {@link #loadLibraryAsync(Executor)} to be called first.</p>
+     */
+    public static final DiscordBackend NATIVE_BACKEND = NativeCoreBackend::new;
+
+    private final CoreBackend backend;
 
     private final CreateParams createParams;
+    private final DiscordEventRing eventRing;
+    private volatile DiscordLogSink logSink;
     private final AtomicBoolean open = new AtomicBoolean(true);
-    private final ReentrantLock lock = new ReentrantLock();
+    // the only thread allowed to call into the native core right now
+    private final AtomicReference<Thread> owner = new AtomicReference<>();
+    private final CommandQueue commands = new CommandQueue();
+    private final CallbackPump callbackPump = new CallbackPump(this);
+    private final SdkMetrics metrics = new SdkMetrics();
+    // only accessed by the owner
+    private boolean destroyed = false;
 
     private final ActivityManager activityManager;
     private final OverlayManager overlayManager;
@@ -159,35 +355,53 @@ public class DiscordGameSDKCore implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/discord#create</a>
      */
     public DiscordGameSDKCore(CreateParams params) {
-        if (!firstInitDone) {
-            throw new IllegalStateException("Tried to create Core before calling Core.loadLibrary()");
-        }
+        this(params, NATIVE_BACKEND);
+    }
 
+    /**
+     * <p>Creates an instance of the SDK on the given backend.</p>
+     * <p>Everything except the calls into the SDK works the same on every backend: operations are serialized,
+     * callbacks run in {@link #runCallbacks()} and metrics are recorded.</p>
+     * @param params Parameters to create Core from.
+     * @param backend Backend to run the SDK on, e.g. a
+     *                {@link com.wynntils.antiope.backend.simulator.DiscordSimulator DiscordSimulator}
+     * @see #NATIVE_BACKEND
+     */
+    public DiscordGameSDKCore(CreateParams params, DiscordBackend backend) {
         this.createParams = params;
-        Object ret = create(params.getPointer());
-        if (ret instanceof Result) {
-            throw new GameSDKException((Result) ret);
-        } else {
-            pointer = (long) ret;
-        }
+        this.eventRing = params.getEventRing();
+        this.backend = backend.create(params, metrics);
 
         setLogHook(LogLevel.WARN, DEFAULT_LOG_HOOK);
 
-        this.activityManager = new ActivityManager(getActivityManager(pointer), this);
-        this.overlayManager = new OverlayManager(getOverlayManager(pointer), this);
+        this.activityManager = new ActivityManager(this.backend.activityManager(), this);
+        this.overlayManager = new OverlayManager(this.backend.overlayManager(), this);
     }
 
-    private native Object create(long paramPointer);
+    private static native Object create(long library, long paramPointer);
+
+    private static native void destroy(long pointer);
+
+    private static native long getActivityManager(long pointer);
+
+    private static native long getOverlayManager(long pointer);
+
+    private static native void runCallbacks(long pointer);
+
+    private static native long setLogHook(
+            long pointer, int minLevel, BiConsumer<LogLevel, String> logHook, long previous);
+
+    private static native long setLogSink(long pointer, ByteBuffer buffer, int capacity, long previous);
 
-    private native void destroy(long pointer);
+    private static native void freeLogHook(long logHook);
 
-    private native long getActivityManager(long pointer);
+    private static native long createCallbackPool(ByteBuffer metrics);
 
-    private native long getOverlayManager(long pointer);
+    private static native void destroyCallbackPool(long callbackPool);
 
-    private native void runCallbacks(long pointer);
+    private static native void getCallbackPoolStats(long callbackPool, long[] stats);
 
-    private native void setLogHook(long pointer, int minLevel, BiConsumer<LogLevel, String> logHook);
+    private static native boolean hasPendingCallbacks(long callbackPool);
 
     /**
      * <p>Returns the {@link ActivityManager} associated with this core.</p>
@@ -211,14 +425,43 @@ public class DiscordGameSDKCore implements AutoCloseable {
         return overlayManager;
     }
 
+    /**
+     * <p>Returns the {@link CallbackPump} associated with this core.</p>
+     * <p>Once started, it calls {@link #runCallbacks()} on its own thread,
+     * so there is no need for a main loop anymore.</p>
+     * @return A {@link CallbackPump}
+     */
+    public CallbackPump callbackPump() {
+        return callbackPump;
+    }
+
+    /**
+     * <p>Returns the {@link SdkMetrics} of this core.</p>
+     * <p>Metrics are always recorded and stay readable after the core has been closed.</p>
+     * @return The metrics of this core
+     */
+    public SdkMetrics metrics() {
+        return metrics;
+    }
+
     /**
      * <p>Listens for new events and runs pending callbacks.</p>
-     * <p>This method should be called in a main loop every few millis.</p>
+     * <p>This method should be called in a main loop every few millis,
+     * unless the {@link #callbackPump()} has been started.</p>
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/discord#setloghook">
      *     https://discordapp.com/developers/docs/game-sdk/discord#runcallbacks</a>
      */
     public void runCallbacks() {
-        execute(() -> runCallbacks(pointer));
+        call(() -> {
+            RunCallbacksEvent event = RunCallbacksEvent.start();
+            long start = System.nanoTime();
+            backend.runCallbacks();
+            metrics.recordRunCallbacks(System.nanoTime() - start);
+            RunCallbacksEvent.end(event, metrics);
+        }, null);
+        if (eventRing != null) eventRing.signal();
+        DiscordLogSink sink = logSink;
+        if (sink != null) sink.signal();
     }
 
     /**
@@ -230,7 +473,43 @@ public class DiscordGameSDKCore implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/discord#setloghook</a>
      */
     public void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook) {
-        execute(() -> setLogHook(pointer, minLevel.ordinal(), Objects.requireNonNull(logHook)));
+        Objects.requireNonNull(minLevel);
+        Objects.requireNonNull(logHook);
+        execute(() -> {
+            backend.setLogHook(minLevel, logHook);
+            this.logSink = null;
+        });
+    }
+
+    /**
+     * <p>Registers a log sink, which passes log messages to its log hook on a background thread.</p>
+     * <p>Unlike {@link #setLogHook(LogLevel, BiConsumer)}, logging does not call into Java while the callbacks run
+     * and the level can be changed at any time with {@link DiscordLogSink#setLevel(LogLevel)}.
+     * The sink is not closed together with the core.</p>
+     * @param logSink An open log sink
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/discord#setloghook">
+     *     https://discordapp.com/developers/docs/game-sdk/discord#setloghook</a>
+     */
+    public void setLogHook(DiscordLogSink logSink) {
+        Objects.requireNonNull(logSink);
+        execute(() -> {
+            backend.setLogSink(logSink);
+            this.logSink = logSink;
+        });
+    }
+
+    /**
+     * <p>Returns how many native callback records are in use and have been allocated.</p>
+     * <p>Records are reused once their callback completed, so this can be used to check
+     * that memory stays constant in long sessions.</p>
+     * @return A snapshot of the callback record counters
+     */
+    public CallbackPoolStats getCallbackPoolStats() {
+        return execute(backend::getCallbackPoolStats);
+    }
+
+    boolean hasPendingCallbacks() {
+        return execute(backend::hasPendingCallbacks);
     }
 
     /**
@@ -246,47 +525,293 @@ public class DiscordGameSDKCore implements AutoCloseable {
     /**
      * <p>Closes and destroys the instance.</p>
      * <p>This should be called at the end of the program.</p>
+     * <p>Operations queued before are still executed, operations queued afterwards are rejected.
+     * When called from a callback, the instance is destroyed once {@link #runCallbacks()} returned.</p>
      *
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/discord#destroy">
      *     https://discordapp.com/developers/docs/game-sdk/discord#destroy</a>
      */
     @Override
     public void close() {
-        if (open.compareAndSet(true, false)) {
-            lock.lock();
-            try {
-                destroy(pointer);
-            } finally {
-                lock.unlock();
-            }
-            createParams.close();
+        if (!open.compareAndSet(true, false)) return;
+
+        Thread current = Thread.currentThread();
+        if (owner.get() == current) {
+            // the owner destroys the core when releasing it
+            callbackPump.stop(false);
+            return;
+        }
+
+        callbackPump.stop(true);
+        try {
+            await(new Command(this::destroyBackend, null, current));
+        } catch (CoreClosedException e) {
+            // destroyed by the owner while draining the queue
         }
     }
 
+    private void destroyBackend() {
+        if (destroyed) return;
+        destroyed = true;
+
+        // callbacks that are still pending will never complete now
+        backend.destroy();
+        logSink = null;
+        createParams.close();
+    }
+
     /**
-     * <p>Return the pointer to the native structure.</p>
+     * <p>Executes an operation on the native core and waits for its result.</p>
+     * <p>If no other thread is using the core, the operation runs on the calling thread.
+     * Otherwise it is queued and run by the thread currently using the core.</p>
      * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
-     * @return A native pointer.
+     * @param provider Operation to execute.
+     * @param <T> Type of the result
+     * @return The result of the operation.
      */
-    public long getPointer() {
-        return pointer;
+    public <T> T execute(Supplier<T> provider) {
+        return call(null, provider);
     }
 
-    public <T> T execute(Supplier<T> provider) {
+    // runs either the runnable or the supplier and waits for it
+    @SuppressWarnings("unchecked")
+    private <T> T call(Runnable runnable, Supplier<T> provider) {
         if (!isOpen()) throw new CoreClosedException();
 
-        lock.lock();
+        Thread current = Thread.currentThread();
+        // called from a callback or event handler
+        if (owner.get() == current) return runnable != null ? runRunnable(runnable) : provider.get();
+
+        long requested = System.nanoTime();
+        if (owner.compareAndSet(null, current)) {
+            try {
+                drain();
+                if (destroyed) throw new CoreClosedException();
+                return runTimed(runnable, provider, requested);
+            } finally {
+                release(current);
+            }
+        }
+        return (T) await(new Command(runnable, provider, current));
+    }
+
+    private static <T> T runRunnable(Runnable runnable) {
+        runnable.run();
+        return null;
+    }
+
+    // runs an operation while owning the core and records how long it waited and ran
+    private <T> T runTimed(Runnable runnable, Supplier<T> provider, long requested) {
+        ExecuteEvent event = ExecuteEvent.start();
+        long start = System.nanoTime();
         try {
-            return provider.get();
+            return runnable != null ? runRunnable(runnable) : provider.get();
         } finally {
-            lock.unlock();
+            metrics.recordExecute(start - requested, System.nanoTime() - start);
+            ExecuteEvent.end(event, start - requested, false);
         }
     }
 
+    /**
+     * <p>Executes an operation that completes through a callback and tells the
+     * {@link CallbackPump} to poll quickly until the callback ran.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param runnable Operation to execute.
+     */
+    public void executeRequest(Runnable runnable) {
+        executeRequest(runnable, null);
+    }
+
+    /**
+     * <p>Executes an operation that completes through a callback, like {@link #executeRequest(Runnable)}.</p>
+     * <p>If the operation has to be handed over to another thread, it is replaced by the operation {@code detached}
+     * returns. It is called on the calling thread and copies what the caller may change or free afterwards.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param runnable Operation to execute.
+     * @param detached Creates an operation that can run later, or null if {@code runnable} can
+     */
+    public void executeRequest(Runnable runnable, Supplier<Runnable> detached) {
+        execute(runnable, detached);
+        callbackPump.requestSent();
+    }
+
+    /**
+     * <p>Executes an operation on the native core without waiting for it.</p>
+     * <p>While the {@link CallbackPump} is running, the operation is always handed over to the pump thread.
+     * Exceptions thrown by the operation on another thread are passed to the pump's exception handler.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param runnable Operation to execute.
+     */
     public void execute(Runnable runnable) {
-        execute((Supplier<Void>) () -> {
+        execute(runnable, null);
+    }
+
+    private void execute(Runnable runnable, Supplier<Runnable> detached) {
+        if (!isOpen()) throw new CoreClosedException();
+
+        Thread current = Thread.currentThread();
+        if (owner.get() == current) {
             runnable.run();
-            return null;
-        });
+            return;
+        }
+
+        long requested = System.nanoTime();
+        if (!callbackPump.isRunning() && owner.compareAndSet(null, current)) {
+            try {
+                drain();
+                if (destroyed) throw new CoreClosedException();
+                runTimed(runnable, null, requested);
+            } finally {
+                release(current);
+            }
+            return;
+        }
+
+        // the caller may change or free its arguments as soon as this returns
+        Runnable queued = detached != null ? detached.get() : runnable;
+        commands.offer(new Command(queued, null, null));
+        if (callbackPump.isRunning()) {
+            callbackPump.wakeUp();
+        } else {
+            // the pump stopped in the meantime
+            drainCommands();
+        }
+    }
+
+    /**
+     * Runs queued operations unless another thread is already using the core.
+     */
+    void drainCommands() {
+        Thread current = Thread.currentThread();
+        if (owner.compareAndSet(null, current)) release(current);
+    }
+
+    private Object await(Command command) {
+        commands.offer(command);
+
+        Thread current = Thread.currentThread();
+        boolean interrupted = false;
+        while (!command.isDone()) {
+            if (owner.compareAndSet(null, current)) {
+                release(current);
+            } else {
+                LockSupport.park(this);
+                if (Thread.interrupted()) interrupted = true;
+            }
+        }
+        if (interrupted) current.interrupt();
+
+        return command.getResult();
+    }
+
+    private void release(Thread current) {
+        do {
+            try {
+                drain();
+            } finally {
+                owner.set(null);
+            }
+            // a command might have been queued after the queue was drained
+        } while (!commands.isEmpty() && owner.compareAndSet(null, current));
+    }
+
+    private void drain() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (destroyed) {
+                command.reject(new CoreClosedException());
+                continue;
+            }
+
+            ExecuteEvent event = ExecuteEvent.start();
+            long start = System.nanoTime();
+            RuntimeException e = command.run();
+            metrics.recordExecute(start - command.getCreated(), System.nanoTime() - start);
+            ExecuteEvent.end(event, start - command.getCreated(), true);
+            if (e != null) callbackPump.handleException(e);
+        }
+
+        // closed by a callback or by another thread while we owned the core
+        if (!isOpen()) destroyBackend();
+    }
+
+    // calls Discord's native library, the natives above are only called from here
+    private static final class NativeCoreBackend implements CoreBackend {
+        private final DiscordLibrary library;
+        private final long pointer;
+        private final long callbackPool;
+        private final ActivityBackend activityManager;
+        private final OverlayBackend overlayManager;
+        private long logHook = 0;
+
+        private NativeCoreBackend(CreateParams params, SdkMetrics metrics) {
+            awaitLibrary();
+            this.library = retainLibrary();
+
+            Object ret;
+            try {
+                ret = create(library.handle, params.getPointer());
+            } catch (RuntimeException | Error e) {
+                release(library);
+                throw e;
+            }
+            if (ret instanceof Result) {
+                release(library);
+                throw new GameSDKException((Result) ret);
+            } else {
+                pointer = (long) ret;
+            }
+            this.callbackPool = createCallbackPool(metrics.getBuffer());
+
+            this.activityManager = ActivityManager.nativeBackend(getActivityManager(pointer), callbackPool);
+            this.overlayManager = OverlayManager.nativeBackend(getOverlayManager(pointer), callbackPool);
+        }
+
+        @Override
+        public ActivityBackend activityManager() {
+            return activityManager;
+        }
+
+        @Override
+        public OverlayBackend overlayManager() {
+            return overlayManager;
+        }
+
+        @Override
+        public void runCallbacks() {
+            DiscordGameSDKCore.runCallbacks(pointer);
+        }
+
+        @Override
+        public void setLogHook(LogLevel minLevel, BiConsumer<LogLevel, String> logHook) {
+            this.logHook = DiscordGameSDKCore.setLogHook(pointer, minLevel.ordinal(), logHook, this.logHook);
+        }
+
+        @Override
+        public void setLogSink(DiscordLogSink logSink) {
+            this.logHook = DiscordGameSDKCore.setLogSink(
+                    pointer, logSink.getBuffer(), logSink.getCapacity(), this.logHook);
+        }
+
+        @Override
+        public CallbackPoolStats getCallbackPoolStats() {
+            long[] stats = new long[3];
+            DiscordGameSDKCore.getCallbackPoolStats(callbackPool, stats);
+            return new CallbackPoolStats(stats[0], stats[1], stats[2]);
+        }
+
+        @Override
+        public boolean hasPendingCallbacks() {
+            return DiscordGameSDKCore.hasPendingCallbacks(callbackPool);
+        }
+
+        @Override
+        public void destroy() {
+            DiscordGameSDKCore.destroy(pointer);
+            freeLogHook(logHook);
+            logHook = 0;
+            destroyCallbackPool(callbackPool);
+            release(library);
+        }
     }
 }
@@ -0,0 +1,345 @@
+package com.wynntils.antiope.core;
+
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.LogSinkStats;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <p>Passes log messages of the SDK to a log hook on a background thread.</p>
+ * <p>The native log hook only checks the level and copies the message into a bounded ring of slots,
+ * so verbose logging does not slow down {@link DiscordGameSDKCore#runCallbacks()}. If all slots are in use,
+ * new messages are dropped. Messages longer than {@value #MAX_MESSAGE_LENGTH} bytes are truncated.</p>
+ * <p>A message that repeats within the {@linkplain #setRepeatWindow(Duration) repeat window} is only passed on
+ * once, followed by a single message telling how often it has been repeated.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  DiscordLogSink sink = new DiscordLogSink(DiscordGameSDKCore.DEFAULT_LOG_HOOK);
+ *  core.setLogHook(sink);
+ *  // ...
+ *  sink.setLevel(LogLevel.DEBUG);}</pre>
+ *
+ * @see DiscordGameSDKCore#setLogHook(DiscordLogSink)
+ */
+public final class DiscordLogSink implements AutoCloseable {
+    /**
+     * Default number of slots.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Default time a repeated message is suppressed for.
+     */
+    public static final Duration DEFAULT_REPEAT_WINDOW = Duration.ofSeconds(10);
+
+    /**
+     * Maximum length of a message in bytes.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 1008;
+
+    /**
+     * <p>Default exception handler for the log hook. Prints the stack trace to {@link System#err}.</p>
+     */
+    public static final Consumer<RuntimeException> DEFAULT_EXCEPTION_HANDLER = RuntimeException::printStackTrace;
+
+    // layout of the buffer, has to match Ring.h and the LOG_SLOT constants in DiscordGameSDKCore.c
+    private static final int CURSOR = 0;
+    private static final int GATING = 64;
+    private static final int DROPPED = 128;
+    private static final int CLOSED = 256;
+    private static final int LEVEL = 320;
+    private static final int HEADER_SIZE = 384;
+
+    private static final int SLOT_SIZE = 1024;
+    private static final int SLOT_LEVEL = 0;
+    private static final int SLOT_LENGTH = 4;
+    private static final int SLOT_TRUNCATED = 8;
+    private static final int SLOT_MESSAGE = 16;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private static final String THREAD_NAME = "Discord Log Sink";
+    private static final long SPINS = 100;
+    // the sink is woken up after every runCallbacks(), this only bounds the delay of a missed wake-up
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final BiConsumer<LogLevel, String> logHook;
+    private final int capacity;
+    private final ByteBuffer buffer;
+    private final Thread thread;
+
+    private volatile long repeatWindowNanos = DEFAULT_REPEAT_WINDOW.toNanos();
+    private volatile Consumer<RuntimeException> exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+    private volatile long signalledCursor = 0;
+    private volatile boolean running = true;
+
+    // only written by the sink thread
+    private volatile long emitted = 0;
+    private volatile long suppressed = 0;
+    private volatile long truncated = 0;
+
+    /**
+     * Creates a sink with {@link #DEFAULT_CAPACITY} slots that passes {@link LogLevel#WARN} and above.
+     * @param logHook Hook to pass messages to
+     */
+    public DiscordLogSink(BiConsumer<LogLevel, String> logHook) {
+        this(logHook, LogLevel.WARN, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a sink and starts its thread.
+     * @param logHook Hook to pass messages to, called on the sink thread
+     * @param minLevel Minimal level of messages to pass
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    public DiscordLogSink(BiConsumer<LogLevel, String> logHook, LogLevel minLevel, int capacity) {
+        if (capacity <= 0 || capacity > 1 << 20) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^20: " + capacity);
+        }
+
+        this.logHook = Objects.requireNonNull(logHook);
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        // aligned to a cache line, so that the counters do not share one
+        this.buffer = ByteBuffer.allocateDirect(HEADER_SIZE + this.capacity * SLOT_SIZE + 64)
+                .alignedSlice(64)
+                .order(ByteOrder.nativeOrder());
+        setLevel(minLevel);
+
+        this.thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * <p>Sets the minimal level of messages to pass.</p>
+     * <p>Takes effect immediately, messages below the level are dropped natively.</p>
+     * @param minLevel Minimal level of messages to pass
+     */
+    public void setLevel(LogLevel minLevel) {
+        LONGS.setRelease(buffer, LEVEL, (long) minLevel.ordinal());
+    }
+
+    /**
+     * Gets the minimal level of messages to pass.
+     * @return The minimal level
+     */
+    public LogLevel getLevel() {
+        return LEVELS[(int) (long) LONGS.getAcquire(buffer, LEVEL)];
+    }
+
+    /**
+     * <p>Sets the time a repeated message is suppressed for.</p>
+     * <p>A message is repeated if it has the same level and text as the previous one.
+     * {@link Duration#ZERO} passes every message.</p>
+     * @param repeatWindow A non-negative duration
+     * @see #DEFAULT_REPEAT_WINDOW
+     */
+    public void setRepeatWindow(Duration repeatWindow) {
+        long nanos = repeatWindow.toNanos();
+        if (nanos < 0) throw new IllegalArgumentException("Repeat window must not be negative: " + repeatWindow);
+
+        this.repeatWindowNanos = nanos;
+    }
+
+    /**
+     * Gets the time a repeated message is suppressed for.
+     * @return The repeat window
+     */
+    public Duration getRepeatWindow() {
+        return Duration.ofNanos(repeatWindowNanos);
+    }
+
+    /**
+     * <p>Sets the handler for exceptions thrown by the log hook.</p>
+     * <p>The sink keeps running afterwards.</p>
+     * @param exceptionHandler Handler to pass exceptions to, called on the sink thread
+     * @see #DEFAULT_EXCEPTION_HANDLER
+     */
+    public void setExceptionHandler(Consumer<RuntimeException> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return A power of two
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns a snapshot of the sink's counters.
+     * @return Published, emitted, suppressed and dropped messages
+     */
+    public LogSinkStats getStats() {
+        return new LogSinkStats(
+                (long) LONGS.getAcquire(buffer, CURSOR),
+                (long) LONGS.getAcquire(buffer, GATING),
+                emitted,
+                suppressed,
+                truncated,
+                (long) LONGS.getAcquire(buffer, DROPPED));
+    }
+
+    /**
+     * <p>Wakes up the sink thread if new messages have been published.</p>
+     * <p>This is called by {@link DiscordGameSDKCore#runCallbacks()}.</p>
+     */
+    public void signal() {
+        long cursor = (long) LONGS.getAcquire(buffer, CURSOR);
+        if (cursor == signalledCursor) return;
+
+        signalledCursor = cursor;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Returns true if the sink thread has not been stopped yet.
+     * @return True if the sink is open, false otherwise
+     */
+    public boolean isOpen() {
+        return running;
+    }
+
+    /**
+     * <p>Passes the messages that are still in the ring to the log hook and stops the sink thread.</p>
+     * <p>From now on, all messages are dropped.</p>
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+
+        LONGS.setRelease(buffer, CLOSED, 1L);
+        running = false;
+        LockSupport.unpark(thread);
+        // the log hook closing the sink runs on the sink thread itself
+        if (thread == Thread.currentThread()) return;
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * <p>Gets the buffer the native log hook publishes to.</p>
+     * <p><b>This method is not an API.</b></p>
+     * @return The direct buffer holding the counters and slots
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void run() {
+        ByteBuffer view = buffer.duplicate();
+        byte[] bytes = new byte[MAX_MESSAGE_LENGTH];
+        Repeats repeats = new Repeats();
+
+        long sequence = (long) LONGS.getAcquire(buffer, GATING);
+        long idle = 0;
+        while (true) {
+            long cursor = (long) LONGS.getAcquire(buffer, CURSOR);
+            if (sequence < cursor) {
+                int slot = HEADER_SIZE + (int) (sequence & (capacity - 1)) * SLOT_SIZE;
+                LogLevel level = LEVELS[buffer.getInt(slot + SLOT_LEVEL)];
+                int length = Math.max(0, Math.min(buffer.getInt(slot + SLOT_LENGTH), MAX_MESSAGE_LENGTH));
+                if (buffer.getInt(slot + SLOT_TRUNCATED) != 0) truncated++;
+                view.clear().position(slot + SLOT_MESSAGE);
+                view.get(bytes, 0, length);
+                // everything has been copied, the native hook may reuse the slot
+                sequence++;
+                LONGS.setRelease(buffer, GATING, sequence);
+
+                repeats.handle(level, new String(bytes, 0, length, StandardCharsets.UTF_8));
+                idle = 0;
+                continue;
+            }
+            // all messages published before closing have been passed on
+            if (!running) break;
+
+            repeats.flushExpired();
+            if (idle++ < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(this, repeats.parkNanos());
+            }
+        }
+        repeats.flush();
+    }
+
+    private void emit(LogLevel level, String message) {
+        try {
+            logHook.accept(level, message);
+        } catch (RuntimeException e) {
+            exceptionHandler.accept(e);
+        }
+        emitted++;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscordLogSink{" + "capacity=" + capacity + ", level=" + getLevel() + ", repeatWindow="
+                + getRepeatWindow() + ", running=" + running + '}';
+    }
+
+    // state of the sink thread for suppressing repeated messages
+    private final class Repeats {
+        private LogLevel lastLevel;
+        private String lastMessage;
+        private long windowStart;
+        private long count;
+
+        private void handle(LogLevel level, String message) {
+            long now = System.nanoTime();
+            long window = repeatWindowNanos;
+            if (window > 0 && level == lastLevel && message.equals(lastMessage) && now - windowStart < window) {
+                count++;
+                suppressed++;
+                return;
+            }
+
+            flush();
+            emit(level, message);
+            lastLevel = level;
+            lastMessage = message;
+            windowStart = now;
+        }
+
+        private void flushExpired() {
+            if (count > 0 && System.nanoTime() - windowStart >= repeatWindowNanos) {
+                flush();
+                lastMessage = null;
+            }
+        }
+
+        private void flush() {
+            if (count == 0) return;
+
+            emit(lastLevel, lastMessage + " (repeated " + count + " times)");
+            count = 0;
+        }
+
+        private long parkNanos() {
+            if (count == 0) return MAX_PARK_NANOS;
+
+            long left = windowStart + repeatWindowNanos - System.nanoTime();
+            return Math.max(1, Math.min(left, MAX_PARK_NANOS));
+        }
+    }
+}
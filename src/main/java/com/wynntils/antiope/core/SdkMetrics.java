@@ -0,0 +1,239 @@
+package com.wynntils.antiope.core;
+
+import com.wynntils.antiope.core.type.LatencyStats;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>Counters and latency histograms of a {@link DiscordGameSDKCore}.</p>
+ * <p>The round trips of operations taking a callback are measured natively, from handing the request to the SDK
+ * until the SDK calls the callback. Everything else is measured in Java. Recording only updates counters in a
+ * direct buffer, it neither allocates nor locks.</p>
+ * <p>Counters are read individually, so a snapshot taken while the core is in use might be slightly inconsistent.
+ * All values count since the core has been created.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  SdkMetrics metrics = core.metrics();
+ *  LatencyStats updates = metrics.getLatency(SdkOperation.UPDATE_ACTIVITY);
+ *  System.out.println("p99 updateActivity: " + updates.getPercentile(99));}</pre>
+ *
+ * @see DiscordGameSDKCore#metrics()
+ */
+public final class SdkMetrics {
+    // layout of the buffer, has to match Metrics.h
+    private static final int RESULTS = 0;
+    private static final int RESULT_COUNT = 64;
+    private static final int STARTED = 512;
+    private static final int HISTOGRAMS = 640;
+
+    private static final int HISTOGRAM_COUNT = 0;
+    private static final int HISTOGRAM_SUM = 8;
+    private static final int HISTOGRAM_MAX = 16;
+    private static final int HISTOGRAM_BUCKETS = 64;
+    private static final int HISTOGRAM_BUCKET_COUNT = 248;
+    private static final int HISTOGRAM_SIZE = 2048;
+
+    private static final SdkOperation[] OPERATIONS = SdkOperation.values();
+    private static final Result[] RESULT_VALUES = Result.values();
+    // histograms only recorded in Java, after the ones of the operations
+    private static final int RUN_CALLBACKS = OPERATIONS.length;
+    private static final int EXECUTE_WAIT = OPERATIONS.length + 1;
+    private static final int EXECUTE_HOLD = OPERATIONS.length + 2;
+    private static final int HISTOGRAM_NUMBER = OPERATIONS.length + 3;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    SdkMetrics() {
+        // aligned to a cache line, so that the histograms do not share one
+        this.buffer = ByteBuffer.allocateDirect(HISTOGRAMS + HISTOGRAM_NUMBER * HISTOGRAM_SIZE + 64)
+                .alignedSlice(64)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Gets how often the SDK returned a result, either to a callback or from a synchronous operation.
+     * @param result A result
+     * @return Number of times the result has been returned
+     */
+    public long getResultCount(Result result) {
+        return (long) LONGS.getOpaque(buffer, RESULTS + result.ordinal() * 8);
+    }
+
+    /**
+     * Gets the number of times each result has been returned.
+     * @return The results that have been returned at least once, with their count
+     * @see #getResultCount(Result)
+     */
+    public Map<Result, Long> getResultCounts() {
+        Map<Result, Long> counts = new EnumMap<>(Result.class);
+        for (Result result : RESULT_VALUES) {
+            long count = getResultCount(result);
+            if (count > 0) counts.put(result, count);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the round trip latency of an operation, from sending the request until its callback has been called.
+     * @param operation An operation taking a callback
+     * @return A snapshot of the latency histogram
+     */
+    public LatencyStats getLatency(SdkOperation operation) {
+        return snapshot(operation.ordinal());
+    }
+
+    /**
+     * Gets the number of requests of an operation whose callback has not been called yet.
+     * @param operation An operation taking a callback
+     * @return Number of requests in flight
+     */
+    public long getInFlight(SdkOperation operation) {
+        long started = (long) LONGS.getOpaque(buffer, STARTED + operation.ordinal() * 8);
+        long completed = (long) LONGS.getOpaque(buffer, histogram(operation.ordinal()) + HISTOGRAM_COUNT);
+        return Math.max(0, started - completed);
+    }
+
+    /**
+     * Gets the number of requests whose callback has not been called yet.
+     * @return Number of requests in flight over all operations
+     */
+    public long getInFlight() {
+        long inFlight = 0;
+        for (SdkOperation operation : OPERATIONS) {
+            inFlight += getInFlight(operation);
+        }
+        return inFlight;
+    }
+
+    /**
+     * Gets the time spent in the SDK's {@code run_callbacks}, including all callbacks and events it ran.
+     * @return A snapshot of the duration histogram
+     * @see DiscordGameSDKCore#runCallbacks()
+     */
+    public LatencyStats getRunCallbacksDuration() {
+        return snapshot(RUN_CALLBACKS);
+    }
+
+    /**
+     * <p>Gets the time operations on the core waited until they could run.</p>
+     * <p>This is the time another thread was using the core, either running its own operations or
+     * {@link DiscordGameSDKCore#runCallbacks()}. Operations called from callbacks never wait and are not recorded.</p>
+     * @return A snapshot of the wait time histogram
+     */
+    public LatencyStats getExecuteWaitTime() {
+        return snapshot(EXECUTE_WAIT);
+    }
+
+    /**
+     * Gets the time operations on the core took to run, during which no other thread could use the core.
+     * @return A snapshot of the hold time histogram
+     */
+    public LatencyStats getExecuteHoldTime() {
+        return snapshot(EXECUTE_HOLD);
+    }
+
+    /**
+     * <p>Counts a result returned by a synchronous operation.</p>
+     * <p>Results passed to callbacks are counted natively.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param result Result of the operation
+     */
+    public void recordResult(Result result) {
+        if (result.ordinal() < RESULT_COUNT) LONGS.getAndAdd(buffer, RESULTS + result.ordinal() * 8, 1L);
+    }
+
+    /**
+     * <p>Counts a request sent by a backend that does not record natively.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param operation Operation of the request
+     */
+    public void recordRequest(SdkOperation operation) {
+        LONGS.getAndAdd(buffer, STARTED + operation.ordinal() * 8, 1L);
+    }
+
+    /**
+     * <p>Records the callback of a request sent by a backend that does not record natively.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param operation Operation of the request
+     * @param result Result passed to the callback
+     * @param nanos Time since the request has been sent
+     */
+    public void recordCallback(SdkOperation operation, Result result, long nanos) {
+        recordResult(result);
+        record(operation.ordinal(), nanos);
+    }
+
+    void recordRunCallbacks(long nanos) {
+        record(RUN_CALLBACKS, nanos);
+    }
+
+    void recordExecute(long waitNanos, long holdNanos) {
+        record(EXECUTE_WAIT, waitNanos);
+        record(EXECUTE_HOLD, holdNanos);
+    }
+
+    /**
+     * <p>Gets the buffer the counters and histograms are stored in.</p>
+     * <p><b>This method is not an API.</b></p>
+     * @return The direct buffer shared with the native callback records
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void record(int index, long nanos) {
+        long value = Math.max(0, nanos);
+        int histogram = histogram(index);
+        LONGS.getAndAdd(buffer, histogram + HISTOGRAM_COUNT, 1L);
+        LONGS.getAndAdd(buffer, histogram + HISTOGRAM_SUM, value);
+        LONGS.getAndAdd(buffer, histogram + HISTOGRAM_BUCKETS + bucketIndex(value) * 8, 1L);
+
+        long max = (long) LONGS.getOpaque(buffer, histogram + HISTOGRAM_MAX);
+        while (value > max) {
+            long witness = (long) LONGS.compareAndExchange(buffer, histogram + HISTOGRAM_MAX, max, value);
+            if (witness == max) break;
+            max = witness;
+        }
+    }
+
+    private LatencyStats snapshot(int index) {
+        int histogram = histogram(index);
+        long[] buckets = new long[HISTOGRAM_BUCKET_COUNT];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = (long) LONGS.getOpaque(buffer, histogram + HISTOGRAM_BUCKETS + i * 8);
+        }
+        return new LatencyStats(
+                (long) LONGS.getOpaque(buffer, histogram + HISTOGRAM_COUNT),
+                (long) LONGS.getOpaque(buffer, histogram + HISTOGRAM_SUM),
+                (long) LONGS.getOpaque(buffer, histogram + HISTOGRAM_MAX),
+                buckets);
+    }
+
+    private static int histogram(int index) {
+        return HISTOGRAMS + index * HISTOGRAM_SIZE;
+    }
+
+    // same buckets as in Metrics.c
+    private static int bucketIndex(long nanos) {
+        if (nanos < 4) return (int) nanos;
+
+        int msb = 63 - Long.numberOfLeadingZeros(nanos);
+        return 4 * (msb - 1) + (int) ((nanos >>> (msb - 2)) & 3);
+    }
+
+    @Override
+    public String toString() {
+        return "SdkMetrics{" + "results=" + getResultCounts() + ", inFlight=" + getInFlight() + ", runCallbacks="
+                + getRunCallbacksDuration() + ", executeWait=" + getExecuteWaitTime() + ", executeHold="
+                + getExecuteHoldTime() + '}';
+    }
+}
@@ -0,0 +1,50 @@
+package com.wynntils.antiope.core.type;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+
+/**
+ * <p>A snapshot of the native records a {@link DiscordGameSDKCore} keeps for pending callbacks.</p>
+ * <p>Every operation taking a callback occupies one record until the callback completed.
+ * Records are reused afterwards, so in a steady state {@link #getCapacity()} stops growing.</p>
+ * @see DiscordGameSDKCore#getCallbackPoolStats()
+ */
+public class CallbackPoolStats {
+    private final long live;
+    private final long peak;
+    private final long capacity;
+
+    public CallbackPoolStats(long live, long peak, long capacity) {
+        this.live = live;
+        this.peak = peak;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the number of callbacks that are currently pending.
+     * @return Number of records in use
+     */
+    public long getLive() {
+        return live;
+    }
+
+    /**
+     * Gets the highest number of callbacks that were pending at the same time.
+     * @return Peak number of records in use
+     */
+    public long getPeak() {
+        return peak;
+    }
+
+    /**
+     * Gets the number of records that have been allocated, whether they are in use or not.
+     * @return Number of allocated records
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "CallbackPoolStats{" + "live=" + live + ", peak=" + peak + ", capacity=" + capacity + '}';
+    }
+}
@@ -2,12 +2,16 @@ package com.wynntils.antiope.core.type;
 
 import com.wynntils.antiope.core.DiscordGameSDKCore;
 import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.event.DiscordEventRing;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 /**
- * Initial parameters to create a {@link DiscordGameSDKCore} from.
+ * <p>Initial parameters to create a {@link DiscordGameSDKCore} from.</p>
+ * <p>The parameters are kept in Java. The native structure is only allocated once a core is created from them
+ * on the {@linkplain DiscordGameSDKCore#NATIVE_BACKEND native backend}.</p>
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/discord#create-parameters">
  *     https://discordapp.com/developers/docs/game-sdk/discord#create-parameters</a>
  */
@@ -67,22 +71,26 @@ public class CreateParams implements AutoCloseable {
         }
     }
 
-    private final long pointer;
     private final AtomicBoolean open = new AtomicBoolean(true);
+    private volatile long clientId = 0;
+    private volatile long flags = Flags.DEFAULT.value;
+    private volatile DiscordEventAdapter eventHandler;
+    private volatile DiscordEventRing eventRing;
+    // guarded by this, 0 until a native core is created from the params
+    private long pointer = 0;
 
     /**
-     * Allocates a new structure and initializes it with default parameters.
+     * Creates parameters with the default values.
      */
-    public CreateParams() {
-        this.pointer = allocate();
-    }
+    public CreateParams() {}
 
     /**
      * Sets the application/client ID.
      * @param id Application/client ID.
      */
-    public void setClientID(long id) {
-        setClientID(pointer, id);
+    public synchronized void setClientID(long id) {
+        this.clientId = id;
+        if (pointer != 0) setClientID(pointer, id);
     }
 
     /**
@@ -90,7 +98,7 @@ public class CreateParams implements AutoCloseable {
      * @return Application/client ID.
      */
     public long getClientID() {
-        return getClientID(pointer);
+        return clientId;
     }
 
     /**
@@ -102,7 +110,7 @@ public class CreateParams implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/discord#data-models-createflags-enum</a>
      */
     public void setFlags(Flags... flags) {
-        setFlags(pointer, Flags.toLong(flags));
+        setFlags(Flags.toLong(flags));
     }
 
     /**
@@ -112,8 +120,9 @@ public class CreateParams implements AutoCloseable {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/discord#data-models-createflags-enum">
      *     https://discordapp.com/developers/docs/game-sdk/discord#data-models-createflags-enum</a>
      */
-    public void setFlags(long flags) {
-        setFlags(pointer, flags);
+    public synchronized void setFlags(long flags) {
+        this.flags = flags;
+        if (pointer != 0) setFlags(pointer, flags);
     }
 
     /**
@@ -127,45 +136,102 @@ public class CreateParams implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/discord#data-models-createflags-enum</a>
      */
     public long getFlags() {
-        return getFlags(pointer);
+        return flags;
     }
 
     /**
-     * Registers an event handler to later receive events from the created Core.
+     * <p>Registers an event handler to later receive events from the created Core.</p>
+     * <p>Only events in the handler's {@linkplain DiscordEventAdapter#getEventMask() event mask} are passed
+     * to Java, all other events are dropped natively.</p>
      * @param eventHandler An EventHandler
+     * @throws IllegalStateException if a Core has already been created from the params on the native backend
+     */
+    public synchronized void registerEventHandler(DiscordEventAdapter eventHandler) {
+        Objects.requireNonNull(eventHandler);
+        checkNotCreated();
+        this.eventHandler = eventHandler;
+        this.eventRing = null;
+    }
+
+    /**
+     * <p>Registers an event ring to later receive events from the created Core.</p>
+     * <p>Events are published to the ring and passed to its target adapter by the ring's consumer threads,
+     * instead of being handled while the callbacks run. This replaces a handler registered with
+     * {@link #registerEventHandler(DiscordEventAdapter)}.</p>
+     * <p>A ring must only be registered for a single Core.</p>
+     * @param eventRing An open event ring
+     * @throws IllegalStateException if a Core has already been created from the params on the native backend
+     */
+    public synchronized void registerEventRing(DiscordEventRing eventRing) {
+        Objects.requireNonNull(eventRing);
+        checkNotCreated();
+        this.eventRing = eventRing;
+        this.eventHandler = null;
+    }
+
+    // the native Core keeps using the events it was created with, replacing them would free them under it
+    private void checkNotCreated() {
+        if (pointer != 0) throw new IllegalStateException("A Core has already been created from the params");
+    }
+
+    /**
+     * Gets the event handler registered by {@link #registerEventHandler(DiscordEventAdapter)}.
+     * @return The event handler, {@code null} if none has been registered or it has been replaced by a ring
+     */
+    public DiscordEventAdapter getEventHandler() {
+        return eventHandler;
+    }
+
+    /**
+     * Gets the event ring registered by {@link #registerEventRing(DiscordEventRing)}.
+     * @return The event ring, {@code null} if none has been registered
      */
-    public void registerEventHandler(DiscordEventAdapter eventHandler) {
-        registerEventHandler(pointer, Objects.requireNonNull(eventHandler));
+    public DiscordEventRing getEventRing() {
+        return eventRing;
     }
 
-    private native long allocate();
+    private static void registerEventRing(long pointer, DiscordEventRing eventRing) {
+        DiscordEventAdapter target = eventRing.getTarget();
+        registerEventRing(
+                pointer,
+                eventRing,
+                eventRing.getBuffer(),
+                eventRing.getCapacity(),
+                eventRing.getOverflowPolicy().ordinal(),
+                target.getEventMaskBuffer());
+    }
 
-    private native void free(long pointer);
+    private static native long allocate();
 
-    private native void setClientID(long pointer, long id);
+    private static native void free(long pointer);
 
-    private native long getClientID(long pointer);
+    private static native void setClientID(long pointer, long id);
 
-    private native void setFlags(long pointer, long flags);
+    private static native void setFlags(long pointer, long flags);
 
-    private native long getFlags(long pointer);
+    private static native void registerEventHandler(long pointer, DiscordEventAdapter handler, ByteBuffer eventMask);
 
-    private native void registerEventHandler(long pointer, DiscordEventAdapter handler);
+    private static native void registerEventRing(
+            long pointer, DiscordEventRing ring, ByteBuffer buffer, int capacity, int policy, ByteBuffer eventMask);
 
     /**
      * Gets the default flags for new Cores.
      * @return The default flags.
      */
-    public static native long getDefaultFlags();
+    public static long getDefaultFlags() {
+        return Flags.DEFAULT.value;
+    }
 
     /**
      * @return Flags that do not require Discord to be active and do not automatically start Discord.
      */
-    public static native long getNoRequireDiscordFlags();
+    public static long getNoRequireDiscordFlags() {
+        return Flags.NO_REQUIRE_DISCORD.value;
+    }
 
     /**
-     * <p>Frees the allocated native structure.</p>
-     * <p>You should call this when you do not need the structure anymore.
+     * <p>Frees the native structure, if one has been allocated.</p>
+     * <p>You should call this when you do not need the parameters anymore.
      * Do <b>not</b> call this if you still want to use a {@link DiscordGameSDKCore} created from the params.
      * It will cause the JVM to crash with an access violation exception.</p>
      * <p>If you a using a <i>try-with-resources</i> block make sure that you only use the created
@@ -173,18 +239,34 @@ public class CreateParams implements AutoCloseable {
      * the CreateParams will be closed by the end of the block.</p>
      */
     @Override
-    public void close() {
-        if (open.compareAndSet(true, false)) {
+    public synchronized void close() {
+        if (open.compareAndSet(true, false) && pointer != 0) {
             free(pointer);
+            pointer = 0;
         }
     }
 
     /**
-     * <p>Return the pointer to the native structure.</p>
+     * <p>Return the pointer to the native structure, allocating and filling it on the first call.</p>
+     * <p>This waits for {@link DiscordGameSDKCore#loadLibraryAsync} like creating a core does.</p>
      * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
      * @return A native pointer.
+     * @throws IllegalStateException if the params have been closed
      */
-    public long getPointer() {
-        return pointer;
+    public synchronized long getPointer() {
+        if (!open.get()) throw new IllegalStateException("CreateParams have been closed");
+        if (pointer != 0) return pointer;
+
+        DiscordGameSDKCore.awaitLibrary();
+        long allocated = allocate();
+        setClientID(allocated, clientId);
+        setFlags(allocated, flags);
+        if (eventHandler != null) {
+            registerEventHandler(allocated, eventHandler, eventHandler.getEventMaskBuffer());
+        } else if (eventRing != null) {
+            registerEventRing(allocated, eventRing);
+        }
+        this.pointer = allocated;
+        return allocated;
     }
 }
@@ -0,0 +1,96 @@
+package com.wynntils.antiope.core.type;
+
+import com.wynntils.antiope.core.SdkMetrics;
+import java.time.Duration;
+
+/**
+ * <p>A snapshot of a latency histogram of {@link SdkMetrics}.</p>
+ * <p>Every power of two nanoseconds is split into four buckets, so percentiles are accurate to within 25%.
+ * {@link #getMax()} and {@link #getMean()} are exact.</p>
+ */
+public class LatencyStats {
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long[] buckets;
+
+    public LatencyStats(long count, long sum, long max, long[] buckets) {
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return Number of measurements
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of all recorded values.
+     * @return Total time
+     */
+    public Duration getTotal() {
+        return Duration.ofNanos(sum);
+    }
+
+    /**
+     * Gets the highest recorded value.
+     * @return Maximum time, {@link Duration#ZERO} if nothing has been recorded
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(max);
+    }
+
+    /**
+     * Gets the average of all recorded values.
+     * @return Mean time, {@link Duration#ZERO} if nothing has been recorded
+     */
+    public Duration getMean() {
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(sum / count);
+    }
+
+    /**
+     * <p>Gets the value below which the given fraction of recorded values falls.</p>
+     * <p>Returns the upper bound of the bucket the percentile falls into, but never more than {@link #getMax()}.</p>
+     * @param percentile A value between 0 and 100, e.g. {@code 99.9}
+     * @return The estimated percentile, {@link Duration#ZERO} if nothing has been recorded
+     */
+    public Duration getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        if (total == 0) return Duration.ZERO;
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) return Duration.ofNanos(Math.min(upperBound(i), max));
+        }
+        return Duration.ofNanos(max);
+    }
+
+    // inverse of the bucket index in Metrics.c
+    private static long upperBound(int index) {
+        if (index < 4) return index;
+
+        int shift = index / 4 - 1;
+        long lower = (4L + index % 4) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStats{" + "count=" + count + ", mean=" + getMean() + ", p50=" + getPercentile(50) + ", p99="
+                + getPercentile(99) + ", max=" + getMax() + '}';
+    }
+}
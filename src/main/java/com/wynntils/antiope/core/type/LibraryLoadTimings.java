@@ -0,0 +1,74 @@
+package com.wynntils.antiope.core.type;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Time spent in the phases of loading the native libraries.</p>
+ * <p>Both libraries are extracted in parallel by {@link DiscordGameSDKCore#loadLibraryAsync(Executor)},
+ * so {@link #getTotal()} might be shorter than the sum of all phases.</p>
+ * @see DiscordGameSDKCore#getLibraryLoadTimings()
+ */
+public class LibraryLoadTimings {
+    private final Duration discordExtract;
+    private final Duration jniExtract;
+    private final Duration load;
+    private final Duration init;
+    private final Duration total;
+
+    public LibraryLoadTimings(
+            Duration discordExtract, Duration jniExtract, Duration load, Duration init, Duration total) {
+        this.discordExtract = discordExtract;
+        this.jniExtract = jniExtract;
+        this.load = load;
+        this.init = init;
+        this.total = total;
+    }
+
+    /**
+     * Gets the time it took to extract Discord's library or to verify the cached copy.
+     * @return Extraction time of Discord's library
+     */
+    public Duration getDiscordExtract() {
+        return discordExtract;
+    }
+
+    /**
+     * Gets the time it took to extract the JNI library or to verify the cached copy.
+     * @return Extraction time of the JNI library
+     */
+    public Duration getJniExtract() {
+        return jniExtract;
+    }
+
+    /**
+     * Gets the time spent in {@link System#load(String)}.
+     * @return Time to load the JNI library and, on Windows, Discord's library
+     */
+    public Duration getLoad() {
+        return load;
+    }
+
+    /**
+     * Gets the time the JNI library needed to open Discord's library and look up its functions.
+     * @return Time to open Discord's library
+     */
+    public Duration getInit() {
+        return init;
+    }
+
+    /**
+     * Gets the time from starting the extraction until the libraries were ready.
+     * @return Total loading time
+     */
+    public Duration getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "LibraryLoadTimings{" + "discordExtract=" + discordExtract + ", jniExtract=" + jniExtract + ", load="
+                + load + ", init=" + init + ", total=" + total + '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.wynntils.antiope.core.type;
+
+import com.wynntils.antiope.core.DiscordLogSink;
+
+/**
+ * <p>A snapshot of the counters of a {@link DiscordLogSink}.</p>
+ * <p>All counters count messages since the sink has been created.</p>
+ * @see DiscordLogSink#getStats()
+ */
+public class LogSinkStats {
+    private final long published;
+    private final long consumed;
+    private final long emitted;
+    private final long suppressed;
+    private final long truncated;
+    private final long dropped;
+
+    public LogSinkStats(long published, long consumed, long emitted, long suppressed, long truncated, long dropped) {
+        this.published = published;
+        this.consumed = consumed;
+        this.emitted = emitted;
+        this.suppressed = suppressed;
+        this.truncated = truncated;
+        this.dropped = dropped;
+    }
+
+    /**
+     * Gets the number of messages the native log hook published.
+     * @return Number of published messages
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Gets the number of messages the sink thread took from the ring.
+     * @return Number of consumed messages
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Gets the number of messages that have been published but not consumed yet.
+     * @return Number of slots in use
+     */
+    public long getLag() {
+        return published - consumed;
+    }
+
+    /**
+     * Gets the number of times the log hook has been called, including summaries of repeated messages.
+     * @return Number of emitted messages
+     */
+    public long getEmitted() {
+        return emitted;
+    }
+
+    /**
+     * Gets the number of repeated messages that have not been passed to the log hook.
+     * @return Number of suppressed messages
+     */
+    public long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Gets the number of messages that were too long for a slot.
+     * @return Number of truncated messages
+     */
+    public long getTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets the number of messages that have been dropped because all slots were in use or the sink was closed.
+     * @return Number of dropped messages
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    @Override
+    public String toString() {
+        return "LogSinkStats{" + "published=" + published + ", consumed=" + consumed + ", emitted=" + emitted
+                + ", suppressed=" + suppressed + ", truncated=" + truncated + ", dropped=" + dropped + '}';
+    }
+}
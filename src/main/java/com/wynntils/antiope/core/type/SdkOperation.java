@@ -0,0 +1,24 @@
+package com.wynntils.antiope.core.type;
+
+import com.wynntils.antiope.core.SdkMetrics;
+
+/**
+ * <p>Operations that complete through a callback and whose round trip is measured by {@link SdkMetrics}.</p>
+ * <p>The round trip starts when the request is handed to the SDK and ends when its callback is called,
+ * before the callback itself runs.</p>
+ * @see SdkMetrics#getLatency(SdkOperation)
+ */
+public enum SdkOperation {
+    /**
+     * All variants of {@code ActivityManager#updateActivity}.
+     */
+    UPDATE_ACTIVITY,
+    CLEAR_ACTIVITY,
+    SEND_REQUEST_REPLY,
+    SEND_INVITE,
+    ACCEPT_REQUEST,
+    SET_OVERLAY_LOCKED,
+    OPEN_ACTIVITY_INVITE,
+    OPEN_GUILD_INVITE,
+    OPEN_VOICE_SETTINGS
+}
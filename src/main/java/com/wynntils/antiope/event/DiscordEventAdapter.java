@@ -1,14 +1,81 @@
 package com.wynntils.antiope.event;
 
+import com.wynntils.antiope.event.listener.ActivityJoinListener;
+import com.wynntils.antiope.event.listener.ActivityJoinRequestListener;
+import com.wynntils.antiope.event.listener.ActivitySpectateListener;
+import com.wynntils.antiope.event.listener.CurrentUserUpdateListener;
+import com.wynntils.antiope.event.listener.OverlayToggleListener;
+import com.wynntils.antiope.event.listener.RelationshipRefreshListener;
+import com.wynntils.antiope.event.listener.RelationshipUpdateListener;
 import com.wynntils.antiope.manager.activity.type.ActivitySecrets;
 import com.wynntils.antiope.manager.overlay.OverlayManager;
 import com.wynntils.antiope.user.DiscordUser;
 import com.wynntils.antiope.user.Relationship;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
- * Adapter class for Discord events.
+ * <p>Adapter class for Discord events.</p>
+ * <p>Implements the listener of every {@link DiscordEventType}. When added to a {@link DiscordEventHandler},
+ * an adapter only receives the events it overrides.</p>
+ * <p>The native side only calls into Java for events in the {@linkplain #getEventMask() event mask},
+ * which contains the events overridden by the adapter's class.</p>
  */
-public abstract class DiscordEventAdapter {
+public abstract class DiscordEventAdapter
+        implements ActivityJoinListener,
+                ActivitySpectateListener,
+                ActivityJoinRequestListener,
+                CurrentUserUpdateListener,
+                OverlayToggleListener,
+                RelationshipRefreshListener,
+                RelationshipUpdateListener {
+    private static final ClassValue<Integer> OVERRIDDEN_EVENTS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int mask = 0;
+            for (DiscordEventType<?> eventType : DiscordEventType.values()) {
+                if (eventType.isOverriddenBy(type)) {
+                    mask |= eventType.mask();
+                }
+            }
+            return mask;
+        }
+    };
+
+    // read by the native event hooks, so that they can skip events without attaching to the JVM
+    private final ByteBuffer eventMask = ByteBuffer.allocateDirect(Integer.BYTES).order(ByteOrder.nativeOrder());
+
+    protected DiscordEventAdapter() {
+        eventMask.putInt(0, OVERRIDDEN_EVENTS.get(getClass()));
+    }
+
+    /**
+     * Gets the events this adapter wants to receive.
+     * @return Bitwise or of {@link DiscordEventType#mask()} of the events
+     */
+    public int getEventMask() {
+        return eventMask.getInt(0);
+    }
+
+    /**
+     * <p>Sets the events this adapter wants to receive.</p>
+     * <p>Takes effect immediately for all Cores the adapter is registered at. Events that are not in the mask
+     * are dropped natively, before any Java objects are created for them.</p>
+     * @param mask Bitwise or of {@link DiscordEventType#mask()} of the events
+     */
+    protected final void setEventMask(int mask) {
+        eventMask.putInt(0, mask);
+    }
+
+    /**
+     * <p>Gets the direct buffer holding the event mask. The native event hooks read the mask from it.</p>
+     * <p><b>This method is not an API.</b></p>
+     * @return A read-only view of the buffer
+     */
+    public ByteBuffer getEventMaskBuffer() {
+        return eventMask.asReadOnlyBuffer();
+    }
+
     /**
      * Fires when the user attempts to join a game by accepting an invite.
      * @param secret The join or the match secret of the activity
@@ -17,6 +84,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#onactivityjoin">
      *     https://discordapp.com/developers/docs/game-sdk/activities#onactivityjoin</a>
      */
+    @Override
     public void onActivityJoin(String secret) {}
 
     /**
@@ -26,6 +94,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#onactivityspectate">
      *     https://discordapp.com/developers/docs/game-sdk/activities#onactivityspectate</a>
      */
+    @Override
     public void onActivitySpectate(String secret) {}
 
     /**
@@ -34,6 +103,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#onactivityjoinrequest">
      *     https://discordapp.com/developers/docs/game-sdk/activities#onactivityjoinrequest</a>
      */
+    @Override
     public void onActivityJoinRequest(DiscordUser user) {}
 
     /**
@@ -41,6 +111,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/users#oncurrentuserupdate">
      *     https://discordapp.com/developers/docs/game-sdk/users#oncurrentuserupdate</a>
      */
+    @Override
     public void onCurrentUserUpdate() {}
 
     /**
@@ -51,6 +122,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay#ontoggle">
      *     https://discordapp.com/developers/docs/game-sdk/overlay#ontoggle</a>
      */
+    @Override
     public void onOverlayToggle(boolean locked) {}
 
     /**
@@ -60,6 +132,7 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/relationships#onrefresh">
      *     https://discordapp.com/developers/docs/game-sdk/relationships#onrefresh</a>
      */
+    @Override
     public void onRelationshipRefresh() {}
 
     /**
@@ -69,5 +142,6 @@ public abstract class DiscordEventAdapter {
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/relationships#onrelationshipupdate">
      *     https://discordapp.com/developers/docs/game-sdk/relationships#onrelationshipupdate</a>
      */
+    @Override
     public void onRelationshipUpdate(Relationship relationship) {}
 }
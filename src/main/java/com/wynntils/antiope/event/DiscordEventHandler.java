@@ -1,88 +1,312 @@
 package com.wynntils.antiope.event;
 
+import com.wynntils.antiope.event.listener.ActivityJoinListener;
+import com.wynntils.antiope.event.listener.ActivityJoinRequestListener;
+import com.wynntils.antiope.event.listener.ActivitySpectateListener;
+import com.wynntils.antiope.event.listener.CurrentUserUpdateListener;
+import com.wynntils.antiope.event.listener.OverlayToggleListener;
+import com.wynntils.antiope.event.listener.RelationshipRefreshListener;
+import com.wynntils.antiope.event.listener.RelationshipUpdateListener;
+import com.wynntils.antiope.jfr.EventUpcallEvent;
 import com.wynntils.antiope.user.DiscordUser;
 import com.wynntils.antiope.user.Relationship;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.time.Duration;
+import java.util.Objects;
 
 /**
- * A {@link DiscordEventAdapter} that forwards all events to other adapters.
+ * A {@link DiscordEventAdapter} that forwards events to registered listeners.
  * <p>
- * All events are unconditionally forwarded to other {@link DiscordEventAdapter}s
- * that can be registered and unregistered dynamically.
+ * There is one list of listeners per {@link DiscordEventType}, so a listener is only called for the events it
+ * has been registered for. Listeners can be registered and unregistered dynamically, each event is dispatched
+ * to the listeners that were registered when it fired. Events without listeners are dropped natively.
  * <p>
- * A {@link CopyOnWriteArrayList} is used for increased thread-safety.
+ * Optionally, the time each listener takes is measured and listeners that exceed a threshold are reported.
+ * Listeners are called on the thread running the callbacks, so slow listeners delay all other events and callbacks.
+ * Every dispatch is also recorded as an {@link EventUpcallEvent} while the JDK Flight Recorder is recording.
  * @see DiscordEventAdapter
+ * @see #addListener(DiscordEventType, Object)
  * @see #addListener(DiscordEventAdapter)
- * @see #removeListener(DiscordEventAdapter)
- * @see #removeAllListeners()
+ * @see #setSlowListenerThreshold(Duration)
  */
 public class DiscordEventHandler extends DiscordEventAdapter {
-    private final List<DiscordEventAdapter> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Default threshold after which a listener is reported as slow.
+     */
+    public static final Duration DEFAULT_SLOW_LISTENER_THRESHOLD = Duration.ofMillis(5);
+
+    /**
+     * Default handler for slow listeners. Prints a warning to {@link System#err}.
+     */
+    public static final SlowListenerHandler DEFAULT_SLOW_LISTENER_HANDLER = (type, listener, duration) ->
+            System.err.println("Discord event listener " + listener + " took " + duration.toMillis()
+                    + " ms to handle " + type.getName());
+
+    private final ListenerList<ActivityJoinListener> activityJoin =
+            new ListenerList<>(ActivityJoinListener.class);
+    private final ListenerList<ActivitySpectateListener> activitySpectate =
+            new ListenerList<>(ActivitySpectateListener.class);
+    private final ListenerList<ActivityJoinRequestListener> activityJoinRequest =
+            new ListenerList<>(ActivityJoinRequestListener.class);
+    private final ListenerList<CurrentUserUpdateListener> currentUserUpdate =
+            new ListenerList<>(CurrentUserUpdateListener.class);
+    private final ListenerList<OverlayToggleListener> overlayToggle =
+            new ListenerList<>(OverlayToggleListener.class);
+    private final ListenerList<RelationshipRefreshListener> relationshipRefresh =
+            new ListenerList<>(RelationshipRefreshListener.class);
+    private final ListenerList<RelationshipUpdateListener> relationshipUpdate =
+            new ListenerList<>(RelationshipUpdateListener.class);
+
+    // indexed by DiscordEventType#index()
+    private final ListenerList<?>[] lists = {
+        activityJoin,
+        activitySpectate,
+        activityJoinRequest,
+        currentUserUpdate,
+        overlayToggle,
+        relationshipRefresh,
+        relationshipUpdate
+    };
+
+    private volatile long slowListenerThresholdNanos = 0;
+    private volatile SlowListenerHandler slowListenerHandler = DEFAULT_SLOW_LISTENER_HANDLER;
+
+    public DiscordEventHandler() {
+        // nothing is registered yet
+        setEventMask(0);
+    }
+
+    /**
+     * Registers a listener for one type of event.
+     * <p>
+     * A listener that is registered multiple times is also called multiple times.
+     * @param type Type of the event
+     * @param listener Listener to call when the event fires
+     * @param <L> Type of the listener
+     * @see #removeListener(DiscordEventType, Object)
+     */
+    public <L> void addListener(DiscordEventType<L> type, L listener) {
+        Objects.requireNonNull(listener);
+        getList(type).add(listener);
+        updateEventMask();
+    }
+
+    /**
+     * Unregisters a listener for one type of event.
+     * @param type Type of the event
+     * @param listener Listener that has been added before
+     * @param <L> Type of the listener
+     * @return {@code true} if the listener was registered and is now unregistered
+     * @see #addListener(DiscordEventType, Object)
+     */
+    public <L> boolean removeListener(DiscordEventType<L> type, L listener) {
+        boolean removed = getList(type).remove(listener);
+        updateEventMask();
+        return removed;
+    }
 
     /**
      * Registers a new event adapter to forward Discord events to.
+     * <p>
+     * The adapter is only registered for the events in its {@linkplain #getEventMask() event mask},
+     * i.e. the events whose methods it overrides.
      * @param listener Any kind of {@link DiscordEventAdapter}
      * @see #removeListener(DiscordEventAdapter)
-     * @see CopyOnWriteArrayList#add(Object)
      */
     public void addListener(DiscordEventAdapter listener) {
-        this.listeners.add(listener);
+        for (DiscordEventType<?> type : DiscordEventType.values()) {
+            if ((listener.getEventMask() & type.mask()) != 0) {
+                addAdapter(type, listener);
+            }
+        }
+        updateEventMask();
     }
 
     /**
      * Unregisters a event adapter that has been registered before.
      * @param listener Any kind of {@link DiscordEventAdapter} that has been added before
-     * @return {@code true} if the adapter was registered and is now unregisters
+     * @return {@code true} if the adapter was registered for any event and is now unregistered
      * @see #addListener(DiscordEventAdapter)
-     * @see CopyOnWriteArrayList#remove(Object)
      */
     public boolean removeListener(DiscordEventAdapter listener) {
-        return this.listeners.remove(listener);
+        boolean removed = false;
+        for (ListenerList<?> list : lists) {
+            removed |= list.remove(listener);
+        }
+        updateEventMask();
+        return removed;
     }
 
     /**
-     * Removes <b>all</b> registered event adapters.
+     * Removes <b>all</b> registered listeners and event adapters.
      * <p>
-     * Until new event adapters are registered, all events are effectively ignored.
-     * @see CopyOnWriteArrayList#clear()
+     * Until new listeners are registered, all events are effectively ignored.
      */
     public void removeAllListeners() {
-        this.listeners.clear();
+        for (ListenerList<?> list : lists) {
+            list.clear();
+        }
+        updateEventMask();
+    }
+
+    /**
+     * <p>Sets the time after which a listener is reported to the {@link SlowListenerHandler}.</p>
+     * <p>Measuring is disabled by default. A zero or negative threshold disables it again.</p>
+     * @param threshold Time a single listener may take to handle an event
+     * @see #DEFAULT_SLOW_LISTENER_THRESHOLD
+     * @see #setSlowListenerHandler(SlowListenerHandler)
+     */
+    public void setSlowListenerThreshold(Duration threshold) {
+        this.slowListenerThresholdNanos = Math.max(threshold.toNanos(), 0);
+    }
+
+    /**
+     * Gets the time after which a listener is reported as slow.
+     * @return The threshold, {@link Duration#ZERO} if measuring is disabled
+     */
+    public Duration getSlowListenerThreshold() {
+        return Duration.ofNanos(slowListenerThresholdNanos);
+    }
+
+    /**
+     * Sets the handler slow listeners are reported to.
+     * @param slowListenerHandler Handler that is called on the thread running the callbacks
+     * @see #DEFAULT_SLOW_LISTENER_HANDLER
+     */
+    public void setSlowListenerHandler(SlowListenerHandler slowListenerHandler) {
+        this.slowListenerHandler = Objects.requireNonNull(slowListenerHandler);
     }
 
     @Override
     public void onActivityJoin(String secret) {
-        listeners.forEach(l -> l.onActivityJoin(secret));
+        long threshold = slowListenerThresholdNanos;
+        ActivityJoinListener[] listeners = activityJoin.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (ActivityJoinListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onActivityJoin(secret);
+            if (threshold > 0) checkSlow(DiscordEventType.ACTIVITY_JOIN, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.ACTIVITY_JOIN, listeners.length);
     }
 
     @Override
     public void onActivitySpectate(String secret) {
-        listeners.forEach(l -> l.onActivitySpectate(secret));
+        long threshold = slowListenerThresholdNanos;
+        ActivitySpectateListener[] listeners = activitySpectate.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (ActivitySpectateListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onActivitySpectate(secret);
+            if (threshold > 0) checkSlow(DiscordEventType.ACTIVITY_SPECTATE, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.ACTIVITY_SPECTATE, listeners.length);
     }
 
     @Override
     public void onActivityJoinRequest(DiscordUser user) {
-        listeners.forEach(l -> l.onActivityJoinRequest(user));
+        long threshold = slowListenerThresholdNanos;
+        ActivityJoinRequestListener[] listeners = activityJoinRequest.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (ActivityJoinRequestListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onActivityJoinRequest(user);
+            if (threshold > 0) checkSlow(DiscordEventType.ACTIVITY_JOIN_REQUEST, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.ACTIVITY_JOIN_REQUEST, listeners.length);
     }
 
     @Override
     public void onCurrentUserUpdate() {
-        listeners.forEach(DiscordEventAdapter::onCurrentUserUpdate);
+        long threshold = slowListenerThresholdNanos;
+        CurrentUserUpdateListener[] listeners = currentUserUpdate.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (CurrentUserUpdateListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onCurrentUserUpdate();
+            if (threshold > 0) checkSlow(DiscordEventType.CURRENT_USER_UPDATE, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.CURRENT_USER_UPDATE, listeners.length);
     }
 
     @Override
     public void onOverlayToggle(boolean locked) {
-        listeners.forEach(l -> l.onOverlayToggle(locked));
+        long threshold = slowListenerThresholdNanos;
+        OverlayToggleListener[] listeners = overlayToggle.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (OverlayToggleListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onOverlayToggle(locked);
+            if (threshold > 0) checkSlow(DiscordEventType.OVERLAY_TOGGLE, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.OVERLAY_TOGGLE, listeners.length);
     }
 
     @Override
     public void onRelationshipRefresh() {
-        listeners.forEach(DiscordEventAdapter::onRelationshipRefresh);
+        long threshold = slowListenerThresholdNanos;
+        RelationshipRefreshListener[] listeners = relationshipRefresh.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (RelationshipRefreshListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onRelationshipRefresh();
+            if (threshold > 0) checkSlow(DiscordEventType.RELATIONSHIP_REFRESH, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.RELATIONSHIP_REFRESH, listeners.length);
     }
 
     @Override
     public void onRelationshipUpdate(Relationship relationship) {
-        listeners.forEach(l -> l.onRelationshipUpdate(relationship));
+        long threshold = slowListenerThresholdNanos;
+        RelationshipUpdateListener[] listeners = relationshipUpdate.get();
+        EventUpcallEvent event = EventUpcallEvent.start();
+        for (RelationshipUpdateListener listener : listeners) {
+            long start = threshold > 0 ? System.nanoTime() : 0;
+            listener.onRelationshipUpdate(relationship);
+            if (threshold > 0) checkSlow(DiscordEventType.RELATIONSHIP_UPDATE, listener, start, threshold);
+        }
+        EventUpcallEvent.end(event, DiscordEventType.RELATIONSHIP_UPDATE, listeners.length);
+    }
+
+    private void checkSlow(DiscordEventType<?> type, Object listener, long start, long threshold) {
+        long took = System.nanoTime() - start;
+        if (took > threshold) {
+            slowListenerHandler.onSlowListener(type, listener, Duration.ofNanos(took));
+        }
+    }
+
+    // synchronized, so that the mask of the last modification is written last
+    private synchronized void updateEventMask() {
+        int mask = 0;
+        for (int i = 0; i < lists.length; i++) {
+            if (lists[i].get().length > 0) {
+                mask |= 1 << i;
+            }
+        }
+        setEventMask(mask);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <L> ListenerList<L> getList(DiscordEventType<L> type) {
+        return (ListenerList<L>) lists[type.index()];
+    }
+
+    private <L> void addAdapter(DiscordEventType<L> type, DiscordEventAdapter adapter) {
+        // every adapter implements all listener interfaces
+        getList(type).add(type.getListenerType().cast(adapter));
+    }
+
+    /**
+     * Handler for listeners that took longer than the threshold to handle an event.
+     * @see #setSlowListenerThreshold(Duration)
+     */
+    @FunctionalInterface
+    public interface SlowListenerHandler {
+        /**
+         * Called after a listener returned.
+         * @param type Type of the event
+         * @param listener The slow listener
+         * @param duration Time the listener took
+         */
+        void onSlowListener(DiscordEventType<?> type, Object listener, Duration duration);
     }
 }
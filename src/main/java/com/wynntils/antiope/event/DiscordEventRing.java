@@ -0,0 +1,436 @@
+package com.wynntils.antiope.event;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.user.DiscordUser;
+import com.wynntils.antiope.util.Utf8;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>Decouples Discord events from the thread running the callbacks.</p>
+ * <p>Instead of calling into Java, the native event hooks copy the primitive fields of each event
+ * (IDs, flags and the bytes of strings) into a preallocated ring of slots. Consumer threads take the events
+ * from the ring, turn them into {@link String}s and {@link DiscordUser}s and pass them to the target adapter.
+ * A slow listener therefore no longer delays {@link DiscordGameSDKCore#runCallbacks()}.</p>
+ * <p>With a single consumer, events are delivered in the order they fired. With more consumers,
+ * events are handled concurrently and may be delivered out of order.</p>
+ * <p>If all slots are in use, the {@link OverflowPolicy} decides whether new events are dropped or
+ * whether the thread running the callbacks waits for a free slot. {@link #getStats()} tells how far
+ * the consumers lag behind and how many events have been dropped.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  DiscordEventHandler handler = new DiscordEventHandler();
+ *  DiscordEventRing ring = new DiscordEventRing(handler);
+ *  params.registerEventRing(ring);
+ *  try(DiscordGameSDKCore core = new DiscordGameSDKCore(params))
+ *  {
+ *      // ...
+ *  }
+ *  ring.close();}</pre>
+ *
+ * @see CreateParams#registerEventRing(DiscordEventRing)
+ */
+public final class DiscordEventRing implements AutoCloseable {
+    /**
+     * What happens to new events while all slots are in use.
+     */
+    public enum OverflowPolicy {
+        /**
+         * New events are dropped and counted in {@link DiscordEventRingStats#getDropped()}.
+         */
+        DROP,
+        /**
+         * The thread running the callbacks waits until a consumer frees a slot.
+         */
+        BLOCK
+    }
+
+    /**
+     * Default number of slots.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * <p>Default exception handler for listeners. Prints the stack trace to {@link System#err}.</p>
+     */
+    public static final Consumer<RuntimeException> DEFAULT_EXCEPTION_HANDLER = RuntimeException::printStackTrace;
+
+    // layout of the buffer, has to match Ring.h and EventRing.h
+    private static final int CURSOR = 0;
+    private static final int GATING = 64;
+    private static final int DROPPED = 128;
+    private static final int BLOCKED = 192;
+    private static final int CLOSED = 256;
+    private static final int HEADER_SIZE = 384;
+
+    private static final int SLOT_SIZE = 512;
+    private static final int SLOT_TYPE = 0;
+    private static final int SLOT_FLAGS = 4;
+    private static final int SLOT_USER_ID = 8;
+    private static final int SLOT_TEXT_LENGTH = 16;
+    private static final int SLOT_DISCRIMINATOR_LENGTH = 20;
+    private static final int SLOT_AVATAR_LENGTH = 24;
+    private static final int SLOT_TEXT = 32;
+    private static final int SLOT_DISCRIMINATOR = 288;
+    private static final int SLOT_AVATAR = 296;
+    private static final int MAX_STRING_LENGTH = 255;
+    // sizes of the strings in the native structures, without the terminating zero byte
+    private static final int MAX_SECRET_LENGTH = 127;
+    private static final int MAX_DISCRIMINATOR_LENGTH = 7;
+    private static final int MAX_AVATAR_LENGTH = 127;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final String THREAD_NAME = "Discord Event Consumer";
+    private static final long SPINS = 100;
+    // consumers are woken up after every runCallbacks(), this only bounds the delay of a missed wake-up
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final DiscordEventAdapter target;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ByteBuffer buffer;
+
+    // next sequence to be claimed by a consumer
+    private final AtomicLong claimSequence = new AtomicLong();
+    // per consumer: all sequences below have been consumed as far as this consumer is concerned
+    private final AtomicLongArray consumerSequences;
+    private final AtomicLong peakLag = new AtomicLong();
+    private final Thread[] consumers;
+
+    private volatile long signalledCursor = 0;
+    private volatile boolean running = true;
+    private volatile Consumer<RuntimeException> exceptionHandler = DEFAULT_EXCEPTION_HANDLER;
+
+    /**
+     * Creates a ring with {@link #DEFAULT_CAPACITY} slots, {@link OverflowPolicy#DROP} and a single consumer.
+     * @param target Adapter to pass the events to
+     */
+    public DiscordEventRing(DiscordEventAdapter target) {
+        this(target, DEFAULT_CAPACITY, OverflowPolicy.DROP, 1);
+    }
+
+    /**
+     * Creates a ring and starts its consumer threads.
+     * @param target Adapter to pass the events to, only events in its
+     *               {@linkplain DiscordEventAdapter#getEventMask() event mask} are published
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param policy What happens to new events while all slots are in use
+     * @param consumers Number of consumer threads
+     */
+    public DiscordEventRing(DiscordEventAdapter target, int capacity, OverflowPolicy policy, int consumers) {
+        if (capacity <= 0 || capacity > 1 << 20) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^20: " + capacity);
+        }
+        if (consumers <= 0) throw new IllegalArgumentException("At least one consumer is required: " + consumers);
+
+        this.target = Objects.requireNonNull(target);
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.policy = Objects.requireNonNull(policy);
+        // aligned to a cache line, so that the counters do not share one
+        this.buffer = ByteBuffer.allocateDirect(HEADER_SIZE + this.capacity * SLOT_SIZE + 64)
+                .alignedSlice(64)
+                .order(ByteOrder.nativeOrder());
+
+        this.consumerSequences = new AtomicLongArray(consumers);
+        this.consumers = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            Thread thread = new Thread(new Worker(i), THREAD_NAME + " #" + i);
+            thread.setDaemon(true);
+            this.consumers[i] = thread;
+        }
+        for (Thread thread : this.consumers) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Gets the adapter events are passed to.
+     * @return The target adapter
+     */
+    public DiscordEventAdapter getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return A power of two
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets what happens to new events while all slots are in use.
+     * @return The overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /**
+     * <p>Sets the handler for exceptions thrown by listeners.</p>
+     * <p>The consumer keeps running afterwards.</p>
+     * @param exceptionHandler Handler to pass exceptions to, called on the consumer thread
+     * @see #DEFAULT_EXCEPTION_HANDLER
+     */
+    public void setExceptionHandler(Consumer<RuntimeException> exceptionHandler) {
+        this.exceptionHandler = Objects.requireNonNull(exceptionHandler);
+    }
+
+    /**
+     * Returns a snapshot of the ring's counters.
+     * @return Published, consumed and dropped events and the lag of the consumers
+     */
+    public DiscordEventRingStats getStats() {
+        return new DiscordEventRingStats(
+                capacity,
+                (long) LONGS.getAcquire(buffer, CURSOR),
+                (long) LONGS.getAcquire(buffer, GATING),
+                (long) LONGS.getAcquire(buffer, DROPPED),
+                (long) LONGS.getAcquire(buffer, BLOCKED),
+                peakLag.get());
+    }
+
+    /**
+     * <p>Wakes up the consumers if new events have been published.</p>
+     * <p>This is called by {@link DiscordGameSDKCore#runCallbacks()}.</p>
+     */
+    public void signal() {
+        long cursor = (long) LONGS.getAcquire(buffer, CURSOR);
+        if (cursor == signalledCursor) return;
+
+        signalledCursor = cursor;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * <p>Publishes an event from Java, like the native event hooks do.</p>
+     * <p>This is used by backends that do not run Discord's native library. Like the native hooks, it must only be
+     * called by the thread running the callbacks. Events that are not in the target's event mask are ignored
+     * and strings are truncated to the lengths of the native structures.</p>
+     * <p><b>This method is not an API.</b></p>
+     * @param type Type of the event
+     * @param flag Whether the overlay is locked or the user asking to join is a bot
+     * @param userId ID of the user asking to join, 0 for other events
+     * @param text Secret or username of the user asking to join, {@code null} for overlay events
+     * @param discriminator Discriminator of the user asking to join, {@code null} for other events
+     * @param avatar Avatar of the user asking to join, {@code null} for other events
+     * @return True if the event has been published, false if it has been ignored or dropped
+     */
+    public boolean publish(
+            DiscordEventType<?> type, boolean flag, long userId, String text, String discriminator, String avatar) {
+        if ((target.getEventMask() & (1 << type.index())) == 0) return false;
+
+        long next = (long) LONGS.getAcquire(buffer, CURSOR);
+        if (!claim(next)) {
+            count(DROPPED);
+            return false;
+        }
+
+        int slot = HEADER_SIZE + (int) (next & (capacity - 1)) * SLOT_SIZE;
+        boolean user = type == DiscordEventType.ACTIVITY_JOIN_REQUEST;
+        buffer.putInt(slot + SLOT_TYPE, type.index());
+        buffer.putInt(slot + SLOT_FLAGS, flag ? 1 : 0);
+        buffer.putLong(slot + SLOT_USER_ID, userId);
+        putString(slot + SLOT_TEXT_LENGTH, slot + SLOT_TEXT, text, user ? MAX_STRING_LENGTH : MAX_SECRET_LENGTH);
+        putString(slot + SLOT_DISCRIMINATOR_LENGTH, slot + SLOT_DISCRIMINATOR, discriminator, MAX_DISCRIMINATOR_LENGTH);
+        putString(slot + SLOT_AVATAR_LENGTH, slot + SLOT_AVATAR, avatar, MAX_AVATAR_LENGTH);
+        LONGS.setRelease(buffer, CURSOR, next + 1);
+        return true;
+    }
+
+    // same as ring_claim in Ring.c
+    private boolean claim(long next) {
+        if ((long) LONGS.getAcquire(buffer, CLOSED) != 0) return false;
+
+        long wrap = next - capacity;
+        if (wrap < (long) LONGS.getAcquire(buffer, GATING)) return true;
+        if (policy == OverflowPolicy.DROP) return false;
+
+        count(BLOCKED);
+        while (wrap >= (long) LONGS.getAcquire(buffer, GATING)) {
+            if ((long) LONGS.getAcquire(buffer, CLOSED) != 0) return false;
+            Thread.yield();
+        }
+        return true;
+    }
+
+    // only the producer writes these counters
+    private void count(int offset) {
+        LONGS.setRelease(buffer, offset, (long) LONGS.getAcquire(buffer, offset) + 1);
+    }
+
+    private void putString(int lengthOffset, int offset, String value, int maxLength) {
+        int length = value == null ? 0 : Utf8.encode(value, buffer, offset, maxLength, true);
+        buffer.putInt(lengthOffset, length);
+    }
+
+    /**
+     * Returns true if the consumers have not been stopped yet.
+     * @return True if the ring is open, false otherwise
+     */
+    public boolean isOpen() {
+        return running;
+    }
+
+    /**
+     * <p>Stops the consumers and waits for them to finish the events they are handling.</p>
+     * <p>Events that are still in the ring are not delivered anymore. From now on, all events are dropped
+     * and the thread running the callbacks no longer waits for free slots.</p>
+     */
+    @Override
+    public void close() {
+        if (!running) return;
+
+        running = false;
+        LONGS.setRelease(buffer, CLOSED, 1L);
+
+        boolean interrupted = false;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            // a listener closing the ring runs on a consumer itself
+            if (consumer == Thread.currentThread()) continue;
+
+            while (consumer.isAlive()) {
+                try {
+                    consumer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * <p>Gets the buffer the native event hooks publish to.</p>
+     * <p><b>This method is not an API.</b></p>
+     * @return The direct buffer holding the counters and slots
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void release(int consumer, long sequence) {
+        consumerSequences.set(consumer, sequence);
+        publishGating();
+    }
+
+    // every consumer calls this after moving its sequence, so the last one to move sees all others
+    private void publishGating() {
+        long gating = Long.MAX_VALUE;
+        for (int i = 0; i < consumerSequences.length(); i++) {
+            gating = Math.min(gating, consumerSequences.get(i));
+        }
+        // other consumers might publish concurrently, never move the gating sequence backwards
+        for (long current = (long) LONGS.getAcquire(buffer, GATING); gating > current; ) {
+            long witness = (long) LONGS.compareAndExchangeRelease(buffer, GATING, current, gating);
+            if (witness == current) break;
+            current = witness;
+        }
+    }
+
+    private void updatePeakLag(long lag) {
+        for (long peak = peakLag.get(); lag > peak; peak = peakLag.get()) {
+            if (peakLag.compareAndSet(peak, lag)) break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DiscordEventRing{" + "capacity=" + capacity + ", policy=" + policy + ", consumers="
+                + consumers.length + ", running=" + running + '}';
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final ByteBuffer view = buffer.duplicate();
+        private final byte[] bytes = new byte[MAX_STRING_LENGTH];
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            long sequence = 0;
+            boolean claimed = false;
+            long idle = 0;
+            while (running) {
+                if (!claimed) {
+                    do {
+                        sequence = claimSequence.get();
+                        // keep the slot from being reused before we are done with it
+                        consumerSequences.set(index, sequence);
+                    } while (!claimSequence.compareAndSet(sequence, sequence + 1));
+                    // the other consumers might be idle, so nobody else would move the gating sequence
+                    publishGating();
+                    claimed = true;
+                }
+
+                long cursor = (long) LONGS.getAcquire(buffer, CURSOR);
+                if (sequence < cursor) {
+                    updatePeakLag(cursor - sequence);
+                    handle(sequence);
+                    claimed = false;
+                    idle = 0;
+                } else if (idle++ < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+            }
+        }
+
+        private void handle(long sequence) {
+            int slot = HEADER_SIZE + (int) (sequence & (capacity - 1)) * SLOT_SIZE;
+            int type = buffer.getInt(slot + SLOT_TYPE);
+            int flags = buffer.getInt(slot + SLOT_FLAGS);
+            long userId = buffer.getLong(slot + SLOT_USER_ID);
+            String text = readString(slot + SLOT_TEXT, buffer.getInt(slot + SLOT_TEXT_LENGTH));
+            String discriminator = null;
+            String avatar = null;
+            if (type == DiscordEventType.ACTIVITY_JOIN_REQUEST.index()) {
+                discriminator = readString(slot + SLOT_DISCRIMINATOR, buffer.getInt(slot + SLOT_DISCRIMINATOR_LENGTH));
+                avatar = readString(slot + SLOT_AVATAR, buffer.getInt(slot + SLOT_AVATAR_LENGTH));
+            }
+            // everything has been copied, the producer may reuse the slot
+            release(index, sequence + 1);
+
+            try {
+                if (type == DiscordEventType.ACTIVITY_JOIN.index()) {
+                    target.onActivityJoin(text);
+                } else if (type == DiscordEventType.ACTIVITY_SPECTATE.index()) {
+                    target.onActivitySpectate(text);
+                } else if (type == DiscordEventType.ACTIVITY_JOIN_REQUEST.index()) {
+                    target.onActivityJoinRequest(new DiscordUser(userId, text, discriminator, avatar, flags != 0));
+                } else if (type == DiscordEventType.OVERLAY_TOGGLE.index()) {
+                    target.onOverlayToggle(flags != 0);
+                }
+            } catch (RuntimeException e) {
+                exceptionHandler.accept(e);
+            }
+        }
+
+        private String readString(int offset, int length) {
+            int bounded = Math.max(0, Math.min(length, MAX_STRING_LENGTH));
+            view.clear().position(offset);
+            view.get(bytes, 0, bounded);
+            return new String(bytes, 0, bounded, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.wynntils.antiope.event;
+
+/**
+ * <p>A snapshot of the counters of a {@link DiscordEventRing}.</p>
+ * <p>All counters count events since the ring has been created. The event with sequence {@code s}
+ * is stored in slot {@code s % capacity}, so every event after the first {@link #getCapacity()} reuses a slot.</p>
+ * @see DiscordEventRing#getStats()
+ */
+public class DiscordEventRingStats {
+    private final long capacity;
+    private final long published;
+    private final long consumed;
+    private final long dropped;
+    private final long blocked;
+    private final long peakLag;
+
+    public DiscordEventRingStats(
+            long capacity, long published, long consumed, long dropped, long blocked, long peakLag) {
+        this.capacity = capacity;
+        this.published = published;
+        this.consumed = consumed;
+        this.dropped = dropped;
+        this.blocked = blocked;
+        this.peakLag = peakLag;
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return Number of slots
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of events the native hooks published.
+     * @return Number of published events
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Gets the number of events whose slots have been freed by the consumers.
+     * @return Number of consumed events
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Gets the number of events that have been published but not consumed yet.
+     * @return Number of slots in use
+     */
+    public long getLag() {
+        return published - consumed;
+    }
+
+    /**
+     * Gets the highest number of events a consumer was behind when it took an event.
+     * @return Peak lag of the consumers
+     */
+    public long getPeakLag() {
+        return peakLag;
+    }
+
+    /**
+     * Gets the number of times a slot has been reused for a new event.
+     * @return Number of reused slots
+     */
+    public long getSlotReuses() {
+        return Math.max(0, published - capacity);
+    }
+
+    /**
+     * Gets the number of events that have been dropped because all slots were in use or the ring was closed.
+     * @return Number of dropped events
+     * @see DiscordEventRing.OverflowPolicy#DROP
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gets the number of times the thread running the callbacks had to wait for a free slot.
+     * @return Number of waits
+     * @see DiscordEventRing.OverflowPolicy#BLOCK
+     */
+    public long getBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscordEventRingStats{" + "capacity=" + capacity + ", published=" + published + ", consumed="
+                + consumed + ", dropped=" + dropped + ", blocked=" + blocked + ", peakLag=" + peakLag + '}';
+    }
+}
@@ -0,0 +1,140 @@
+package com.wynntils.antiope.event;
+
+import com.wynntils.antiope.event.listener.ActivityJoinListener;
+import com.wynntils.antiope.event.listener.ActivityJoinRequestListener;
+import com.wynntils.antiope.event.listener.ActivitySpectateListener;
+import com.wynntils.antiope.event.listener.CurrentUserUpdateListener;
+import com.wynntils.antiope.event.listener.OverlayToggleListener;
+import com.wynntils.antiope.event.listener.RelationshipRefreshListener;
+import com.wynntils.antiope.event.listener.RelationshipUpdateListener;
+import com.wynntils.antiope.user.DiscordUser;
+import com.wynntils.antiope.user.Relationship;
+
+/**
+ * <p>A type of Discord event together with the type of its listeners.</p>
+ * <p>Used as a key to register listeners at a {@link DiscordEventHandler}.</p>
+ * @param <L> Type of the listeners
+ */
+public final class DiscordEventType<L> {
+    /**
+     * @see DiscordEventAdapter#onActivityJoin(String)
+     */
+    public static final DiscordEventType<ActivityJoinListener> ACTIVITY_JOIN =
+            new DiscordEventType<>(0, "ActivityJoin", ActivityJoinListener.class, String.class);
+
+    /**
+     * @see DiscordEventAdapter#onActivitySpectate(String)
+     */
+    public static final DiscordEventType<ActivitySpectateListener> ACTIVITY_SPECTATE =
+            new DiscordEventType<>(1, "ActivitySpectate", ActivitySpectateListener.class, String.class);
+
+    /**
+     * @see DiscordEventAdapter#onActivityJoinRequest(DiscordUser)
+     */
+    public static final DiscordEventType<ActivityJoinRequestListener> ACTIVITY_JOIN_REQUEST =
+            new DiscordEventType<>(2, "ActivityJoinRequest", ActivityJoinRequestListener.class, DiscordUser.class);
+
+    /**
+     * @see DiscordEventAdapter#onCurrentUserUpdate()
+     */
+    public static final DiscordEventType<CurrentUserUpdateListener> CURRENT_USER_UPDATE =
+            new DiscordEventType<>(3, "CurrentUserUpdate", CurrentUserUpdateListener.class);
+
+    /**
+     * @see DiscordEventAdapter#onOverlayToggle(boolean)
+     */
+    public static final DiscordEventType<OverlayToggleListener> OVERLAY_TOGGLE =
+            new DiscordEventType<>(4, "OverlayToggle", OverlayToggleListener.class, boolean.class);
+
+    /**
+     * @see DiscordEventAdapter#onRelationshipRefresh()
+     */
+    public static final DiscordEventType<RelationshipRefreshListener> RELATIONSHIP_REFRESH =
+            new DiscordEventType<>(5, "RelationshipRefresh", RelationshipRefreshListener.class);
+
+    /**
+     * @see DiscordEventAdapter#onRelationshipUpdate(Relationship)
+     */
+    public static final DiscordEventType<RelationshipUpdateListener> RELATIONSHIP_UPDATE =
+            new DiscordEventType<>(6, "RelationshipUpdate", RelationshipUpdateListener.class, Relationship.class);
+
+    private static final DiscordEventType<?>[] VALUES = {
+        ACTIVITY_JOIN,
+        ACTIVITY_SPECTATE,
+        ACTIVITY_JOIN_REQUEST,
+        CURRENT_USER_UPDATE,
+        OVERLAY_TOGGLE,
+        RELATIONSHIP_REFRESH,
+        RELATIONSHIP_UPDATE
+    };
+
+    private final int index;
+    private final String name;
+    private final Class<L> listenerType;
+    private final Class<?>[] parameterTypes;
+
+    private DiscordEventType(int index, String name, Class<L> listenerType, Class<?>... parameterTypes) {
+        this.index = index;
+        this.name = name;
+        this.listenerType = listenerType;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Returns all event types.
+     * @return A new array of all event types
+     */
+    public static DiscordEventType<?>[] values() {
+        return VALUES.clone();
+    }
+
+    /**
+     * Gets the index of this event type in {@link #values()}.
+     * @return Index of the event type
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Gets the name of the event, e.g. {@code ActivityJoin} for {@link DiscordEventAdapter#onActivityJoin(String)}.
+     * @return Name of the event
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the listeners.
+     * @return Listener interface
+     */
+    public Class<L> getListenerType() {
+        return listenerType;
+    }
+
+    /**
+     * Gets the bit of this event type in {@link DiscordEventAdapter#getEventMask()}.
+     * @return {@code 1 << index()}
+     */
+    public int mask() {
+        return 1 << index;
+    }
+
+    /**
+     * Checks whether an adapter class overrides the method for this event.
+     * @param type A subclass of {@link DiscordEventAdapter}
+     * @return {@code false} if the class inherits the empty method of {@link DiscordEventAdapter}
+     */
+    boolean isOverriddenBy(Class<?> type) {
+        try {
+            return type.getMethod("on" + name, parameterTypes).getDeclaringClass() != DiscordEventAdapter.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
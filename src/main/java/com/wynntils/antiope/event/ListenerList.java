@@ -0,0 +1,48 @@
+package com.wynntils.antiope.event;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Copy-on-write array of the listeners for one event type.
+ * Dispatching reads the array once and loops over it, registration replaces it.
+ * @param <L> Type of the listeners
+ */
+final class ListenerList<L> {
+    private final Class<L> type;
+    private volatile L[] listeners;
+
+    @SuppressWarnings("unchecked")
+    ListenerList(Class<L> type) {
+        this.type = type;
+        this.listeners = (L[]) Array.newInstance(type, 0);
+    }
+
+    L[] get() {
+        return listeners;
+    }
+
+    synchronized void add(L listener) {
+        L[] current = listeners;
+        L[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = type.cast(listener);
+        listeners = added;
+    }
+
+    synchronized boolean remove(Object listener) {
+        L[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                L[] removed = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+                listeners = removed;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void clear() {
+        listeners = Arrays.copyOf(listeners, 0);
+    }
+}
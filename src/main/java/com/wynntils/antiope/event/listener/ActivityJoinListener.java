@@ -0,0 +1,12 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+
+/**
+ * Listener for the user attempting to join a game by accepting an invite.
+ * @see DiscordEventAdapter#onActivityJoin(String)
+ */
+@FunctionalInterface
+public interface ActivityJoinListener {
+    void onActivityJoin(String secret);
+}
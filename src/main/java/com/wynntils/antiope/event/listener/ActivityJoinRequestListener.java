@@ -0,0 +1,13 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.user.DiscordUser;
+
+/**
+ * Listener for users asking to join the user.
+ * @see DiscordEventAdapter#onActivityJoinRequest(DiscordUser)
+ */
+@FunctionalInterface
+public interface ActivityJoinRequestListener {
+    void onActivityJoinRequest(DiscordUser user);
+}
@@ -0,0 +1,12 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+
+/**
+ * Listener for the user attempting to spectate a game.
+ * @see DiscordEventAdapter#onActivitySpectate(String)
+ */
+@FunctionalInterface
+public interface ActivitySpectateListener {
+    void onActivitySpectate(String secret);
+}
@@ -0,0 +1,12 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+
+/**
+ * Listener for changes of the current user's information.
+ * @see DiscordEventAdapter#onCurrentUserUpdate()
+ */
+@FunctionalInterface
+public interface CurrentUserUpdateListener {
+    void onCurrentUserUpdate();
+}
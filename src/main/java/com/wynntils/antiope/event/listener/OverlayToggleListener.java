@@ -0,0 +1,12 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+
+/**
+ * Listener for the overlay being locked or unlocked.
+ * @see DiscordEventAdapter#onOverlayToggle(boolean)
+ */
+@FunctionalInterface
+public interface OverlayToggleListener {
+    void onOverlayToggle(boolean locked);
+}
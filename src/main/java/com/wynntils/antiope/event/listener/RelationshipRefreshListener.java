@@ -0,0 +1,12 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+
+/**
+ * Listener for new cached versions of the user's relationships.
+ * @see DiscordEventAdapter#onRelationshipRefresh()
+ */
+@FunctionalInterface
+public interface RelationshipRefreshListener {
+    void onRelationshipRefresh();
+}
@@ -0,0 +1,13 @@
+package com.wynntils.antiope.event.listener;
+
+import com.wynntils.antiope.event.DiscordEventAdapter;
+import com.wynntils.antiope.user.Relationship;
+
+/**
+ * Listener for changes of a relationship.
+ * @see DiscordEventAdapter#onRelationshipUpdate(Relationship)
+ */
+@FunctionalInterface
+public interface RelationshipUpdateListener {
+    void onRelationshipUpdate(Relationship relationship);
+}
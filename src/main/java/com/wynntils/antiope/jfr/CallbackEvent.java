@@ -0,0 +1,52 @@
+package com.wynntils.antiope.jfr;
+
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import java.util.function.Consumer;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>The round trip of an operation taking a callback, from requesting it until the callback ran.</p>
+ * <p>The duration of the event is the latency of the operation including the callback itself.</p>
+ * <p>This is <b>not</b> an API class. It is only public to be recorded by the JDK Flight Recorder.</p>
+ */
+@Name("com.wynntils.antiope.Callback")
+@Label("Discord SDK Callback")
+@Category("Antiope")
+@Description("Request to the Discord Game SDK that completed through a callback")
+public final class CallbackEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Result")
+    private String result;
+
+    /**
+     * <p>Wraps a callback to record its round trip, if the event is enabled.</p>
+     * <p>This has to be called when the operation is requested.</p>
+     * @param operation Operation the callback belongs to
+     * @param callback Callback to pass the result to
+     * @return A recording callback, or the callback itself if the event is disabled
+     */
+    public static Consumer<Result> trace(SdkOperation operation, Consumer<Result> callback) {
+        if (!FlightRecorderState.isRecording()) return callback;
+
+        CallbackEvent event = new CallbackEvent();
+        if (!event.isEnabled()) return callback;
+
+        event.operation = operation.name();
+        event.begin();
+        return result -> {
+            try {
+                callback.accept(result);
+            } finally {
+                event.result = result.name();
+                event.commit();
+            }
+        };
+    }
+}
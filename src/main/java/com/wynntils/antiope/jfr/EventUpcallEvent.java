@@ -0,0 +1,51 @@
+package com.wynntils.antiope.jfr;
+
+import com.wynntils.antiope.event.DiscordEventType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>The dispatch of a Discord event to the listeners of a {@code DiscordEventHandler}.</p>
+ * <p>This is <b>not</b> an API class. It is only public to be recorded by the JDK Flight Recorder.</p>
+ */
+@Name("com.wynntils.antiope.EventUpcall")
+@Label("Discord Event Upcall")
+@Category("Antiope")
+@Description("Discord event passed to the registered listeners")
+public final class EventUpcallEvent extends Event {
+    @Label("Event Type")
+    private String eventType;
+
+    @Label("Listeners")
+    @Description("Number of listeners the event has been passed to")
+    private int listeners;
+
+    /**
+     * Starts timing the dispatch of an event.
+     * @return The started event, or null if nothing is recording
+     */
+    public static EventUpcallEvent start() {
+        if (!FlightRecorderState.isRecording()) return null;
+
+        EventUpcallEvent event = new EventUpcallEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an event returned by {@link #start()} once all listeners returned.
+     * @param event The started event or null
+     * @param type Type of the dispatched event
+     * @param listeners Number of listeners the event has been passed to
+     */
+    public static void end(EventUpcallEvent event, DiscordEventType<?> type, int listeners) {
+        if (event == null || !event.shouldCommit()) return;
+
+        event.eventType = type.getName();
+        event.listeners = listeners;
+        event.commit();
+    }
+}
@@ -0,0 +1,54 @@
+package com.wynntils.antiope.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>An operation on the native core, from starting to run until it returned.</p>
+ * <p>While the operation runs, no other thread can use the core.</p>
+ * <p>This is <b>not</b> an API class. It is only public to be recorded by the JDK Flight Recorder.</p>
+ */
+@Name("com.wynntils.antiope.Execute")
+@Label("Discord SDK Call")
+@Category("Antiope")
+@Description("Operation on the native core of the Discord Game SDK")
+public final class ExecuteEvent extends Event {
+    @Label("Wait Time")
+    @Description("Time the operation waited for another thread using the core")
+    @Timespan
+    private long waitTime;
+
+    @Label("Queued")
+    @Description("Whether the operation has been queued and run by the thread that was using the core")
+    private boolean queued;
+
+    /**
+     * Starts timing an operation.
+     * @return The started event, or null if nothing is recording
+     */
+    public static ExecuteEvent start() {
+        if (!FlightRecorderState.isRecording()) return null;
+
+        ExecuteEvent event = new ExecuteEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an event returned by {@link #start()} once the operation returned.
+     * @param event The started event or null
+     * @param waitNanos Time the operation waited for the core
+     * @param queued True if the operation ran on the thread that was using the core
+     */
+    public static void end(ExecuteEvent event, long waitNanos, boolean queued) {
+        if (event == null || !event.shouldCommit()) return;
+
+        event.waitTime = waitNanos;
+        event.queued = queued;
+        event.commit();
+    }
+}
@@ -0,0 +1,59 @@
+package com.wynntils.antiope.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * <p>Tracks whether the JDK Flight Recorder is recording.</p>
+ * <p>The events of this package are only created while a recording is running, so the hot paths do not allocate
+ * them otherwise. Whether a running recording records them is decided by its settings as usual.</p>
+ * <p>This is <b>not</b> an API class.</p>
+ */
+public final class FlightRecorderState {
+    private static volatile FlightRecorder recorder;
+    private static volatile boolean recording = false;
+
+    static {
+        // does not initialize the recorder, it is only passed to the listener once something else did
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder flightRecorder) {
+                recorder = flightRecorder;
+                update();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                update();
+            }
+        });
+    }
+
+    private FlightRecorderState() {
+        throw new RuntimeException("FlightRecorderState is a static class and no instance of it can be obtained.");
+    }
+
+    /**
+     * Returns true if at least one recording is running.
+     * @return True if events might be recorded, false otherwise
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    private static synchronized void update() {
+        FlightRecorder current = recorder;
+        if (current == null) return;
+
+        boolean running = false;
+        for (Recording recording : current.getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                running = true;
+                break;
+            }
+        }
+        recording = running;
+    }
+}
@@ -0,0 +1,43 @@
+package com.wynntils.antiope.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>A phase of loading the native libraries.</p>
+ * <p>This is <b>not</b> an API class. It is only public to be recorded by the JDK Flight Recorder.</p>
+ */
+@Name("com.wynntils.antiope.LibraryLoad")
+@Label("Discord Library Load")
+@Category("Antiope")
+@Description("Extracting, loading or initializing the native libraries")
+public final class LibraryLoadEvent extends Event {
+    /**
+     * Copying a library out of the JAR or verifying the cached copy.
+     */
+    public static final String EXTRACT = "extract";
+
+    /**
+     * Loading the JNI library and, on Windows, Discord's library.
+     */
+    public static final String LOAD = "load";
+
+    /**
+     * Opening Discord's library and looking up its functions.
+     */
+    public static final String INIT = "init";
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Library")
+    private String library;
+
+    public LibraryLoadEvent(String phase, String library) {
+        this.phase = phase;
+        this.library = library;
+    }
+}
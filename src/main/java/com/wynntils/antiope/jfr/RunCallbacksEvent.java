@@ -0,0 +1,46 @@
+package com.wynntils.antiope.jfr;
+
+import com.wynntils.antiope.core.SdkMetrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>A call to the SDK's {@code run_callbacks}, including all callbacks and event upcalls it ran.</p>
+ * <p>This is <b>not</b> an API class. It is only public to be recorded by the JDK Flight Recorder.</p>
+ */
+@Name("com.wynntils.antiope.RunCallbacks")
+@Label("Discord Run Callbacks")
+@Category("Antiope")
+@Description("Discord Game SDK polling for events and completed requests")
+public final class RunCallbacksEvent extends Event {
+    @Label("In Flight")
+    @Description("Number of requests whose callback has not been called yet afterwards")
+    private long inFlight;
+
+    /**
+     * Starts timing a call to {@code run_callbacks}.
+     * @return The started event, or null if nothing is recording
+     */
+    public static RunCallbacksEvent start() {
+        if (!FlightRecorderState.isRecording()) return null;
+
+        RunCallbacksEvent event = new RunCallbacksEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an event returned by {@link #start()} once {@code run_callbacks} returned.
+     * @param event The started event or null
+     * @param metrics Metrics of the core to take the number of requests in flight from
+     */
+    public static void end(RunCallbacksEvent event, SdkMetrics metrics) {
+        if (event == null || !event.shouldCommit()) return;
+
+        event.inFlight = metrics.getInFlight();
+        event.commit();
+    }
+}
@@ -1,27 +1,51 @@
 package com.wynntils.antiope.manager.activity;
 
+import com.wynntils.antiope.backend.ActivityBackend;
 import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.jfr.CallbackEvent;
 import com.wynntils.antiope.manager.activity.type.Activity;
 import com.wynntils.antiope.manager.activity.type.ActivityActionType;
+import com.wynntils.antiope.manager.activity.type.ActivityBuffer;
 import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
 import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.util.DiscordUtils;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
- * Manager to control the player's current activity.
+ * <p>Manager to control the player's current activity.</p>
+ * <p>Every operation completing through a callback also has an {@code ...Async} variant returning a
+ * {@link CompletableFuture} that is completed on the given {@link Executor}. Pass {@code Runnable::run} to complete
+ * it on the thread running the callbacks, and use {@link CompletableFuture#orTimeout} to stop waiting for Discord.</p>
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities">
  *     https://discordapp.com/developers/docs/game-sdk/activities</a>
  */
 public class ActivityManager {
-    private final long pointer;
+    private final ActivityBackend backend;
     private final DiscordGameSDKCore core;
 
-    public ActivityManager(long pointer, DiscordGameSDKCore core) {
-        this.pointer = pointer;
+    public ActivityManager(ActivityBackend backend, DiscordGameSDKCore core) {
+        this.backend = backend;
         this.core = core;
     }
 
+    /**
+     * <p>Creates the backend calling the activity manager of Discord's native library.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param pointer Pointer to the native activity manager
+     * @param callbackPool Pointer to the native pool of callback records of the core
+     * @return A backend for {@link DiscordGameSDKCore#NATIVE_BACKEND}
+     */
+    public static ActivityBackend nativeBackend(long pointer, long callbackPool) {
+        return new NativeActivityBackend(pointer, callbackPool);
+    }
+
     /**
      * Registers a command for Discord to use to launch your game.
      * @param command Custom protocol URL or path to an executable (including options arguments)
@@ -30,7 +54,9 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#registercommand</a>
      */
     public Result registerCommand(String command) {
-        return core.execute(() -> registerCommand(pointer, Objects.requireNonNull(command)));
+        Result result = core.execute(() -> backend.registerCommand(Objects.requireNonNull(command)));
+        core.metrics().recordResult(result);
+        return result;
     }
 
     /**
@@ -42,7 +68,9 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#registersteam</a>
      */
     public Result registerSteam(int steamId) {
-        return core.execute(() -> registerSteam(pointer, steamId));
+        Result result = core.execute(() -> backend.registerSteam(steamId));
+        core.metrics().recordResult(result);
+        return result;
     }
 
     /**
@@ -58,14 +86,132 @@ public class ActivityManager {
 
     /**
      * <p>Updates the user's current presence to a new activity.</p>
-     * <p>A custom callback is used to handle the returned {@link Result}.</p>
+     * <p>A custom callback is used to handle the returned {@link Result}.
+     * If the update can not be sent right away, the activity is copied first, so it may be changed or closed as
+     * soon as this method returns.</p>
      * @param activity New activity for the user.
      * @param callback Callback to process the returned {@link Result}.
+     * @throws IllegalStateException if the activity has been closed
      * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
      *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
      */
     public void updateActivity(Activity activity, Consumer<Result> callback) {
-        core.execute(() -> updateActivity(pointer, activity.getPointer(), Objects.requireNonNull(callback)));
+        Objects.requireNonNull(activity);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.UPDATE_ACTIVITY, callback);
+        core.executeRequest(() -> backend.updateActivity(activity, traced), () -> {
+            ActivitySpec copy = activity.snapshot();
+            return () -> backend.updateActivity(copy, traced);
+        });
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param activity New activity for the user.
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #updateActivity(Activity, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public CompletableFuture<Void> updateActivityAsync(Activity activity, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        updateActivity(activity, DiscordUtils.completer(future, executor));
+        return future;
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The {@link DiscordGameSDKCore#DEFAULT_CALLBACK} is used to handle the returned {@link Result}.</p>
+     * @param activity New activity for the user.
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public void updateActivity(ActivitySpec activity) {
+        updateActivity(activity, DiscordGameSDKCore.DEFAULT_CALLBACK);
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The whole spec is passed to native code in a single call and no native {@link Activity} is needed.
+     * A custom callback is used to handle the returned {@link Result}.</p>
+     * @param activity New activity for the user.
+     * @param callback Callback to process the returned {@link Result}.
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public void updateActivity(ActivitySpec activity, Consumer<Result> callback) {
+        Objects.requireNonNull(activity);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.UPDATE_ACTIVITY, callback);
+        core.executeRequest(() -> backend.updateActivity(activity, traced));
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param activity New activity for the user.
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #updateActivity(ActivitySpec, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public CompletableFuture<Void> updateActivityAsync(ActivitySpec activity, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        updateActivity(activity, DiscordUtils.completer(future, executor));
+        return future;
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The {@link DiscordGameSDKCore#DEFAULT_CALLBACK} is used to handle the returned {@link Result}.</p>
+     * @param activity New activity for the user.
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public void updateActivity(ActivityBuffer activity) {
+        updateActivity(activity, DiscordGameSDKCore.DEFAULT_CALLBACK);
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The buffer is passed to native code as it is, without copying any field. Only if the update can not be
+     * sent right away, the buffer is copied first, so it may be changed as soon as this method returns.
+     * A custom callback is used to handle the returned {@link Result}.</p>
+     * @param activity New activity for the user.
+     * @param callback Callback to process the returned {@link Result}.
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public void updateActivity(ActivityBuffer activity, Consumer<Result> callback) {
+        Objects.requireNonNull(activity);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.UPDATE_ACTIVITY, callback);
+        core.executeRequest(() -> backend.updateActivity(activity, traced), () -> {
+            ActivitySpec copy = activity.snapshot();
+            return () -> backend.updateActivity(copy, traced);
+        });
+    }
+
+    /**
+     * <p>Updates the user's current presence to a new activity.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param activity New activity for the user.
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #updateActivity(ActivityBuffer, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#updateactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#updateactivity</a>
+     */
+    public CompletableFuture<Void> updateActivityAsync(ActivityBuffer activity, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        updateActivity(activity, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -86,7 +232,25 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#clearactivity</a>
      */
     public void clearActivity(Consumer<Result> callback) {
-        core.execute(() -> clearActivity(pointer, Objects.requireNonNull(callback)));
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.CLEAR_ACTIVITY, callback);
+        core.executeRequest(() -> backend.clearActivity(traced));
+    }
+
+    /**
+     * <p>Clears the user's current presence.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #clearActivity(Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#clearactivity">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#clearactivity</a>
+     */
+    public CompletableFuture<Void> clearActivityAsync(Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        clearActivity(DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -111,7 +275,29 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#sendrequestreply</a>
      */
     public void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback) {
-        core.execute(() -> sendRequestReply(pointer, userId, reply.ordinal(), Objects.requireNonNull(callback)));
+        Objects.requireNonNull(reply);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.SEND_REQUEST_REPLY, callback);
+        core.executeRequest(() -> backend.sendRequestReply(userId, reply, traced));
+    }
+
+    /**
+     * <p>Replies to an "Ask to join" request.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param userId ID of user who asked to join
+     * @param reply Type of reply to send
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #sendRequestReply(long, ActivityJoinRequestReply, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#sendrequestreply">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#sendrequestreply</a>
+     */
+    public CompletableFuture<Void> sendRequestReplyAsync(
+            long userId, ActivityJoinRequestReply reply, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        sendRequestReply(userId, reply, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -138,12 +324,31 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#sendinvite</a>
      */
     public void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback) {
-        core.execute(() -> sendInvite(
-                pointer,
-                userId,
-                type.nativeValue(),
-                Objects.requireNonNull(content),
-                Objects.requireNonNull(callback)));
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(content);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.SEND_INVITE, callback);
+        core.executeRequest(() -> backend.sendInvite(userId, type, content, traced));
+    }
+
+    /**
+     * <p>Invites a user to join your game.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param userId ID of user to invite
+     * @param type Type of invitation to send
+     * @param content Content/message of the invitation
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #sendInvite(long, ActivityActionType, String, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#sendinvite">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#sendinvite</a>
+     */
+    public CompletableFuture<Void> sendInviteAsync(
+            long userId, ActivityActionType type, String content, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        sendInvite(userId, type, content, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -166,20 +371,104 @@ public class ActivityManager {
      *     https://discordapp.com/developers/docs/game-sdk/activities#acceptinvite</a>
      */
     public void acceptRequest(long userId, Consumer<Result> callback) {
-        core.execute(() -> acceptRequest(pointer, userId, Objects.requireNonNull(callback)));
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.ACCEPT_REQUEST, callback);
+        core.executeRequest(() -> backend.acceptRequest(userId, traced));
+    }
+
+    /**
+     * <p>Accepts a game invitation from another user.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param userId ID of user to accept invitation from
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #acceptRequest(long, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#acceptinvite">
+     *     https://discordapp.com/developers/docs/game-sdk/activities#acceptinvite</a>
+     */
+    public CompletableFuture<Void> acceptRequestAsync(long userId, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        acceptRequest(userId, DiscordUtils.completer(future, executor));
+        return future;
     }
 
-    private native Result registerCommand(long pointer, String command);
+    // calls the activity manager of Discord's native library
+    private static final class NativeActivityBackend implements ActivityBackend {
+        private final long pointer;
+        private final long callbackPool;
+
+        private NativeActivityBackend(long pointer, long callbackPool) {
+            this.pointer = pointer;
+            this.callbackPool = callbackPool;
+        }
+
+        @Override
+        public Result registerCommand(String command) {
+            return ActivityManager.registerCommand(pointer, command);
+        }
+
+        @Override
+        public Result registerSteam(int steamId) {
+            return ActivityManager.registerSteam(pointer, steamId);
+        }
+
+        @Override
+        public void updateActivity(Activity activity, Consumer<Result> callback) {
+            ActivityManager.updateActivity(pointer, callbackPool, activity.getPointer(), callback);
+        }
+
+        @Override
+        public void updateActivity(ActivitySpec activity, Consumer<Result> callback) {
+            updateActivitySpec(pointer, callbackPool, activity.getStringData(), activity.getNumberData(), callback);
+        }
+
+        @Override
+        public void updateActivity(ActivityBuffer activity, Consumer<Result> callback) {
+            updateActivityBuffer(pointer, callbackPool, activity.getBuffer(), callback);
+        }
+
+        @Override
+        public void clearActivity(Consumer<Result> callback) {
+            ActivityManager.clearActivity(pointer, callbackPool, callback);
+        }
+
+        @Override
+        public void sendRequestReply(long userId, ActivityJoinRequestReply reply, Consumer<Result> callback) {
+            ActivityManager.sendRequestReply(pointer, callbackPool, userId, reply.ordinal(), callback);
+        }
+
+        @Override
+        public void sendInvite(long userId, ActivityActionType type, String content, Consumer<Result> callback) {
+            ActivityManager.sendInvite(pointer, callbackPool, userId, type.nativeValue(), content, callback);
+        }
+
+        @Override
+        public void acceptRequest(long userId, Consumer<Result> callback) {
+            ActivityManager.acceptRequest(pointer, callbackPool, userId, callback);
+        }
+    }
+
+    private static native Result registerCommand(long pointer, String command);
+
+    private static native Result registerSteam(long pointer, int steamId);
+
+    private static native void updateActivity(
+            long pointer, long callbackPool, long activityPointer, Consumer<Result> callback);
 
-    private native Result registerSteam(long pointer, int steamId);
+    private static native void updateActivitySpec(
+            long pointer, long callbackPool, byte[] strings, long[] numbers, Consumer<Result> callback);
 
-    private native void updateActivity(long pointer, long activityPointer, Consumer<Result> callback);
+    private static native void updateActivityBuffer(
+            long pointer, long callbackPool, ByteBuffer buffer, Consumer<Result> callback);
 
-    private native void clearActivity(long pointer, Consumer<Result> callback);
+    private static native void clearActivity(long pointer, long callbackPool, Consumer<Result> callback);
 
-    private native void sendRequestReply(long pointer, long userId, int reply, Consumer<Result> callback);
+    private static native void sendRequestReply(
+            long pointer, long callbackPool, long userId, int reply, Consumer<Result> callback);
 
-    private native void sendInvite(long pointer, long userId, int type, String content, Consumer<Result> callback);
+    private static native void sendInvite(
+            long pointer, long callbackPool, long userId, int type, String content, Consumer<Result> callback);
 
-    private native void acceptRequest(long pointer, long userId, Consumer<Result> callback);
+    private static native void acceptRequest(long pointer, long callbackPool, long userId, Consumer<Result> callback);
 }
@@ -0,0 +1,278 @@
+package com.wynntils.antiope.manager.activity;
+
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Sends activity updates without running into Discord's rate limit.</p>
+ * <p>Only the latest activity passed to {@link #update(Activity)} is kept. A token bucket decides
+ * when it is sent: every update uses one token and tokens are refilled one by one. While no token
+ * is available, newer activities replace the waiting one, and the newest is sent as soon as a
+ * token frees up. Activities that equal the one already sent are skipped.</p>
+ * <p>At most one update is in flight at a time. An update rejected with {@link Result#RATE_LIMITED}
+ * empties the bucket and is retried once a token becomes available. An update that is not answered within the
+ * {@linkplain #setResponseTimeout(Duration) response timeout} is given up on and sent again.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  PresenceUpdater updater = new PresenceUpdater(core.activityManager());
+ *  // as often as you like, e.g. every tick
+ *  activity.setDetails(zone);
+ *  updater.update(activity);}</pre>
+ */
+public class PresenceUpdater implements AutoCloseable {
+    /**
+     * Default number of updates that may be sent at once: Discord allows five updates every twenty seconds.
+     */
+    public static final int DEFAULT_BURST = 5;
+
+    /**
+     * Default time it takes to refill one token.
+     */
+    public static final Duration DEFAULT_REFILL_INTERVAL = Duration.ofSeconds(4);
+
+    /**
+     * Default time to wait for Discord to answer an update.
+     */
+    public static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ActivityManager activityManager;
+    private final int burst;
+    private final long refillNanos;
+
+    // latest activity passed to update()
+    private final Activity desired = new Activity();
+    // activity in flight or last accepted by Discord, only compared with while sentOnce is set
+    private final Activity sent = new Activity();
+
+    private long tokens;
+    private long lastRefill;
+    private long responseTimeoutNanos = DEFAULT_RESPONSE_TIMEOUT.toNanos();
+
+    // number of the update in flight, answers to updates given up on are ignored
+    private long request = 0;
+    private long sentAt;
+
+    private boolean dirty = false;
+    private boolean inFlight = false;
+    private boolean sentOnce = false;
+    private boolean flushScheduled = false;
+    private long flushAt;
+    private boolean closed = false;
+
+    private long coalesced = 0;
+    private long sentCount = 0;
+    private long rejected = 0;
+    private long timedOut = 0;
+
+    /**
+     * Creates an updater with {@link #DEFAULT_BURST} tokens, refilling one every {@link #DEFAULT_REFILL_INTERVAL}.
+     * @param activityManager Manager to send updates with
+     */
+    public PresenceUpdater(ActivityManager activityManager) {
+        this(activityManager, DEFAULT_BURST, DEFAULT_REFILL_INTERVAL);
+    }
+
+    /**
+     * Creates an updater with a custom token bucket.
+     * @param activityManager Manager to send updates with
+     * @param burst Number of updates that may be sent at once
+     * @param refillInterval Time it takes to refill one token
+     */
+    public PresenceUpdater(ActivityManager activityManager, int burst, Duration refillInterval) {
+        if (burst <= 0) throw new IllegalArgumentException("burst must be positive: " + burst);
+        if (refillInterval.isNegative() || refillInterval.isZero())
+            throw new IllegalArgumentException("refill interval must be positive: " + refillInterval);
+
+        this.activityManager = activityManager;
+        this.burst = burst;
+        this.refillNanos = refillInterval.toNanos();
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * <p>Requests the user's presence to be updated to the given activity.</p>
+     * <p>The activity is copied, so it may be changed or closed afterwards.</p>
+     * @param activity New activity for the user
+     */
+    public synchronized void update(Activity activity) {
+        if (closed) throw new IllegalStateException("PresenceUpdater is closed");
+
+        desired.copyFrom(activity);
+        boolean unchanged = sentOnce && desired.contentEquals(sent);
+        // replaced an activity that was still waiting or nothing changed
+        if (dirty || unchanged) coalesced++;
+
+        dirty = !unchanged;
+        flush();
+    }
+
+    /**
+     * <p>Sets how long to wait for Discord to answer an update.</p>
+     * <p>The answer might never come, e.g. if the update failed on the thread running the callbacks. Once the
+     * timeout elapsed, the update is given up on and the latest activity is sent again.</p>
+     * @param responseTimeout A positive duration, {@link #DEFAULT_RESPONSE_TIMEOUT} by default
+     */
+    public synchronized void setResponseTimeout(Duration responseTimeout) {
+        if (responseTimeout.isNegative() || responseTimeout.isZero())
+            throw new IllegalArgumentException("response timeout must be positive: " + responseTimeout);
+
+        this.responseTimeoutNanos = responseTimeout.toNanos();
+    }
+
+    /**
+     * Gets the number of updates that were replaced by a newer one or skipped because nothing changed.
+     * @return Number of coalesced updates
+     */
+    public synchronized long getCoalescedUpdates() {
+        return coalesced;
+    }
+
+    /**
+     * Gets the number of updates that were actually sent to Discord.
+     * @return Number of sent updates
+     */
+    public synchronized long getSentUpdates() {
+        return sentCount;
+    }
+
+    /**
+     * Gets the number of updates that Discord answered with another {@link Result} than {@link Result#OK}.
+     * @return Number of rejected updates
+     */
+    public synchronized long getRejectedUpdates() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of updates that were not answered within the response timeout.
+     * @return Number of updates given up on
+     * @see #setResponseTimeout(Duration)
+     */
+    public synchronized long getTimedOutUpdates() {
+        return timedOut;
+    }
+
+    /**
+     * <p>Stops sending updates and frees the native structures.</p>
+     * <p>An update in flight is still completed.</p>
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        // updates copy the activity, so the one in flight can be freed as well
+        desired.close();
+        sent.close();
+    }
+
+    private void flush() {
+        if (closed) return;
+
+        if (inFlight) {
+            long waited = System.nanoTime() - sentAt;
+            if (waited < responseTimeoutNanos) {
+                scheduleFlush(responseTimeoutNanos - waited);
+                return;
+            }
+
+            // the answer got lost, send the latest activity again
+            timedOut++;
+            request++;
+            inFlight = false;
+            sentOnce = false;
+            dirty = true;
+        }
+        if (!dirty) return;
+
+        refill();
+        if (tokens == 0) {
+            scheduleFlush(lastRefill + refillNanos - System.nanoTime());
+            return;
+        }
+
+        sent.copyFrom(desired);
+        tokens--;
+        dirty = false;
+        inFlight = true;
+        sentOnce = true;
+        sentAt = System.nanoTime();
+        long current = ++request;
+        try {
+            activityManager.updateActivity(sent, result -> onResult(current, result));
+        } catch (RuntimeException e) {
+            inFlight = false;
+            sentOnce = false;
+            dirty = true;
+            throw e;
+        }
+        sentCount++;
+        // notices if the answer never comes
+        scheduleFlush(responseTimeoutNanos);
+    }
+
+    private synchronized void onResult(long answered, Result result) {
+        if (answered != request) return;
+
+        inFlight = false;
+        if (closed) return;
+
+        if (result != Result.OK) {
+            rejected++;
+            // sent no longer holds what Discord shows, so the same activity counts as a change again
+            sentOnce = false;
+            if (result == Result.RATE_LIMITED) {
+                tokens = 0;
+                lastRefill = System.nanoTime();
+                dirty = true;
+            }
+        }
+        tryFlush();
+    }
+
+    private void refill() {
+        long elapsed = System.nanoTime() - lastRefill;
+        long refilled = elapsed / refillNanos;
+        if (refilled == 0) return;
+
+        tokens = Math.min(burst, tokens + refilled);
+        lastRefill += refilled * refillNanos;
+        if (tokens == burst) lastRefill = System.nanoTime();
+    }
+
+    private void scheduleFlush(long delayNanos) {
+        long delay = Math.max(delayNanos, 0);
+        long at = System.nanoTime() + delay;
+        // a flush scheduled earlier covers this one
+        if (flushScheduled && at - flushAt >= 0) return;
+        flushScheduled = true;
+        flushAt = at;
+
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> scheduledFlush(at));
+    }
+
+    private synchronized void scheduledFlush(long at) {
+        // a task replaced by an earlier one still runs, but only the latest one clears the flag
+        if (at == flushAt) flushScheduled = false;
+        tryFlush();
+    }
+
+    private void tryFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // the core has been closed, there is nothing to retry
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PresenceUpdater{" + "tokens=" + tokens + ", coalesced=" + coalesced + ", sent=" + sentCount
+                + ", rejected=" + rejected + ", timedOut=" + timedOut + '}';
+    }
+}
@@ -1,30 +1,43 @@
 package com.wynntils.antiope.manager.activity.type;
 
 import com.wynntils.antiope.user.Presence;
+import java.nio.ByteBuffer;
 
 /**
- * Java representation of the Activity structure.
+ * <p>Java representation of the Activity structure.</p>
+ * <p>The native structure is allocated by the constructor and freed by {@link #close()}. To reuse structures
+ * instead, acquire them from an {@link ActivityPool}. Either way, a closed Activity can not be used anymore.</p>
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#data-models-activity-struct">
  *     https://discordapp.com/developers/docs/game-sdk/activities#data-models-activity-struct</a>
  */
 public class Activity implements AutoCloseable {
     private final long pointer;
+    private final ActivityPool pool;
 
     private final ActivityTimestamps timestamps;
     private final ActivityAssets assets;
     private final ActivityParty party;
     private final ActivitySecrets secrets;
 
+    private boolean truncateStrings = false;
+    private boolean closed = false;
+
     /**
      * Allocates a new Activity structure.
      */
     public Activity() {
+        this(null);
+    }
+
+    // a pooled Activity is returned to its pool when closed
+    Activity(ActivityPool pool) {
         this.pointer = allocate();
+        this.pool = pool;
 
-        this.timestamps = new ActivityTimestamps(getTimestamps(pointer));
-        this.assets = new ActivityAssets(getAssets(pointer));
-        this.party = new ActivityParty(getParty(pointer));
-        this.secrets = new ActivitySecrets(getSecrets(pointer));
+        this.timestamps = new ActivityTimestamps(getTimestamps(pointer), this);
+        this.assets = new ActivityAssets(getAssets(pointer), this);
+        this.party = new ActivityParty(getParty(pointer), this);
+        this.secrets = new ActivitySecrets(getSecrets(pointer), this);
     }
 
     /**
@@ -34,7 +47,7 @@ public class Activity implements AutoCloseable {
      * @return The application ID
      */
     public long getApplicationId() {
-        return getApplicationId(pointer);
+        return getApplicationId(pointer());
     }
 
     /**
@@ -44,17 +57,17 @@ public class Activity implements AutoCloseable {
      * @return The name
      */
     public String getName() {
-        return getName(pointer);
+        return NativeStrings.decode(getName(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * Sets the player's current party status.
-     * @param state Current party status, max 127 characters
-     * @throws IllegalArgumentException if {@code state} is too long
+     * @param state Current party status, max 127 bytes
+     * @throws IllegalArgumentException if {@code state} is too long, unless strings are truncated
      */
     public void setState(String state) {
-        if (state.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setState(pointer, state);
+        int length = NativeStrings.encode(state, truncateStrings);
+        setState(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -62,17 +75,17 @@ public class Activity implements AutoCloseable {
      * @return Current party status or an empty string if none is set
      */
     public String getState() {
-        return getState(pointer);
+        return NativeStrings.decode(getState(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * Sets what the player is currently doing.
-     * @param details What the player is currently doing, max 127 characters
-     * @throws IllegalArgumentException if {@code details} is too long
+     * @param details What the player is currently doing, max 127 bytes
+     * @throws IllegalArgumentException if {@code details} is too long, unless strings are truncated
      */
     public void setDetails(String details) {
-        if (details.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setDetails(pointer, details);
+        int length = NativeStrings.encode(details, truncateStrings);
+        setDetails(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -80,7 +93,7 @@ public class Activity implements AutoCloseable {
      * @return What the player is currently doing or an empty string if it is not set
      */
     public String getDetails() {
-        return getDetails(pointer);
+        return NativeStrings.decode(getDetails(pointer(), NativeStrings.buffer()));
     }
 
     /**
@@ -93,7 +106,7 @@ public class Activity implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/activities#data-models-activitytype-enum</a>
      */
     public void setType(ActivityType type) {
-        setType(pointer, type.ordinal());
+        setType(pointer(), type.ordinal());
     }
     /**
      * <p>Gets the type of the Activity.</p>
@@ -105,7 +118,7 @@ public class Activity implements AutoCloseable {
      *     https://discordapp.com/developers/docs/game-sdk/activities#data-models-activitytype-enum</a>
      */
     public ActivityType getType() {
-        return ActivityType.values()[getType(pointer)];
+        return ActivityType.values()[getType(pointer())];
     }
 
     /**
@@ -144,36 +157,131 @@ public class Activity implements AutoCloseable {
         return secrets;
     }
 
+    /**
+     * <p>Copies all fields of another Activity into this one.</p>
+     * <p>This takes a single native call, no matter how many fields are set.</p>
+     * @param other Activity to copy from
+     */
+    public void copyFrom(Activity other) {
+        copy(pointer(), other.pointer());
+    }
+
+    /**
+     * <p>Checks whether another Activity has the same content as this one.</p>
+     * <p>Unlike comparing the getters, this does not create any strings.</p>
+     * @param other Activity to compare with
+     * @return {@code true} if all fields are equal
+     */
+    public boolean contentEquals(Activity other) {
+        return contentEquals(pointer(), other.pointer());
+    }
+
+    /**
+     * <p>Sets how the string setters of this Activity and its embedded structures handle values that are too long.</p>
+     * <p>By default they throw an {@link IllegalArgumentException}. If enabled, the value is cut off
+     * after the last complete character that fits into 127 bytes instead.</p>
+     * @param truncateStrings Whether to truncate strings that are too long
+     */
+    public void setTruncateStrings(boolean truncateStrings) {
+        this.truncateStrings = truncateStrings;
+    }
+
+    /**
+     * Gets whether string setters truncate values that are too long instead of throwing.
+     * @return {@code true} if strings are truncated
+     * @see #setTruncateStrings(boolean)
+     */
+    public boolean isTruncateStrings() {
+        return truncateStrings;
+    }
+
+    /**
+     * <p>Overwrites all fields of this Activity with the given spec.</p>
+     * <p>This takes a single native call, no matter how many fields are set.</p>
+     * @param spec Fields to write
+     */
+    public void write(ActivitySpec spec) {
+        writeSpec(pointer(), spec.getStringData(), spec.getNumberData());
+    }
+
+    /**
+     * <p>Reads all fields of this Activity into an immutable {@link ActivitySpec}.</p>
+     * <p>This takes a single native call, unlike calling every getter.</p>
+     * @return The current fields of this Activity
+     */
+    public ActivitySpec snapshot() {
+        byte[] strings = new byte[ActivitySpec.STRING_COUNT * ActivitySpec.STRING_SIZE];
+        long[] numbers = new long[ActivitySpec.NUMBER_COUNT];
+        readSpec(pointer(), strings, numbers);
+        return ActivitySpec.fromNative(strings, numbers);
+    }
+
     /**
      * Sets whether the player is in an instance
      * @param instance whether the player is in an instance
      */
     public void setInstance(boolean instance) {
-        setInstance(pointer, instance);
+        setInstance(pointer(), instance);
     }
     /**
      * Gets whether the player is in an instance
      * @return {@code true} if the player is in an instance
      */
     public boolean getInstance() {
-        return getInstance(pointer);
+        return getInstance(pointer());
+    }
+
+    /**
+     * Gets whether this Activity has been closed.
+     * @return {@code true} if the Activity can not be used anymore
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // the structure has been freed or handed to another user once closed
+    void checkOpen() {
+        if (closed) throw new IllegalStateException("Activity has been closed");
+    }
+
+    private long pointer() {
+        checkOpen();
+        return pointer;
+    }
+
+    // zeroes the structure before it goes back to the pool
+    void reset() {
+        clear(pointer);
+        truncateStrings = false;
+    }
+
+    // called by the pool when it hands out the structure again
+    void reopen() {
+        closed = false;
+    }
+
+    // called by the pool for structures it no longer keeps
+    void free() {
+        free(pointer);
     }
 
     private native long allocate();
 
     private static native void free(long pointer);
 
+    private static native void clear(long pointer);
+
     private native long getApplicationId(long pointer);
 
-    private native String getName(long pointer);
+    private native int getName(long pointer, ByteBuffer buffer);
 
-    private native void setState(long pointer, String state);
+    private native void setState(long pointer, ByteBuffer buffer, int length);
 
-    private native String getState(long pointer);
+    private native int getState(long pointer, ByteBuffer buffer);
 
-    private native void setDetails(long pointer, String details);
+    private native void setDetails(long pointer, ByteBuffer buffer, int length);
 
-    private native String getDetails(long pointer);
+    private native int getDetails(long pointer, ByteBuffer buffer);
 
     private native void setType(long pointer, int type);
 
@@ -191,26 +299,42 @@ public class Activity implements AutoCloseable {
 
     private native boolean getInstance(long pointer);
 
+    private static native void copy(long destination, long source);
+
+    private static native boolean contentEquals(long pointer, long otherPointer);
+
+    private static native void writeSpec(long pointer, byte[] strings, long[] numbers);
+
+    private static native void readSpec(long pointer, byte[] strings, long[] numbers);
+
     /**
-     * <p>Frees the allocated native structure and therefore also all embedded native structures.</p>
-     * <p>You should call this when you do not need the structure anymore.</p>
+     * <p>Frees the allocated native structure and therefore also all embedded native structures, or returns it to
+     * the {@link ActivityPool} it was acquired from.</p>
+     * <p>You should call this when you do not need the structure anymore. Afterwards, the Activity and its embedded
+     * structures throw an {@link IllegalStateException} when used. Closing it again has no effect.</p>
      */
     @Override
     public void close() {
-        free(pointer);
+        if (closed) return;
+
+        closed = true;
+        if (pool == null || !pool.release(this)) free(pointer);
     }
 
     /**
      * <p>Return the pointer to the native structure.</p>
      * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
      * @return A native pointer
+     * @throws IllegalStateException if the Activity has been closed
      */
     public long getPointer() {
-        return pointer;
+        return pointer();
     }
 
     @Override
     public String toString() {
+        if (closed) return "Activity@" + pointer + "{closed}";
+
         return "Activity@" + pointer + "{" + "applicationId="
                 + getApplicationId() + ", name = "
                 + getName() + ", state = "
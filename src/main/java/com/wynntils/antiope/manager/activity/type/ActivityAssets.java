@@ -1,5 +1,7 @@
 package com.wynntils.antiope.manager.activity.type;
 
+import java.nio.ByteBuffer;
+
 /**
  * <p>A structure used for images (assets) attached to activities.</p>
  * <p>Have a look at Discord's Rich Presence Visualizer for more clues:<br>
@@ -9,21 +11,23 @@ package com.wynntils.antiope.manager.activity.type;
  */
 public class ActivityAssets {
     private final long pointer;
+    private final Activity owner;
 
-    ActivityAssets(long pointer) {
+    ActivityAssets(long pointer, Activity owner) {
         this.pointer = pointer;
+        this.owner = owner;
     }
 
     /**
      * <p>Sets the asset to be displayed as the large image.</p>
      * <p>Upload assets at the Art Assets configuration page of your Discord application:<br>
      *     https://discordapp.com/developers/applications/&lt;your application id&gt;/rich-presence/assets</p>
-     * @param assetKey An asset key, max 127 characters
-     * @throws IllegalArgumentException if {@code assetKey} is too long
+     * @param assetKey An asset key, max 127 bytes
+     * @throws IllegalArgumentException if {@code assetKey} is too long, unless strings are truncated
      */
     public void setLargeImage(String assetKey) {
-        if (assetKey.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setLargeImage(pointer, assetKey);
+        int length = NativeStrings.encode(assetKey, owner.isTruncateStrings());
+        setLargeImage(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -31,17 +35,17 @@ public class ActivityAssets {
      * @return The asset key or an empty string if it is not set
      */
     public String getLargeImage() {
-        return getLargeImage(pointer);
+        return NativeStrings.decode(getLargeImage(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * <p>Sets the tooltip text (displayed on hover) for the large image.</p>
-     * @param text A text, max 127 characters
-     * @throws IllegalArgumentException if {@code text} is too long
+     * @param text A text, max 127 bytes
+     * @throws IllegalArgumentException if {@code text} is too long, unless strings are truncated
      */
     public void setLargeText(String text) {
-        if (text.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setLargeText(pointer, text);
+        int length = NativeStrings.encode(text, owner.isTruncateStrings());
+        setLargeText(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -49,19 +53,19 @@ public class ActivityAssets {
      * @return The tooltip text or an empty string if it is not set
      */
     public String getLargeText() {
-        return getLargeText(pointer);
+        return NativeStrings.decode(getLargeText(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * <p>Sets the asset to be displayed as the small image.</p>
      * <p>Upload assets at the Art Assets configuration page of your Discord application:<br>
      *     https://discordapp.com/developers/applications/&lt;your application id&gt;/rich-presence/assets</p>
-     * @param assetKey An asset key, max 127 characters
-     * @throws IllegalArgumentException if {@code assetKey} is too long
+     * @param assetKey An asset key, max 127 bytes
+     * @throws IllegalArgumentException if {@code assetKey} is too long, unless strings are truncated
      */
     public void setSmallImage(String assetKey) {
-        if (assetKey.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setSmallImage(pointer, assetKey);
+        int length = NativeStrings.encode(assetKey, owner.isTruncateStrings());
+        setSmallImage(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -69,17 +73,17 @@ public class ActivityAssets {
      * @return The asset key or an empty string if it is not set
      */
     public String getSmallImage() {
-        return getSmallImage(pointer);
+        return NativeStrings.decode(getSmallImage(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * <p>Sets the tooltip text (displayed on hover) for the small image.</p>
-     * @param text A text, max 127 characters
-     * @throws IllegalArgumentException if {@code text} is too long
+     * @param text A text, max 127 bytes
+     * @throws IllegalArgumentException if {@code text} is too long, unless strings are truncated
      */
     public void setSmallText(String text) {
-        if (text.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setSmallText(pointer, text);
+        int length = NativeStrings.encode(text, owner.isTruncateStrings());
+        setSmallText(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -87,22 +91,27 @@ public class ActivityAssets {
      * @return The tooltip text or an empty string if it is not set
      */
     public String getSmallText() {
-        return getSmallText(pointer);
+        return NativeStrings.decode(getSmallText(pointer(), NativeStrings.buffer()));
+    }
+
+    private long pointer() {
+        owner.checkOpen();
+        return pointer;
     }
 
-    private native void setLargeImage(long pointer, String assetKey);
+    private native void setLargeImage(long pointer, ByteBuffer buffer, int length);
 
-    private native String getLargeImage(long pointer);
+    private native int getLargeImage(long pointer, ByteBuffer buffer);
 
-    private native void setLargeText(long pointer, String text);
+    private native void setLargeText(long pointer, ByteBuffer buffer, int length);
 
-    private native String getLargeText(long pointer);
+    private native int getLargeText(long pointer, ByteBuffer buffer);
 
-    private native void setSmallImage(long pointer, String assetKey);
+    private native void setSmallImage(long pointer, ByteBuffer buffer, int length);
 
-    private native String getSmallImage(long pointer);
+    private native int getSmallImage(long pointer, ByteBuffer buffer);
 
-    private native void setSmallText(long pointer, String text);
+    private native void setSmallText(long pointer, ByteBuffer buffer, int length);
 
-    private native String getSmallText(long pointer);
+    private native int getSmallText(long pointer, ByteBuffer buffer);
 }
@@ -0,0 +1,458 @@
+package com.wynntils.antiope.manager.activity.type;
+
+import com.wynntils.antiope.manager.activity.ActivityManager;
+import com.wynntils.antiope.util.Utf8;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * <p>Activity structure stored in a direct {@link ByteBuffer} instead of native memory.</p>
+ * <p>The buffer has the exact layout of the native structure, so setters and getters are plain buffer accesses
+ * and only {@link ActivityManager#updateActivity(ActivityBuffer)} calls into native code.
+ * The memory is owned by the buffer and freed by the garbage collector, there is nothing to close.</p>
+ * <p>Like an {@link Activity}, an ActivityBuffer is not thread-safe. An update that can not be sent right away
+ * copies it, so it may be changed as soon as the update has been requested.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  ActivityBuffer activity = new ActivityBuffer();
+ *  activity.setState("In a party");
+ *  activity.setPartySize(2, 4);
+ *  core.activityManager().updateActivity(activity);}</pre>
+ *
+ * @see Activity
+ */
+public final class ActivityBuffer {
+    /**
+     * Maximal length of every string field in UTF-8 bytes.
+     */
+    public static final int MAX_LENGTH = 127;
+
+    // offsets of the fields in the native structure, filled in the order of ActivityBuffer.c
+    private static final int TYPE;
+    private static final int APPLICATION_ID;
+    private static final int NAME;
+    private static final int STATE;
+    private static final int DETAILS;
+    private static final int START;
+    private static final int END;
+    private static final int LARGE_IMAGE;
+    private static final int LARGE_TEXT;
+    private static final int SMALL_IMAGE;
+    private static final int SMALL_TEXT;
+    private static final int PARTY_ID;
+    private static final int CURRENT_SIZE;
+    private static final int MAX_SIZE;
+    private static final int MATCH_SECRET;
+    private static final int JOIN_SECRET;
+    private static final int SPECTATE_SECRET;
+    private static final int INSTANCE;
+    private static final int SIZE;
+
+    static {
+        int[] layout = new int[18];
+        SIZE = getLayout(layout);
+
+        TYPE = layout[0];
+        APPLICATION_ID = layout[1];
+        NAME = layout[2];
+        STATE = layout[3];
+        DETAILS = layout[4];
+        START = layout[5];
+        END = layout[6];
+        LARGE_IMAGE = layout[7];
+        LARGE_TEXT = layout[8];
+        SMALL_IMAGE = layout[9];
+        SMALL_TEXT = layout[10];
+        PARTY_ID = layout[11];
+        CURRENT_SIZE = layout[12];
+        MAX_SIZE = layout[13];
+        MATCH_SECRET = layout[14];
+        JOIN_SECRET = layout[15];
+        SPECTATE_SECRET = layout[16];
+        INSTANCE = layout[17];
+    }
+
+    private final ByteBuffer buffer;
+
+    private boolean truncateStrings = false;
+
+    /**
+     * Allocates a new, zeroed Activity structure.
+     */
+    public ActivityBuffer() {
+        // the structure contains 64-bit fields
+        this.buffer = ByteBuffer.allocateDirect(SIZE + Long.BYTES)
+                .alignedSlice(Long.BYTES)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Gets the application ID. This is only set for activities read from Discord.
+     * @return The application ID
+     * @see Activity#getApplicationId()
+     */
+    public long getApplicationId() {
+        return buffer.getLong(APPLICATION_ID);
+    }
+
+    /**
+     * Gets the name. This is only set for activities read from Discord.
+     * @return The name
+     * @see Activity#getName()
+     */
+    public String getName() {
+        return getString(NAME);
+    }
+
+    /**
+     * Sets the player's current party status.
+     * @param state Current party status, max 127 bytes
+     * @throws IllegalArgumentException if {@code state} is too long, unless strings are truncated
+     */
+    public void setState(String state) {
+        putString(STATE, state);
+    }
+
+    /**
+     * Gets the player's current party status.
+     * @return Current party status or an empty string if none is set
+     */
+    public String getState() {
+        return getString(STATE);
+    }
+
+    /**
+     * Sets what the player is currently doing.
+     * @param details What the player is currently doing, max 127 bytes
+     * @throws IllegalArgumentException if {@code details} is too long, unless strings are truncated
+     */
+    public void setDetails(String details) {
+        putString(DETAILS, details);
+    }
+
+    /**
+     * Gets what the player is currently doing.
+     * @return What the player is currently doing or an empty string if it is not set
+     */
+    public String getDetails() {
+        return getString(DETAILS);
+    }
+
+    /**
+     * <p>Sets the type of the Activity.</p>
+     * <p>Only for event handling. Discord will ignore this field.</p>
+     * @param type Activity type
+     */
+    public void setType(ActivityType type) {
+        buffer.putInt(TYPE, type.ordinal());
+    }
+
+    /**
+     * Gets the type of the Activity.
+     * @return Activity type
+     */
+    public ActivityType getType() {
+        return ActivityType.values()[buffer.getInt(TYPE)];
+    }
+
+    /**
+     * <p>Sets the time the user started playing.</p>
+     * <p>This causes an "elapsed" duration to show up.</p>
+     * @param start Start time
+     */
+    public void setStart(Instant start) {
+        buffer.putLong(START, start.getEpochSecond());
+    }
+
+    /**
+     * Gets the time the user started playing.
+     * @return Start time
+     */
+    public Instant getStart() {
+        return Instant.ofEpochSecond(buffer.getLong(START));
+    }
+
+    /**
+     * <p>Sets the time the user will be done.</p>
+     * <p>This causes an "remaining" duration to show up.</p>
+     * @param end End time
+     */
+    public void setEnd(Instant end) {
+        buffer.putLong(END, end.getEpochSecond());
+    }
+
+    /**
+     * Gets the time the user will be done.
+     * @return End time
+     */
+    public Instant getEnd() {
+        return Instant.ofEpochSecond(buffer.getLong(END));
+    }
+
+    /**
+     * Sets the large image.
+     * @param assetKey Asset key of the image, max 127 bytes
+     * @throws IllegalArgumentException if {@code assetKey} is too long, unless strings are truncated
+     */
+    public void setLargeImage(String assetKey) {
+        putString(LARGE_IMAGE, assetKey);
+    }
+
+    /**
+     * Gets the asset key of the large image.
+     * @return Asset key or an empty string if none is set
+     */
+    public String getLargeImage() {
+        return getString(LARGE_IMAGE);
+    }
+
+    /**
+     * Sets the hover text of the large image.
+     * @param text Hover text, max 127 bytes
+     * @throws IllegalArgumentException if {@code text} is too long, unless strings are truncated
+     */
+    public void setLargeText(String text) {
+        putString(LARGE_TEXT, text);
+    }
+
+    /**
+     * Gets the hover text of the large image.
+     * @return Hover text or an empty string if none is set
+     */
+    public String getLargeText() {
+        return getString(LARGE_TEXT);
+    }
+
+    /**
+     * Sets the small image.
+     * @param assetKey Asset key of the image, max 127 bytes
+     * @throws IllegalArgumentException if {@code assetKey} is too long, unless strings are truncated
+     */
+    public void setSmallImage(String assetKey) {
+        putString(SMALL_IMAGE, assetKey);
+    }
+
+    /**
+     * Gets the asset key of the small image.
+     * @return Asset key or an empty string if none is set
+     */
+    public String getSmallImage() {
+        return getString(SMALL_IMAGE);
+    }
+
+    /**
+     * Sets the hover text of the small image.
+     * @param text Hover text, max 127 bytes
+     * @throws IllegalArgumentException if {@code text} is too long, unless strings are truncated
+     */
+    public void setSmallText(String text) {
+        putString(SMALL_TEXT, text);
+    }
+
+    /**
+     * Gets the hover text of the small image.
+     * @return Hover text or an empty string if none is set
+     */
+    public String getSmallText() {
+        return getString(SMALL_TEXT);
+    }
+
+    /**
+     * Sets the ID of the party.
+     * @param id Party ID, max 127 bytes
+     * @throws IllegalArgumentException if {@code id} is too long, unless strings are truncated
+     */
+    public void setPartyId(String id) {
+        putString(PARTY_ID, id);
+    }
+
+    /**
+     * Gets the ID of the party.
+     * @return Party ID or an empty string if none is set
+     */
+    public String getPartyId() {
+        return getString(PARTY_ID);
+    }
+
+    /**
+     * Sets the size of the party.
+     * @param currentSize Current size of the party
+     * @param maxSize Maximal size of the party
+     */
+    public void setPartySize(int currentSize, int maxSize) {
+        buffer.putInt(CURRENT_SIZE, currentSize);
+        buffer.putInt(MAX_SIZE, maxSize);
+    }
+
+    /**
+     * Gets the current size of the party.
+     * @return Current size of the party
+     */
+    public int getPartyCurrentSize() {
+        return buffer.getInt(CURRENT_SIZE);
+    }
+
+    /**
+     * Gets the maximal size of the party.
+     * @return Maximal size of the party
+     */
+    public int getPartyMaxSize() {
+        return buffer.getInt(MAX_SIZE);
+    }
+
+    /**
+     * Sets the unique hash for the given match context.
+     * @param secret Match secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
+     */
+    public void setMatchSecret(String secret) {
+        putString(MATCH_SECRET, secret);
+    }
+
+    /**
+     * Gets the unique hash for the given match context.
+     * @return Match secret or an empty string if none is set
+     */
+    public String getMatchSecret() {
+        return getString(MATCH_SECRET);
+    }
+
+    /**
+     * Sets the unique hash for chat invites and "Ask to join".
+     * @param secret Join secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
+     */
+    public void setJoinSecret(String secret) {
+        putString(JOIN_SECRET, secret);
+    }
+
+    /**
+     * Gets the unique hash for chat invites and "Ask to join".
+     * @return Join secret or an empty string if none is set
+     */
+    public String getJoinSecret() {
+        return getString(JOIN_SECRET);
+    }
+
+    /**
+     * Sets the unique hash for "Spectate" button.
+     * @param secret Spectate secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
+     */
+    public void setSpectateSecret(String secret) {
+        putString(SPECTATE_SECRET, secret);
+    }
+
+    /**
+     * Gets the unique hash for "Spectate" button.
+     * @return Spectate secret or an empty string if none is set
+     */
+    public String getSpectateSecret() {
+        return getString(SPECTATE_SECRET);
+    }
+
+    /**
+     * Sets whether the player is in an instance.
+     * @param instance whether the player is in an instance
+     */
+    public void setInstance(boolean instance) {
+        buffer.put(INSTANCE, (byte) (instance ? 1 : 0));
+    }
+
+    /**
+     * Gets whether the player is in an instance.
+     * @return {@code true} if the player is in an instance
+     */
+    public boolean isInstance() {
+        return buffer.get(INSTANCE) != 0;
+    }
+
+    /**
+     * <p>Sets how the string setters handle values that are too long.</p>
+     * <p>By default they throw an {@link IllegalArgumentException}. If enabled, the value is cut off
+     * after the last complete character that fits into 127 bytes instead.</p>
+     * @param truncateStrings Whether to truncate strings that are too long
+     */
+    public void setTruncateStrings(boolean truncateStrings) {
+        this.truncateStrings = truncateStrings;
+    }
+
+    /**
+     * Gets whether string setters truncate values that are too long instead of throwing.
+     * @return {@code true} if strings are truncated
+     * @see #setTruncateStrings(boolean)
+     */
+    public boolean isTruncateStrings() {
+        return truncateStrings;
+    }
+
+    /**
+     * Copies the fields that can be set into an immutable {@link ActivitySpec}.
+     * @return The current fields of this buffer
+     */
+    public ActivitySpec snapshot() {
+        return ActivitySpec.builder()
+                .setState(getState())
+                .setDetails(getDetails())
+                .setType(getType())
+                .setStart(getStart())
+                .setEnd(getEnd())
+                .setLargeImage(getLargeImage())
+                .setLargeText(getLargeText())
+                .setSmallImage(getSmallImage())
+                .setSmallText(getSmallText())
+                .setPartyId(getPartyId())
+                .setPartySize(getPartyCurrentSize(), getPartyMaxSize())
+                .setMatchSecret(getMatchSecret())
+                .setJoinSecret(getJoinSecret())
+                .setSpectateSecret(getSpectateSecret())
+                .setInstance(isInstance())
+                .build();
+    }
+
+    /**
+     * Resets all fields to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < SIZE; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * <p>Returns the buffer holding the native structure.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @return A direct buffer
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void putString(int offset, String value) {
+        Utf8.encode(value, buffer, offset, MAX_LENGTH, truncateStrings);
+    }
+
+    private String getString(int offset) {
+        int length = 0;
+        while (length < MAX_LENGTH && buffer.get(offset + length) != 0) length++;
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset).limit(offset + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    private static native int getLayout(int[] offsets);
+
+    @Override
+    public String toString() {
+        return "ActivityBuffer{" + "applicationId=" + getApplicationId() + ", name=" + getName() + ", state="
+                + getState() + ", details=" + getDetails() + ", type=" + getType() + ", start=" + getStart()
+                + ", end=" + getEnd() + ", largeImage=" + getLargeImage() + ", largeText=" + getLargeText()
+                + ", smallImage=" + getSmallImage() + ", smallText=" + getSmallText() + ", partyId="
+                + getPartyId() + ", partySize=" + getPartyCurrentSize() + "/" + getPartyMaxSize()
+                + ", instance=" + isInstance() + '}';
+    }
+}
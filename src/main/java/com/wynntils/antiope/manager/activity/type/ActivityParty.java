@@ -1,5 +1,7 @@
 package com.wynntils.antiope.manager.activity.type;
 
+import java.nio.ByteBuffer;
+
 /**
  * A structure used show information about the player's party.
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#data-models-activityparty-struct">
@@ -7,23 +9,25 @@ package com.wynntils.antiope.manager.activity.type;
  */
 public class ActivityParty {
     private final long pointer;
+    private final Activity owner;
 
     private final ActivityPartySize size;
 
-    ActivityParty(long pointer) {
+    ActivityParty(long pointer, Activity owner) {
         this.pointer = pointer;
+        this.owner = owner;
 
-        this.size = new ActivityPartySize(getSize(pointer));
+        this.size = new ActivityPartySize(getSize(pointer), owner);
     }
 
     /**
      * Sets an unique identifier for the party.
-     * @param id a unique identifier, max 127 characters
-     * @throws IllegalArgumentException if {@code id} is too long
+     * @param id a unique identifier, max 127 bytes
+     * @throws IllegalArgumentException if {@code id} is too long, unless strings are truncated
      */
     public void setID(String id) {
-        if (id.getBytes().length >= 128) throw new IllegalArgumentException("max length is 127");
-        setID(pointer, id);
+        int length = NativeStrings.encode(id, owner.isTruncateStrings());
+        setID(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -31,7 +35,7 @@ public class ActivityParty {
      * @return The unique identifier or an empty string if it is not set
      */
     public String getID() {
-        return getID(pointer);
+        return NativeStrings.decode(getID(pointer(), NativeStrings.buffer()));
     }
 
     /**
@@ -42,9 +46,14 @@ public class ActivityParty {
         return size;
     }
 
-    private native void setID(long pointer, String id);
+    private long pointer() {
+        owner.checkOpen();
+        return pointer;
+    }
+
+    private native void setID(long pointer, ByteBuffer buffer, int length);
 
-    private native String getID(long pointer);
+    private native int getID(long pointer, ByteBuffer buffer);
 
     private native long getSize(long pointer);
 }
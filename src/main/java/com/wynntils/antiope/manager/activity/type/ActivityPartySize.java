@@ -7,9 +7,11 @@ package com.wynntils.antiope.manager.activity.type;
  */
 public class ActivityPartySize {
     private final long pointer;
+    private final Activity owner;
 
-    ActivityPartySize(long pointer) {
+    ActivityPartySize(long pointer, Activity owner) {
         this.pointer = pointer;
+        this.owner = owner;
     }
 
     /**
@@ -17,7 +19,7 @@ public class ActivityPartySize {
      * @param size The current size
      */
     public void setCurrentSize(int size) {
-        setCurrentSize(pointer, size);
+        setCurrentSize(pointer(), size);
     }
 
     /**
@@ -25,7 +27,7 @@ public class ActivityPartySize {
      * @return The current size
      */
     public int getCurrentSize() {
-        return getCurrentSize(pointer);
+        return getCurrentSize(pointer());
     }
 
     /**
@@ -33,7 +35,7 @@ public class ActivityPartySize {
      * @param size The maximal size
      */
     public void setMaxSize(int size) {
-        setMaxSize(pointer, size);
+        setMaxSize(pointer(), size);
     }
 
     /**
@@ -41,7 +43,12 @@ public class ActivityPartySize {
      * @return The maximal size
      */
     public int getMaxSize() {
-        return getMaxSize(pointer);
+        return getMaxSize(pointer());
+    }
+
+    private long pointer() {
+        owner.checkOpen();
+        return pointer;
     }
 
     private native void setCurrentSize(long pointer, int size);
@@ -0,0 +1,129 @@
+package com.wynntils.antiope.manager.activity.type;
+
+/**
+ * <p>Pool of reusable {@link Activity} structures.</p>
+ * <p>The native structures and their embedded structures are allocated when the pool is created.
+ * {@link #acquire()} hands out a zeroed Activity and {@link Activity#close()} zeroes it and returns it to the pool,
+ * so building an activity again and again allocates neither native memory nor Java objects. If the pool is empty,
+ * {@link #acquire()} allocates another Activity, which is kept on return while the pool has room for it.</p>
+ * <p>A returned Activity throws an {@link IllegalStateException} when used, until it is handed out again. Since it
+ * may be handed out again at any time, do not keep references to it after closing it. An update copies the activity
+ * if it can not be sent right away, so it can be closed as soon as the update has been requested.</p>
+ * <p>The pool is thread-safe, the activities it hands out are not.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  ActivityPool pool = new ActivityPool(2);
+ *  // every tick
+ *  try(Activity activity = pool.acquire())
+ *  {
+ *      activity.setState("In a party");
+ *      core.activityManager().updateActivity(activity);
+ *  }}</pre>
+ */
+public final class ActivityPool implements AutoCloseable {
+    private final Activity[] idle;
+    private int count = 0;
+    private boolean open = true;
+
+    private long acquired = 0;
+    private long allocated = 0;
+
+    /**
+     * Creates a pool and allocates all of its activities.
+     * @param capacity Number of activities kept in the pool
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     */
+    public ActivityPool(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Negative capacity");
+
+        this.idle = new Activity[capacity];
+        for (int i = 0; i < capacity; i++) {
+            new Activity(this).close();
+        }
+        this.allocated = capacity;
+    }
+
+    /**
+     * Takes a zeroed Activity from the pool, or allocates a new one if the pool is empty.
+     * @return An Activity, returned to the pool by {@link Activity#close()}
+     * @throws IllegalStateException if the pool has been closed
+     */
+    public synchronized Activity acquire() {
+        if (!open) throw new IllegalStateException("Activity pool has been closed");
+
+        acquired++;
+        if (count == 0) {
+            allocated++;
+            return new Activity(this);
+        }
+
+        Activity activity = idle[--count];
+        idle[count] = null;
+        activity.reopen();
+        return activity;
+    }
+
+    // called by a closing Activity, false if it has to be freed instead
+    synchronized boolean release(Activity activity) {
+        if (!open || count == idle.length) return false;
+
+        activity.reset();
+        idle[count++] = activity;
+        return true;
+    }
+
+    /**
+     * Gets the number of activities the pool keeps.
+     * @return The capacity given to the constructor
+     */
+    public int getCapacity() {
+        return idle.length;
+    }
+
+    /**
+     * Gets the number of activities ready to be handed out without allocating.
+     * @return Number of idle activities
+     */
+    public synchronized int getIdle() {
+        return count;
+    }
+
+    /**
+     * Gets how many activities have been handed out.
+     * @return Number of calls to {@link #acquire()}
+     */
+    public synchronized long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Gets how many native structures the pool allocated, including those allocated up front. If this grows
+     * while the game is running, the capacity is too small.
+     * @return Number of allocated structures
+     */
+    public synchronized long getAllocated() {
+        return allocated;
+    }
+
+    /**
+     * Frees the idle activities. Activities handed out stay usable and are freed when they are closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (!open) return;
+
+        open = false;
+        for (int i = 0; i < count; i++) {
+            idle[i].free();
+            idle[i] = null;
+        }
+        count = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ActivityPool{" + "open=" + open + ", capacity=" + idle.length + ", idle=" + count + ", acquired="
+                + acquired + ", allocated=" + allocated + '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.wynntils.antiope.manager.activity.type;
 
+import java.nio.ByteBuffer;
+
 /**
  * A structure containing secrets used to handle and display join and spectate options.
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/activities#data-models-activitysecrets-struct">
@@ -7,36 +9,38 @@ package com.wynntils.antiope.manager.activity.type;
  */
 public class ActivitySecrets {
     private final long pointer;
+    private final Activity owner;
 
-    ActivitySecrets(long pointer) {
+    ActivitySecrets(long pointer, Activity owner) {
         this.pointer = pointer;
+        this.owner = owner;
     }
 
     /**
      * Sets the unique secret for the match context (whatever that is).
-     * @param secret A unique secret, max 127 characters
-     * @throws IllegalArgumentException if {@code secret} is too long
+     * @param secret A unique secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
      */
     public void setMatchSecret(String secret) {
-        if (secret.getBytes().length >= 128) throw new IllegalArgumentException("max length is 128");
-        setMatchSecret(pointer, secret);
+        int length = NativeStrings.encode(secret, owner.isTruncateStrings());
+        setMatchSecret(pointer(), NativeStrings.buffer(), length);
     }
     /**
      * Gets the unique secret for the match context (whatever that is).
      * @return The unique secret or an empty string if it is not set
      */
     public String getMatchSecret() {
-        return getMatchSecret(pointer);
+        return NativeStrings.decode(getMatchSecret(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * Sets a unique secret for join request and invites.
-     * @param secret A unique secret, max 127 characters
-     * @throws IllegalArgumentException if {@code secret} is too long
+     * @param secret A unique secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
      */
     public void setJoinSecret(String secret) {
-        if (secret.getBytes().length >= 128) throw new IllegalArgumentException("max length is 128");
-        setJoinSecret(pointer, secret);
+        int length = NativeStrings.encode(secret, owner.isTruncateStrings());
+        setJoinSecret(pointer(), NativeStrings.buffer(), length);
     }
 
     /**
@@ -44,35 +48,40 @@ public class ActivitySecrets {
      * @return The unique secret or an empty string if it is not set
      */
     public String getJoinSecret() {
-        return getJoinSecret(pointer);
+        return NativeStrings.decode(getJoinSecret(pointer(), NativeStrings.buffer()));
     }
 
     /**
      * Sets a unique secret for spectate option and invites.
-     * @param secret A unique secret, max 127 characters
-     * @throws IllegalArgumentException if {@code secret} is too long
+     * @param secret A unique secret, max 127 bytes
+     * @throws IllegalArgumentException if {@code secret} is too long, unless strings are truncated
      */
     public void setSpectateSecret(String secret) {
-        if (secret.getBytes().length >= 128) throw new IllegalArgumentException("max length is 128");
-        setSpectateSecret(pointer, secret);
+        int length = NativeStrings.encode(secret, owner.isTruncateStrings());
+        setSpectateSecret(pointer(), NativeStrings.buffer(), length);
     }
     /**
      * Gets the unique spectate secret.
      * @return The unique secret or an empty string if it is not set
      */
     public String getSpectateSecret() {
-        return getSpectateSecret(pointer);
+        return NativeStrings.decode(getSpectateSecret(pointer(), NativeStrings.buffer()));
+    }
+
+    private long pointer() {
+        owner.checkOpen();
+        return pointer;
     }
 
-    private native void setMatchSecret(long pointer, String secret);
+    private native void setMatchSecret(long pointer, ByteBuffer buffer, int length);
 
-    private native String getMatchSecret(long pointer);
+    private native int getMatchSecret(long pointer, ByteBuffer buffer);
 
-    private native void setJoinSecret(long pointer, String secret);
+    private native void setJoinSecret(long pointer, ByteBuffer buffer, int length);
 
-    private native String getJoinSecret(long pointer);
+    private native int getJoinSecret(long pointer, ByteBuffer buffer);
 
-    private native void setSpectateSecret(long pointer, String secret);
+    private native void setSpectateSecret(long pointer, ByteBuffer buffer, int length);
 
-    private native String getSpectateSecret(long pointer);
+    private native int getSpectateSecret(long pointer, ByteBuffer buffer);
 }
@@ -0,0 +1,502 @@
+package com.wynntils.antiope.manager.activity.type;
+
+import com.wynntils.antiope.manager.activity.ActivityManager;
+import com.wynntils.antiope.util.Utf8;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Immutable Java-side value of an {@link Activity}.</p>
+ * <p>Unlike an {@link Activity}, which calls into native code for every field, an ActivitySpec is
+ * encoded once when it is built and crosses into native code as a whole: writing it into an
+ * {@link Activity} or sending it with {@link ActivityManager#updateActivity(ActivitySpec)} takes a single
+ * native call, and so does taking a {@link Activity#snapshot()}.</p>
+ *
+ * Example:
+ * <pre>{@code
+ *  ActivitySpec spec = ActivitySpec.builder()
+ *          .setState("In a party")
+ *          .setDetails("Ranked")
+ *          .setStart(Instant.now())
+ *          .setPartySize(2, 4)
+ *          .build();
+ *  core.activityManager().updateActivity(spec);}</pre>
+ */
+public final class ActivitySpec {
+    /**
+     * Maximal length of every string field in UTF-8 bytes.
+     */
+    public static final int MAX_LENGTH = 127;
+
+    // layout shared with ActivitySpec.h
+    static final int STRING_SIZE = 128;
+    static final int STRING_COUNT = 11;
+    static final int NUMBER_COUNT = 7;
+
+    private static final int NAME = 0;
+    private static final int STATE = 1;
+    private static final int DETAILS = 2;
+    private static final int LARGE_IMAGE = 3;
+    private static final int LARGE_TEXT = 4;
+    private static final int SMALL_IMAGE = 5;
+    private static final int SMALL_TEXT = 6;
+    private static final int PARTY_ID = 7;
+    private static final int MATCH_SECRET = 8;
+    private static final int JOIN_SECRET = 9;
+    private static final int SPECTATE_SECRET = 10;
+
+    private static final int TYPE = 0;
+    private static final int APPLICATION_ID = 1;
+    private static final int START = 2;
+    private static final int END = 3;
+    private static final int CURRENT_SIZE = 4;
+    private static final int MAX_SIZE = 5;
+    private static final int INSTANCE = 6;
+
+    private static final ActivitySpec EMPTY = builder().build();
+
+    private final String[] strings;
+    private final byte[] stringData;
+    private final long[] numberData;
+
+    private ActivitySpec(String[] strings, byte[] stringData, long[] numberData) {
+        this.strings = strings;
+        this.stringData = stringData;
+        this.numberData = numberData;
+    }
+
+    /**
+     * Creates a builder for a new ActivitySpec with all fields empty.
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns an ActivitySpec with all fields empty.
+     * @return An empty ActivitySpec
+     */
+    public static ActivitySpec empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a builder initialized with the fields of this ActivitySpec.
+     * @return A new builder
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * <p>Creates an ActivitySpec from data returned by {@link #getStringData()} and {@link #getNumberData()},
+     * e.g. after it has been copied to another process.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param stringData The encoded strings, not copied
+     * @param numberData The numbers, not copied
+     * @return A new ActivitySpec
+     * @throws IllegalArgumentException if the arrays do not have the native layout
+     */
+    public static ActivitySpec fromData(byte[] stringData, long[] numberData) {
+        if (stringData.length != STRING_COUNT * STRING_SIZE || numberData.length != NUMBER_COUNT) {
+            throw new IllegalArgumentException("Invalid activity data");
+        }
+        return fromNative(stringData, numberData);
+    }
+
+    static ActivitySpec fromNative(byte[] stringData, long[] numberData) {
+        String[] strings = new String[STRING_COUNT];
+        for (int i = 0; i < STRING_COUNT; i++) {
+            int offset = i * STRING_SIZE;
+            int length = 0;
+            while (length < MAX_LENGTH && stringData[offset + length] != 0) length++;
+            strings[i] = new String(stringData, offset, length, StandardCharsets.UTF_8);
+        }
+        return new ActivitySpec(strings, stringData, numberData);
+    }
+
+    /**
+     * Gets the application ID. This is only set for activities read from Discord.
+     * @return The application ID
+     * @see Activity#getApplicationId()
+     */
+    public long getApplicationId() {
+        return numberData[APPLICATION_ID];
+    }
+
+    /**
+     * Gets the name. This is only set for activities read from Discord.
+     * @return The name
+     * @see Activity#getName()
+     */
+    public String getName() {
+        return strings[NAME];
+    }
+
+    /**
+     * Gets the player's current party status.
+     * @return Current party status or an empty string if none is set
+     */
+    public String getState() {
+        return strings[STATE];
+    }
+
+    /**
+     * Gets what the player is currently doing.
+     * @return What the player is currently doing or an empty string if it is not set
+     */
+    public String getDetails() {
+        return strings[DETAILS];
+    }
+
+    /**
+     * Gets the type of the Activity.
+     * @return Activity type
+     * @see Activity#getType()
+     */
+    public ActivityType getType() {
+        return ActivityType.values()[(int) numberData[TYPE]];
+    }
+
+    /**
+     * Gets the time the user started playing.
+     * @return Start time
+     */
+    public Instant getStart() {
+        return Instant.ofEpochSecond(numberData[START]);
+    }
+
+    /**
+     * Gets the time the user will be done.
+     * @return End time
+     */
+    public Instant getEnd() {
+        return Instant.ofEpochSecond(numberData[END]);
+    }
+
+    /**
+     * Gets the asset key of the large image.
+     * @return Asset key or an empty string if none is set
+     */
+    public String getLargeImage() {
+        return strings[LARGE_IMAGE];
+    }
+
+    /**
+     * Gets the hover text of the large image.
+     * @return Hover text or an empty string if none is set
+     */
+    public String getLargeText() {
+        return strings[LARGE_TEXT];
+    }
+
+    /**
+     * Gets the asset key of the small image.
+     * @return Asset key or an empty string if none is set
+     */
+    public String getSmallImage() {
+        return strings[SMALL_IMAGE];
+    }
+
+    /**
+     * Gets the hover text of the small image.
+     * @return Hover text or an empty string if none is set
+     */
+    public String getSmallText() {
+        return strings[SMALL_TEXT];
+    }
+
+    /**
+     * Gets the ID of the party.
+     * @return Party ID or an empty string if none is set
+     */
+    public String getPartyId() {
+        return strings[PARTY_ID];
+    }
+
+    /**
+     * Gets the current size of the party.
+     * @return Current size of the party
+     */
+    public int getPartyCurrentSize() {
+        return (int) numberData[CURRENT_SIZE];
+    }
+
+    /**
+     * Gets the maximal size of the party.
+     * @return Maximal size of the party
+     */
+    public int getPartyMaxSize() {
+        return (int) numberData[MAX_SIZE];
+    }
+
+    /**
+     * Gets the unique hash for the given match context.
+     * @return Match secret or an empty string if none is set
+     */
+    public String getMatchSecret() {
+        return strings[MATCH_SECRET];
+    }
+
+    /**
+     * Gets the unique hash for chat invites and "Ask to join".
+     * @return Join secret or an empty string if none is set
+     */
+    public String getJoinSecret() {
+        return strings[JOIN_SECRET];
+    }
+
+    /**
+     * Gets the unique hash for "Spectate" button.
+     * @return Spectate secret or an empty string if none is set
+     */
+    public String getSpectateSecret() {
+        return strings[SPECTATE_SECRET];
+    }
+
+    /**
+     * Gets whether the player is in an instance.
+     * @return {@code true} if the player is in an instance
+     */
+    public boolean isInstance() {
+        return numberData[INSTANCE] != 0;
+    }
+
+    /**
+     * <p>Returns the encoded strings in the layout expected by native code.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it and do <b>not</b> modify the array.</p>
+     * @return The encoded strings
+     */
+    public byte[] getStringData() {
+        return stringData;
+    }
+
+    /**
+     * <p>Returns the numbers in the layout expected by native code.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it and do <b>not</b> modify the array.</p>
+     * @return The numbers
+     */
+    public long[] getNumberData() {
+        return numberData;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ActivitySpec)) return false;
+        ActivitySpec that = (ActivitySpec) o;
+        return Arrays.equals(numberData, that.numberData) && Arrays.equals(stringData, that.stringData);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(numberData) + Arrays.hashCode(stringData);
+    }
+
+    @Override
+    public String toString() {
+        return "ActivitySpec{" + "applicationId=" + getApplicationId() + ", name=" + getName() + ", state="
+                + getState() + ", details=" + getDetails() + ", type=" + getType() + ", start=" + getStart()
+                + ", end=" + getEnd() + ", largeImage=" + getLargeImage() + ", largeText=" + getLargeText()
+                + ", smallImage=" + getSmallImage() + ", smallText=" + getSmallText() + ", partyId="
+                + getPartyId() + ", partySize=" + getPartyCurrentSize() + "/" + getPartyMaxSize()
+                + ", instance=" + isInstance() + '}';
+    }
+
+    /**
+     * Builder for {@link ActivitySpec}s. String fields are checked to fit into the native structure when they are set.
+     */
+    public static final class Builder {
+        private final String[] strings = new String[STRING_COUNT];
+        private final long[] numbers = new long[NUMBER_COUNT];
+
+        private Builder() {
+            Arrays.fill(strings, "");
+        }
+
+        private Builder(ActivitySpec spec) {
+            System.arraycopy(spec.strings, 0, strings, 0, STRING_COUNT);
+            System.arraycopy(spec.numberData, 0, numbers, 0, NUMBER_COUNT);
+        }
+
+        /**
+         * Sets the player's current party status.
+         * @param state Current party status, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code state} is too long
+         */
+        public Builder setState(String state) {
+            return setString(STATE, state);
+        }
+
+        /**
+         * Sets what the player is currently doing.
+         * @param details What the player is currently doing, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code details} is too long
+         */
+        public Builder setDetails(String details) {
+            return setString(DETAILS, details);
+        }
+
+        /**
+         * <p>Sets the type of the Activity.</p>
+         * <p>Only for event handling. Discord will ignore this field.</p>
+         * @param type Activity type
+         * @return This builder
+         */
+        public Builder setType(ActivityType type) {
+            numbers[TYPE] = type.ordinal();
+            return this;
+        }
+
+        /**
+         * <p>Sets the time the user started playing.</p>
+         * <p>This causes an "elapsed" duration to show up.</p>
+         * @param start Start time
+         * @return This builder
+         */
+        public Builder setStart(Instant start) {
+            numbers[START] = start.getEpochSecond();
+            return this;
+        }
+
+        /**
+         * <p>Sets the time the user will be done.</p>
+         * <p>This causes an "remaining" duration to show up.</p>
+         * @param end End time
+         * @return This builder
+         */
+        public Builder setEnd(Instant end) {
+            numbers[END] = end.getEpochSecond();
+            return this;
+        }
+
+        /**
+         * Sets the large image.
+         * @param assetKey Asset key of the image, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code assetKey} is too long
+         */
+        public Builder setLargeImage(String assetKey) {
+            return setString(LARGE_IMAGE, assetKey);
+        }
+
+        /**
+         * Sets the hover text of the large image.
+         * @param text Hover text, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code text} is too long
+         */
+        public Builder setLargeText(String text) {
+            return setString(LARGE_TEXT, text);
+        }
+
+        /**
+         * Sets the small image.
+         * @param assetKey Asset key of the image, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code assetKey} is too long
+         */
+        public Builder setSmallImage(String assetKey) {
+            return setString(SMALL_IMAGE, assetKey);
+        }
+
+        /**
+         * Sets the hover text of the small image.
+         * @param text Hover text, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code text} is too long
+         */
+        public Builder setSmallText(String text) {
+            return setString(SMALL_TEXT, text);
+        }
+
+        /**
+         * Sets the ID of the party.
+         * @param id Party ID, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code id} is too long
+         */
+        public Builder setPartyId(String id) {
+            return setString(PARTY_ID, id);
+        }
+
+        /**
+         * Sets the size of the party.
+         * @param currentSize Current size of the party
+         * @param maxSize Maximal size of the party
+         * @return This builder
+         */
+        public Builder setPartySize(int currentSize, int maxSize) {
+            numbers[CURRENT_SIZE] = currentSize;
+            numbers[MAX_SIZE] = maxSize;
+            return this;
+        }
+
+        /**
+         * Sets the unique hash for the given match context.
+         * @param secret Match secret, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code secret} is too long
+         */
+        public Builder setMatchSecret(String secret) {
+            return setString(MATCH_SECRET, secret);
+        }
+
+        /**
+         * Sets the unique hash for chat invites and "Ask to join".
+         * @param secret Join secret, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code secret} is too long
+         */
+        public Builder setJoinSecret(String secret) {
+            return setString(JOIN_SECRET, secret);
+        }
+
+        /**
+         * Sets the unique hash for "Spectate" button.
+         * @param secret Spectate secret, max 127 bytes
+         * @return This builder
+         * @throws IllegalArgumentException if {@code secret} is too long
+         */
+        public Builder setSpectateSecret(String secret) {
+            return setString(SPECTATE_SECRET, secret);
+        }
+
+        /**
+         * Sets whether the player is in an instance.
+         * @param instance whether the player is in an instance
+         * @return This builder
+         */
+        public Builder setInstance(boolean instance) {
+            numbers[INSTANCE] = instance ? 1 : 0;
+            return this;
+        }
+
+        /**
+         * Encodes all fields into a new {@link ActivitySpec}.
+         * @return A new ActivitySpec
+         */
+        public ActivitySpec build() {
+            byte[] stringData = new byte[STRING_COUNT * STRING_SIZE];
+            for (int i = 0; i < STRING_COUNT; i++) {
+                byte[] bytes = strings[i].getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(bytes, 0, stringData, i * STRING_SIZE, bytes.length);
+            }
+            return new ActivitySpec(strings.clone(), stringData, numbers.clone());
+        }
+
+        private Builder setString(int index, String value) {
+            Objects.requireNonNull(value);
+            if (Utf8.encodedLength(value) > MAX_LENGTH)
+                throw new IllegalArgumentException("max length is " + MAX_LENGTH);
+
+            strings[index] = value;
+            return this;
+        }
+    }
+}
@@ -9,9 +9,11 @@ import java.time.Instant;
  */
 public class ActivityTimestamps {
     private final long pointer;
+    private final Activity owner;
 
-    ActivityTimestamps(long pointer) {
+    ActivityTimestamps(long pointer, Activity owner) {
         this.pointer = pointer;
+        this.owner = owner;
     }
 
     /**
@@ -20,7 +22,7 @@ public class ActivityTimestamps {
      * @param start Start time
      */
     public void setStart(Instant start) {
-        setStart(pointer, start.getEpochSecond());
+        setStart(pointer(), start.getEpochSecond());
     }
 
     /**
@@ -28,7 +30,7 @@ public class ActivityTimestamps {
      * @return Start time
      */
     public Instant getStart() {
-        return Instant.ofEpochSecond(getStart(pointer));
+        return Instant.ofEpochSecond(getStart(pointer()));
     }
 
     /**
@@ -37,7 +39,7 @@ public class ActivityTimestamps {
      * @param end End time
      */
     public void setEnd(Instant end) {
-        setEnd(pointer, end.getEpochSecond());
+        setEnd(pointer(), end.getEpochSecond());
     }
 
     /**
@@ -45,7 +47,12 @@ public class ActivityTimestamps {
      * @return End time
      */
     public Instant getEnd() {
-        return Instant.ofEpochSecond(getEnd(pointer));
+        return Instant.ofEpochSecond(getEnd(pointer()));
+    }
+
+    private long pointer() {
+        owner.checkOpen();
+        return pointer;
     }
 
     private native void setStart(long pointer, long start);
@@ -0,0 +1,53 @@
+package com.wynntils.antiope.manager.activity.type;
+
+import com.wynntils.antiope.util.Utf8;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Passes the string fields of the native structures through a reusable direct buffer per thread.</p>
+ * <p>Setters encode into the buffer and native code copies at most {@link #MAX_LENGTH} bytes out of it,
+ * getters let native code copy the field into the buffer and decode it here. This way the length check
+ * and the copy always agree and no setter allocates.</p>
+ */
+final class NativeStrings {
+    /**
+     * Maximal length of every string field in UTF-8 bytes.
+     */
+    static final int MAX_LENGTH = 127;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(MAX_LENGTH + 1));
+
+    private NativeStrings() {}
+
+    /**
+     * Returns the buffer of the current thread.
+     * @return A direct buffer of {@link #MAX_LENGTH} + 1 bytes
+     */
+    static ByteBuffer buffer() {
+        return BUFFER.get();
+    }
+
+    /**
+     * Encodes a string into the buffer of the current thread.
+     * @param value A string
+     * @param truncate Whether to truncate a string that is too long instead of throwing
+     * @return Length in bytes
+     * @throws IllegalArgumentException if {@code value} is too long and {@code truncate} is false
+     */
+    static int encode(String value, boolean truncate) {
+        return Utf8.encode(value, buffer(), 0, MAX_LENGTH, truncate);
+    }
+
+    /**
+     * Decodes a string native code copied into the buffer of the current thread.
+     * @param length Length in bytes
+     * @return The decoded string
+     */
+    static String decode(int length) {
+        ByteBuffer buffer = buffer().duplicate();
+        buffer.limit(length);
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+}
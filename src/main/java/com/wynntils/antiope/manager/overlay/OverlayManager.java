@@ -1,25 +1,45 @@
 package com.wynntils.antiope.manager.overlay;
 
+import com.wynntils.antiope.backend.OverlayBackend;
 import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.core.type.SdkOperation;
+import com.wynntils.antiope.jfr.CallbackEvent;
 import com.wynntils.antiope.manager.activity.type.ActivityActionType;
 import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.util.DiscordUtils;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
- * Manager to control Discord's game overlay.
+ * <p>Manager to control Discord's game overlay.</p>
+ * <p>Its {@code ...Async} methods work like those of
+ * {@link com.wynntils.antiope.manager.activity.ActivityManager}.</p>
  * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay">
  *     https://discordapp.com/developers/docs/game-sdk/overlay</a>
  */
 public class OverlayManager {
-    private final long pointer;
+    private final OverlayBackend backend;
     private final DiscordGameSDKCore core;
 
-    public OverlayManager(long pointer, DiscordGameSDKCore core) {
-        this.pointer = pointer;
+    public OverlayManager(OverlayBackend backend, DiscordGameSDKCore core) {
+        this.backend = backend;
         this.core = core;
     }
 
+    /**
+     * <p>Creates the backend calling the overlay manager of Discord's native library.</p>
+     * <p>This is <b>not</b> an API method. Do <b>not</b> call it.</p>
+     * @param pointer Pointer to the native overlay manager
+     * @param callbackPool Pointer to the native pool of callback records of the core
+     * @return A backend for {@link DiscordGameSDKCore#NATIVE_BACKEND}
+     */
+    public static OverlayBackend nativeBackend(long pointer, long callbackPool) {
+        return new NativeOverlayBackend(pointer, callbackPool);
+    }
+
     /**
      * <p>Checks if the overlay is enabled by the user.</p>
      * @return {@code true} if the overlay is enabled
@@ -27,7 +47,7 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#isenabled</a>
      */
     public boolean isEnabled() {
-        return core.execute(() -> isEnabled(pointer));
+        return core.execute(backend::isEnabled);
     }
 
     /**
@@ -37,7 +57,7 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#islocked</a>
      */
     public boolean isLocked() {
-        return core.execute(() -> isLocked(pointer));
+        return core.execute(backend::isLocked);
     }
 
     /**
@@ -60,7 +80,26 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#setlocked</a>
      */
     public void setLocked(boolean locked, Consumer<Result> callback) {
-        core.execute(() -> setLocked(pointer, locked, Objects.requireNonNull(callback)));
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.SET_OVERLAY_LOCKED, callback);
+        core.executeRequest(() -> backend.setLocked(locked, traced));
+    }
+
+    /**
+     * <p>Changes the locked status of the overlay.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param locked New locked status
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #setLocked(boolean, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay#setlocked">
+     *     https://discordapp.com/developers/docs/game-sdk/overlay#setlocked</a>
+     */
+    public CompletableFuture<Void> setLockedAsync(boolean locked, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        setLocked(locked, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -83,7 +122,27 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#openactivityinvite</a>
      */
     public void openActivityInvite(ActivityActionType type, Consumer<Result> callback) {
-        core.execute(() -> openActivityInvite(pointer, type.ordinal(), Objects.requireNonNull(callback)));
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.OPEN_ACTIVITY_INVITE, callback);
+        core.executeRequest(() -> backend.openActivityInvite(type, traced));
+    }
+
+    /**
+     * <p>Opens the overlay and prepares a join/spectate invitation to send.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param type Type of the invitation
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #openActivityInvite(ActivityActionType, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay#openactivityinvite">
+     *     https://discordapp.com/developers/docs/game-sdk/overlay#openactivityinvite</a>
+     */
+    public CompletableFuture<Void> openActivityInviteAsync(ActivityActionType type, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        openActivityInvite(type, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -106,7 +165,27 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#openguildinvite</a>
      */
     public void openGuildInvite(String code, Consumer<Result> callback) {
-        core.execute(() -> openGuildInvite(pointer, code, Objects.requireNonNull(callback)));
+        Objects.requireNonNull(code);
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.OPEN_GUILD_INVITE, callback);
+        core.executeRequest(() -> backend.openGuildInvite(code, traced));
+    }
+
+    /**
+     * <p>Opens the overlay and attempts to join a guild with an invite code.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param code Invite code for a guild
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #openGuildInvite(String, Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay#openguildinvite">
+     *     https://discordapp.com/developers/docs/game-sdk/overlay#openguildinvite</a>
+     */
+    public CompletableFuture<Void> openGuildInviteAsync(String code, Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        openGuildInvite(code, DiscordUtils.completer(future, executor));
+        return future;
     }
 
     /**
@@ -127,18 +206,77 @@ public class OverlayManager {
      *     https://discordapp.com/developers/docs/game-sdk/overlay#openvoicesettings</a>
      */
     public void openVoiceSettings(Consumer<Result> callback) {
-        core.execute(() -> openVoiceSettings(pointer, Objects.requireNonNull(callback)));
+        Objects.requireNonNull(callback);
+        Consumer<Result> traced = CallbackEvent.trace(SdkOperation.OPEN_VOICE_SETTINGS, callback);
+        core.executeRequest(() -> backend.openVoiceSettings(traced));
+    }
+
+    /**
+     * <p>Opens the overlay and shows a widget to adjust the user's application specific voice settings.</p>
+     * <p>The returned future is completed on the given {@link Executor},
+     * exceptionally with a {@link GameSDKException} if the {@link Result} is not {@link Result#OK}.</p>
+     * @param executor Executor to complete the future on
+     * @return A future completed once the operation finished
+     * @see #openVoiceSettings(Consumer)
+     * @see <a href="https://discordapp.com/developers/docs/game-sdk/overlay#openvoicesettings">
+     *     https://discordapp.com/developers/docs/game-sdk/overlay#openvoicesettings</a>
+     */
+    public CompletableFuture<Void> openVoiceSettingsAsync(Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        openVoiceSettings(DiscordUtils.completer(future, executor));
+        return future;
+    }
+
+    // calls the overlay manager of Discord's native library
+    private static final class NativeOverlayBackend implements OverlayBackend {
+        private final long pointer;
+        private final long callbackPool;
+
+        private NativeOverlayBackend(long pointer, long callbackPool) {
+            this.pointer = pointer;
+            this.callbackPool = callbackPool;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return OverlayManager.isEnabled(pointer);
+        }
+
+        @Override
+        public boolean isLocked() {
+            return OverlayManager.isLocked(pointer);
+        }
+
+        @Override
+        public void setLocked(boolean locked, Consumer<Result> callback) {
+            OverlayManager.setLocked(pointer, callbackPool, locked, callback);
+        }
+
+        @Override
+        public void openActivityInvite(ActivityActionType type, Consumer<Result> callback) {
+            OverlayManager.openActivityInvite(pointer, callbackPool, type.ordinal(), callback);
+        }
+
+        @Override
+        public void openGuildInvite(String code, Consumer<Result> callback) {
+            OverlayManager.openGuildInvite(pointer, callbackPool, code, callback);
+        }
+
+        @Override
+        public void openVoiceSettings(Consumer<Result> callback) {
+            OverlayManager.openVoiceSettings(pointer, callbackPool, callback);
+        }
     }
 
-    private native boolean isEnabled(long pointer);
+    private static native boolean isEnabled(long pointer);
 
-    private native boolean isLocked(long pointer);
+    private static native boolean isLocked(long pointer);
 
-    private native void setLocked(long pointer, boolean locked, Consumer<Result> callback);
+    private static native void setLocked(long pointer, long callbackPool, boolean locked, Consumer<Result> callback);
 
-    private native void openActivityInvite(long pointer, int type, Consumer<Result> callback);
+    private static native void openActivityInvite(long pointer, long callbackPool, int type, Consumer<Result> callback);
 
-    private native void openGuildInvite(long pointer, String code, Consumer<Result> callback);
+    private static native void openGuildInvite(long pointer, long callbackPool, String code, Consumer<Result> callback);
 
-    private native void openVoiceSettings(long pointer, Consumer<Result> callback);
+    private static native void openVoiceSettings(long pointer, long callbackPool, Consumer<Result> callback);
 }
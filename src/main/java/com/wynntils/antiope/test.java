@@ -45,11 +45,11 @@ public class test {
         activity.assets().setSmallImage("test2");
         activity.assets().setSmallText("this is a less big image");
 
+        core.callbackPump().start();
         core.activityManager().updateActivity(activity);
         while (true) {
             try {
-                core.runCallbacks();
-                Thread.sleep(16);
+                Thread.sleep(Long.MAX_VALUE);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
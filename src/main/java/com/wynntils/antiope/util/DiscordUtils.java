@@ -3,8 +3,11 @@ package com.wynntils.antiope.util;
 import com.wynntils.antiope.core.type.GameSDKException;
 import com.wynntils.antiope.core.type.Result;
 import java.time.Instant;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -42,6 +45,29 @@ public class DiscordUtils {
         };
     }
 
+    /**
+     * Creates a {@link Consumer} that takes a {@link Result} and then completes a {@link CompletableFuture}
+     * on the given {@link Executor} instead of the thread running the callbacks.
+     * <p>
+     * If the executor rejects the completion, the future is completed
+     * on the thread running the callbacks instead.
+     * @param future A {@link CompletableFuture} that should be completed
+     * @param executor Executor to complete the future on (e.g. the game's main thread)
+     * @return A {@link Consumer} completing the future
+     * @see #completer(CompletableFuture)
+     */
+    public static Consumer<Result> completer(CompletableFuture<Void> future, Executor executor) {
+        Objects.requireNonNull(executor);
+        Consumer<Result> completer = completer(future);
+        return result -> {
+            try {
+                executor.execute(() -> completer.accept(result));
+            } catch (RejectedExecutionException e) {
+                completer.accept(result);
+            }
+        };
+    }
+
     /**
      * Creates a {@link BiConsumer} that takes a {@link Result} and then completes a {@link CompletableFuture}.
      * <p>
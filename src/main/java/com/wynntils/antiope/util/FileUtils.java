@@ -4,9 +4,35 @@ import com.wynntils.antiope.core.DiscordGameSDKCore;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class FileUtils {
+    /**
+     * System property to override the directory native libraries are cached in.
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "antiope.cacheDir";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    // written next to every native library by the build, see digest-native-libraries in the pom
+    private static final String DIGEST_SUFFIX = ".sha256";
+    private static final String LOCK_FILE_NAME = ".lock";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
     public static File createTemporaryDirectory() {
         File tempDir = new File(System.getProperty("java.io.tmpdir"), "java-discord-game-sdk-" + System.nanoTime());
 
@@ -43,4 +69,182 @@ public final class FileUtils {
 
         return temporaryFile;
     }
+
+    /**
+     * <p>Extracts a resource into the per-user cache directory, unless it is already there.</p>
+     * <p>The file is stored as {@code {cache}/{hash}/{file name}} where {@code hash} is the SHA-256 of the resource,
+     * so different versions never overwrite each other and the file name stays the same.
+     * The hash is read from the resource {@code {resource path}.sha256} generated by the build, so the resource
+     * itself is only read when it has to be extracted. Without that file, the resource is hashed instead.
+     * A cached file is only used if its content still has that hash. Several processes may extract the same
+     * resource at once: extraction is serialized by a file lock and the file only appears under its final name
+     * once it is complete.</p>
+     * <p>If the cache can not be used, the resource is extracted into a temporary directory
+     * like {@link #createTemporaryFileFromResource(String)} does.</p>
+     * @param resourcePath Absolute path of the resource in the classpath
+     * @return The extracted file
+     * @see #getCacheDirectory()
+     */
+    public static File getCachedFileFromResource(String resourcePath) {
+        byte[] hash = readDigest(resourcePath + DIGEST_SUFFIX);
+        if (hash == null) {
+            try (InputStream inputStream = DiscordGameSDKCore.class.getResourceAsStream(resourcePath)) {
+                if (inputStream == null) {
+                    throw new RuntimeException("Could not find '" + resourcePath + "' in classpath");
+                }
+                hash = hash(inputStream);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        String[] parts = resourcePath.split("/");
+        String fileName = parts[parts.length - 1];
+
+        try {
+            Path directory = getCacheDirectory().resolve(toHex(hash));
+            Path file = directory.resolve(fileName);
+
+            // fast path: another run already extracted the file
+            if (isValid(file, hash)) return file.toFile();
+
+            Files.createDirectories(directory);
+            // file locks are held by the whole process, so threads have to be serialized separately
+            synchronized (LOCKS.computeIfAbsent(directory, key -> new Object())) {
+                try (FileChannel lockChannel = FileChannel.open(
+                        directory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    // released when the channel is closed
+                    lockChannel.lock();
+                    // another process might have extracted it while we were waiting for the lock
+                    if (isValid(file, hash)) return file.toFile();
+
+                    deleteTemporaryFiles(directory);
+                    extract(resourcePath, directory, file, hash);
+                }
+            }
+            return file.toFile();
+        } catch (IOException | RuntimeException e) {
+            return createTemporaryFileFromResource(resourcePath);
+        }
+    }
+
+    /**
+     * <p>Returns the directory native libraries are cached in.</p>
+     * <p>This is the value of the system property {@value #CACHE_DIRECTORY_PROPERTY} if set.
+     * Otherwise it is {@code antiope} inside the platform's cache directory for the current user:
+     * {@code %LOCALAPPDATA%} on Windows, {@code ~/Library/Caches} on macOS and
+     * {@code $XDG_CACHE_HOME} or {@code ~/.cache} everywhere else.</p>
+     * @return The cache directory, which might not exist yet
+     */
+    public static Path getCacheDirectory() {
+        String override = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        if (override != null && !override.isEmpty()) return Paths.get(override);
+
+        String osName = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        String home = System.getProperty("user.home");
+
+        Path base;
+        if (osName.contains("windows")) {
+            String localAppData = System.getenv("LOCALAPPDATA");
+            base = localAppData != null ? Paths.get(localAppData) : Paths.get(home, "AppData", "Local");
+        } else if (osName.contains("mac os")) {
+            base = Paths.get(home, "Library", "Caches");
+        } else {
+            String xdgCacheHome = System.getenv("XDG_CACHE_HOME");
+            base = xdgCacheHome != null && !xdgCacheHome.isEmpty()
+                    ? Paths.get(xdgCacheHome)
+                    : Paths.get(home, ".cache");
+        }
+        return base.resolve("antiope");
+    }
+
+    private static void extract(String resourcePath, Path directory, Path file, byte[] hash) throws IOException {
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), TEMPORARY_SUFFIX);
+        try {
+            MessageDigest digest = newDigest();
+            try (InputStream inputStream = DiscordGameSDKCore.class.getResourceAsStream(resourcePath);
+                    OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                if (inputStream == null) throw new IOException("Could not find '" + resourcePath + "' in classpath");
+
+                byte[] buffer = new byte[64 * 1024];
+                for (int read; (read = inputStream.read(buffer)) != -1; ) {
+                    digest.update(buffer, 0, read);
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+            if (!Arrays.equals(digest.digest(), hash)) throw new IOException("'" + resourcePath + "' changed");
+
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static boolean isValid(Path file, byte[] hash) {
+        if (!Files.isRegularFile(file)) return false;
+
+        // a stream, since a mapping would keep the file locked on Windows until it is garbage collected
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return Arrays.equals(hash(inputStream), hash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // null if the digest is missing or malformed
+    private static byte[] readDigest(String digestPath) {
+        String hex;
+        try (InputStream inputStream = DiscordGameSDKCore.class.getResourceAsStream(digestPath)) {
+            if (inputStream == null) return null;
+            // just the hash, or the hash followed by the file name like sha256sum writes it
+            hex = new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII).trim().split("\\s+")[0];
+        } catch (IOException e) {
+            return null;
+        }
+
+        byte[] hash = new byte[newDigest().getDigestLength()];
+        if (hex.length() != hash.length * 2) return null;
+        for (int i = 0; i < hash.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) return null;
+            hash[i] = (byte) (high << 4 | low);
+        }
+        return hash;
+    }
+
+    private static void deleteTemporaryFiles(Path directory) throws IOException {
+        // left behind by a process that crashed while extracting
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMPORARY_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static byte[] hash(InputStream inputStream) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        for (int read; (read = inputStream.read(buffer)) != -1; ) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
 }
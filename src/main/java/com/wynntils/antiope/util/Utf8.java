@@ -0,0 +1,96 @@
+package com.wynntils.antiope.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Allocation-free UTF-8 encoding for the fixed-size string fields of native structures.</p>
+ * <p>Strings are encoded exactly like {@link String#getBytes(java.nio.charset.Charset)} with UTF-8 does:
+ * supplementary characters take four bytes and unpaired surrogates are replaced by {@code '?'}.
+ * Unlike JNI's modified UTF-8, this is what Discord expects.</p>
+ */
+public class Utf8 {
+    private Utf8() {
+        throw new RuntimeException("Utf8 is a static class and no instance of it can be obtained.");
+    }
+
+    /**
+     * Computes the number of bytes a string takes in UTF-8, without encoding it.
+     * @param value A string
+     * @return Length in UTF-8 bytes
+     */
+    public static int encodedLength(CharSequence value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (isSurrogatePair(value, i)) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * <p>Encodes a string into a buffer, followed by a terminating zero byte.</p>
+     * <p>The buffer is written with absolute puts, so its position and limit stay unchanged.
+     * If the string is too long, it is either truncated at the last code point that still fits
+     * or nothing is written at all.</p>
+     * @param value A string
+     * @param buffer Buffer to write to, with room for {@code maxLength + 1} bytes at {@code offset}
+     * @param offset Index to write the first byte to
+     * @param maxLength Maximal length in UTF-8 bytes, without the terminating zero byte
+     * @param truncate Whether to truncate a string that is too long instead of throwing
+     * @return Number of bytes written, without the terminating zero byte
+     * @throws IllegalArgumentException if {@code value} is too long and {@code truncate} is false
+     */
+    public static int encode(CharSequence value, ByteBuffer buffer, int offset, int maxLength, boolean truncate) {
+        // do not leave a partially written string behind
+        if (!truncate && encodedLength(value) > maxLength)
+            throw new IllegalArgumentException("max length is " + maxLength);
+
+        int position = offset;
+        int end = offset + maxLength;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (position + 1 > end) break;
+                buffer.put(position++, (byte) c);
+            } else if (c < 0x800) {
+                if (position + 2 > end) break;
+                buffer.put(position++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            } else if (isSurrogatePair(value, i)) {
+                if (position + 4 > end) break;
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+                buffer.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (position + 1 > end) break;
+                buffer.put(position++, (byte) '?');
+            } else {
+                if (position + 3 > end) break;
+                buffer.put(position++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        buffer.put(position, (byte) 0);
+        return position - offset;
+    }
+
+    private static boolean isSurrogatePair(CharSequence value, int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+}
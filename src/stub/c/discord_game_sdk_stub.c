@@ -0,0 +1,408 @@
+#include <stddef.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <time.h>
+#include <discord_game_sdk.h>
+
+/*
+ * Stand-in for Discord's library that needs no Discord client, for benchmarks and stress tests on Linux.
+ * It implements the core, activity manager and overlay manager. Other managers are not available.
+ *
+ * Like the real SDK, callbacks and events run on the thread calling run_callbacks, and a core must only be
+ * called from one thread at a time. Every core has its own state, so several cores can be used at once.
+ * The behaviour is configured through environment variables, read by every DiscordCreate:
+ *
+ *   DISCORD_STUB_LATENCY_MS       minimal time before a callback is completed (default 0)
+ *   DISCORD_STUB_JITTER_MS        random extra latency between 0 and this value (default 0)
+ *   DISCORD_STUB_RESULT           EDiscordResult for failed requests (default DiscordResult_InternalError)
+ *   DISCORD_STUB_FAILURE_RATE     fraction of requests between 0 and 1 that fail (default 0)
+ *   DISCORD_STUB_JOIN_RATE        activity join events per second (default 0)
+ *   DISCORD_STUB_SPECTATE_RATE    activity spectate events per second (default 0)
+ *   DISCORD_STUB_REQUEST_RATE     activity join request events per second (default 0)
+ *   DISCORD_STUB_OVERLAY_RATE     overlay toggle events per second (default 0)
+ *   DISCORD_STUB_SEED             seed for jitter and failures, so that runs can be repeated (default 1)
+ *
+ * Events are fired during run_callbacks, as many as are due since the last call.
+ */
+
+typedef void (*result_callback)(void* data, enum EDiscordResult result);
+
+struct PendingCallback {
+	void* data;
+	result_callback callback;
+	int64_t due;
+	enum EDiscordResult result;
+};
+
+struct EventSource {
+	double rate; // events per second
+	int64_t next; // time the next event is due
+	uint64_t count;
+};
+
+struct StubConfig {
+	int64_t latency;
+	int64_t jitter;
+	enum EDiscordResult failure_result;
+	double failure_rate;
+	uint64_t seed;
+};
+
+// the interfaces come first, the SDK only passes pointers to them around
+struct StubCore {
+	struct IDiscordCore core;
+	struct IDiscordActivityManager activity_manager;
+	struct IDiscordOverlayManager overlay_manager;
+	
+	struct StubConfig config;
+	struct DiscordCreateParams create_params;
+	
+	struct PendingCallback* pending;
+	int pending_count;
+	int pending_capacity;
+	
+	struct EventSource join_events;
+	struct EventSource spectate_events;
+	struct EventSource request_events;
+	struct EventSource overlay_events;
+	
+	struct DiscordActivity current_activity;
+	bool overlay_locked;
+	
+	enum EDiscordLogLevel log_level;
+	void* log_data;
+	void (*log_hook)(void* hook_data, enum EDiscordLogLevel level, const char* message);
+};
+
+#define STUB_CORE(pointer, member) ((struct StubCore*) ((char*) (pointer) - offsetof(struct StubCore, member)))
+
+static int64_t now_nanos(void)
+{
+	struct timespec now;
+	clock_gettime(CLOCK_MONOTONIC, &now);
+	return (int64_t) now.tv_sec * 1000000000 + now.tv_nsec;
+}
+
+// xorshift64*, a fixed generator keeps runs with the same seed comparable across platforms
+static uint64_t next_random(struct StubConfig* config)
+{
+	config->seed ^= config->seed >> 12;
+	config->seed ^= config->seed << 25;
+	config->seed ^= config->seed >> 27;
+	return config->seed * 2685821657736338717ULL;
+}
+
+// uniformly distributed in [0, 1)
+static double next_double(struct StubConfig* config)
+{
+	return (next_random(config) >> 11) * (1.0 / 9007199254740992.0);
+}
+
+static double env_double(const char* name, double fallback)
+{
+	const char* value = getenv(name);
+	if(!value || !*value)
+		return fallback;
+	
+	char* end;
+	double parsed = strtod(value, &end);
+	return *end ? fallback : parsed;
+}
+
+static void stub_log(struct StubCore* stub, enum EDiscordLogLevel level, const char* message)
+{
+	if(stub->log_hook && level <= stub->log_level)
+		stub->log_hook(stub->log_data, level, message);
+}
+
+static void init_source(struct EventSource* source, const char* name, int64_t now)
+{
+	source->rate = env_double(name, 0);
+	source->count = 0;
+	if(source->rate > 0)
+		source->next = now + (int64_t) (1e9 / source->rate);
+}
+
+static void read_config(struct StubCore* stub)
+{
+	struct StubConfig* config = &stub->config;
+	config->latency = (int64_t) (env_double("DISCORD_STUB_LATENCY_MS", 0) * 1e6);
+	config->jitter = (int64_t) (env_double("DISCORD_STUB_JITTER_MS", 0) * 1e6);
+	config->failure_result = (enum EDiscordResult) env_double("DISCORD_STUB_RESULT", DiscordResult_InternalError);
+	config->failure_rate = env_double("DISCORD_STUB_FAILURE_RATE", 0);
+	config->seed = (uint64_t) env_double("DISCORD_STUB_SEED", 1);
+	if(!config->seed)
+		config->seed = 1; // xorshift never leaves zero
+	
+	int64_t now = now_nanos();
+	init_source(&stub->join_events, "DISCORD_STUB_JOIN_RATE", now);
+	init_source(&stub->spectate_events, "DISCORD_STUB_SPECTATE_RATE", now);
+	init_source(&stub->request_events, "DISCORD_STUB_REQUEST_RATE", now);
+	init_source(&stub->overlay_events, "DISCORD_STUB_OVERLAY_RATE", now);
+}
+
+static void enqueue(struct StubCore* stub, void* data, result_callback callback)
+{
+	if(stub->pending_count == stub->pending_capacity)
+	{
+		int capacity = stub->pending_capacity ? stub->pending_capacity * 2 : 64;
+		struct PendingCallback* grown = realloc(stub->pending, capacity * sizeof(struct PendingCallback));
+		if(!grown)
+		{
+			callback(data, DiscordResult_InternalError);
+			return;
+		}
+		stub->pending = grown;
+		stub->pending_capacity = capacity;
+	}
+	
+	struct StubConfig* config = &stub->config;
+	struct PendingCallback* entry = &stub->pending[stub->pending_count++];
+	entry->data = data;
+	entry->callback = callback;
+	entry->due = now_nanos() + config->latency;
+	if(config->jitter > 0)
+		entry->due += (int64_t) (next_double(config) * config->jitter);
+	entry->result = config->failure_rate > 0 && next_double(config) < config->failure_rate
+		? config->failure_result : DiscordResult_Ok;
+}
+
+static enum EDiscordResult register_command(struct IDiscordActivityManager* manager, const char* command)
+{
+	return DiscordResult_Ok;
+}
+
+static enum EDiscordResult register_steam(struct IDiscordActivityManager* manager, uint32_t steam_id)
+{
+	return DiscordResult_Ok;
+}
+
+static void update_activity(struct IDiscordActivityManager* manager, struct DiscordActivity* activity, void* data, result_callback callback)
+{
+	struct StubCore* stub = STUB_CORE(manager, activity_manager);
+	// the real SDK copies the activity before returning as well
+	memcpy(&stub->current_activity, activity, sizeof(struct DiscordActivity));
+	enqueue(stub, data, callback);
+}
+
+static void clear_activity(struct IDiscordActivityManager* manager, void* data, result_callback callback)
+{
+	struct StubCore* stub = STUB_CORE(manager, activity_manager);
+	memset(&stub->current_activity, 0, sizeof(struct DiscordActivity));
+	enqueue(stub, data, callback);
+}
+
+static void send_request_reply(struct IDiscordActivityManager* manager, DiscordUserId user_id, enum EDiscordActivityJoinRequestReply reply, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, activity_manager), data, callback);
+}
+
+static void send_invite(struct IDiscordActivityManager* manager, DiscordUserId user_id, enum EDiscordActivityActionType type, const char* content, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, activity_manager), data, callback);
+}
+
+static void accept_invite(struct IDiscordActivityManager* manager, DiscordUserId user_id, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, activity_manager), data, callback);
+}
+
+static const struct IDiscordActivityManager activity_manager = {
+	.register_command = register_command,
+	.register_steam = register_steam,
+	.update_activity = update_activity,
+	.clear_activity = clear_activity,
+	.send_request_reply = send_request_reply,
+	.send_invite = send_invite,
+	.accept_invite = accept_invite
+};
+
+static void is_enabled(struct IDiscordOverlayManager* manager, bool* enabled)
+{
+	*enabled = true;
+}
+
+static void is_locked(struct IDiscordOverlayManager* manager, bool* locked)
+{
+	*locked = STUB_CORE(manager, overlay_manager)->overlay_locked;
+}
+
+static void set_locked(struct IDiscordOverlayManager* manager, bool locked, void* data, result_callback callback)
+{
+	struct StubCore* stub = STUB_CORE(manager, overlay_manager);
+	stub->overlay_locked = locked;
+	enqueue(stub, data, callback);
+}
+
+static void open_activity_invite(struct IDiscordOverlayManager* manager, enum EDiscordActivityActionType type, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, overlay_manager), data, callback);
+}
+
+static void open_guild_invite(struct IDiscordOverlayManager* manager, const char* code, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, overlay_manager), data, callback);
+}
+
+static void open_voice_settings(struct IDiscordOverlayManager* manager, void* data, result_callback callback)
+{
+	enqueue(STUB_CORE(manager, overlay_manager), data, callback);
+}
+
+static const struct IDiscordOverlayManager overlay_manager = {
+	.is_enabled = is_enabled,
+	.is_locked = is_locked,
+	.set_locked = set_locked,
+	.open_activity_invite = open_activity_invite,
+	.open_guild_invite = open_guild_invite,
+	.open_voice_settings = open_voice_settings
+};
+
+static void complete_due_callbacks(struct StubCore* stub, int64_t now)
+{
+	// callbacks may enqueue new requests, those complete during a later call
+	int count = stub->pending_count;
+	int kept = 0;
+	for(int i = 0; i < count; i++)
+	{
+		struct PendingCallback entry = stub->pending[i];
+		if(entry.due > now)
+		{
+			stub->pending[kept++] = entry;
+			continue;
+		}
+		entry.callback(entry.data, entry.result);
+	}
+	
+	memmove(stub->pending + kept, stub->pending + count, (stub->pending_count - count) * sizeof(struct PendingCallback));
+	stub->pending_count = kept + (stub->pending_count - count);
+}
+
+// returns the number of events of a source that are due, at most one second worth of them
+static uint64_t due_events(struct EventSource* source, int64_t now)
+{
+	if(source->rate <= 0)
+		return 0;
+	
+	int64_t interval = (int64_t) (1e9 / source->rate);
+	if(interval < 1)
+		interval = 1;
+	if(now - source->next > 1000000000)
+		source->next = now - 1000000000; // do not catch up on a long pause at once
+	
+	uint64_t due = 0;
+	while(source->next <= now)
+	{
+		source->next += interval;
+		due++;
+	}
+	return due;
+}
+
+static void fire_events(struct StubCore* stub, int64_t now)
+{
+	struct IDiscordActivityEvents* activity = stub->create_params.activity_events;
+	struct IDiscordOverlayEvents* overlay = stub->create_params.overlay_events;
+	void* event_data = stub->create_params.event_data;
+	char secret[64];
+	
+	for(uint64_t n = due_events(&stub->join_events, now); n > 0; n--)
+	{
+		snprintf(secret, sizeof(secret), "join-%llu", (unsigned long long) stub->join_events.count++);
+		if(activity && activity->on_activity_join)
+			activity->on_activity_join(event_data, secret);
+	}
+	
+	for(uint64_t n = due_events(&stub->spectate_events, now); n > 0; n--)
+	{
+		snprintf(secret, sizeof(secret), "spectate-%llu", (unsigned long long) stub->spectate_events.count++);
+		if(activity && activity->on_activity_spectate)
+			activity->on_activity_spectate(event_data, secret);
+	}
+	
+	for(uint64_t n = due_events(&stub->request_events, now); n > 0; n--)
+	{
+		struct DiscordUser user;
+		memset(&user, 0, sizeof(user));
+		user.id = 1000 + (DiscordUserId) (stub->request_events.count++ % 100);
+		snprintf(user.username, sizeof(user.username), "stub-user-%lld", (long long) user.id);
+		snprintf(user.discriminator, sizeof(user.discriminator), "0001");
+		if(activity && activity->on_activity_join_request)
+			activity->on_activity_join_request(event_data, &user);
+	}
+	
+	for(uint64_t n = due_events(&stub->overlay_events, now); n > 0; n--)
+	{
+		stub->overlay_locked = !stub->overlay_locked;
+		stub->overlay_events.count++;
+		if(overlay && overlay->on_toggle)
+			overlay->on_toggle(event_data, stub->overlay_locked);
+	}
+}
+
+static void destroy(struct IDiscordCore* core)
+{
+	// callbacks of a destroyed core are never called
+	struct StubCore* stub = STUB_CORE(core, core);
+	free(stub->pending);
+	free(stub);
+}
+
+static enum EDiscordResult run_callbacks(struct IDiscordCore* core)
+{
+	struct StubCore* stub = STUB_CORE(core, core);
+	int64_t now = now_nanos();
+	complete_due_callbacks(stub, now);
+	fire_events(stub, now);
+	return DiscordResult_Ok;
+}
+
+static void set_log_hook(struct IDiscordCore* core, enum EDiscordLogLevel min_level, void* hook_data, void (*hook)(void* hook_data, enum EDiscordLogLevel level, const char* message))
+{
+	struct StubCore* stub = STUB_CORE(core, core);
+	stub->log_level = min_level;
+	stub->log_data = hook_data;
+	stub->log_hook = hook;
+	
+	char message[256];
+	snprintf(message, sizeof(message), "Discord stub: latency %lld ns, jitter %lld ns, failure rate %g",
+		(long long) stub->config.latency, (long long) stub->config.jitter, stub->config.failure_rate);
+	stub_log(stub, DiscordLogLevel_Info, message);
+}
+
+static struct IDiscordActivityManager* get_activity_manager(struct IDiscordCore* core)
+{
+	return &STUB_CORE(core, core)->activity_manager;
+}
+
+static struct IDiscordOverlayManager* get_overlay_manager(struct IDiscordCore* core)
+{
+	return &STUB_CORE(core, core)->overlay_manager;
+}
+
+static const struct IDiscordCore discord_core = {
+	.destroy = destroy,
+	.run_callbacks = run_callbacks,
+	.set_log_hook = set_log_hook,
+	.get_activity_manager = get_activity_manager,
+	.get_overlay_manager = get_overlay_manager
+};
+
+enum EDiscordResult DISCORD_API DiscordCreate(DiscordVersion version, struct DiscordCreateParams* params, struct IDiscordCore** result)
+{
+	struct StubCore* stub = calloc(1, sizeof(struct StubCore));
+	if(!stub)
+		return DiscordResult_InternalError;
+	
+	stub->core = discord_core;
+	stub->activity_manager = activity_manager;
+	stub->overlay_manager = overlay_manager;
+	stub->log_level = DiscordLogLevel_Error;
+	// the event structs belong to the caller and stay valid until the core is destroyed
+	memcpy(&stub->create_params, params, sizeof(struct DiscordCreateParams));
+	read_config(stub);
+	
+	*result = &stub->core;
+	return DiscordResult_Ok;
+}
@@ -0,0 +1,116 @@
+package com.wynntils.antiope.backend.host;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.LogLevel;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.event.DiscordEventHandler;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class HostProcessBackendTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+    @Test
+    void listenersAddedAfterCreationReceiveEvents() throws InterruptedException {
+        DiscordEventHandler handler = new DiscordEventHandler();
+        try (CreateParams params = createParams()) {
+            params.registerEventHandler(handler);
+            try (DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+                AtomicReference<String> secret = new AtomicReference<>();
+                handler.addListener(DiscordEventType.ACTIVITY_JOIN, secret::set);
+
+                runUntil(core, () -> secret.get() != null);
+                assertEquals(SimulatedSdkHost.JOIN_SECRET, secret.get());
+            }
+        }
+    }
+
+    @Test
+    void crashedHostIsRestartedWithTheLastActivity() throws Exception {
+        DiscordEventHandler handler = new DiscordEventHandler();
+        AtomicReference<String> shown = new AtomicReference<>();
+        handler.addListener(DiscordEventType.ACTIVITY_SPECTATE, shown::set);
+        List<String> errors = new ArrayList<>();
+
+        try (CreateParams params = createParams()) {
+            params.registerEventHandler(handler);
+            try (DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+                core.setLogHook(LogLevel.INFO, (level, message) -> {
+                    if (level == LogLevel.ERROR) errors.add(message);
+                });
+
+                AtomicReference<Result> updated = new AtomicReference<>();
+                core.activityManager()
+                        .updateActivity(ActivitySpec.builder().setState("before crash").build(), updated::set);
+                runUntil(core, () -> updated.get() != null && "before crash".equals(shown.get()));
+                assertEquals(Result.OK, updated.get());
+
+                killHost();
+                shown.set(null);
+
+                // the request is already in the ring of the dead helper
+                AtomicReference<Result> lost = new AtomicReference<>();
+                core.activityManager().acceptRequest(1, lost::set);
+                runUntil(core, () -> lost.get() != null);
+                assertEquals(Result.SERVICE_UNAVAILABLE, lost.get());
+                assertTrue(
+                        errors.stream().anyMatch(message -> message.startsWith("The SDK host exited")),
+                        errors::toString);
+
+                // the new helper shows the activity again, without the game updating it
+                runUntil(core, () -> "before crash".equals(shown.get()));
+
+                AtomicReference<Result> afterRestart = new AtomicReference<>();
+                core.activityManager()
+                        .updateActivity(ActivitySpec.builder().setState("after crash").build(), afterRestart::set);
+                runUntil(core, () -> afterRestart.get() != null && "after crash".equals(shown.get()));
+                assertEquals(Result.OK, afterRestart.get());
+            }
+        }
+    }
+
+    private static HostProcessBackend backend() {
+        List<String> command = new ArrayList<>(HostProcessBackend.getDefaultJavaCommand());
+        command.add(SimulatedSdkHost.class.getName());
+        return HostProcessBackend.builder()
+                .setJavaCommand(command)
+                .setRestartDelay(Duration.ofMillis(50), Duration.ofSeconds(1))
+                .build();
+    }
+
+    private static CreateParams createParams() {
+        CreateParams params = new CreateParams();
+        params.setClientID(1);
+        params.setFlags(CreateParams.getNoRequireDiscordFlags());
+        return params;
+    }
+
+    // the helper is the only process started by the tests
+    private static void killHost() throws Exception {
+        for (ProcessHandle child : ProcessHandle.current().children().collect(Collectors.toList())) {
+            child.destroyForcibly();
+            child.onExit().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void runUntil(DiscordGameSDKCore core, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "timed out");
+            core.runCallbacks();
+            Thread.sleep(1);
+        }
+    }
+}
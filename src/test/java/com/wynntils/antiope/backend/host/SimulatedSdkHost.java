@@ -0,0 +1,44 @@
+package com.wynntils.antiope.backend.host;
+
+import com.wynntils.antiope.backend.simulator.DiscordSimulator;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>Runs the {@link SdkHost} on a {@link DiscordSimulator} instead of Discord's native library.</p>
+ * <p>The simulated client fires {@link #JOIN_SECRET} as a join event every few milliseconds, and echoes the state
+ * of every new activity as a spectate event, so the game can see what the helper's client shows.</p>
+ */
+final class SimulatedSdkHost {
+    static final String JOIN_SECRET = "join-secret";
+    private static final long EVENT_INTERVAL_MILLIS = 20;
+
+    private SimulatedSdkHost() {}
+
+    // the game appends the SdkHost class name and its arguments to the java command
+    public static void main(String[] args) {
+        DiscordSimulator simulator = DiscordSimulator.builder().build();
+        Thread client = new Thread(() -> simulateClient(simulator), "Simulated Discord Client");
+        client.setDaemon(true);
+        client.start();
+
+        SdkHost.host(Arrays.copyOfRange(args, 1, args.length), simulator);
+    }
+
+    private static void simulateClient(DiscordSimulator simulator) {
+        String shown = null;
+        try {
+            while (true) {
+                simulator.fireActivityJoin(JOIN_SECRET);
+                ActivitySpec activity = simulator.getActivity();
+                String state = activity == null ? null : activity.getState();
+                if (!Objects.equals(state, shown) && state != null) simulator.fireActivitySpectate(state);
+                shown = state;
+                Thread.sleep(EVENT_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            // the host exits
+        }
+    }
+}
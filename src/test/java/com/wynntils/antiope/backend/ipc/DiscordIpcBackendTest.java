@@ -0,0 +1,220 @@
+package com.wynntils.antiope.backend.ipc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.core.type.GameSDKException;
+import com.wynntils.antiope.core.type.Result;
+import com.wynntils.antiope.event.DiscordEventHandler;
+import com.wynntils.antiope.event.DiscordEventType;
+import com.wynntils.antiope.manager.activity.type.ActivityJoinRequestReply;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import com.wynntils.antiope.user.DiscordUser;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DiscordIpcBackendTest {
+    private static final long CLIENT_ID = 123456789L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private Path directory;
+    private FakeDiscordIpcServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        assumeTrue(DiscordIpcBackend.isSupported(), "unix domain sockets not supported");
+
+        directory = Files.createTempDirectory("antiope-ipc");
+        server = FakeDiscordIpcServer.start(directory.resolve("discord-ipc-0"));
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if (server != null) server.close();
+        if (directory != null) Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void handshakeWaitsForReady() {
+        try (CreateParams params = createParams();
+             DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+            assertEquals(CLIENT_ID, server.getClientId());
+            assertTrue(server.isConnected());
+        }
+    }
+
+    @Test
+    void handshakeWithoutAnswerIsNotRunning() throws IOException {
+        Path silent = directory.resolve("discord-ipc-1");
+        // accepts connections into the backlog, but never answers the handshake
+        try (ServerSocketChannel ignored = UnixSocketTransport.bind(silent);
+             CreateParams params = createParams()) {
+            DiscordIpcBackend backend = DiscordIpcBackend.builder()
+                    .setPath(silent)
+                    .setHandshakeTimeout(Duration.ofMillis(200))
+                    .build();
+            GameSDKException e = assertThrows(GameSDKException.class, () -> new DiscordGameSDKCore(params, backend));
+            assertEquals(Result.NOT_RUNNING, e.getResult());
+        } finally {
+            Files.deleteIfExists(silent);
+        }
+    }
+
+    @Test
+    void missingClientIsNotRunning() {
+        try (CreateParams params = createParams()) {
+            DiscordIpcBackend backend =
+                    DiscordIpcBackend.builder().setPath(directory.resolve("missing")).build();
+            GameSDKException e = assertThrows(GameSDKException.class, () -> new DiscordGameSDKCore(params, backend));
+            assertEquals(Result.NOT_RUNNING, e.getResult());
+        }
+    }
+
+    @Test
+    void setActivityIsAcknowledged() {
+        try (CreateParams params = createParams();
+             DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+            AtomicReference<Result> result = new AtomicReference<>();
+            core.activityManager()
+                    .updateActivity(ActivitySpec.builder().setState("In game").build(), result::set);
+
+            runUntil(core, () -> result.get() != null);
+            assertEquals(Result.OK, result.get());
+            assertEquals("In game", server.getActivity().get("state"));
+            assertEquals(1, server.getCommandCount("SET_ACTIVITY"));
+        }
+    }
+
+    @Test
+    void errorCodesMapToResults() {
+        Map<Integer, Result> codes = Map.of(
+                4000, Result.INVALID_PAYLOAD,
+                4002, Result.INVALID_COMMAND,
+                4003, Result.INVALID_GUILD,
+                4004, Result.INVALID_EVENT,
+                4005, Result.INVALID_CHANNEL,
+                4006, Result.INVALID_PERMISSIONS,
+                4008, Result.INVALID_ORIGIN,
+                4009, Result.INVALID_ACCESS_TOKEN,
+                5000, Result.OAUTH2_ERROR,
+                1000, Result.INTERNAL_ERROR);
+
+        try (CreateParams params = createParams();
+             DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+            for (Map.Entry<Integer, Result> code : codes.entrySet()) {
+                server.failCommand("SET_ACTIVITY", code.getKey(), "failed");
+                AtomicReference<Result> result = new AtomicReference<>();
+                core.activityManager().clearActivity(result::set);
+
+                runUntil(core, () -> result.get() != null);
+                assertEquals(code.getValue(), result.get(), "code " + code.getKey());
+            }
+        }
+    }
+
+    @Test
+    void requestsInFlightAreAnsweredByNonce() {
+        int count = 20;
+        server.setLatency(Duration.ofMillis(100));
+        server.failCommand("SEND_ACTIVITY_JOIN_INVITE", 4006, "not allowed");
+
+        try (CreateParams params = createParams();
+             DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+            List<AtomicReference<Result>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                AtomicReference<Result> result = new AtomicReference<>();
+                results.add(result);
+                if (i % 2 == 0) {
+                    core.activityManager()
+                            .updateActivity(ActivitySpec.builder().setState("state " + i).build(), result::set);
+                } else {
+                    core.activityManager().sendRequestReply(i, ActivityJoinRequestReply.YES, result::set);
+                }
+            }
+            assertEquals(count, core.getCallbackPoolStats().getLive());
+
+            runUntil(core, () -> results.stream().allMatch(result -> result.get() != null));
+            for (int i = 0; i < count; i++) {
+                assertEquals(i % 2 == 0 ? Result.OK : Result.INVALID_PERMISSIONS, results.get(i).get(), "request " + i);
+            }
+            assertEquals(0, core.getCallbackPoolStats().getLive());
+        }
+    }
+
+    @Test
+    void closedConnectionCompletesPendingRequests() {
+        server.setLatency(Duration.ofSeconds(30));
+
+        try (CreateParams params = createParams();
+             DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+            AtomicReference<Result> pending = new AtomicReference<>();
+            core.activityManager().clearActivity(pending::set);
+            runUntil(core, () -> server.getCommandCount("SET_ACTIVITY") == 1);
+
+            server.disconnect(1000, "Discord quit");
+            runUntil(core, () -> pending.get() != null);
+            assertEquals(Result.NOT_RUNNING, pending.get());
+
+            AtomicReference<Result> after = new AtomicReference<>();
+            core.activityManager().clearActivity(after::set);
+            runUntil(core, () -> after.get() != null);
+            assertEquals(Result.NOT_RUNNING, after.get());
+        }
+    }
+
+    @Test
+    void listenersAddedAfterCreationReceiveEvents() {
+        DiscordEventHandler handler = new DiscordEventHandler();
+        try (CreateParams params = createParams()) {
+            params.registerEventHandler(handler);
+            try (DiscordGameSDKCore core = new DiscordGameSDKCore(params, backend())) {
+                AtomicReference<String> secret = new AtomicReference<>();
+                AtomicReference<DiscordUser> user = new AtomicReference<>();
+                handler.addListener(DiscordEventType.ACTIVITY_JOIN, secret::set);
+                handler.addListener(DiscordEventType.ACTIVITY_JOIN_REQUEST, user::set);
+                runUntil(core, () -> server.getSubscriptions().size() == 3);
+
+                server.fireActivityJoin("join-secret");
+                server.fireActivityJoinRequest(new DiscordUser(42, "someone", "0001", "avatar", false));
+                runUntil(core, () -> secret.get() != null && user.get() != null);
+                assertEquals("join-secret", secret.get());
+                assertEquals(42, user.get().getUserId());
+                assertEquals("someone", user.get().getUsername());
+            }
+        }
+    }
+
+    private DiscordIpcBackend backend() {
+        return DiscordIpcBackend.builder().setPath(server.getPath()).setHandshakeTimeout(TIMEOUT).build();
+    }
+
+    private static CreateParams createParams() {
+        CreateParams params = new CreateParams();
+        params.setClientID(CLIENT_ID);
+        return params;
+    }
+
+    private static void runUntil(DiscordGameSDKCore core, BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "timed out");
+            core.runCallbacks();
+            Thread.onSpinWait();
+        }
+    }
+}
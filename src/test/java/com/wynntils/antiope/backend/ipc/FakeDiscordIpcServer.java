@@ -0,0 +1,325 @@
+package com.wynntils.antiope.backend.ipc;
+
+import com.wynntils.antiope.user.DiscordUser;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A stand-in for the Discord client's IPC endpoint, for tests of the {@link DiscordIpcBackend}.</p>
+ * <p>The server listens on a unix domain socket and serves one connection at a time. It answers the handshake,
+ * acknowledges every command after a configurable latency, optionally fails commands with an RPC error and sends
+ * events to subscribed clients. It requires Java 16 or newer.</p>
+ */
+final class FakeDiscordIpcServer implements AutoCloseable {
+    private final Path path;
+    private final ServerSocketChannel server;
+    private final Thread acceptor;
+    // all frames are written by this thread, in the order they are due
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Fake Discord IPC Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> commandCounts = new ConcurrentHashMap<>();
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile long latencyNanos = 0;
+    private volatile Map<String, Object> activity;
+    private volatile long clientId;
+    private volatile IpcChannel connection;
+    private volatile boolean open = true;
+
+    private FakeDiscordIpcServer(Path path) throws IOException {
+        this.path = path;
+        this.server = UnixSocketTransport.bind(path);
+        this.acceptor = new Thread(this::acceptConnections, "Fake Discord IPC Server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts a server listening on a new socket.
+     * @param path Path of the socket, the file must not exist
+     * @return The running server
+     * @throws IOException if the socket can not be bound
+     * @throws UnsupportedOperationException if this Java version does not support unix domain sockets
+     */
+    static FakeDiscordIpcServer start(Path path) throws IOException {
+        return new FakeDiscordIpcServer(path);
+    }
+
+    /**
+     * Gets the path the server listens on.
+     * @return Path of the socket
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the time until commands are acknowledged, events are not delayed.
+     * @param latency Latency of the responses
+     */
+    void setLatency(Duration latency) {
+        if (latency.isNegative()) throw new IllegalArgumentException("Negative latency");
+
+        this.latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * Fails all following commands with an RPC error, until {@link #clearFailures()}.
+     * @param command RPC command, like {@code SET_ACTIVITY}
+     * @param code RPC error code, like 4000 for an invalid payload
+     * @param message Error message
+     */
+    void failCommand(String command, int code, String message) {
+        failures.put(command, new Failure(code, Objects.requireNonNull(message)));
+    }
+
+    /**
+     * Acknowledges all commands again.
+     */
+    void clearFailures() {
+        failures.clear();
+    }
+
+    /**
+     * Gets how often a command has been received.
+     * @param command RPC command, like {@code SET_ACTIVITY}
+     * @return Number of received commands
+     */
+    long getCommandCount(String command) {
+        AtomicLong count = commandCounts.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Gets the activity set by the last successful {@code SET_ACTIVITY}.
+     * @return The activity as parsed JSON objects, {@code null} if none is set
+     */
+    Map<String, Object> getActivity() {
+        return activity;
+    }
+
+    /**
+     * Gets the client ID sent with the last handshake.
+     * @return The client ID, 0 if no client connected yet
+     */
+    long getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Gets the events the connected client subscribed to.
+     * @return Names of the RPC events, like {@code ACTIVITY_JOIN}
+     */
+    Set<String> getSubscriptions() {
+        return Collections.unmodifiableSet(subscriptions);
+    }
+
+    /**
+     * Returns true while a client is connected.
+     * @return True if a client is connected
+     */
+    boolean isConnected() {
+        return connection != null;
+    }
+
+    /**
+     * Sends an {@code ACTIVITY_JOIN} event if the client subscribed to it.
+     * @param secret Join secret
+     */
+    void fireActivityJoin(String secret) {
+        StringBuilder data = new StringBuilder("{\"secret\":");
+        dispatch("ACTIVITY_JOIN", Json.quote(data, secret).append('}'));
+    }
+
+    /**
+     * Sends an {@code ACTIVITY_SPECTATE} event if the client subscribed to it.
+     * @param secret Spectate secret
+     */
+    void fireActivitySpectate(String secret) {
+        StringBuilder data = new StringBuilder("{\"secret\":");
+        dispatch("ACTIVITY_SPECTATE", Json.quote(data, secret).append('}'));
+    }
+
+    /**
+     * Sends an {@code ACTIVITY_JOIN_REQUEST} event if the client subscribed to it.
+     * @param user User asking to join
+     */
+    void fireActivityJoinRequest(DiscordUser user) {
+        StringBuilder data = new StringBuilder("{\"user\":{\"id\":\"");
+        data.append(Long.toUnsignedString(user.getUserId())).append("\",\"username\":");
+        Json.quote(data, user.getUsername()).append(",\"discriminator\":");
+        Json.quote(data, user.getDiscriminator()).append(",\"avatar\":");
+        Json.quote(data, user.getAvatar()).append(",\"bot\":").append(user.isBot()).append("}}");
+        dispatch("ACTIVITY_JOIN_REQUEST", data);
+    }
+
+    /**
+     * Closes the connection of the client like the Discord client does when it quits.
+     * @param code RPC close code
+     * @param message Reason for closing
+     */
+    void disconnect(int code, String message) {
+        StringBuilder payload = new StringBuilder("{\"code\":").append(code).append(",\"message\":");
+        Json.quote(payload, message).append('}');
+        IpcChannel channel = connection;
+        if (channel == null) return;
+
+        writer.execute(() -> {
+            write(channel, IpcChannel.OP_CLOSE, payload);
+            closeConnection(channel);
+        });
+    }
+
+    private void dispatch(String event, StringBuilder data) {
+        if (!subscriptions.contains(event)) return;
+
+        StringBuilder payload = new StringBuilder("{\"cmd\":\"DISPATCH\",\"evt\":\"").append(event);
+        payload.append("\",\"data\":").append(data).append(",\"nonce\":null}");
+        IpcChannel channel = connection;
+        if (channel != null) writer.execute(() -> write(channel, IpcChannel.OP_FRAME, payload));
+    }
+
+    private void acceptConnections() {
+        while (open) {
+            IpcChannel channel;
+            try {
+                SocketChannel socket = server.accept();
+                channel = new IpcChannel(new UnixSocketTransport(socket));
+            } catch (IOException e) {
+                // closed
+                return;
+            }
+
+            subscriptions.clear();
+            connection = channel;
+            try {
+                while (connection == channel) {
+                    if (channel.receive((opcode, payload) -> onFrame(channel, opcode, payload)) < 0) break;
+                }
+            } catch (IOException e) {
+                // the client is gone
+            }
+            closeConnection(channel);
+        }
+    }
+
+    private void onFrame(IpcChannel channel, int opcode, CharSequence frame) {
+        switch (opcode) {
+            case IpcChannel.OP_HANDSHAKE:
+                clientId = Json.number(Json.object(Json.parse(frame)), "client_id");
+                writer.execute(() -> write(
+                        channel,
+                        IpcChannel.OP_FRAME,
+                        "{\"cmd\":\"DISPATCH\",\"evt\":\"READY\",\"data\":{\"v\":1,\"user\":{\"id\":\"1\","
+                                + "\"username\":\"Fake\",\"discriminator\":\"0000\",\"avatar\":null}},"
+                                + "\"nonce\":null}"));
+                break;
+            case IpcChannel.OP_FRAME:
+                onCommand(channel, Json.object(Json.parse(frame)));
+                break;
+            case IpcChannel.OP_PING:
+                String ping = frame.toString();
+                writer.execute(() -> write(channel, IpcChannel.OP_PONG, ping));
+                break;
+            case IpcChannel.OP_CLOSE:
+                writer.execute(() -> closeConnection(channel));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onCommand(IpcChannel channel, Map<String, Object> message) {
+        String command = Json.string(message, "cmd");
+        String nonce = Json.string(message, "nonce");
+        if (command == null || nonce == null) return;
+
+        commandCounts.computeIfAbsent(command, key -> new AtomicLong()).incrementAndGet();
+        Map<String, Object> args = Json.object(message.get("args"));
+        StringBuilder response = new StringBuilder("{\"cmd\":\"").append(command).append("\",\"nonce\":");
+        Json.quote(response, nonce);
+
+        Failure failure = failures.get(command);
+        if (failure != null) {
+            response.append(",\"evt\":\"ERROR\",\"data\":{\"code\":").append(failure.code).append(",\"message\":");
+            Json.quote(response, failure.message).append("}}");
+        } else if ("SUBSCRIBE".equals(command)) {
+            String event = Json.string(message, "evt");
+            if (event != null) subscriptions.add(event);
+            response.append(",\"evt\":null,\"data\":{\"evt\":");
+            Json.quote(response, String.valueOf(event)).append("}}");
+        } else {
+            if ("SET_ACTIVITY".equals(command)) activity = Json.object(args == null ? null : args.get("activity"));
+            response.append(",\"evt\":null,\"data\":{}}");
+        }
+
+        writer.schedule(
+                () -> write(channel, IpcChannel.OP_FRAME, response), latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void write(IpcChannel channel, int opcode, CharSequence payload) {
+        if (connection != channel) return;
+
+        try {
+            // the socket blocks, so everything is written
+            channel.send(opcode, payload);
+        } catch (IOException e) {
+            closeConnection(channel);
+        }
+    }
+
+    private void closeConnection(IpcChannel channel) {
+        if (connection == channel) connection = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    /**
+     * Stops the server, closes the connection and deletes the socket file.
+     * @throws IOException if the socket can not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        open = false;
+        server.close();
+        IpcChannel channel = connection;
+        if (channel != null) closeConnection(channel);
+        writer.shutdownNow();
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static final class Failure {
+        private final int code;
+        private final String message;
+
+        private Failure(int code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.wynntils.antiope.core;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.wynntils.antiope.backend.simulator.DiscordSimulator;
+import com.wynntils.antiope.core.type.CreateParams;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class CorePoolTest {
+    private static final int ROUNDS = 500;
+    private static final int CORES = 8;
+
+    @Test
+    void coresAddedWhileClosingAreStopped() throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            List<CreateParams> params = new ArrayList<>();
+            List<DiscordGameSDKCore> cores = new ArrayList<>();
+            for (int i = 0; i < CORES; i++) {
+                CreateParams created = new CreateParams();
+                created.setClientID(1);
+                params.add(created);
+                cores.add(new DiscordGameSDKCore(created, DiscordSimulator.builder().build()));
+            }
+
+            CorePool pool = new CorePool();
+            // the pool is closed while the other cores are being added
+            CountDownLatch firstAdded = new CountDownLatch(1);
+            Thread adder = new Thread(() -> {
+                for (DiscordGameSDKCore core : cores) {
+                    try {
+                        pool.add(core);
+                    } catch (IllegalStateException e) {
+                        // closed first
+                    }
+                    firstAdded.countDown();
+                }
+            });
+            adder.start();
+            firstAdded.await();
+            pool.close();
+            adder.join();
+
+            // a core is either rejected or stopped by close, never left attached to the stopped pool
+            for (DiscordGameSDKCore core : cores) {
+                assertFalse(core.callbackPump().isRunning(), "round " + round);
+                assertNull(core.callbackPump().getPool(), "round " + round);
+                core.close();
+            }
+            params.forEach(CreateParams::close);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.wynntils.antiope.manager.activity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.wynntils.antiope.backend.simulator.DiscordSimulator;
+import com.wynntils.antiope.core.DiscordGameSDKCore;
+import com.wynntils.antiope.core.type.CreateParams;
+import com.wynntils.antiope.manager.activity.type.Activity;
+import com.wynntils.antiope.manager.activity.type.ActivitySpec;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class PresenceUpdaterTest {
+    private static boolean libraryLoaded;
+
+    // Activity is a native structure, without the native build there is nothing to test
+    @BeforeAll
+    static void loadLibrary() {
+        try {
+            DiscordGameSDKCore.loadLibrary();
+            libraryLoaded = true;
+        } catch (RuntimeException | LinkageError e) {
+            libraryLoaded = false;
+        }
+    }
+
+    @Test
+    void retriesRateLimitedUpdateThatIsRequestedAgain() throws InterruptedException {
+        assumeTrue(libraryLoaded, "native library not available");
+
+        DiscordSimulator simulator = DiscordSimulator.builder()
+                .setRateLimit(1, Duration.ofMillis(300))
+                .setRateLimitPolicy(DiscordSimulator.RateLimitPolicy.REJECT)
+                .build();
+        try (CreateParams params = new CreateParams();
+             DiscordGameSDKCore core = createCore(params, simulator);
+             PresenceUpdater updater = new PresenceUpdater(core.activityManager(), 5, Duration.ofMillis(50));
+             Activity activity = new Activity()) {
+            activity.setState("first");
+            updater.update(activity);
+            core.runCallbacks();
+            assertEquals("first", stateOf(simulator));
+
+            // rejected, since the window allows only one update
+            activity.setState("second");
+            updater.update(activity);
+            core.runCallbacks();
+            assertEquals(1, updater.getRejectedUpdates());
+
+            // the game keeps passing the same activity every tick, this must not cancel the retry
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!"second".equals(stateOf(simulator)) && System.nanoTime() < deadline) {
+                updater.update(activity);
+                core.runCallbacks();
+                Thread.sleep(10);
+            }
+            assertEquals("second", stateOf(simulator));
+        }
+    }
+
+    private static DiscordGameSDKCore createCore(CreateParams params, DiscordSimulator simulator) {
+        params.setClientID(1);
+        params.setFlags(CreateParams.getNoRequireDiscordFlags());
+        return new DiscordGameSDKCore(params, simulator);
+    }
+
+    private static String stateOf(DiscordSimulator simulator) {
+        ActivitySpec activity = simulator.getActivity();
+        return activity == null ? null : activity.getState();
+    }
+}